@@ -1,20 +1,21 @@
 package cz.forgottenempire.servermanager;
 
+import cz.forgottenempire.servermanager.system.StartupMetrics;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.context.annotation.aspectj.EnableSpringConfigured;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableScheduling
 @EnableCaching
-@EnableSpringConfigured
 @EnableTransactionManagement
 public class ServerManagerApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(ServerManagerApplication.class, args);
+        SpringApplication application = new SpringApplication(ServerManagerApplication.class);
+        application.setApplicationStartup(StartupMetrics.createApplicationStartup());
+        application.run(args);
     }
 }
@@ -1,5 +1,7 @@
 package cz.forgottenempire.servermanager.additionalserver;
 
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.NotEmpty;
@@ -22,4 +24,6 @@ class AdditionalServer {
     @NotEmpty
     private String command;
     private String imageUrl;
+    @Embedded
+    private ResourceLimits resourceLimits = new ResourceLimits();
 }
@@ -1,5 +1,7 @@
 package cz.forgottenempire.servermanager.additionalserver;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupStats;
+import cz.forgottenempire.servermanager.serverinstance.dtos.ResourceLimitsDto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -12,4 +14,6 @@ class AdditionalServerDto {
     private boolean alive;
     private String startedAt;
     private String imageUrl;
+    private ResourceLimitsDto resourceLimits;
+    private CgroupStats resourceUsage;
 }
@@ -13,5 +13,5 @@ class AdditionalServerInstanceInfo {
     private final long id;
     private final boolean alive;
     private final LocalDateTime startedAt;
-    private final Process process;
+    private final ProcessHandle process;
 }
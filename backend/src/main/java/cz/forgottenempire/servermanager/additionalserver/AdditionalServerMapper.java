@@ -1,5 +1,8 @@
 package cz.forgottenempire.servermanager.additionalserver;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupStats;
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
+import cz.forgottenempire.servermanager.serverinstance.dtos.ResourceLimitsDto;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -11,6 +14,13 @@ interface AdditionalServerMapper {
     @Mapping(source = "additionalServer.imageUrl", target = "imageUrl")
     @Mapping(source = "instanceInfo.alive", target = "alive")
     @Mapping(source = "instanceInfo.startedAt", target = "startedAt")
-    AdditionalServerDto from(AdditionalServer additionalServer, AdditionalServerInstanceInfo instanceInfo);
+    @Mapping(source = "additionalServer.resourceLimits", target = "resourceLimits")
+    @Mapping(source = "resourceUsage", target = "resourceUsage")
+    AdditionalServerDto from(AdditionalServer additionalServer, AdditionalServerInstanceInfo instanceInfo,
+            CgroupStats resourceUsage);
+
+    ResourceLimitsDto mapResourceLimitsToDto(ResourceLimits resourceLimits);
+
+    ResourceLimits mapResourceLimitsDtoToEntity(ResourceLimitsDto resourceLimitsDto);
 
 }
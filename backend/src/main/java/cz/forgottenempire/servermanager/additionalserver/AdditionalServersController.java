@@ -1,6 +1,8 @@
 package cz.forgottenempire.servermanager.additionalserver;
 
 import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.serverinstance.dtos.ResourceLimitsDto;
+import jakarta.validation.Valid;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -9,8 +11,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -30,7 +34,8 @@ class AdditionalServersController {
     @GetMapping
     public ResponseEntity<AdditionalServersDto> getAdditionalServers() {
         List<AdditionalServerDto> servers = serversService.getAllServers().stream()
-                .map(model -> serverMapper.from(model, serversService.getServerInstanceInfo(model.getId())))
+                .map(model -> serverMapper.from(model, serversService.getServerInstanceInfo(model.getId()),
+                        serversService.getResourceUsage(model.getId()).orElse(null)))
                 .sorted(Comparator.comparing(AdditionalServerDto::getName))
                 .collect(Collectors.toList());
 
@@ -42,7 +47,8 @@ class AdditionalServersController {
         AdditionalServer server = serversService.getServer(serverId)
                 .orElseThrow(() -> new NotFoundException("Additional server ID " + serverId + " not found"));
 
-        return ResponseEntity.ok(serverMapper.from(server, serversService.getServerInstanceInfo(serverId)));
+        return ResponseEntity.ok(serverMapper.from(server, serversService.getServerInstanceInfo(serverId),
+                serversService.getResourceUsage(serverId).orElse(null)));
     }
 
     @PostMapping("/{serverId}/start")
@@ -56,4 +62,11 @@ class AdditionalServersController {
         serversService.stopServer(serverId);
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @PatchMapping("/{serverId}/limits")
+    public ResponseEntity<?> setResourceLimits(@PathVariable Long serverId,
+            @Valid @RequestBody ResourceLimitsDto resourceLimitsDto) {
+        serversService.setResourceLimits(serverId, serverMapper.mapResourceLimitsDtoToEntity(resourceLimitsDto));
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 }
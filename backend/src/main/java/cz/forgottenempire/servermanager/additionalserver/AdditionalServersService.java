@@ -1,44 +1,90 @@
 package cz.forgottenempire.servermanager.additionalserver;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
+import cz.forgottenempire.servermanager.cgroup.CgroupStats;
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
 import cz.forgottenempire.servermanager.common.ProcessFactory;
+import cz.forgottenempire.servermanager.common.ShutdownParticipant;
 import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.processtracking.ProcessTracker;
+import cz.forgottenempire.servermanager.processtracking.ReattachableProcess;
+import cz.forgottenempire.servermanager.processtracking.TrackedProcessType;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 @Slf4j
-class AdditionalServersService {
+class AdditionalServersService implements ShutdownParticipant {
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
 
     private final AdditionalServerRepository serverRepository;
     private final AdditionalServerInstanceInfoRepository instanceInfoRepository;
     private final ProcessFactory processFactory;
+    private final ProcessTracker processTracker;
+    private final CgroupService cgroupService;
     private final String logDirectory;
+    // guards every change of the instance info, so the exit of a process is never mistaken for the current instance
+    private final Object instanceInfoLock = new Object();
 
     @Autowired
     public AdditionalServersService(
             AdditionalServerRepository serverRepository,
             AdditionalServerInstanceInfoRepository instanceInfoRepository,
-            ProcessFactory processFactory, @Value("${directory.logs}") String logDirectory
+            ProcessFactory processFactory,
+            ProcessTracker processTracker,
+            CgroupService cgroupService,
+            @Value("${directory.logs}") String logDirectory
     ) {
         this.serverRepository = serverRepository;
         this.instanceInfoRepository = instanceInfoRepository;
         this.processFactory = processFactory;
+        this.processTracker = processTracker;
+        this.cgroupService = cgroupService;
         this.logDirectory = logDirectory;
+    }
 
-        // add shutdown hook to stop all running servers
-        Runtime.getRuntime().addShutdownHook(new Thread(() ->
-                instanceInfoRepository.getAll().forEach(server -> destroyWithTimeout(server.getProcess()))));
+    @EventListener(ApplicationReadyEvent.class)
+    public void reattachRunningServers() {
+        List<ReattachableProcess> reattachableProcesses =
+                processTracker.findReattachableProcesses(TrackedProcessType.ADDITIONAL_SERVER);
+        for (ReattachableProcess reattachableProcess : reattachableProcesses) {
+            long serverId = reattachableProcess.ownerId();
+            ProcessHandle process = reattachableProcess.process();
+            if (getServer(serverId).isEmpty()) {
+                log.warn("Additional server ID {} left running by the previous run no longer exists, "
+                        + "it won't be reattached (PID {})", serverId, process.pid());
+                processTracker.untrack(TrackedProcessType.ADDITIONAL_SERVER, serverId);
+                continue;
+            }
+
+            AdditionalServerInstanceInfo instanceInfo =
+                    new AdditionalServerInstanceInfo(serverId, true, reattachableProcess.startedAt(), process);
+            synchronized (instanceInfoLock) {
+                instanceInfoRepository.storeServerInstanceInfo(serverId, instanceInfo);
+            }
+            log.info("Reattached to additional server ID {} (PID {})", serverId, process.pid());
+            process.onExit().thenAccept(exitedProcess -> handleProcessExit(instanceInfo));
+        }
     }
 
     public Optional<AdditionalServer> getServer(Long id) {
@@ -49,56 +95,128 @@ class AdditionalServersService {
         return instanceInfoRepository.getServerInstanceInfo(id);
     }
 
+    public Optional<CgroupStats> getResourceUsage(Long id) {
+        return cgroupService.getAdditionalServerStats(id);
+    }
+
     public List<AdditionalServer> getAllServers() {
         return serverRepository.findAll();
     }
 
-    public void startServer(Long serverId) {
-        if (isAlive(serverId)) {
-            log.info("Server id {} already running", serverId);
-            return;
-        }
+    /**
+     * The limits are applied right away if the server is running.
+     */
+    public void setResourceLimits(Long serverId, ResourceLimits resourceLimits) {
+        AdditionalServer server = serverRepository
+                .findById(serverId)
+                .orElseThrow(() -> new NotFoundException("Additional server with ID " + serverId + " not found"));
+        server.setResourceLimits(resourceLimits);
+        serverRepository.save(server);
+        cgroupService.updateAdditionalServerLimits(serverId, resourceLimits);
+    }
 
+    public void startServer(Long serverId) {
         AdditionalServer settings = serverRepository
                 .findById(serverId)
                 .orElseThrow(() -> new NotFoundException("Additional server with ID " + serverId + " not found"));
 
-        try {
-            File executable = new File(settings.getCommand());
-            Process process = processFactory.startProcessWithRedirectedOutput(executable, Collections.emptyList(),
-                    getLogFile(settings.getName()));
+        synchronized (instanceInfoLock) {
+            if (isAlive(serverId)) {
+                log.info("Server id {} already running", serverId);
+                return;
+            }
 
-            instanceInfoRepository.storeServerInstanceInfo(serverId,
-                    new AdditionalServerInstanceInfo(serverId, true, LocalDateTime.now(), process));
-            log.info("Server '{}' started (PID {})", settings.getName(), process.pid());
-        } catch (IOException e) {
-            log.error("Could not start server {} with command {} in directory {}",
-                    settings.getName(), settings.getCommand(), settings.getServerDir(), e);
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Failed to start server '" + settings.getName() + "'");
+            try {
+                File executable = new File(settings.getCommand());
+                Process process = processFactory.startProcessWithRedirectedOutput(executable, Collections.emptyList(),
+                        getLogFile(settings.getName()));
+
+                AdditionalServerInstanceInfo instanceInfo =
+                        new AdditionalServerInstanceInfo(serverId, true, LocalDateTime.now(), process.toHandle());
+                instanceInfoRepository.storeServerInstanceInfo(serverId, instanceInfo);
+                long pid = process.pid();
+                log.info("Server '{}' started (PID {})", settings.getName(), pid);
+                cgroupService.assignAdditionalServerProcess(serverId, settings.getResourceLimits(), pid);
+                // handled only once the instance info is stored, as the lock is held until then
+                process.onExit().thenAccept(exitedProcess -> handleProcessExit(instanceInfo));
+                processTracker.track(TrackedProcessType.ADDITIONAL_SERVER, serverId, pid,
+                        instanceInfo.getStartedAt());
+            } catch (IOException e) {
+                log.error("Could not start server {} with command {} in directory {}",
+                        settings.getName(), settings.getCommand(), settings.getServerDir(), e);
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Failed to start server '" + settings.getName() + "'");
+            }
         }
     }
 
     public void stopServer(Long serverId) {
-        AdditionalServerInstanceInfo instanceInfo = instanceInfoRepository.getServerInstanceInfo(serverId);
-        Process process = instanceInfo.getProcess();
-        if (process == null) {
-            log.warn("Server ID {} could not be stopped because it's not running", serverId);
-            return;
-        }
+        ProcessHandle process;
+        synchronized (instanceInfoLock) {
+            process = instanceInfoRepository.getServerInstanceInfo(serverId).getProcess();
+            if (process == null) {
+                log.warn("Server ID {} could not be stopped because it's not running", serverId);
+                return;
+            }
 
+            // mark the server as stopped first so the exit of the process is not handled as a crash
+            instanceInfoRepository.storeServerInstanceInfo(serverId,
+                    new AdditionalServerInstanceInfo(serverId, false, null, null));
+            processTracker.untrack(TrackedProcessType.ADDITIONAL_SERVER, serverId);
+        }
         destroyWithTimeout(process);
-        instanceInfoRepository.storeServerInstanceInfo(serverId,
-                new AdditionalServerInstanceInfo(serverId, false, null, null));
         log.info("Server id {} stopped", serverId);
     }
 
+    void handleProcessExit(AdditionalServerInstanceInfo exitedInstance) {
+        long serverId = exitedInstance.getId();
+        synchronized (instanceInfoLock) {
+            // the server was stopped by the manager or started again in the meantime
+            if (instanceInfoRepository.getServerInstanceInfo(serverId) != exitedInstance) {
+                return;
+            }
+            instanceInfoRepository.storeServerInstanceInfo(serverId,
+                    new AdditionalServerInstanceInfo(serverId, false, null, null));
+            processTracker.untrack(TrackedProcessType.ADDITIONAL_SERVER, serverId);
+        }
+
+        String serverName = getServer(serverId).map(AdditionalServer::getName).orElse("<deleted>");
+        log.warn("Server '{}' (ID {}) likely crashed or was exited outside the admin UI. "
+                        + "Server was started on {} with process ID {}.",
+                serverName, serverId,
+                exitedInstance.getStartedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                exitedInstance.getProcess().pid());
+    }
+
+    @Override
+    public Collection<StoppingProcess> stopAllProcesses() {
+        if (processTracker.isKeepRunningOnShutdown()) {
+            log.info("Leaving additional servers running, they will be reattached on the next start");
+            return List.of();
+        }
+
+        List<StoppingProcess> stoppingProcesses = new ArrayList<>();
+        synchronized (instanceInfoLock) {
+            instanceInfoRepository.getAll().stream()
+                    .filter(instanceInfo -> instanceInfo.getProcess() != null && instanceInfo.getProcess().isAlive())
+                    .forEach(instanceInfo -> {
+                        long serverId = instanceInfo.getId();
+                        ProcessHandle process = instanceInfo.getProcess();
+                        instanceInfoRepository.storeServerInstanceInfo(serverId,
+                                new AdditionalServerInstanceInfo(serverId, false, null, null));
+                        process.descendants().forEach(ProcessHandle::destroy);
+                        process.destroy();
+                        stoppingProcesses.add(new StoppingProcess("Additional server ID " + serverId, process));
+                    });
+        }
+        return stoppingProcesses;
+    }
+
     private boolean isAlive(Long serverId) {
         AdditionalServerInstanceInfo instanceInfo = instanceInfoRepository.getServerInstanceInfo(serverId);
         return instanceInfo.isAlive();
     }
 
-    // TODO split log files automatically
     private File getLogFile(String serverName) {
         File logFile = new File(Path.of(logDirectory, sanitizeServerName(serverName), "log.txt").toUri());
         File parent = logFile.getParentFile();
@@ -113,22 +231,18 @@ class AdditionalServersService {
         return serverName.replaceAll("[^a-zA-Z0-9.\\-]", "_");
     }
 
-    private void destroyWithTimeout(Process process) {
+    private void destroyWithTimeout(ProcessHandle process) {
         process.descendants().forEach(ProcessHandle::destroy);
         process.destroy();
 
-        if (process.isAlive()) {
-            try {
-                Thread.sleep(30 * 1000L);
-            } catch (InterruptedException e) {
-                log.error("Thread interrupted");
-                Thread.currentThread().interrupt();
-            } finally {
-                if (process.isAlive()) {
-                    process.descendants().forEach(ProcessHandle::destroyForcibly);
-                    process.destroyForcibly();
-                }
-            }
+        try {
+            process.onExit().get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            log.error("Thread interrupted");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
         }
     }
 }
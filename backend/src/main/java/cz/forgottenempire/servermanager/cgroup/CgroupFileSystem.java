@@ -0,0 +1,98 @@
+package cz.forgottenempire.servermanager.cgroup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Access to a subtree of the cgroup v2 hierarchy delegated to the manager. Groups are directories below the root,
+ * limits and statistics are read and written through the interface files in them.
+ */
+public class CgroupFileSystem {
+
+    static final String CONTROLLERS = "cgroup.controllers";
+    static final String SUBTREE_CONTROL = "cgroup.subtree_control";
+    static final String PROCESSES = "cgroup.procs";
+
+    private final Path root;
+
+    public CgroupFileSystem(Path root) {
+        this.root = root;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public boolean isAvailable() {
+        return Files.isDirectory(root) && Files.isRegularFile(root.resolve(CONTROLLERS));
+    }
+
+    public Set<String> getAvailableControllers() throws IOException {
+        return Arrays.stream(read("", CONTROLLERS).split("\\s+"))
+                .filter(controller -> !controller.isBlank())
+                .collect(Collectors.toSet());
+    }
+
+    public boolean exists(String group) {
+        return Files.isDirectory(root.resolve(group));
+    }
+
+    public boolean exists(String group, String file) {
+        return Files.isRegularFile(root.resolve(group).resolve(file));
+    }
+
+    public void createGroup(String group) throws IOException {
+        Files.createDirectories(root.resolve(group));
+    }
+
+    /**
+     * Removes the group. The kernel allows that only once there are no processes left in it.
+     */
+    public void removeGroup(String group) throws IOException {
+        Files.deleteIfExists(root.resolve(group));
+    }
+
+    public List<String> getGroups() throws IOException {
+        try (Stream<Path> children = Files.list(root)) {
+            return children.filter(Files::isDirectory)
+                    .map(child -> child.getFileName().toString())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public List<Long> getProcesses(String group) throws IOException {
+        if (!exists(group, PROCESSES)) {
+            // the group is just being created or removed
+            return List.of();
+        }
+        return read(group, PROCESSES).lines()
+                .filter(line -> !line.isBlank())
+                .map(line -> Long.parseLong(line.trim()))
+                .toList();
+    }
+
+    public void addProcess(String group, long pid) throws IOException {
+        write(group, PROCESSES, String.valueOf(pid));
+    }
+
+    /**
+     * @param group name of the group, empty for the root
+     */
+    public String read(String group, String file) throws IOException {
+        return Files.readString(root.resolve(group).resolve(file));
+    }
+
+    public void write(String group, String file, String value) throws IOException {
+        // the kernel expects every value in a single write
+        Files.writeString(root.resolve(group).resolve(file), value, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+}
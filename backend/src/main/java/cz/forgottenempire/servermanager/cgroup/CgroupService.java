@@ -0,0 +1,269 @@
+package cz.forgottenempire.servermanager.cgroup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Puts every game server together with its headless clients, and every additional server, into its own cgroup (v2)
+ * with the configured memory limit, CPU weight and I/O weight, so a single misbehaving server can't starve the others.
+ * <p>
+ * The manager needs a delegated subtree of the cgroup hierarchy ({@code cgroups.root}, its own cgroup by default),
+ * e.g. a systemd service with {@code Delegate=yes}. Since cgroups with controllers enabled for their children can't contain processes
+ * themselves, the manager moves itself into the {@value MANAGER_GROUP} group first.
+ */
+@Service
+@Slf4j
+public class CgroupService {
+
+    static final String MANAGER_GROUP = "manager";
+    private static final List<String> CONTROLLERS = List.of("memory", "cpu", "io");
+    private static final long BYTES_IN_MEGABYTE = 1024 * 1024;
+    private static final Path CGROUP_MOUNT = Path.of("/sys/fs/cgroup");
+
+    private final CgroupFileSystem fileSystem;
+    private final boolean enabled;
+    private boolean available;
+
+    @Autowired
+    public CgroupService(
+            @Value("${cgroups.enabled:false}") boolean enabled,
+            @Value("${cgroups.root:}") String root
+    ) {
+        this(new CgroupFileSystem(root.isBlank() ? findOwnCgroup() : Path.of(root)), enabled);
+    }
+
+    CgroupService(CgroupFileSystem fileSystem, boolean enabled) {
+        this.fileSystem = fileSystem;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void initialize() {
+        if (!enabled) {
+            return;
+        }
+        if (!fileSystem.isAvailable()) {
+            log.warn("cgroup v2 hierarchy not found at {}, resource limits won't be applied", fileSystem.getRoot());
+            return;
+        }
+
+        try {
+            if (!fileSystem.getProcesses("").isEmpty()) {
+                fileSystem.createGroup(MANAGER_GROUP);
+                for (long pid : fileSystem.getProcesses("")) {
+                    fileSystem.addProcess(MANAGER_GROUP, pid);
+                }
+            }
+
+            Set<String> availableControllers = fileSystem.getAvailableControllers();
+            List<String> controllers = CONTROLLERS.stream()
+                    .filter(availableControllers::contains)
+                    .toList();
+            if (controllers.size() < CONTROLLERS.size()) {
+                log.warn("Only cgroup controllers {} are delegated to {}, some resource limits won't be applied",
+                        controllers, fileSystem.getRoot());
+            }
+            fileSystem.write("", CgroupFileSystem.SUBTREE_CONTROL,
+                    String.join(" ", controllers.stream().map(controller -> "+" + controller).toList()));
+            available = true;
+            log.info("Resource limits of servers enabled in cgroup {}", fileSystem.getRoot());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to set up cgroup {}, resource limits won't be applied", fileSystem.getRoot(), e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Moves a process of a game server, or one of its headless clients, into the cgroup of the server.
+     */
+    public void assignServerProcess(long serverId, ResourceLimits limits, long pid) {
+        assign(getServerGroup(serverId), limits, pid);
+    }
+
+    public void assignAdditionalServerProcess(long additionalServerId, ResourceLimits limits, long pid) {
+        assign(getAdditionalServerGroup(additionalServerId), limits, pid);
+    }
+
+    /**
+     * Changes the limits of a running server, does nothing if the server doesn't have a group.
+     */
+    public void updateServerLimits(long serverId, ResourceLimits limits) {
+        updateLimits(getServerGroup(serverId), limits);
+    }
+
+    /**
+     * Changes the limits of a running additional server, does nothing if the server doesn't have a group.
+     */
+    public void updateAdditionalServerLimits(long additionalServerId, ResourceLimits limits) {
+        updateLimits(getAdditionalServerGroup(additionalServerId), limits);
+    }
+
+    private synchronized void updateLimits(String group, ResourceLimits limits) {
+        if (!available || !fileSystem.exists(group)) {
+            return;
+        }
+
+        try {
+            applyLimits(group, limits);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to change limits of cgroup {}", group, e);
+        }
+    }
+
+    public Optional<CgroupStats> getServerStats(long serverId) {
+        return getStats(getServerGroup(serverId));
+    }
+
+    public Optional<CgroupStats> getAdditionalServerStats(long additionalServerId) {
+        return getStats(getAdditionalServerGroup(additionalServerId));
+    }
+
+    /**
+     * Removes groups of servers which are no longer running. Done periodically rather than when the processes exit,
+     * as the server and its headless clients exit independently.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public synchronized void removeEmptyGroups() {
+        if (!available) {
+            return;
+        }
+
+        List<String> groups;
+        try {
+            groups = fileSystem.getGroups();
+        } catch (IOException e) {
+            log.warn("Failed to list cgroups in {}", fileSystem.getRoot(), e);
+            return;
+        }
+        for (String group : groups) {
+            try {
+                if (!group.equals(MANAGER_GROUP) && fileSystem.getProcesses(group).isEmpty()) {
+                    fileSystem.removeGroup(group);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to remove unused cgroup {}", group, e);
+            }
+        }
+    }
+
+    private synchronized void assign(String group, ResourceLimits limits, long pid) {
+        if (!available) {
+            return;
+        }
+
+        try {
+            fileSystem.createGroup(group);
+            applyLimits(group, limits == null ? new ResourceLimits() : limits);
+            fileSystem.addProcess(group, pid);
+        } catch (IOException | RuntimeException e) {
+            // the process keeps running, just without the limits
+            log.error("Failed to move process {} to cgroup {}", pid, group, e);
+        }
+    }
+
+    private void applyLimits(String group, ResourceLimits limits) throws IOException {
+        Integer memoryMax = limits.getMemoryMaxMegabytes();
+        writeIfSupported(group, "memory.max", memoryMax == null ? "max" : String.valueOf(memoryMax * BYTES_IN_MEGABYTE));
+        writeIfSupported(group, "cpu.weight", String.valueOf(limits.getCpuWeight() == null ? 100 : limits.getCpuWeight()));
+        writeIfSupported(group, "io.weight",
+                "default " + (limits.getIoWeight() == null ? 100 : limits.getIoWeight()));
+    }
+
+    private void writeIfSupported(String group, String file, String value) throws IOException {
+        String controller = file.substring(0, file.indexOf('.'));
+        if (fileSystem.getAvailableControllers().contains(controller)) {
+            fileSystem.write(group, file, value);
+        }
+    }
+
+    private Optional<CgroupStats> getStats(String group) {
+        if (!available || !fileSystem.exists(group)) {
+            return Optional.empty();
+        }
+
+        try {
+            String memoryMax = readOrDefault(group, "memory.max", "max").trim();
+            return Optional.of(new CgroupStats(
+                    parseLong(readOrDefault(group, "memory.current", "0")),
+                    memoryMax.equals("max") ? null : parseLong(memoryMax),
+                    parseLong(readOrDefault(group, "memory.swap.current", "0")),
+                    readKeyedValue(group, "cpu.stat", "usage_usec"),
+                    readKeyedValue(group, "memory.events", "oom_kill"),
+                    readPressure(group, "cpu.pressure"),
+                    readPressure(group, "memory.pressure"),
+                    readPressure(group, "io.pressure")));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read resource usage of cgroup {}", group, e);
+            return Optional.empty();
+        }
+    }
+
+    private String readOrDefault(String group, String file, String defaultValue) throws IOException {
+        // files of controllers which are not enabled don't exist
+        if (!fileSystem.exists(group, file)) {
+            return defaultValue;
+        }
+        return fileSystem.read(group, file);
+    }
+
+    /**
+     * Reads a value from a flat keyed file, e.g. {@code usage_usec 1234} in {@code cpu.stat}.
+     */
+    private long readKeyedValue(String group, String file, String key) throws IOException {
+        return readOrDefault(group, file, "").lines()
+                .map(line -> line.trim().split("\\s+"))
+                .filter(fields -> fields.length == 2 && fields[0].equals(key))
+                .findFirst()
+                .map(fields -> parseLong(fields[1]))
+                .orElse(0L);
+    }
+
+    private PressureStall readPressure(String group, String file) throws IOException {
+        String content = readOrDefault(group, file, "");
+        return content.isBlank() ? null : PressureStall.parse(content);
+    }
+
+    private static long parseLong(String value) {
+        return Long.parseLong(value.trim());
+    }
+
+    /**
+     * @return the cgroup the manager was started in, which is the one delegated to it when running as a systemd
+     * service with {@code Delegate=yes}
+     */
+    private static Path findOwnCgroup() {
+        try {
+            // the only line in cgroup v2 is "0::/path/of/the/group"
+            return Files.readAllLines(Path.of("/proc/self/cgroup")).stream()
+                    .filter(line -> line.startsWith("0::"))
+                    .findFirst()
+                    .map(line -> CGROUP_MOUNT.resolve(line.substring(3).replaceFirst("^/", "")))
+                    .orElse(CGROUP_MOUNT);
+        } catch (IOException e) {
+            return CGROUP_MOUNT;
+        }
+    }
+
+    static String getServerGroup(long serverId) {
+        return "server-" + serverId;
+    }
+
+    static String getAdditionalServerGroup(long additionalServerId) {
+        return "additional-server-" + additionalServerId;
+    }
+}
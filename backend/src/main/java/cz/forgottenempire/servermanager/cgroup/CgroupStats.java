@@ -0,0 +1,20 @@
+package cz.forgottenempire.servermanager.cgroup;
+
+/**
+ * Resource usage of a cgroup as reported by the kernel.
+ *
+ * @param memoryMaxBytes limit of the memory, null if unlimited
+ * @param cpuUsageMicros total CPU time used by all processes of the group since it was created
+ * @param oomKills       count of processes killed because the group ran out of memory
+ */
+public record CgroupStats(
+        long memoryCurrentBytes,
+        Long memoryMaxBytes,
+        long swapCurrentBytes,
+        long cpuUsageMicros,
+        long oomKills,
+        PressureStall cpuPressure,
+        PressureStall memoryPressure,
+        PressureStall ioPressure
+) {
+}
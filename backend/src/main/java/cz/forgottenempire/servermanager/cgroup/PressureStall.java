@@ -0,0 +1,54 @@
+package cz.forgottenempire.servermanager.cgroup;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pressure stall information (PSI) of a resource, the share of time in % some or all tasks of the group were
+ * stalled waiting for it, averaged over the last 10 and 60 seconds.
+ *
+ * @param fullAvg10 null for CPU pressure on kernels which don't report it
+ */
+public record PressureStall(double someAvg10, double someAvg60, Double fullAvg10, Double fullAvg60) {
+
+    /**
+     * Parses the content of a {@code *.pressure} file, e.g.
+     * <pre>
+     * some avg10=0.00 avg60=0.00 avg300=0.00 total=0
+     * full avg10=0.00 avg60=0.00 avg300=0.00 total=0
+     * </pre>
+     *
+     * @throws IllegalArgumentException if the content is not valid
+     */
+    static PressureStall parse(String content) {
+        Map<String, Map<String, String>> lines = new HashMap<>();
+        content.lines()
+                .filter(line -> !line.isBlank())
+                .forEach(line -> {
+                    String[] fields = line.trim().split("\\s+");
+                    Map<String, String> values = new HashMap<>();
+                    for (int i = 1; i < fields.length; i++) {
+                        String[] keyValue = fields[i].split("=", 2);
+                        if (keyValue.length == 2) {
+                            values.put(keyValue[0], keyValue[1]);
+                        }
+                    }
+                    lines.put(fields[0], values);
+                });
+
+        Map<String, String> some = lines.get("some");
+        if (some == null) {
+            throw new IllegalArgumentException("Missing 'some' line in pressure stall information");
+        }
+        Map<String, String> full = lines.get("full");
+        try {
+            return new PressureStall(
+                    Double.parseDouble(some.get("avg10")),
+                    Double.parseDouble(some.get("avg60")),
+                    full == null ? null : Double.valueOf(full.get("avg10")),
+                    full == null ? null : Double.valueOf(full.get("avg60")));
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pressure stall information", e);
+        }
+    }
+}
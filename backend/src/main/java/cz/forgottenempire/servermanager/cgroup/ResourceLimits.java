@@ -0,0 +1,37 @@
+package cz.forgottenempire.servermanager.cgroup;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Limits of the cgroup a server runs in together with its headless clients. Applied only when cgroups are enabled,
+ * unset values keep the kernel defaults.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Embeddable
+public class ResourceLimits {
+
+    // hard limit of memory used by the whole group, processes are OOM killed above it
+    @Min(64)
+    @Column(name = "limit_memory_max_mb")
+    private Integer memoryMaxMegabytes;
+
+    // relative share of CPU time when CPUs are contended, 100 by default
+    @Min(1)
+    @Max(10000)
+    @Column(name = "limit_cpu_weight")
+    private Integer cpuWeight;
+
+    // relative share of disk bandwidth when disks are contended, 100 by default
+    @Min(1)
+    @Max(10000)
+    @Column(name = "limit_io_weight")
+    private Integer ioWeight;
+}
@@ -1,7 +1,17 @@
 package cz.forgottenempire.servermanager.common;
 
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryClient;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.http.HttpClient;
@@ -23,4 +33,48 @@ public class CommonConfiguration {
     public HttpClient httpClient() {
         return HttpClient.newHttpClient();
     }
+
+    @Bean(destroyMethod = "close")
+    public SourceQueryClient sourceQueryClient() {
+        return new SourceQueryClient();
+    }
+
+    /**
+     * Bounded caches whose entries expire, the specification applies to each cache separately.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.specification:maximumSize=5000,expireAfterWrite=30m}") String cacheSpecification) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(cacheSpecification);
+        return cacheManager;
+    }
+
+    /**
+     * Sends the statements of saving many entities, such as mods being installed, to the database in batches. Can be
+     * overridden by the spring.jpa.properties.hibernate.* properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, 50);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+
+    /**
+     * Beans which must be created at startup even with spring.main.lazy-initialization, as nothing else would create
+     * them: beans with scheduled jobs and the coordinator stopping the servers on shutdown.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) ->
+                beanType == ShutdownCoordinator.class || hasScheduledMethods(beanType);
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
 }
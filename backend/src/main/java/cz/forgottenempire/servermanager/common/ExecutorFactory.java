@@ -0,0 +1,82 @@
+package cz.forgottenempire.servermanager.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the named threads and executors of the subsystems doing blocking I/O, such as SteamCMD jobs, log capture,
+ * log followers and process watchdogs. With {@code spring.threads.virtual.enabled}, which also moves the handling of
+ * requests and the scheduled tasks to virtual threads, they run on virtual threads, so waiting for a process or a
+ * file does not occupy a platform thread. Otherwise, they run on daemon platform threads.
+ * <p>
+ * Executors keep their number of threads in both modes, as it limits how much work runs at once rather than how many
+ * threads are affordable.
+ */
+@Component
+@Slf4j
+public class ExecutorFactory {
+
+    private final boolean virtualThreads;
+
+    @Autowired
+    public ExecutorFactory(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads && !JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("Virtual threads require Java 21 or newer, using platform threads");
+        }
+        this.virtualThreads = virtualThreads && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @param prefix prefix of the thread names, followed by a sequence number
+     */
+    public ThreadFactory newThreadFactory(String prefix) {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        return new PlatformThreadFactory(prefix);
+    }
+
+    public ExecutorService newFixedThreadPool(String prefix, int threads) {
+        return Executors.newFixedThreadPool(threads, newThreadFactory(prefix));
+    }
+
+    public Thread startThread(String name, Runnable task) {
+        Thread thread = virtualThreads
+                ? new VirtualThreadTaskExecutor(name).getVirtualThreadFactory().newThread(task)
+                : new Thread(task);
+        thread.setName(name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static class PlatformThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        PlatformThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
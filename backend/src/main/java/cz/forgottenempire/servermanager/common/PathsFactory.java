@@ -51,6 +51,16 @@ public class PathsFactory {
         return Path.of(getModsPath(type).toString(), String.valueOf(modId));
     }
 
+    public Path getAppManifestPath(ServerType type) {
+        return Path.of(getServerPath(type).toString(), "steamapps",
+                "appmanifest_" + Constants.SERVER_IDS.get(type) + ".acf");
+    }
+
+    public Path getWorkshopManifestPath(ServerType type) {
+        return Path.of(getModsBasePath().toString(), "steamapps", "workshop",
+                "appworkshop_" + Constants.GAME_IDS.get(type) + ".acf");
+    }
+
     public Path getModLinkPath(String modName, ServerType type) {
         return Path.of(getServerPath(type).toString(), modName);
     }
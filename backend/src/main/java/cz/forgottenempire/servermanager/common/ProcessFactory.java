@@ -6,32 +6,49 @@ import java.lang.ProcessBuilder.Redirect;
 import java.util.ArrayList;
 import java.util.List;
 
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacement;
+import cz.forgottenempire.servermanager.logcapture.LogCaptureService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 @Slf4j
 public class ProcessFactory {
 
+    private final LogCaptureService logCaptureService;
+
+    @Autowired
+    public ProcessFactory(LogCaptureService logCaptureService) {
+        this.logCaptureService = logCaptureService;
+    }
+
     public Process startProcess(File executable, List<String> parameters) throws IOException {
         File directory = executable.getParentFile();
         return startProcess(executable, parameters, directory);
     }
 
     public Process startProcessWithUnbufferedOutput(File executable, List<String> parameters) throws IOException {
+        return startProcessWithUnbufferedOutput(executable, parameters, null);
+    }
+
+    public Process startProcessWithUnbufferedOutput(File executable, List<String> parameters,
+            ProcessPlacement placement) throws IOException {
         File directory = executable.getParentFile();
 
         File unbufferExecutable = new File("/usr/bin/unbuffer");
         if (!unbufferExecutable.canExecute()) {
             log.warn("'unbuffer' command is not installed or not executable, starting process with standard output. Handling the process output might be unreliable.");
-            return startProcess(executable, parameters, directory);
+            return getBaseProcessBuilder(executable, parameters, directory, placement)
+                    .start();
         }
 
         List<String> unbufferParameters = new ArrayList<>();
         unbufferParameters.add(executable.getAbsolutePath());
         unbufferParameters.addAll(parameters);
 
-        return startProcess(unbufferExecutable, unbufferParameters, directory);
+        return getBaseProcessBuilder(unbufferExecutable, unbufferParameters, directory, placement)
+                .start();
     }
 
     public Process startProcess(File executable, List<String> parameters, File directory) throws IOException {
@@ -57,16 +74,21 @@ public class ProcessFactory {
     public Process startProcessWithRedirectedOutput(File executable, List<String> parameters, File directory,
             File outputFile) throws IOException {
 
-        return getBaseProcessBuilder(executable, parameters, directory)
-                .redirectErrorStream(true)
-                .redirectOutput(Redirect.appendTo(outputFile))
-                .start();
+        return logCaptureService.startWithOutputTo(getBaseProcessBuilder(executable, parameters, directory), outputFile);
     }
 
     private ProcessBuilder getBaseProcessBuilder(File executable, List<String> parameters, File directory) {
+        return getBaseProcessBuilder(executable, parameters, directory, null);
+    }
+
+    private ProcessBuilder getBaseProcessBuilder(File executable, List<String> parameters, File directory,
+            ProcessPlacement placement) {
         List<String> commands = new ArrayList<>();
         commands.add(executable.getAbsolutePath());
         commands.addAll(parameters);
+        if (placement != null) {
+            commands = placement.wrapCommand(commands);
+        }
 
         return new ProcessBuilder(commands)
                 .directory(directory);
@@ -0,0 +1,145 @@
+package cz.forgottenempire.servermanager.common;
+
+import cz.forgottenempire.servermanager.common.ShutdownParticipant.StoppingProcess;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stops all processes managed by the application when it shuts down. All processes are asked to stop at once and
+ * given time to exit until a single global deadline, processes still running after that are killed.
+ * <p>
+ * Runs in the first phase of closing the application context, after the scheduled tasks stopped being triggered but
+ * before the web server is stopped and the data source and other beans are destroyed, so the participants can still
+ * use them.
+ */
+@Component
+@Slf4j
+public class ShutdownCoordinator implements SmartLifecycle {
+
+    // time given to the OS to reap killed processes after the deadline
+    private static final Duration FORCED_SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final List<ShutdownParticipant> participants;
+    private final Duration shutdownTimeout;
+    private final Clock clock;
+    private volatile boolean running;
+
+    @Autowired
+    public ShutdownCoordinator(
+            List<ShutdownParticipant> participants,
+            @Value("${shutdown.timeout:30s}") Duration shutdownTimeout,
+            Clock clock
+    ) {
+        this.participants = participants;
+        this.shutdownTimeout = shutdownTimeout;
+        this.clock = clock;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        stopAllProcesses();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // stopped first, lifecycle beans with a higher phase are stopped earlier
+        return Integer.MAX_VALUE;
+    }
+
+    void stopAllProcesses() {
+        Instant start = clock.instant();
+        List<StoppingProcess> stoppingProcesses = new ArrayList<>();
+        for (ShutdownParticipant participant : participants) {
+            try {
+                stoppingProcesses.addAll(participant.stopAllProcesses());
+            } catch (RuntimeException e) {
+                log.error("Failed to stop processes of {}", participant.getClass().getSimpleName(), e);
+            }
+        }
+        if (stoppingProcesses.isEmpty()) {
+            return;
+        }
+
+        log.info("Stopping {} processes, waiting up to {} s for them to exit",
+                stoppingProcesses.size(), shutdownTimeout.toSeconds());
+        Map<StoppingProcess, CompletableFuture<Instant>> exits = new LinkedHashMap<>();
+        stoppingProcesses.forEach(stoppingProcess -> exits.put(stoppingProcess,
+                stoppingProcess.process().onExit().thenApply(handle -> clock.instant())));
+
+        awaitAll(exits.values(), shutdownTimeout);
+
+        List<StoppingProcess> killedProcesses = new ArrayList<>();
+        exits.forEach((stoppingProcess, exit) -> {
+            if (!exit.isDone()) {
+                killedProcesses.add(stoppingProcess);
+                stoppingProcess.process().descendants().forEach(ProcessHandle::destroyForcibly);
+                stoppingProcess.process().destroyForcibly();
+            }
+        });
+        if (!killedProcesses.isEmpty()) {
+            awaitAll(killedProcesses.stream().map(exits::get).toList(), FORCED_SHUTDOWN_TIMEOUT);
+        }
+
+        exits.forEach((stoppingProcess, exit) -> logShutdownResult(stoppingProcess, exit, start,
+                killedProcesses.contains(stoppingProcess)));
+        log.info("All processes stopped in {} ms", Duration.between(start, clock.instant()).toMillis());
+    }
+
+    private void awaitAll(Collection<CompletableFuture<Instant>> futures, Duration timeout) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // results are checked per process
+        }
+    }
+
+    private void logShutdownResult(StoppingProcess stoppingProcess, CompletableFuture<Instant> exit, Instant start,
+            boolean killed) {
+        String name = stoppingProcess.name();
+        long pid = stoppingProcess.process().pid();
+        if (!exit.isDone()) {
+            log.error("Process '{}' (PID {}) is still running after being killed", name, pid);
+            return;
+        }
+
+        long latency = Duration.between(start, exit.join()).toMillis();
+        if (killed) {
+            log.warn("Process '{}' (PID {}) didn't stop in time and was killed after {} ms", name, pid, latency);
+        } else {
+            log.info("Process '{}' (PID {}) stopped in {} ms", name, pid, latency);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package cz.forgottenempire.servermanager.common;
+
+import java.util.Collection;
+
+/**
+ * Owner of processes that have to be stopped when the manager shuts down.
+ */
+public interface ShutdownParticipant {
+
+    /**
+     * Asks all running processes to stop without waiting for them to exit.
+     *
+     * @return the processes that were asked to stop
+     */
+    Collection<StoppingProcess> stopAllProcesses();
+
+    record StoppingProcess(String name, ProcessHandle process) {
+    }
+}
@@ -0,0 +1,64 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Converts lists of CPUs from and to the format used by the Linux kernel and {@code taskset}, e.g. {@code 0-3,8,10-11}.
+ */
+public final class CpuList {
+
+    private CpuList() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the list is not valid
+     */
+    public static List<Integer> parse(String cpuList) {
+        TreeSet<Integer> cpus = new TreeSet<>();
+        if (cpuList == null || cpuList.isBlank()) {
+            return List.of();
+        }
+
+        for (String range : cpuList.trim().split(",")) {
+            String[] bounds = range.trim().split("-");
+            try {
+                int from = Integer.parseInt(bounds[0].trim());
+                int to = bounds.length == 2 ? Integer.parseInt(bounds[1].trim()) : from;
+                if (bounds.length > 2 || from < 0 || to < from) {
+                    throw new IllegalArgumentException("Invalid CPU range '" + range + "'");
+                }
+                for (int cpu = from; cpu <= to; cpu++) {
+                    cpus.add(cpu);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CPU range '" + range + "'", e);
+            }
+        }
+        return new ArrayList<>(cpus);
+    }
+
+    public static String format(Collection<Integer> cpus) {
+        List<Integer> sortedCpus = new ArrayList<>(new TreeSet<>(cpus));
+        StringBuilder cpuList = new StringBuilder();
+        int i = 0;
+        while (i < sortedCpus.size()) {
+            int from = sortedCpus.get(i);
+            int to = from;
+            while (i + 1 < sortedCpus.size() && sortedCpus.get(i + 1) == to + 1) {
+                to = sortedCpus.get(++i);
+            }
+            if (!cpuList.isEmpty()) {
+                cpuList.append(',');
+            }
+            cpuList.append(from);
+            if (to != from) {
+                cpuList.append('-').append(to);
+            }
+            i++;
+        }
+        return cpuList.toString();
+    }
+}
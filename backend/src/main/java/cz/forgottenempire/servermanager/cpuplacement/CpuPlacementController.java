@@ -0,0 +1,45 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import cz.forgottenempire.servermanager.cpuplacement.CpuPlacementDto.PhysicalCoreDto;
+import cz.forgottenempire.servermanager.cpuplacement.CpuPlacementDto.PlacementDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/system/placement")
+class CpuPlacementController {
+
+    private final ProcessPlacementService placementService;
+
+    @Autowired
+    public CpuPlacementController(ProcessPlacementService placementService) {
+        this.placementService = placementService;
+    }
+
+    @GetMapping
+    public ResponseEntity<CpuPlacementDto> getPlacement() {
+        List<PhysicalCoreDto> cores = placementService.getTopology().getCores().stream()
+                .map(core -> new PhysicalCoreDto(core.packageId(), core.coreId(), CpuList.format(core.cpus())))
+                .toList();
+        List<PlacementDto> placements = placementService.getPlacements().stream()
+                .map(placement -> new PlacementDto(
+                        placement.owner(),
+                        CpuList.format(placement.cpus()),
+                        placement.niceLevel(),
+                        placement.ioClass() == null ? null : placement.ioClass().name(),
+                        placement.ioPriority()))
+                .toList();
+
+        return ResponseEntity.ok(new CpuPlacementDto(
+                placementService.isAvailable(),
+                CpuList.format(placementService.getHousekeepingCpus()),
+                placementService.isManagerConfined(),
+                cores,
+                placements));
+    }
+}
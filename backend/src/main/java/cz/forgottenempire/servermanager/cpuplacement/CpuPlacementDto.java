@@ -0,0 +1,18 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import java.util.List;
+
+record CpuPlacementDto(
+        boolean available,
+        String housekeepingCpus,
+        boolean managerConfined,
+        List<PhysicalCoreDto> cores,
+        List<PlacementDto> placements
+) {
+
+    record PhysicalCoreDto(int packageId, int coreId, String cpus) {
+    }
+
+    record PlacementDto(String owner, String cpus, int niceLevel, String ioClass, Integer ioPriority) {
+    }
+}
@@ -0,0 +1,10 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+public enum CpuPlacementMode {
+    // runs on any CPU except the housekeeping ones when the manager is confined to them
+    NONE,
+    // runs on the CPUs chosen by the user
+    MANUAL,
+    // gets a physical core of its own if possible, headless clients are spread across further cores
+    AUTOMATIC
+}
@@ -0,0 +1,85 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Physical cores of the machine with their logical CPUs (SMT siblings), as reported by the kernel in sysfs.
+ */
+@Slf4j
+public class CpuTopology {
+
+    private final List<PhysicalCore> cores;
+
+    CpuTopology(List<PhysicalCore> cores) {
+        this.cores = List.copyOf(cores);
+    }
+
+    /**
+     * @param cpuDirectory usually {@code /sys/devices/system/cpu}
+     */
+    static CpuTopology read(Path cpuDirectory) {
+        List<Integer> onlineCpus;
+        try {
+            onlineCpus = CpuList.parse(Files.readString(cpuDirectory.resolve("online")));
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Couldn't read online CPUs from {}, CPU placement won't be available", cpuDirectory, e);
+            return new CpuTopology(List.of());
+        }
+
+        Map<CoreKey, List<Integer>> coreToCpusMap = new TreeMap<>(
+                Comparator.comparingInt(CoreKey::packageId).thenComparingInt(CoreKey::coreId));
+        for (int cpu : onlineCpus) {
+            Path topologyDirectory = cpuDirectory.resolve("cpu" + cpu).resolve("topology");
+            // without topology information, every logical CPU is treated as a separate core
+            int packageId = readInt(topologyDirectory.resolve("physical_package_id"), 0);
+            int coreId = readInt(topologyDirectory.resolve("core_id"), cpu);
+            coreToCpusMap.computeIfAbsent(new CoreKey(packageId, coreId), key -> new ArrayList<>()).add(cpu);
+        }
+
+        List<PhysicalCore> cores = new ArrayList<>();
+        coreToCpusMap.forEach((key, cpus) -> cores.add(new PhysicalCore(cores.size(), key.packageId(), key.coreId(),
+                List.copyOf(cpus))));
+        return new CpuTopology(cores);
+    }
+
+    public List<PhysicalCore> getCores() {
+        return cores;
+    }
+
+    public List<Integer> getOnlineCpus() {
+        return cores.stream()
+                .flatMap(core -> core.cpus().stream())
+                .sorted()
+                .toList();
+    }
+
+    public boolean isEmpty() {
+        return cores.isEmpty();
+    }
+
+    private static int readInt(Path file, int defaultValue) {
+        try {
+            return Integer.parseInt(Files.readString(file).trim());
+        } catch (IOException | NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @param index order of the core in the topology, used to refer to it
+     */
+    public record PhysicalCore(int index, int packageId, int coreId, List<Integer> cpus) {
+    }
+
+    private record CoreKey(int packageId, int coreId) {
+    }
+}
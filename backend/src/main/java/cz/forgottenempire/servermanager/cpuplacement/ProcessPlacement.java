@@ -0,0 +1,70 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where and with which priority a process runs. Applied by starting the process through {@code taskset},
+ * {@code nice} and {@code ionice}, which all replace themselves with the next command, so the PID of the started
+ * process is the PID of the actual program.
+ *
+ * @param owner       identifies the process in the list of placements
+ * @param cpus        logical CPUs the process may run on, empty to not restrict it
+ * @param niceLevel   scheduling priority from -20 (highest) to 19 (lowest)
+ * @param ioClass     I/O scheduling class as used by {@code ionice}, null to keep the default
+ * @param ioPriority  priority within the best-effort I/O class from 0 (highest) to 7 (lowest), null for default
+ */
+public record ProcessPlacement(
+        String owner,
+        List<Integer> cpus,
+        int niceLevel,
+        IoClass ioClass,
+        Integer ioPriority
+) {
+
+    private static final String TASKSET = "/usr/bin/taskset";
+    private static final String NICE = "/usr/bin/nice";
+    private static final String IONICE = "/usr/bin/ionice";
+
+    public static ProcessPlacement none(String owner) {
+        return new ProcessPlacement(owner, List.of(), 0, null, null);
+    }
+
+    public boolean isEmpty() {
+        return cpus.isEmpty() && niceLevel == 0 && ioClass == null;
+    }
+
+    public List<String> wrapCommand(List<String> command) {
+        List<String> wrappedCommand = new ArrayList<>();
+        if (!cpus.isEmpty()) {
+            wrappedCommand.addAll(List.of(TASKSET, "-c", CpuList.format(cpus)));
+        }
+        if (niceLevel != 0) {
+            wrappedCommand.addAll(List.of(NICE, "-n", String.valueOf(niceLevel)));
+        }
+        if (ioClass != null) {
+            // -t: run the command even if the I/O priority can't be set
+            wrappedCommand.addAll(List.of(IONICE, "-t", "-c", String.valueOf(ioClass.getValue())));
+            if (ioClass == IoClass.BEST_EFFORT && ioPriority != null) {
+                wrappedCommand.addAll(List.of("-n", String.valueOf(ioPriority)));
+            }
+        }
+        wrappedCommand.addAll(command);
+        return wrappedCommand;
+    }
+
+    public enum IoClass {
+        BEST_EFFORT(2),
+        IDLE(3);
+
+        private final int value;
+
+        IoClass(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
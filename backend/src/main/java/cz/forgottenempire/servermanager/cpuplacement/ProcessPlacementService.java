@@ -0,0 +1,326 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import cz.forgottenempire.servermanager.common.ProcessFactory;
+import cz.forgottenempire.servermanager.cpuplacement.CpuTopology.PhysicalCore;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacement.IoClass;
+import cz.forgottenempire.servermanager.serverinstance.entities.CpuPlacementSettings;
+import cz.forgottenempire.servermanager.util.SystemUtils;
+import cz.forgottenempire.servermanager.util.SystemUtils.OSType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides on which CPUs and with which priority game servers, headless clients and housekeeping processes (SteamCMD)
+ * run. Servers in automatic mode get the least used physical core outside the housekeeping CPUs, so servers and
+ * their headless clients end up spread across all cores. Only supported on Linux.
+ */
+@Service
+@Slf4j
+public class ProcessPlacementService {
+
+    private static final File TASKSET = new File("/usr/bin/taskset");
+    private static final int HOUSEKEEPING_NICE_LEVEL = 10;
+    private static final long CONFINE_TIMEOUT_SECONDS = 10;
+    private static final Path PROC_DIRECTORY = Path.of("/proc");
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+    private final CpuTopology topology;
+    private final List<Integer> housekeepingCpus;
+    private final boolean confineManager;
+    private final boolean available;
+    private final Map<String, Assignment> ownerToAssignmentMap = new HashMap<>();
+    private final Map<Integer, Integer> coreIndexToAssignmentsMap = new HashMap<>();
+
+    private ProcessFactory processFactory;
+    private boolean managerConfined;
+
+    @Autowired
+    public ProcessPlacementService(
+            @Value("${placement.cpuDirectory:/sys/devices/system/cpu}") String cpuDirectory,
+            @Value("${placement.housekeepingCpus:}") String housekeepingCpus,
+            @Value("${placement.confineManager:true}") boolean confineManager,
+            ProcessFactory processFactory
+    ) {
+        this(readTopology(cpuDirectory), housekeepingCpus, confineManager, isPlacementSupported());
+        this.processFactory = processFactory;
+    }
+
+    ProcessPlacementService(CpuTopology topology, String housekeepingCpus, boolean confineManager,
+            boolean available) {
+        this.topology = topology;
+        this.available = available && !topology.isEmpty();
+        this.housekeepingCpus = this.available ? resolveHousekeepingCpus(housekeepingCpus) : List.of();
+        this.confineManager = confineManager;
+    }
+
+    /**
+     * Restricts the manager itself, including all its threads, to the housekeeping CPUs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void confineManager() {
+        if (!available || !confineManager || housekeepingCpus.isEmpty()) {
+            return;
+        }
+
+        String cpus = CpuList.format(housekeepingCpus);
+        try {
+            Process taskset = processFactory.startProcessWithDiscardedOutput(TASKSET,
+                    List.of("-a", "-p", "-c", cpus, String.valueOf(ProcessHandle.current().pid())));
+            if (taskset.waitFor(CONFINE_TIMEOUT_SECONDS, TimeUnit.SECONDS) && taskset.exitValue() == 0) {
+                managerConfined = true;
+                log.info("Manager confined to housekeeping CPUs {}", cpus);
+            } else {
+                log.warn("Failed to confine the manager to housekeeping CPUs {}", cpus);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to confine the manager to housekeeping CPUs {}", cpus, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public ProcessPlacement placeServer(long serverId, CpuPlacementSettings settings) {
+        return place("Server ID " + serverId, settings);
+    }
+
+    /**
+     * Records the placement of a server left running by the previous run of the manager, so the core it runs on in
+     * automatic mode isn't given to another process. The CPUs are taken from the current affinity of the process, or
+     * from the settings if it can't be read.
+     */
+    public ProcessPlacement placeReattachedServer(long serverId, CpuPlacementSettings settings, long pid) {
+        return placeReattached("Server ID " + serverId, settings, available ? readAffinity(pid) : List.of());
+    }
+
+    public ProcessPlacement placeHeadlessClient(long serverId, int headlessClientId, CpuPlacementSettings settings) {
+        return place("Headless client " + headlessClientId + " of server ID " + serverId, settings);
+    }
+
+    /**
+     * Placement of background processes like SteamCMD, which run on the housekeeping CPUs with low priority.
+     */
+    public ProcessPlacement placeHousekeeping(String owner) {
+        if (!available) {
+            return ProcessPlacement.none(owner);
+        }
+        return new ProcessPlacement(owner, housekeepingCpus, HOUSEKEEPING_NICE_LEVEL, IoClass.IDLE, null);
+    }
+
+    /**
+     * Frees the CPUs of a process which exited. Does nothing if the owner was placed again in the meantime.
+     */
+    public synchronized void release(ProcessPlacement placement) {
+        Assignment assignment = ownerToAssignmentMap.get(placement.owner());
+        if (assignment == null || assignment.placement() != placement) {
+            return;
+        }
+        ownerToAssignmentMap.remove(placement.owner());
+        if (assignment.coreIndex() != null) {
+            coreIndexToAssignmentsMap.merge(assignment.coreIndex(), -1, Integer::sum);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the CPU list is invalid or contains CPUs which are not online
+     */
+    public void validateCpus(String cpuList) {
+        List<Integer> cpus = CpuList.parse(cpuList);
+        if (!available) {
+            return;
+        }
+        List<Integer> offlineCpus = cpus.stream()
+                .filter(cpu -> !topology.getOnlineCpus().contains(cpu))
+                .toList();
+        if (!offlineCpus.isEmpty()) {
+            throw new IllegalArgumentException("CPUs " + CpuList.format(offlineCpus) + " are not available");
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public CpuTopology getTopology() {
+        return topology;
+    }
+
+    public List<Integer> getHousekeepingCpus() {
+        return housekeepingCpus;
+    }
+
+    public boolean isManagerConfined() {
+        return managerConfined;
+    }
+
+    public synchronized List<ProcessPlacement> getPlacements() {
+        return ownerToAssignmentMap.values().stream()
+                .map(Assignment::placement)
+                .sorted(Comparator.comparing(ProcessPlacement::owner))
+                .toList();
+    }
+
+    /**
+     * @param affinity CPUs the running process is allowed to run on, empty if not known
+     */
+    synchronized ProcessPlacement placeReattached(String owner, CpuPlacementSettings settings, List<Integer> affinity) {
+        if (!available || settings == null) {
+            return ProcessPlacement.none(owner);
+        }
+
+        releasePreviousAssignment(owner);
+        Integer coreIndex = null;
+        List<Integer> cpus = affinity;
+        if (affinity.isEmpty()) {
+            cpus = settings.getMode() == CpuPlacementMode.MANUAL
+                    ? getManualCpus(owner, settings.getCpus())
+                    : getDefaultCpus();
+        }
+        if (settings.getMode() == CpuPlacementMode.AUTOMATIC) {
+            coreIndex = topology.getCores().stream()
+                    .filter(core -> core.cpus().size() == affinity.size() && core.cpus().containsAll(affinity))
+                    .map(PhysicalCore::index)
+                    .findFirst()
+                    .orElse(null);
+            if (coreIndex == null) {
+                log.warn("{} doesn't run on a known single core, its CPUs may be given to other processes", owner);
+            } else {
+                coreIndexToAssignmentsMap.merge(coreIndex, 1, Integer::sum);
+            }
+        }
+        return assign(owner, settings, cpus, coreIndex);
+    }
+
+    private synchronized ProcessPlacement place(String owner, CpuPlacementSettings settings) {
+        if (!available || settings == null) {
+            return ProcessPlacement.none(owner);
+        }
+
+        releasePreviousAssignment(owner);
+        Integer coreIndex = null;
+        List<Integer> cpus = switch (settings.getMode()) {
+            case NONE -> getDefaultCpus();
+            case MANUAL -> getManualCpus(owner, settings.getCpus());
+            case AUTOMATIC -> {
+                PhysicalCore core = getLeastUsedCore();
+                coreIndex = core.index();
+                coreIndexToAssignmentsMap.merge(coreIndex, 1, Integer::sum);
+                yield core.cpus();
+            }
+        };
+        return assign(owner, settings, cpus, coreIndex);
+    }
+
+    private void releasePreviousAssignment(String owner) {
+        Assignment previousAssignment = ownerToAssignmentMap.get(owner);
+        if (previousAssignment != null) {
+            release(previousAssignment.placement());
+        }
+    }
+
+    private ProcessPlacement assign(String owner, CpuPlacementSettings settings, List<Integer> cpus,
+            Integer coreIndex) {
+        IoClass ioClass = settings.getIoPriority() == null ? null : IoClass.BEST_EFFORT;
+        ProcessPlacement placement = new ProcessPlacement(owner, cpus, settings.getNiceLevel(), ioClass,
+                settings.getIoPriority());
+        ownerToAssignmentMap.put(owner, new Assignment(placement, coreIndex));
+        log.info("{} placed on CPUs {} (nice {}, I/O priority {})", owner,
+                cpus.isEmpty() ? "<any>" : CpuList.format(cpus), settings.getNiceLevel(),
+                settings.getIoPriority() == null ? "<default>" : settings.getIoPriority());
+        return placement;
+    }
+
+    private List<Integer> getDefaultCpus() {
+        // processes inherit the CPUs of the manager, they have to be allowed to run anywhere explicitly
+        return managerConfined ? topology.getOnlineCpus() : List.of();
+    }
+
+    private List<Integer> getManualCpus(String owner, String cpuList) {
+        try {
+            List<Integer> cpus = CpuList.parse(cpuList).stream()
+                    .filter(topology.getOnlineCpus()::contains)
+                    .toList();
+            if (!cpus.isEmpty()) {
+                return cpus;
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid CPU list '{}' of {}", cpuList, owner, e);
+        }
+        log.warn("None of the CPUs '{}' of {} is available, it will run on any CPU", cpuList, owner);
+        return getDefaultCpus();
+    }
+
+    private PhysicalCore getLeastUsedCore() {
+        List<PhysicalCore> candidates = topology.getCores().stream()
+                .filter(core -> core.cpus().stream().noneMatch(housekeepingCpus::contains))
+                .toList();
+        if (candidates.isEmpty()) {
+            candidates = topology.getCores();
+        }
+        return candidates.stream()
+                .min(Comparator.comparingInt((PhysicalCore core) -> coreIndexToAssignmentsMap.getOrDefault(core.index(), 0))
+                        .thenComparingInt(PhysicalCore::index))
+                .orElseThrow();
+    }
+
+    private List<Integer> resolveHousekeepingCpus(String housekeepingCpus) {
+        if ("auto".equalsIgnoreCase(housekeepingCpus.trim())) {
+            // dedicating a core makes sense only when there are enough of them
+            List<PhysicalCore> cores = topology.getCores();
+            return cores.size() >= 4 ? cores.get(0).cpus() : List.of();
+        }
+
+        try {
+            List<Integer> cpus = CpuList.parse(housekeepingCpus);
+            if (!topology.getOnlineCpus().containsAll(cpus)) {
+                log.warn("Housekeeping CPUs '{}' are not all available, housekeeping processes won't be confined",
+                        housekeepingCpus);
+                return List.of();
+            }
+            return cpus;
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid housekeeping CPUs '{}', housekeeping processes won't be confined", housekeepingCpus, e);
+            return List.of();
+        }
+    }
+
+    private static List<Integer> readAffinity(long pid) {
+        try {
+            return Files.readAllLines(PROC_DIRECTORY.resolve(String.valueOf(pid)).resolve("status")).stream()
+                    .filter(line -> line.startsWith(CPUS_ALLOWED_LIST))
+                    .map(line -> CpuList.parse(line.substring(CPUS_ALLOWED_LIST.length()).trim()))
+                    .findFirst()
+                    .orElse(List.of());
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failed to read the CPU affinity of PID {}", pid, e);
+            return List.of();
+        }
+    }
+
+    private static CpuTopology readTopology(String cpuDirectory) {
+        if (SystemUtils.getOsType() != OSType.LINUX) {
+            return new CpuTopology(List.of());
+        }
+        return CpuTopology.read(Path.of(cpuDirectory));
+    }
+
+    private static boolean isPlacementSupported() {
+        return SystemUtils.getOsType() == OSType.LINUX && Files.isExecutable(TASKSET.toPath());
+    }
+
+    private record Assignment(ProcessPlacement placement, Integer coreIndex) {
+    }
+}
@@ -26,6 +26,7 @@ class FailedInstallationDetector {
         for (ServerInstallation installation : interruptedInstallations) {
             installation.setInstallationStatus(ERROR);
             installation.setErrorStatus(ErrorStatus.INTERRUPTED);
+            installation.setInstallationStep(null);
         }
         repository.saveAll(interruptedInstallations);
     }
@@ -22,6 +22,8 @@ public class ServerInstallation {
     private ServerType type;
 
     private String version;
+    // Steam build of the server which passed the last dry run
+    private Long buildId;
     private LocalDateTime lastUpdatedAt;
 
     @Enumerated(EnumType.STRING)
@@ -30,6 +32,10 @@ public class ServerInstallation {
     @Enumerated(EnumType.STRING)
     private ErrorStatus errorStatus;
 
+    // progress of an installation in progress
+    @Enumerated(EnumType.STRING)
+    private InstallationStep installationStep;
+
     @Column(name = "branch", nullable = false)
     @Enumerated(EnumType.STRING)
     private Branch branch;
@@ -46,4 +52,10 @@ public class ServerInstallation {
         CONTACT,
         CREATORDLC
     }
+
+    public enum InstallationStep {
+        DOWNLOADING,
+        STARTING_TEST_SERVER,
+        WAITING_FOR_TEST_SERVER
+    }
 }
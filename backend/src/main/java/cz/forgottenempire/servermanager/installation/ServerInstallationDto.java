@@ -14,8 +14,10 @@ class ServerInstallationDto {
 
     private ServerType type;
     private String version;
+    private Long buildId;
     private InstallationStatus installationStatus;
     private ErrorStatus errorStatus;
+    private ServerInstallation.InstallationStep installationStep;
     private String lastUpdatedAt;
     private ServerInstallation.Branch branch;
     private Set<ServerInstallation.Branch> availableBranches;
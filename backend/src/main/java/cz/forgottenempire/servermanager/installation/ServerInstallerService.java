@@ -1,12 +1,20 @@
 package cz.forgottenempire.servermanager.installation;
 
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
 import cz.forgottenempire.servermanager.common.InstallationStatus;
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.installation.ServerInstallation.InstallationStep;
 import cz.forgottenempire.servermanager.steamcmd.ErrorStatus;
 import cz.forgottenempire.servermanager.steamcmd.SteamCmdJob;
 import cz.forgottenempire.servermanager.steamcmd.SteamCmdService;
+import cz.forgottenempire.servermanager.steamcmd.manifest.AppManifest;
+import cz.forgottenempire.servermanager.steamcmd.manifest.SteamManifestService;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutorService;
 
+import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,24 +26,32 @@ class ServerInstallerService {
     private final ServerInstallationRepository installationRepository;
     private final SteamCmdService steamCmdService;
     private final TestRunService testRunService;
+    private final SteamManifestService manifestService;
+    // dry runs only launch the server here, waiting for it doesn't occupy the threads
+    private final ExecutorService dryRunExecutor;
 
     @Autowired
     public ServerInstallerService(
             ServerInstallationRepository installationRepository,
             SteamCmdService steamCmdService,
-            TestRunService testRunService) {
+            TestRunService testRunService,
+            SteamManifestService manifestService,
+            ExecutorFactory executorFactory) {
         this.installationRepository = installationRepository;
         this.steamCmdService = steamCmdService;
         this.testRunService = testRunService;
+        this.manifestService = manifestService;
+        dryRunExecutor = executorFactory.newFixedThreadPool("dry-run-", ServerType.getAll().size());
     }
 
     public void installServer(ServerInstallation server) {
         server.setInstallationStatus(InstallationStatus.INSTALLATION_IN_PROGRESS);
+        server.setInstallationStep(InstallationStep.DOWNLOADING);
         server.setErrorStatus(null);
         installationRepository.save(server);
         log.info("Starting download of server '{}' (branch '{}')", server.getType(), server.getBranch().toString().toLowerCase());
         steamCmdService.installOrUpdateServer(server)
-                .thenAcceptAsync(steamCmdJob -> handleInstallation(steamCmdJob, server));
+                .thenAcceptAsync(steamCmdJob -> handleInstallation(steamCmdJob, server), dryRunExecutor);
     }
 
     private void handleInstallation(SteamCmdJob steamCmdJob, ServerInstallation server) {
@@ -43,22 +59,55 @@ class ServerInstallerService {
             log.error("Download of server '{}' failed, reason: {}",
                     server.getType(), steamCmdJob.getErrorStatus());
             server.setInstallationStatus(InstallationStatus.ERROR);
+            server.setInstallationStep(null);
             server.setErrorStatus(steamCmdJob.getErrorStatus());
-        } else {
-            try {
-                log.info("Server '{}' successfully downloaded, verifying...", server.getType());
-                testRunService.performServerDryRun(server);
-                log.info("Server '{}' successfully installed", server.getType());
-                server.setLastUpdatedAt(LocalDateTime.now());
-                server.setInstallationStatus(InstallationStatus.FINISHED);
-            } catch (Exception e) {
-                log.error("Server '{}' failed to start after installation", server.getType(), e);
-                server.setInstallationStatus(InstallationStatus.ERROR);
-                server.setErrorStatus(ErrorStatus.GENERIC);
-            }
+            installationRepository.save(server);
+            return;
+        }
+
+        AppManifest manifest = manifestService.getAppManifest(server.getType()).orElse(null);
+        Long buildId = manifest == null ? null : manifest.buildId();
+        if (buildId != null && buildId.equals(server.getBuildId()) && server.getVersion() != null) {
+            log.info("Build {} of server '{}' was already verified, skipping the dry run", buildId, server.getType());
+            finishInstallation(server, manifest, server.getVersion(), null);
+            return;
+        }
+
+        log.info("Server '{}' successfully downloaded, verifying...", server.getType());
+        try {
+            testRunService.performServerDryRun(server.getType(), step -> setInstallationStep(server, step))
+                    .whenComplete((version, e) -> finishInstallation(server, manifest, version, e));
+        } catch (RuntimeException e) {
+            finishInstallation(server, manifest, null, e);
         }
+    }
+
+    private synchronized void setInstallationStep(ServerInstallation server, InstallationStep step) {
+        server.setInstallationStep(step);
         installationRepository.save(server);
     }
-}
 
+    private synchronized void finishInstallation(ServerInstallation server, @Nullable AppManifest manifest,
+            String version, Throwable error) {
+        if (error == null) {
+            log.info("Server '{}' successfully installed", server.getType());
+            server.setVersion(version);
+            server.setBuildId(manifest == null ? null : manifest.buildId());
+            server.setLastUpdatedAt(getLastUpdatedAt(manifest));
+            server.setInstallationStatus(InstallationStatus.FINISHED);
+        } else {
+            log.error("Server '{}' failed to start after installation", server.getType(), error);
+            server.setInstallationStatus(InstallationStatus.ERROR);
+            server.setErrorStatus(ErrorStatus.GENERIC);
+        }
+        server.setInstallationStep(null);
+        installationRepository.save(server);
+    }
 
+    private static LocalDateTime getLastUpdatedAt(@Nullable AppManifest manifest) {
+        if (manifest == null || manifest.lastUpdated() == null) {
+            return LocalDateTime.now();
+        }
+        return LocalDateTime.ofInstant(manifest.lastUpdated(), ZoneId.systemDefault());
+    }
+}
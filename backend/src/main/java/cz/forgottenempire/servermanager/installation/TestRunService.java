@@ -1,143 +1,189 @@
 package cz.forgottenempire.servermanager.installation;
 
 import com.ibasco.agql.protocols.valve.source.query.SourceQueryClient;
-import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
-import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
 import cz.forgottenempire.servermanager.common.PathsFactory;
 import cz.forgottenempire.servermanager.common.ProcessFactory;
 import cz.forgottenempire.servermanager.common.ServerType;
-import cz.forgottenempire.servermanager.util.SystemUtils;
+import cz.forgottenempire.servermanager.installation.ServerInstallation.InstallationStep;
+import cz.forgottenempire.servermanager.serverinstance.PortAllocator;
+import cz.forgottenempire.servermanager.serverinstance.PortBlock;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+/**
+ * Verifies a freshly installed server by starting it and waiting until it answers a status query. Every dry run gets
+ * its own ports and working directory, so servers of different types can be verified at the same time.
+ */
 @Service
 @Slf4j
 class TestRunService {
 
     private static final String LOCALHOST = "localhost";
+    private static final String TEST_CONFIG_FILE_NAME = "TEST_CONFIG.cfg";
+    // the first queries fail after a few seconds no matter the timeout while the server is booting
+    private static final Duration QUERY_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration QUERY_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
 
     private final ProcessFactory processFactory;
     private final PathsFactory pathsFactory;
+    private final PortAllocator portAllocator;
+    private final SourceQueryClient sourceQueryClient;
+    private final Duration readinessTimeout;
 
     @Autowired
     public TestRunService(
-            ProcessFactory processFactory, PathsFactory pathsFactory) {
+            ProcessFactory processFactory,
+            PathsFactory pathsFactory,
+            PortAllocator portAllocator,
+            SourceQueryClient sourceQueryClient,
+            @Value("${installation.dryRunTimeout:5m}") Duration readinessTimeout
+    ) {
         this.processFactory = processFactory;
         this.pathsFactory = pathsFactory;
+        this.portAllocator = portAllocator;
+        this.sourceQueryClient = sourceQueryClient;
+        this.readinessTimeout = readinessTimeout;
     }
 
-    public synchronized void performServerDryRun(ServerInstallation serverInstallation) {
-
-        int port = findAvailablePort();
-        int queryPort = port + 1;
-
-        ServerType type = serverInstallation.getType();
-
-        File configFile;
-        Process serverProcess;
+    /**
+     * The calling thread is blocked only while the server is launched, the wait for the server runs asynchronously.
+     *
+     * @return game version reported by the server
+     */
+    public CompletableFuture<String> performServerDryRun(ServerType type, Consumer<InstallationStep> progressListener) {
+        progressListener.accept(InstallationStep.STARTING_TEST_SERVER);
+        PortBlock ports = portAllocator.reserveTemporary(type);
+        DryRun dryRun;
         try {
-            configFile = createTestConfigFile(type, port, queryPort);
-            serverProcess = startServerForDryRun(type, port, configFile);
-        } catch (IOException e) {
+            dryRun = startServerForDryRun(type, ports);
+        } catch (IOException | RuntimeException e) {
             log.error("Error when launching server executable", e);
-            throw new RuntimeException(e);
+            portAllocator.releaseTemporary(ports);
+            return CompletableFuture.failedFuture(e);
         }
 
-        int attempts = 0;
-        while (attempts < 10) {
-            try (SourceQueryClient sourceQueryClient = new SourceQueryClient()) {
-                InetSocketAddress serverAddress = new InetSocketAddress(LOCALHOST, queryPort);
-
-                SourceQueryInfoResponse sourceQueryInfoResponse = sourceQueryClient.getInfo(serverAddress).get(30, TimeUnit.SECONDS);;
-                SourceServer sourceServer = sourceQueryInfoResponse.getResult();
-                serverInstallation.setVersion(sourceServer.getGameVersion());
-                break;
-            } catch (Exception e) {
-                if (!serverProcess.isAlive()) {
-                    log.error("Server crashed before it could be queried");
-                    throw new RuntimeException(e);
-                }
-                // no matter of the timeout set for CompletableFuture#get(), the several first query requests fail
-                // automatically after 5 seconds. That's why this ugly loop for retrying is needed.
-                attempts++;
-                if (attempts == 10) {
-                    serverProcess.destroy();
-                    throw new RuntimeException(e);
-                }
-            }
-        }
-        serverProcess.destroy();
-        configFile.delete();
+        progressListener.accept(InstallationStep.WAITING_FOR_TEST_SERVER);
+        CompletableFuture<String> version = new CompletableFuture<>();
+        queryUntilReady(dryRun, Instant.now().plus(readinessTimeout), version);
+        return version.whenComplete((result, e) -> stopDryRun(dryRun));
     }
 
-    private Process startServerForDryRun(ServerType type, int port, File configFile) throws IOException {
-        List<String> parameters = getLaunchParameters(type, port, configFile);
-        File executable = pathsFactory.getServerExecutableWithFallback(type);
-        log.info("Starting server '{}' for dry run with parameters: {}", type, parameters);
-        return processFactory.startProcessWithDiscardedOutput(executable, parameters);
+    private void queryUntilReady(DryRun dryRun, Instant deadline, CompletableFuture<String> version) {
+        sourceQueryClient.getInfo(dryRun.queryAddress())
+                .orTimeout(QUERY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, e) -> {
+                    if (e == null) {
+                        version.complete(response.getResult().getGameVersion());
+                    } else if (!dryRun.process().isAlive()) {
+                        version.completeExceptionally(
+                                new IllegalStateException("Server crashed before it could be queried", e));
+                    } else if (Instant.now().isAfter(deadline)) {
+                        version.completeExceptionally(new TimeoutException(
+                                "Server didn't answer status queries within " + readinessTimeout));
+                    } else {
+                        CompletableFuture.delayedExecutor(QUERY_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)
+                                .execute(() -> queryUntilReady(dryRun, deadline, version));
+                    }
+                });
     }
 
-    private File createTestConfigFile(ServerType type, int port, int queryPort) throws IOException {
-        File testCfgFile = Path.of(pathsFactory.getServerPath(type).toString(), "TEST_CONFIG.cfg").toFile();
-        if (testCfgFile.isFile()) {
-            testCfgFile.delete();
+    private DryRun startServerForDryRun(ServerType type, PortBlock ports) throws IOException {
+        Path workingDirectory = Files.createTempDirectory("dry-run-" + type.name().toLowerCase() + "-");
+        try {
+            File configFile = createTestConfigFile(type, workingDirectory, ports);
+            List<String> parameters = getLaunchParameters(type, ports.port(), configFile, workingDirectory);
+            File executable = pathsFactory.getServerExecutableWithFallback(type);
+            log.info("Starting server '{}' for dry run with parameters: {}", type, parameters);
+            Process process = processFactory.startProcessWithDiscardedOutput(executable, parameters);
+            return new DryRun(type, process, ports, workingDirectory,
+                    new InetSocketAddress(LOCALHOST, ports.queryPort()));
+        } catch (IOException | RuntimeException e) {
+            FileUtils.deleteQuietly(workingDirectory.toFile());
+            throw e;
         }
+    }
+
+    private void stopDryRun(DryRun dryRun) {
+        Process process = dryRun.process();
+        process.destroy();
+        process.onExit()
+                .orTimeout(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((exitedProcess, e) -> {
+                    if (e != null) {
+                        log.warn("Dry run of server '{}' didn't stop in time, killing it", dryRun.type());
+                        process.destroyForcibly();
+                    }
+                    portAllocator.releaseTemporary(dryRun.ports());
+                    FileUtils.deleteQuietly(dryRun.workingDirectory().toFile());
+                });
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(testCfgFile))) {
-            String config = "";
-            if (type == ServerType.ARMA3) {
-                config = getArma3TestConfig();
-            } else if (type == ServerType.DAYZ || type == ServerType.DAYZ_EXP) {
-                config = getDayZTestConfig(queryPort);
-            } else if (type == ServerType.REFORGER) {
-                config = getReforgerTestConfig(port, queryPort);
-            }
-            writer.write(config);
+    private File createTestConfigFile(ServerType type, Path workingDirectory, PortBlock ports) throws IOException {
+        String config = "";
+        if (type == ServerType.ARMA3) {
+            config = getArma3TestConfig();
+        } else if (type == ServerType.DAYZ || type == ServerType.DAYZ_EXP) {
+            config = getDayZTestConfig(ports.queryPort());
+        } else if (type == ServerType.REFORGER) {
+            config = getReforgerTestConfig(ports.port(), ports.queryPort());
         }
-        return testCfgFile;
+        Path testCfgFile = workingDirectory.resolve(TEST_CONFIG_FILE_NAME);
+        Files.writeString(testCfgFile, config);
+        return testCfgFile.toFile();
     }
 
-    private List<String> getLaunchParameters(ServerType type, int port, File configFile) {
+    private List<String> getLaunchParameters(ServerType type, int port, File configFile, Path workingDirectory) {
         List<String> parameters = new ArrayList<>();
         if (type == ServerType.ARMA3) {
-            addArma3LaunchParameters(parameters, port);
+            addArma3LaunchParameters(parameters, port, configFile, workingDirectory);
         } else if (type == ServerType.DAYZ || type == ServerType.DAYZ_EXP) {
-            addDayZLaunchParameters(parameters, port);
+            addDayZLaunchParameters(parameters, port, configFile, workingDirectory);
         } else if (type == ServerType.REFORGER) {
-            addReforgerLaunchParameters(parameters, configFile.getAbsolutePath());
+            addReforgerLaunchParameters(parameters, configFile, workingDirectory);
         }
         return parameters;
     }
 
-    private void addArma3LaunchParameters(List<String> parameters, int port) {
+    private void addArma3LaunchParameters(List<String> parameters, int port, File configFile, Path workingDirectory) {
         parameters.add("-nosplash");
         parameters.add("-skipIntro");
         parameters.add("-world=empty");
-        parameters.add("-config=TEST_CONFIG.cfg");
+        parameters.add("-config=\"" + configFile.getAbsolutePath() + "\"");
+        parameters.add("-profiles=\"" + workingDirectory.toAbsolutePath() + "\"");
         parameters.add("-port=" + port);
     }
 
-    private void addDayZLaunchParameters(List<String> parameters, int port) {
+    private void addDayZLaunchParameters(List<String> parameters, int port, File configFile, Path workingDirectory) {
         parameters.add("-limitFPS=30");
         parameters.add("-freezeCheck");
-        parameters.add("-config=TEST_CONFIG.cfg");
+        parameters.add("-config=" + configFile.getAbsolutePath());
+        parameters.add("-profiles=" + workingDirectory.toAbsolutePath());
         parameters.add("-port=" + port);
     }
 
-    private void addReforgerLaunchParameters(List<String> parameters, String configFilePath) {
+    private void addReforgerLaunchParameters(List<String> parameters, File configFile, Path workingDirectory) {
         parameters.add("-config");
-        parameters.add(configFilePath);
+        parameters.add(configFile.getAbsolutePath());
+        parameters.add("-profile");
+        parameters.add(workingDirectory.toAbsolutePath().toString());
         parameters.add("-backendlog");
         parameters.add("-nothrow");
         parameters.add("-maxFPS=30");
@@ -177,11 +223,12 @@ class TestRunService {
                  """.formatted(port, port, queryPort);
     }
 
-    private int findAvailablePort() {
-        int port = 3000;
-        while (!SystemUtils.isPortAvailable(port) || !SystemUtils.isPortAvailable(port + 1)) {
-            port += 2;
-        }
-        return port;
+    private record DryRun(
+            ServerType type,
+            Process process,
+            PortBlock ports,
+            Path workingDirectory,
+            InetSocketAddress queryAddress
+    ) {
     }
-}
\ No newline at end of file
+}
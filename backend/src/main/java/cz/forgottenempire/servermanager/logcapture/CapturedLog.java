@@ -0,0 +1,103 @@
+package cz.forgottenempire.servermanager.logcapture;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the output of a single process and hands it over to a {@link RotatingLogWriter}. Reading and writing run on
+ * separate threads connected by an in-memory buffer, so slow disk I/O or rotation never blocks the pipe. If the
+ * buffer gets full, further output is dropped (and the loss is logged) rather than letting the process block on a
+ * full stdout.
+ */
+@Slf4j
+class CapturedLog {
+
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    private static final Duration DROPPED_OUTPUT_WARNING_INTERVAL = Duration.ofMinutes(1);
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final InputStream source;
+    private final RotatingLogWriter writer;
+    private final long bufferCapacity;
+    private final String name;
+
+    private final BlockingQueue<byte[]> buffer = new LinkedBlockingQueue<>();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicLong droppedBytes = new AtomicLong();
+    private volatile Instant lastDroppedOutputWarning = Instant.EPOCH;
+
+    CapturedLog(InputStream source, RotatingLogWriter writer, long bufferCapacity, String name) {
+        this.source = source;
+        this.writer = writer;
+        this.bufferCapacity = bufferCapacity;
+        this.name = name;
+    }
+
+    void start(ExecutorFactory executorFactory) {
+        executorFactory.startThread("log-capture-writer-" + name, this::writeBuffered);
+        executorFactory.startThread("log-capture-drain-" + name, this::drain);
+    }
+
+    private void drain() {
+        byte[] chunk = new byte[READ_CHUNK_SIZE];
+        try (source) {
+            int read;
+            while ((read = source.read(chunk)) != -1) {
+                if (read > 0) {
+                    enqueue(Arrays.copyOf(chunk, read));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Output stream of '{}' closed", name, e);
+        } finally {
+            buffer.add(END_OF_STREAM);
+        }
+    }
+
+    private void enqueue(byte[] data) {
+        if (bufferedBytes.addAndGet(data.length) > bufferCapacity) {
+            bufferedBytes.addAndGet(-data.length);
+            long dropped = droppedBytes.addAndGet(data.length);
+            Instant now = Instant.now();
+            if (now.isAfter(lastDroppedOutputWarning.plus(DROPPED_OUTPUT_WARNING_INTERVAL))) {
+                lastDroppedOutputWarning = now;
+                log.warn("Log capture buffer of '{}' is full, {} bytes of output dropped so far", name, dropped);
+            }
+            return;
+        }
+        buffer.add(data);
+    }
+
+    private void writeBuffered() {
+        try (writer) {
+            while (true) {
+                byte[] data = buffer.poll(1, TimeUnit.SECONDS);
+                if (data == END_OF_STREAM) {
+                    writer.flush();
+                    return;
+                }
+                if (data != null) {
+                    bufferedBytes.addAndGet(-data.length);
+                    writer.write(data, 0, data.length);
+                }
+                if (buffer.isEmpty()) {
+                    writer.rotateIfExpired();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Failed to write captured output of '{}'", name, e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package cz.forgottenempire.servermanager.logcapture;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Starts processes with their output written into a log file. By default, the output is appended to the file directly
+ * by the OS. With {@code logs.capture.enabled}, the manager reads the output through a pipe instead and splits it
+ * into segments by size and age, compressing closed segments in the background. Capturing is not possible when
+ * servers are kept running on shutdown of the manager, as they would lose their output together with the pipe.
+ */
+@Service
+@Slf4j
+public class LogCaptureService {
+
+    private final boolean enabled;
+    private final long segmentMaxSize;
+    private final Duration segmentMaxAge;
+    private final long bufferSize;
+    private final int archivedSegmentsKept;
+    private final Clock clock;
+    private final ExecutorFactory executorFactory;
+
+    // compression is CPU bound, it stays on a platform thread of low priority even with virtual threads
+    private final ExecutorService compressionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-compression");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    @Autowired
+    public LogCaptureService(
+            @Value("${logs.capture.enabled:false}") boolean enabled,
+            @Value("${logs.capture.segmentMaxSize:50MB}") DataSize segmentMaxSize,
+            @Value("${logs.capture.segmentMaxAge:24h}") Duration segmentMaxAge,
+            @Value("${logs.capture.bufferSize:8MB}") DataSize bufferSize,
+            @Value("${logs.capture.archivedSegmentsKept:30}") int archivedSegmentsKept,
+            @Value("${servers.keepRunningOnShutdown:false}") boolean keepRunningOnShutdown,
+            Clock clock,
+            ExecutorFactory executorFactory
+    ) {
+        if (enabled && keepRunningOnShutdown) {
+            log.warn("Log capture is disabled because servers are kept running on shutdown");
+        }
+        this.enabled = enabled && !keepRunningOnShutdown;
+        this.segmentMaxSize = segmentMaxSize.toBytes();
+        this.segmentMaxAge = segmentMaxAge;
+        this.bufferSize = bufferSize.toBytes();
+        this.archivedSegmentsKept = archivedSegmentsKept;
+        this.clock = clock;
+        this.executorFactory = executorFactory;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Process startWithOutputTo(ProcessBuilder processBuilder, File outputFile) throws IOException {
+        processBuilder.redirectErrorStream(true);
+        if (!enabled) {
+            return processBuilder
+                    .redirectOutput(Redirect.appendTo(outputFile))
+                    .start();
+        }
+
+        RotatingLogWriter writer = new RotatingLogWriter(outputFile.toPath(), segmentMaxSize, segmentMaxAge, clock,
+                this::onSegmentClosed);
+        Process process;
+        try {
+            process = processBuilder
+                    .redirectOutput(Redirect.PIPE)
+                    .start();
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+
+        new CapturedLog(process.getInputStream(), writer, bufferSize, outputFile.getName() + "-" + process.pid())
+                .start(executorFactory);
+        return process;
+    }
+
+    public List<LogSegment> getSegments(File logFile) {
+        return LogSegments.list(logFile.toPath());
+    }
+
+    private void onSegmentClosed(Path segment) {
+        compressionExecutor.execute(() -> {
+            compress(segment);
+            removeOldSegments(segment);
+        });
+    }
+
+    private void compress(Path segment) {
+        Path compressedSegment = Path.of(segment + LogSegments.COMPRESSED_SUFFIX);
+        Path temporaryFile = Path.of(compressedSegment + ".tmp");
+        try {
+            try (InputStream input = Files.newInputStream(segment);
+                 OutputStream output = new GZIPOutputStream(Files.newOutputStream(temporaryFile))) {
+                input.transferTo(output);
+            }
+            Files.move(temporaryFile, compressedSegment, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (IOException e) {
+            log.error("Failed to compress log segment '{}'", segment, e);
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException ignored) {
+                // nothing more to do, the uncompressed segment is still kept
+            }
+        }
+    }
+
+    private void removeOldSegments(Path closedSegment) {
+        Path activeFile = getActiveFile(closedSegment);
+        if (activeFile == null) {
+            return;
+        }
+
+        List<Path> archivedSegments = LogSegments.listArchivedSegmentFiles(activeFile);
+        int segmentsToRemove = archivedSegments.size() - archivedSegmentsKept;
+        for (int i = 0; i < segmentsToRemove; i++) {
+            try {
+                Files.deleteIfExists(archivedSegments.get(i));
+            } catch (IOException e) {
+                log.warn("Failed to remove old log segment '{}'", archivedSegments.get(i), e);
+            }
+        }
+    }
+
+    private Path getActiveFile(Path archivedSegment) {
+        // <base>.<timestamp>[-n]<ext> -> <base><ext>
+        String fileName = archivedSegment.getFileName().toString();
+        String withoutTimestamp = fileName.replaceFirst("\\.\\d{8}-\\d{6}(-\\d+)?", "");
+        if (withoutTimestamp.equals(fileName)) {
+            return null;
+        }
+        return archivedSegment.resolveSibling(withoutTimestamp);
+    }
+}
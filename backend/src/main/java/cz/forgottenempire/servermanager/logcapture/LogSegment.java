@@ -0,0 +1,12 @@
+package cz.forgottenempire.servermanager.logcapture;
+
+import java.time.LocalDateTime;
+
+public record LogSegment(
+        String name,
+        long size,
+        LocalDateTime lastModified,
+        boolean compressed,
+        boolean active
+) {
+}
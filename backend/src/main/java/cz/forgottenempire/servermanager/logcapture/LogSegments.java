@@ -0,0 +1,131 @@
+package cz.forgottenempire.servermanager.logcapture;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Naming scheme of rotated log segments. The active segment always keeps the original log file name, so anything
+ * reading the log directly keeps working. Closed segments are renamed to {@code <name>.<yyyyMMdd-HHmmss>.<ext>}
+ * (using the time the segment was started) and get a {@code .gz} suffix once compressed.
+ */
+public final class LogSegments {
+
+    public static final String COMPRESSED_SUFFIX = ".gz";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private LogSegments() {
+    }
+
+    public static Path archivedSegmentPath(Path activeFile, LocalDateTime segmentStartedAt) {
+        String baseName = getBaseName(activeFile);
+        String extension = getExtension(activeFile);
+        String timestamp = segmentStartedAt.format(TIMESTAMP_FORMAT);
+
+        Path segment = activeFile.resolveSibling(baseName + "." + timestamp + extension);
+        int suffix = 1;
+        while (Files.exists(segment) || Files.exists(Path.of(segment + COMPRESSED_SUFFIX))) {
+            segment = activeFile.resolveSibling(baseName + "." + timestamp + "-" + suffix + extension);
+            suffix++;
+        }
+        return segment;
+    }
+
+    /**
+     * Lists all segments of the given log, ordered from the oldest to the active one.
+     */
+    public static List<LogSegment> list(Path activeFile) {
+        List<LogSegment> segments = new ArrayList<>();
+        listArchivedSegmentFiles(activeFile).forEach(file -> segments.add(toSegment(file, false)));
+        if (Files.isRegularFile(activeFile)) {
+            segments.add(toSegment(activeFile, true));
+        }
+        return segments;
+    }
+
+    public static List<Path> listArchivedSegmentFiles(Path activeFile) {
+        Path directory = activeFile.toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        Pattern segmentPattern = getSegmentPattern(activeFile);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> segmentPattern.matcher(file.getFileName().toString()).matches())
+                    // timestamps in names sort chronologically
+                    .sorted(Comparator.comparing(file -> stripCompressedSuffix(file.getFileName().toString())))
+                    .toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    public static Optional<Path> findLatestArchivedSegment(Path activeFile) {
+        List<Path> archivedSegments = listArchivedSegmentFiles(activeFile);
+        if (archivedSegments.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(archivedSegments.get(archivedSegments.size() - 1));
+    }
+
+    public static Optional<Path> findSegment(Path activeFile, String segmentName) {
+        if (activeFile.getFileName().toString().equals(segmentName)) {
+            return Optional.of(activeFile);
+        }
+        return listArchivedSegmentFiles(activeFile).stream()
+                .filter(file -> file.getFileName().toString().equals(segmentName))
+                .findFirst();
+    }
+
+    public static boolean isCompressed(Path segment) {
+        return segment.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    private static LogSegment toSegment(Path file, boolean active) {
+        long size = 0;
+        LocalDateTime lastModified = null;
+        try {
+            size = Files.size(file);
+            lastModified = LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+        } catch (IOException ignored) {
+            // the segment may have been compressed or deleted in the meantime
+        }
+        return new LogSegment(file.getFileName().toString(), size, lastModified, isCompressed(file), active);
+    }
+
+    private static Pattern getSegmentPattern(Path activeFile) {
+        return Pattern.compile(Pattern.quote(getBaseName(activeFile) + ".")
+                + "\\d{8}-\\d{6}(-\\d+)?"
+                + Pattern.quote(getExtension(activeFile))
+                + "(" + Pattern.quote(COMPRESSED_SUFFIX) + ")?");
+    }
+
+    private static String stripCompressedSuffix(String fileName) {
+        return fileName.endsWith(COMPRESSED_SUFFIX)
+                ? fileName.substring(0, fileName.length() - COMPRESSED_SUFFIX.length())
+                : fileName;
+    }
+
+    private static String getBaseName(Path file) {
+        String fileName = file.getFileName().toString();
+        int extensionIndex = fileName.lastIndexOf('.');
+        return extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName;
+    }
+
+    private static String getExtension(Path file) {
+        String fileName = file.getFileName().toString();
+        int extensionIndex = fileName.lastIndexOf('.');
+        return extensionIndex > 0 ? fileName.substring(extensionIndex) : "";
+    }
+}
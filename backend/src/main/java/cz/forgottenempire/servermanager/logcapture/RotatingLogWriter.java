@@ -0,0 +1,128 @@
+package cz.forgottenempire.servermanager.logcapture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Writes captured output into the active log file and rotates it once it grows over the configured size or gets
+ * older than the configured age. Rotation happens at the last line break of the written chunk where possible, so
+ * lines are not split between two segments. Not thread safe, meant to be used only by the capture writer thread.
+ */
+class RotatingLogWriter implements Closeable {
+
+    private final Path activeFile;
+    private final long maxSegmentSize;
+    private final Duration maxSegmentAge;
+    private final Clock clock;
+    private final Consumer<Path> onSegmentClosed;
+
+    private FileChannel channel;
+    private long segmentSize;
+    private LocalDateTime segmentStartedAt;
+
+    RotatingLogWriter(Path activeFile, long maxSegmentSize, Duration maxSegmentAge, Clock clock,
+            Consumer<Path> onSegmentClosed) throws IOException {
+        this.activeFile = activeFile;
+        this.maxSegmentSize = maxSegmentSize;
+        this.maxSegmentAge = maxSegmentAge;
+        this.clock = clock;
+        this.onSegmentClosed = onSegmentClosed;
+        openActiveFile();
+    }
+
+    void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            long remaining = maxSegmentSize - segmentSize;
+            if (remaining <= 0) {
+                rotate();
+                continue;
+            }
+
+            int chunkLength = length;
+            if (length > remaining) {
+                chunkLength = findSplitPoint(data, offset, (int) remaining);
+            }
+
+            writeFully(data, offset, chunkLength);
+            offset += chunkLength;
+            length -= chunkLength;
+
+            if (length > 0) {
+                rotate();
+            }
+        }
+    }
+
+    /**
+     * Rotates the active segment if it is older than the maximum age. Called periodically by the capture thread even
+     * when no output arrives, so quiet servers still get their logs split up daily.
+     */
+    void rotateIfExpired() throws IOException {
+        if (segmentSize > 0 && !LocalDateTime.now(clock).isBefore(segmentStartedAt.plus(maxSegmentAge))) {
+            rotate();
+        }
+    }
+
+    void flush() throws IOException {
+        channel.force(false);
+    }
+
+    long getSegmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        Path archivedSegment = LogSegments.archivedSegmentPath(activeFile, segmentStartedAt);
+        Files.move(activeFile, archivedSegment);
+        onSegmentClosed.accept(archivedSegment);
+        openActiveFile();
+    }
+
+    private void openActiveFile() throws IOException {
+        Path parent = activeFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(activeFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentSize = channel.size();
+        segmentStartedAt = LocalDateTime.now(clock);
+    }
+
+    private void writeFully(byte[] data, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        segmentSize += length;
+    }
+
+    /**
+     * Finds the length of the chunk to write into the current segment, ending right after the last line break
+     * within the limit. When there is no line break at all (or the segment is still empty), the chunk is cut hard
+     * at the limit instead, so that a single huge line can't grow the segment indefinitely.
+     */
+    private int findSplitPoint(byte[] data, int offset, int limit) {
+        for (int i = offset + limit - 1; i >= offset; i--) {
+            if (data[i] == '\n') {
+                return i - offset + 1;
+            }
+        }
+        return segmentSize == 0 ? limit : 0;
+    }
+}
@@ -0,0 +1,40 @@
+package cz.forgottenempire.servermanager.maintenance;
+
+import cz.forgottenempire.servermanager.common.exceptions.CustomUserErrorException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Slf4j
+@RequestMapping("/api/maintenance")
+class MaintenanceController {
+
+    private final MaintenanceService maintenanceService;
+
+    @Autowired
+    public MaintenanceController(MaintenanceService maintenanceService) {
+        this.maintenanceService = maintenanceService;
+    }
+
+    @GetMapping
+    public ResponseEntity<MaintenanceStatus> getStatus() {
+        return maintenanceService.getStatus()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> startMaintenance() {
+        log.info("Starting maintenance on request");
+        if (!maintenanceService.startMaintenance()) {
+            throw new CustomUserErrorException("Maintenance is already running", HttpStatus.CONFLICT);
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
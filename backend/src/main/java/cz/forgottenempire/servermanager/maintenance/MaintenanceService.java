@@ -0,0 +1,297 @@
+package cz.forgottenempire.servermanager.maintenance;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import cz.forgottenempire.servermanager.common.InstallationStatus;
+import cz.forgottenempire.servermanager.maintenance.MaintenanceStatus.Phase;
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessService;
+import cz.forgottenempire.servermanager.workshop.WorkshopMod;
+import cz.forgottenempire.servermanager.workshop.WorkshopModsFacade;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Nightly maintenance of mods and the servers using them. Only mods with a newer version in the workshop are updated,
+ * and only running servers which have any of the updated mods active are restarted afterwards, so they load the new
+ * versions.
+ * <p>
+ * Servers with no players online are restarted right away, the others once they are empty, but at the latest when
+ * {@code maintenance.restartDeadline} passes. Servers restarted or stopped in the meantime, e.g. by their automatic
+ * restart, are left alone. The restarts go through the start queue, so they're staggered like any other start.
+ * <p>
+ * The mods are not staged, SteamCMD updates them in place. Servers started while the update runs, or running ones
+ * loading a mod from the disk, may see a partially downloaded mod until they are restarted.
+ */
+@Service
+@Slf4j
+public class MaintenanceService {
+
+    private final WorkshopModsFacade modsFacade;
+    private final ServerRepository serverRepository;
+    private final ServerProcessService serverProcessService;
+    private final Duration restartDeadline;
+    private final Clock clock;
+    private final Executor executor;
+
+    // guarded by this
+    private MaintenanceRun run;
+
+    @Autowired
+    public MaintenanceService(
+            WorkshopModsFacade modsFacade,
+            ServerRepository serverRepository,
+            ServerProcessService serverProcessService,
+            @Value("${maintenance.restartDeadline:2h}") Duration restartDeadline,
+            Clock clock,
+            ExecutorFactory executorFactory
+    ) {
+        this(modsFacade, serverRepository, serverProcessService, restartDeadline, clock,
+                executorFactory.newFixedThreadPool("maintenance-", 1));
+    }
+
+    MaintenanceService(WorkshopModsFacade modsFacade, ServerRepository serverRepository,
+            ServerProcessService serverProcessService, Duration restartDeadline, Clock clock, Executor executor) {
+        this.modsFacade = modsFacade;
+        this.serverRepository = serverRepository;
+        this.serverProcessService = serverProcessService;
+        this.restartDeadline = restartDeadline;
+        this.clock = clock;
+        this.executor = executor;
+    }
+
+    @Scheduled(cron = "${maintenance.cron:0 0 3 * * *}")
+    void runScheduledMaintenance() {
+        if (!startMaintenance()) {
+            log.warn("Scheduled maintenance skipped, the previous one is still running");
+        }
+    }
+
+    /**
+     * Checks all mods for updates, installs the updated ones and then restarts the servers using them. The check
+     * asks the workshop about every mod, so it runs in the background, its progress is told by the status.
+     *
+     * @return false if a maintenance is already running
+     */
+    public boolean startMaintenance() {
+        MaintenanceRun currentRun;
+        synchronized (this) {
+            if (run != null && run.phase != Phase.FINISHED) {
+                return false;
+            }
+            currentRun = new MaintenanceRun(clock.instant());
+            run = currentRun;
+        }
+
+        try {
+            executor.execute(() -> updateMods(currentRun));
+        } catch (RuntimeException e) {
+            finish(currentRun);
+            throw e;
+        }
+        return true;
+    }
+
+    private void updateMods(MaintenanceRun currentRun) {
+        log.info("Running maintenance, checking mods for updates");
+        List<Long> modIds;
+        try {
+            modIds = modsFacade.findModsWithUpdates();
+        } catch (RuntimeException e) {
+            log.error("Failed to check mods for updates", e);
+            finish(currentRun);
+            return;
+        }
+        if (modIds.isEmpty()) {
+            log.info("All mods are up to date");
+            finish(currentRun);
+            return;
+        }
+
+        log.info("Updating {} mods: {}", modIds.size(), modIds);
+        CompletableFuture<Void> update;
+        synchronized (this) {
+            currentRun.phase = Phase.UPDATING_MODS;
+            currentRun.modIds = modIds;
+        }
+        try {
+            update = modsFacade.updateMods(modIds);
+        } catch (RuntimeException e) {
+            log.error("Failed to update mods, no servers will be restarted", e);
+            finish(currentRun);
+            return;
+        }
+        update.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.error("Update of mods didn't complete, restarting only servers using the updated ones", throwable);
+            }
+            handleModsUpdated(currentRun);
+        });
+    }
+
+    public synchronized Optional<MaintenanceStatus> getStatus() {
+        if (run == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new MaintenanceStatus(
+                run.phase,
+                run.startedAt,
+                run.finishedAt,
+                List.copyOf(run.updatedModIds),
+                List.copyOf(run.failedModIds),
+                List.copyOf(run.pendingServerIds),
+                List.copyOf(run.restartedServerIds),
+                run.restartDeadline));
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    void restartPendingServers() {
+        restartPendingServers(clock.instant());
+    }
+
+    synchronized void restartPendingServers(Instant now) {
+        if (run == null || run.phase != Phase.RESTARTING_SERVERS) {
+            return;
+        }
+
+        boolean deadlinePassed = !now.isBefore(run.restartDeadline);
+        List<ServerToRestart> serversToRestart = new ArrayList<>();
+        for (Long serverId : List.copyOf(run.pendingServerIds)) {
+            ServerInstanceInfo instanceInfo = serverProcessService.getServerInstanceInfo(serverId);
+            RestartDecision decision = evaluate(instanceInfo, run.modsUpdatedAt, deadlinePassed);
+            if (decision == RestartDecision.SKIP) {
+                log.info("Server ID {} was stopped or restarted since the mods were updated, not restarting it",
+                        serverId);
+                run.pendingServerIds.remove(serverId);
+            } else if (decision == RestartDecision.RESTART) {
+                serversToRestart.add(new ServerToRestart(serverId, instanceInfo.getPlayersOnline()));
+            }
+        }
+
+        // empty servers go first in the start queue
+        serversToRestart.sort(Comparator.comparingInt(ServerToRestart::playersOnline));
+        for (ServerToRestart server : serversToRestart) {
+            if (server.playersOnline() > 0) {
+                log.info("Restart deadline passed, restarting server ID {} with {} players online",
+                        server.serverId(), server.playersOnline());
+            }
+            try {
+                serverProcessService.restartServer(server.serverId());
+                run.restartedServerIds.add(server.serverId());
+            } catch (RuntimeException e) {
+                log.error("Failed to restart server ID {} after updating its mods", server.serverId(), e);
+            }
+            run.pendingServerIds.remove(server.serverId());
+        }
+
+        if (run.pendingServerIds.isEmpty()) {
+            log.info("Maintenance finished, {} servers restarted", run.restartedServerIds.size());
+            run.phase = Phase.FINISHED;
+            run.finishedAt = now;
+        }
+    }
+
+    /**
+     * @param modsUpdatedAt  when the mods used by the server were updated
+     * @param deadlinePassed whether to restart the server even with players online
+     */
+    static RestartDecision evaluate(ServerInstanceInfo instanceInfo, LocalDateTime modsUpdatedAt,
+            boolean deadlinePassed) {
+        // stopped servers load the new mods on the next start, restarted ones already did
+        if (instanceInfo == null || !instanceInfo.isAlive() || instanceInfo.getStartedAt().isAfter(modsUpdatedAt)) {
+            return RestartDecision.SKIP;
+        }
+        if (instanceInfo.getPlayersOnline() == 0 || deadlinePassed) {
+            return RestartDecision.RESTART;
+        }
+        return RestartDecision.WAIT;
+    }
+
+    private void handleModsUpdated(MaintenanceRun currentRun) {
+        List<Long> updatedModIds = new ArrayList<>();
+        List<Long> failedModIds = new ArrayList<>();
+        Set<Long> serverIds = new LinkedHashSet<>();
+        try {
+            for (Long modId : currentRun.modIds) {
+                boolean updated = modsFacade.getMod(modId)
+                        .map(WorkshopMod::getInstallationStatus)
+                        .filter(status -> status == InstallationStatus.FINISHED)
+                        .isPresent();
+                if (updated) {
+                    updatedModIds.add(modId);
+                    serverIds.addAll(serverRepository.findAllServerIdsByActiveMod(modId));
+                } else {
+                    failedModIds.add(modId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to find servers using the updated mods", e);
+        }
+
+        synchronized (this) {
+            currentRun.updatedModIds = updatedModIds;
+            currentRun.failedModIds = failedModIds;
+            currentRun.modsUpdatedAt = LocalDateTime.now(clock);
+            currentRun.restartDeadline = clock.instant().plus(restartDeadline);
+            for (Long serverId : serverIds) {
+                ServerInstanceInfo instanceInfo = serverProcessService.getServerInstanceInfo(serverId);
+                if (instanceInfo != null && instanceInfo.isAlive()) {
+                    currentRun.pendingServerIds.add(serverId);
+                }
+            }
+            log.info("{} mods updated, {} failed, {} running servers to restart until {}", updatedModIds.size(),
+                    failedModIds.size(), currentRun.pendingServerIds.size(), currentRun.restartDeadline);
+            currentRun.phase = Phase.RESTARTING_SERVERS;
+        }
+        // restart the empty servers right away instead of waiting for the next check
+        restartPendingServers(clock.instant());
+    }
+
+    private synchronized void finish(MaintenanceRun currentRun) {
+        currentRun.phase = Phase.FINISHED;
+        currentRun.finishedAt = clock.instant();
+    }
+
+    enum RestartDecision {
+        SKIP,
+        WAIT,
+        RESTART
+    }
+
+    private record ServerToRestart(long serverId, int playersOnline) {
+    }
+
+    private static class MaintenanceRun {
+
+        private final Instant startedAt;
+        private Phase phase = Phase.CHECKING_MODS;
+        private Instant finishedAt;
+        private List<Long> modIds = List.of();
+        private List<Long> updatedModIds = List.of();
+        private List<Long> failedModIds = List.of();
+        private LocalDateTime modsUpdatedAt;
+        private Instant restartDeadline;
+        private final Set<Long> pendingServerIds = new LinkedHashSet<>();
+        private final List<Long> restartedServerIds = new ArrayList<>();
+
+        private MaintenanceRun(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package cz.forgottenempire.servermanager.maintenance;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param restartDeadline servers still having players online are restarted anyway after this time, null until the
+ *                        mods are updated
+ */
+public record MaintenanceStatus(
+        Phase phase,
+        Instant startedAt,
+        Instant finishedAt,
+        List<Long> updatedModIds,
+        List<Long> failedModIds,
+        List<Long> pendingServerIds,
+        List<Long> restartedServerIds,
+        Instant restartDeadline
+) {
+
+    public enum Phase {
+        CHECKING_MODS,
+        UPDATING_MODS,
+        RESTARTING_SERVERS,
+        FINISHED
+    }
+}
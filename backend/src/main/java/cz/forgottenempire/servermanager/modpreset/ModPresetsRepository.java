@@ -1,17 +1,31 @@
 package cz.forgottenempire.servermanager.modpreset;
 
 import cz.forgottenempire.servermanager.common.ServerType;
-import cz.forgottenempire.servermanager.workshop.WorkshopMod;
 import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 interface ModPresetsRepository extends JpaRepository<ModPreset, Long> {
 
-    Collection<ModPreset> getAllByModsContaining(WorkshopMod mod);
-
     Collection<ModPreset> getAllByType(ServerType serverType);
 
     boolean existsByName(String name);
+
+    @Query(value = """
+            SELECT preset_id FROM preset_mod
+            GROUP BY preset_id
+            HAVING SUM(CASE WHEN mod_id IN (?1) THEN 0 ELSE 1 END) = 0
+            """,
+            nativeQuery = true)
+    List<Long> findAllPresetIdsContainingOnlyMods(Collection<Long> modIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM preset_mod WHERE mod_id IN (?1)", nativeQuery = true)
+    void removeModsFromAllPresets(Collection<Long> modIds);
 }
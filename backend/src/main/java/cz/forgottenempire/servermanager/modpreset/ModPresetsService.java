@@ -1,11 +1,12 @@
 package cz.forgottenempire.servermanager.modpreset;
 
 import cz.forgottenempire.servermanager.common.ServerType;
-import cz.forgottenempire.servermanager.workshop.WorkshopMod;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ModPresetsService {
@@ -25,8 +26,16 @@ public class ModPresetsService {
         return presetsRepository.getAllByType(serverType);
     }
 
-    public Collection<ModPreset> getAllPresetsContainingMod(WorkshopMod mod) {
-        return presetsRepository.getAllByModsContaining(mod);
+    /**
+     * Removes the mods from all presets, presets left without any mod are deleted.
+     */
+    @Transactional
+    public void removeModsFromPresets(Collection<Long> modIds) {
+        List<Long> presetIdsToDelete = presetsRepository.findAllPresetIdsContainingOnlyMods(modIds);
+        presetsRepository.removeModsFromAllPresets(modIds);
+        if (!presetIdsToDelete.isEmpty()) {
+            presetsRepository.deleteAllByIdInBatch(presetIdsToDelete);
+        }
     }
 
     public Optional<ModPreset> getModPreset(Long id) {
@@ -0,0 +1,142 @@
+package cz.forgottenempire.servermanager.processtracking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps track of processes which are left running when the manager shuts down ({@code servers.keepRunningOnShutdown}).
+ * Each process is stored with its PID, start time and command line, so that after the manager starts again, it can be
+ * reattached only if the PID still belongs to the very same process.
+ */
+@Service
+@Slf4j
+public class ProcessTracker {
+
+    private final TrackedProcessRepository repository;
+    private final boolean keepRunningOnShutdown;
+
+    @Autowired
+    public ProcessTracker(
+            TrackedProcessRepository repository,
+            @Value("${servers.keepRunningOnShutdown:false}") boolean keepRunningOnShutdown
+    ) {
+        this.repository = repository;
+        this.keepRunningOnShutdown = keepRunningOnShutdown;
+    }
+
+    public boolean isKeepRunningOnShutdown() {
+        return keepRunningOnShutdown;
+    }
+
+    public void track(TrackedProcessType type, long ownerId, long pid, LocalDateTime startedAt) {
+        track(type, ownerId, pid, startedAt, true);
+    }
+
+    /**
+     * @param commandLineFinal false if the process was started through a command which replaces itself with the actual
+     *                         program later, such as {@code taskset}, the process is then identified by its start time
+     *                         only, which doesn't change
+     */
+    public void track(TrackedProcessType type, long ownerId, long pid, LocalDateTime startedAt,
+            boolean commandLineFinal) {
+        if (!keepRunningOnShutdown) {
+            return;
+        }
+
+        Optional<ProcessHandle.Info> info = ProcessHandle.of(pid).map(ProcessHandle::info);
+        TrackedProcess trackedProcess = repository.findByTypeAndOwnerId(type, ownerId).orElseGet(TrackedProcess::new);
+        trackedProcess.setType(type);
+        trackedProcess.setOwnerId(ownerId);
+        trackedProcess.setPid(pid);
+        trackedProcess.setStartedAt(startedAt);
+        trackedProcess.setProcessStartedAt(info.flatMap(ProcessHandle.Info::startInstant).orElse(null));
+        trackedProcess.setCommandLine(commandLineFinal
+                ? info.flatMap(ProcessHandle.Info::commandLine).orElse(null)
+                : null);
+        trackedProcess.setHeadlessClientsCount(0);
+        save(trackedProcess);
+    }
+
+    public void updateHeadlessClientsCount(long serverId, int headlessClientsCount) {
+        if (!keepRunningOnShutdown) {
+            return;
+        }
+
+        repository.findByTypeAndOwnerId(TrackedProcessType.SERVER, serverId).ifPresent(trackedProcess -> {
+            trackedProcess.setHeadlessClientsCount(headlessClientsCount);
+            save(trackedProcess);
+        });
+    }
+
+    public void untrack(TrackedProcessType type, long ownerId) {
+        if (!keepRunningOnShutdown) {
+            return;
+        }
+
+        try {
+            repository.findByTypeAndOwnerId(type, ownerId).ifPresent(repository::delete);
+        } catch (RuntimeException e) {
+            log.error("Failed to remove tracked process of {} ID {}", type, ownerId, e);
+        }
+    }
+
+    /**
+     * Finds processes left running by the previous run of the manager. Records of processes which are no longer
+     * running, or whose PID was reused by another process, are removed.
+     */
+    public List<ReattachableProcess> findReattachableProcesses(TrackedProcessType type) {
+        List<TrackedProcess> trackedProcesses = repository.findAllByType(type);
+        if (!keepRunningOnShutdown) {
+            // left over from a run with the option enabled, the processes were stopped since
+            repository.deleteAll(trackedProcesses);
+            return List.of();
+        }
+
+        List<ReattachableProcess> reattachableProcesses = new ArrayList<>();
+        for (TrackedProcess trackedProcess : trackedProcesses) {
+            Optional<ProcessHandle> process = ProcessHandle.of(trackedProcess.getPid())
+                    .filter(ProcessHandle::isAlive)
+                    .filter(handle -> isSameProcess(trackedProcess, handle.info()));
+            if (process.isEmpty()) {
+                log.info("Process of {} ID {} (PID {}) is no longer running", trackedProcess.getType(),
+                        trackedProcess.getOwnerId(), trackedProcess.getPid());
+                repository.delete(trackedProcess);
+                continue;
+            }
+            reattachableProcesses.add(new ReattachableProcess(trackedProcess.getOwnerId(), process.get(),
+                    trackedProcess.getStartedAt(), trackedProcess.getHeadlessClientsCount()));
+        }
+        return reattachableProcesses;
+    }
+
+    static boolean isSameProcess(TrackedProcess trackedProcess, ProcessHandle.Info info) {
+        Instant processStartedAt = trackedProcess.getProcessStartedAt();
+        String commandLine = trackedProcess.getCommandLine();
+        if (processStartedAt == null && commandLine == null) {
+            // nothing to verify the process with, better not to touch it
+            return false;
+        }
+        if (processStartedAt != null && !info.startInstant().map(processStartedAt::equals).orElse(false)) {
+            return false;
+        }
+        return commandLine == null || info.commandLine().map(commandLine::equals).orElse(false);
+    }
+
+    private void save(TrackedProcess trackedProcess) {
+        try {
+            repository.save(trackedProcess);
+        } catch (RuntimeException e) {
+            // the process itself is fine, it just won't be reattached after a restart of the manager
+            log.error("Failed to store tracked process of {} ID {}", trackedProcess.getType(),
+                    trackedProcess.getOwnerId(), e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package cz.forgottenempire.servermanager.processtracking;
+
+import java.time.LocalDateTime;
+
+/**
+ * A process left running by the previous run of the manager which was verified to still be the same process.
+ */
+public record ReattachableProcess(
+        long ownerId,
+        ProcessHandle process,
+        LocalDateTime startedAt,
+        int headlessClientsCount
+) {
+}
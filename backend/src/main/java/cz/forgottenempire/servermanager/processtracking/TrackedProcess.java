@@ -0,0 +1,46 @@
+package cz.forgottenempire.servermanager.processtracking;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * A process started by the manager which is left running when the manager shuts down, so that it can be reattached
+ * after the manager starts again.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+class TrackedProcess {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private TrackedProcessType type;
+
+    private long ownerId;
+    private long pid;
+
+    // start time as reported by the OS, guards against the PID being reused by an unrelated process
+    private Instant processStartedAt;
+
+    @NotNull
+    private LocalDateTime startedAt;
+
+    private String commandLine;
+    private int headlessClientsCount;
+}
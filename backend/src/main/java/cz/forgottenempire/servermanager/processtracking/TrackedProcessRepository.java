@@ -0,0 +1,15 @@
+package cz.forgottenempire.servermanager.processtracking;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+interface TrackedProcessRepository extends JpaRepository<TrackedProcess, Long> {
+
+    List<TrackedProcess> findAllByType(TrackedProcessType type);
+
+    Optional<TrackedProcess> findByTypeAndOwnerId(TrackedProcessType type, long ownerId);
+}
@@ -0,0 +1,6 @@
+package cz.forgottenempire.servermanager.processtracking;
+
+public enum TrackedProcessType {
+    SERVER,
+    ADDITIONAL_SERVER
+}
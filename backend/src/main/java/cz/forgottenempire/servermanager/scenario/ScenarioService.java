@@ -4,6 +4,7 @@ import static java.time.ZoneId.systemDefault;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
 import cz.forgottenempire.servermanager.common.PathsFactory;
 import cz.forgottenempire.servermanager.common.ProcessFactory;
 import cz.forgottenempire.servermanager.common.ServerType;
@@ -37,12 +38,14 @@ class ScenarioService {
 
     private final ProcessFactory processFactory;
     private final PathsFactory pathsFactory;
+    private final ExecutorFactory executorFactory;
 
 
     @Autowired
-    public ScenarioService(ProcessFactory processFactory, PathsFactory pathsFactory) {
+    public ScenarioService(ProcessFactory processFactory, PathsFactory pathsFactory, ExecutorFactory executorFactory) {
         this.processFactory = processFactory;
         this.pathsFactory = pathsFactory;
+        this.executorFactory = executorFactory;
     }
 
     public void uploadScenarioToServer(MultipartFile file) {
@@ -147,13 +150,13 @@ class ScenarioService {
     }
 
     private void startWatchdogThread(Process process) {
-        new Thread(() -> {
+        executorFactory.startThread("scenarios-watchdog-" + process.pid(), () -> {
             try {
                 process.waitFor(30, TimeUnit.SECONDS);
                 process.destroyForcibly();
             } catch (InterruptedException ignored) {
             }
-        }).start();
+        });
     }
 
     private ReforgerScenarioDto parseLineToScenarioDto(String line, boolean official) {
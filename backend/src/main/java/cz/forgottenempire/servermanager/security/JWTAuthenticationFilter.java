@@ -1,6 +1,5 @@
 package cz.forgottenempire.servermanager.security;
 
-import com.auth0.jwt.JWT;
 import com.google.gson.JsonObject;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,16 +10,17 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import java.io.IOException;
-import java.util.Date;
 
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
 import static cz.forgottenempire.servermanager.security.SecurityConstants.*;
 
 class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
-    public JWTAuthenticationFilter(AuthenticationManager authenticationManager) {
+    private final JwtTokenService jwtTokenService;
+
+    public JWTAuthenticationFilter(AuthenticationManager authenticationManager, JwtTokenService jwtTokenService) {
         super();
         this.setAuthenticationManager(authenticationManager);
+        this.jwtTokenService = jwtTokenService;
     }
 
     @Override
@@ -29,10 +29,7 @@ class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
             FilterChain chain,
             Authentication auth
     ) throws IOException {
-        String token = JWT.create()
-                .withSubject(((User) auth.getPrincipal()).getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(HMAC512(SecurityConstants.getSecret().getBytes()));
+        String token = jwtTokenService.createToken(((User) auth.getPrincipal()).getUsername());
         res.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
         res.setContentType("application/json");
         res.setCharacterEncoding("UTF-8");
@@ -1,8 +1,5 @@
 package cz.forgottenempire.servermanager.security;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.auth0.jwt.exceptions.JWTVerificationException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,8 +16,11 @@ import static cz.forgottenempire.servermanager.security.SecurityConstants.*;
 
 class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 
-    public JWTAuthorizationFilter(AuthenticationManager authenticationManager) {
+    private final JwtTokenService jwtTokenService;
+
+    public JWTAuthorizationFilter(AuthenticationManager authenticationManager, JwtTokenService jwtTokenService) {
         super(authenticationManager);
+        this.jwtTokenService = jwtTokenService;
     }
 
     @Override
@@ -46,16 +46,7 @@ class JWTAuthorizationFilter extends BasicAuthenticationFilter {
             return null;
         }
 
-        String user;
-        try {
-            user = JWT.require(Algorithm.HMAC512(secret.getBytes()))
-                    .build()
-                    .verify(token.replace(TOKEN_PREFIX, ""))
-                    .getSubject();
-        } catch (JWTVerificationException e) {
-            return null;
-        }
-
+        String user = jwtTokenService.getSubject(token.replace(TOKEN_PREFIX, ""));
         if (user != null) {
             return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
         }
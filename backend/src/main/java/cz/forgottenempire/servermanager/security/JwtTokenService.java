@@ -0,0 +1,121 @@
+package cz.forgottenempire.servermanager.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Creates and verifies the JSON web tokens of the UI. The UI polls several endpoints every second with the same token,
+ * so tokens verified once are remembered until they expire. They are kept by the hash of the token, so the tokens
+ * themselves don't stay in memory.
+ */
+@Component
+class JwtTokenService {
+
+    // tokens without an expiration are verified again after this time
+    private static final Duration MAX_CACHED_TIME = Duration.ofHours(1);
+
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Clock clock;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    JwtTokenService(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.verifiedTokensCached:1000}") int verifiedTokensCached,
+            Clock clock
+    ) {
+        this.algorithm = Algorithm.HMAC512(secret.getBytes());
+        this.verifier = ((JWTVerifier.BaseVerification) JWT.require(algorithm)).build(clock);
+        this.clock = clock;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokensCached)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+
+    String createToken(String subject) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(new Date(clock.millis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(algorithm);
+    }
+
+    /**
+     * @return subject of the token, null if the token is not valid
+     */
+    String getSubject(String token) {
+        String tokenHash = hash(token);
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(tokenHash);
+        if (verifiedToken != null && verifiedToken.isValidAt(clock.instant())) {
+            return verifiedToken.subject();
+        }
+
+        DecodedJWT decodedToken;
+        try {
+            decodedToken = verifier.verify(token);
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+        Instant expiresAt = decodedToken.getExpiresAtAsInstant();
+        Instant cachedUntil = clock.instant().plus(MAX_CACHED_TIME);
+        if (expiresAt != null && expiresAt.isBefore(cachedUntil)) {
+            cachedUntil = expiresAt;
+        }
+        verifiedTokens.put(tokenHash, new VerifiedToken(decodedToken.getSubject(), cachedUntil));
+        return decodedToken.getSubject();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(String subject, Instant cachedUntil) {
+
+        boolean isValidAt(Instant instant) {
+            return instant.isBefore(cachedUntil);
+        }
+    }
+
+    private class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String tokenHash, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(clock.instant(), token.cachedUntil()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, VerifiedToken token, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(tokenHash, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -39,15 +39,18 @@ class WebSecurityConfig {
     private final String password;
 
     private final AuthenticationConfiguration authenticationConfiguration;
+    private final JwtTokenService jwtTokenService;
 
     @Autowired
     public WebSecurityConfig(
             @Value("${auth.username}") String username,
             @Value("${auth.password}") String password,
-            AuthenticationConfiguration authenticationConfiguration) {
+            AuthenticationConfiguration authenticationConfiguration,
+            JwtTokenService jwtTokenService) {
         this.username = username;
         this.password = password;
         this.authenticationConfiguration = authenticationConfiguration;
+        this.jwtTokenService = jwtTokenService;
     }
 
     @Bean
@@ -71,8 +74,8 @@ class WebSecurityConfig {
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        JWTAuthorizationFilter jwtAuthorizationFilter = new JWTAuthorizationFilter(authenticationManager(authenticationConfiguration));
-        JWTAuthenticationFilter jwtAuthenticationFilter = new JWTAuthenticationFilter(authenticationManager(authenticationConfiguration));
+        JWTAuthorizationFilter jwtAuthorizationFilter = new JWTAuthorizationFilter(authenticationManager(authenticationConfiguration), jwtTokenService);
+        JWTAuthenticationFilter jwtAuthenticationFilter = new JWTAuthenticationFilter(authenticationManager(authenticationConfiguration), jwtTokenService);
         jwtAuthenticationFilter.setFilterProcessesUrl("/api/login");
 
         return http.csrf(AbstractHttpConfigurer::disable)
@@ -1,38 +1,153 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
+import cz.forgottenempire.servermanager.serverinstance.entities.RestartDeferralPolicy;
 import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Configurable;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler.StartType;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.TaskScheduler;
 
 import java.time.*;
 import java.util.concurrent.ScheduledFuture;
 
-@Configurable
+/**
+ * Restarts a server every day at the given time. With a {@link RestartDeferralPolicy}, the server is watched from
+ * the start of the early restart window and restarted at the first moment the policy allows. The decisions are based
+ * on the status of the server last queried by {@link CheckServerInstancesStatusCronJob}. Created by
+ * {@link AutomaticRestartTaskFactory}.
+ */
+@Slf4j
 public class AutomaticRestartTask {
 
+    private static final Duration CHECK_INTERVAL = Duration.ofMinutes(1);
+
     private Clock clock;
     private TaskScheduler taskScheduler;
+    private ServerStartScheduler startScheduler;
     private final ServerProcess serverProcess;
     private final LocalTime restartTime;
+    private final RestartDeferralPolicy deferralPolicy;
+    // guarded by this
     private ScheduledFuture<?> job;
+    private Instant plannedRestartAt;
+    private boolean cancelled;
 
     public AutomaticRestartTask(ServerProcess serverProcess, LocalTime restartTime) {
+        this(serverProcess, restartTime, null);
+    }
+
+    public AutomaticRestartTask(ServerProcess serverProcess, LocalTime restartTime,
+            RestartDeferralPolicy deferralPolicy) {
         this.serverProcess = serverProcess;
         this.restartTime = restartTime;
+        this.deferralPolicy = deferralPolicy;
     }
 
-    public AutomaticRestartTask schedule() {
-        job = taskScheduler.scheduleAtFixedRate(serverProcess::restart, getNearestFutureInstantOf(restartTime), Duration.ofDays(1));
+    public synchronized AutomaticRestartTask schedule() {
+        plannedRestartAt = getNearestFutureInstantOf(restartTime, LocalDateTime.now(clock));
+        if (isDeferralEnabled()) {
+            scheduleWatching();
+        } else {
+            // servers restarting at the same time are staggered by the start scheduler
+            job = taskScheduler.scheduleAtFixedRate(this::restart, plannedRestartAt, Duration.ofDays(1));
+        }
+        publishNextRestart(plannedRestartAt);
         return this;
     }
 
-    public void cancel() {
+    public synchronized void cancel() {
+        cancelled = true;
+        job.cancel(false);
+    }
+
+    private synchronized void restart() {
+        startScheduler.submit(serverProcess, StartType.RESTART);
+        plannedRestartAt = plannedRestartAt.plus(Duration.ofDays(1));
+        publishNextRestart(plannedRestartAt);
+    }
+
+    private void scheduleWatching() {
+        Instant windowStart = plannedRestartAt.minus(Duration.ofMinutes(deferralPolicy.getEarlyRestartWindowMinutes()));
+        Instant now = clock.instant();
+        job = taskScheduler.schedule(this::startWatching, windowStart.isAfter(now) ? windowStart : now);
+    }
+
+    private synchronized void startWatching() {
+        if (!cancelled) {
+            job = taskScheduler.scheduleWithFixedDelay(this::checkRestart, CHECK_INTERVAL);
+        }
+    }
+
+    private synchronized void checkRestart() {
+        if (cancelled) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        Decision decision = evaluate(deferralPolicy, serverProcess.getInstanceInfo(), plannedRestartAt, now);
+        if (decision == Decision.WAIT) {
+            if (!now.isBefore(plannedRestartAt)) {
+                publishNextRestart(getDeadline(deferralPolicy, plannedRestartAt));
+            }
+            return;
+        }
+
+        if (decision == Decision.RESTART) {
+            log.info("Automatic restart of server ID {} planned at {}, {} players online",
+                    serverProcess.getServerId(), plannedRestartAt, serverProcess.getInstanceInfo().getPlayersOnline());
+            startScheduler.submit(serverProcess, StartType.RESTART);
+        } else {
+            log.info("Server ID {} was started recently, skipping its automatic restart planned at {}",
+                    serverProcess.getServerId(), plannedRestartAt);
+        }
         job.cancel(false);
+        // the restart replaces this task with a new one, unless it doesn't get its turn in the start queue
+        plannedRestartAt = getNearestFutureInstantOf(restartTime,
+                LocalDateTime.ofInstant(plannedRestartAt.plusSeconds(1), ZoneId.systemDefault()));
+        scheduleWatching();
+        publishNextRestart(plannedRestartAt);
     }
 
-    private Instant getNearestFutureInstantOf(LocalTime localTime) {
-        LocalDateTime currentDateTime = LocalDateTime.now(clock);
+    /**
+     * @param plannedRestartAt the restart time of the current day
+     */
+    static Decision evaluate(RestartDeferralPolicy policy, ServerInstanceInfo instanceInfo, Instant plannedRestartAt,
+            Instant now) {
+        if (instanceInfo == null || !instanceInfo.isAlive()) {
+            return Decision.SKIP;
+        }
+        // a server started within the window already runs fresh, e.g. after restarting early
+        Instant windowStart = plannedRestartAt.minus(Duration.ofMinutes(policy.getEarlyRestartWindowMinutes()));
+        if (instanceInfo.getStartedAt().atZone(ZoneId.systemDefault()).toInstant().isAfter(windowStart)) {
+            return Decision.SKIP;
+        }
+
+        if (!now.isBefore(getDeadline(policy, plannedRestartAt))) {
+            return Decision.RESTART;
+        }
+        int playersOnline = instanceInfo.getPlayersOnline();
+        if (now.isBefore(plannedRestartAt)) {
+            return playersOnline == 0 ? Decision.RESTART : Decision.WAIT;
+        }
+        return playersOnline <= policy.getMaxPlayers() ? Decision.RESTART : Decision.WAIT;
+    }
+
+    private static Instant getDeadline(RestartDeferralPolicy policy, Instant plannedRestartAt) {
+        return plannedRestartAt.plus(Duration.ofMinutes(policy.getMaxDeferralMinutes()));
+    }
+
+    private boolean isDeferralEnabled() {
+        return deferralPolicy != null && deferralPolicy.isEnabled();
+    }
+
+    private void publishNextRestart(Instant nextRestartAt) {
+        ServerInstanceInfo instanceInfo = serverProcess.getInstanceInfo();
+        if (instanceInfo != null) {
+            instanceInfo.setNextRestartAt(LocalDateTime.ofInstant(nextRestartAt, ZoneId.systemDefault()));
+        }
+    }
+
+    private static Instant getNearestFutureInstantOf(LocalTime localTime, LocalDateTime currentDateTime) {
         LocalDateTime upcomingDateTime = LocalDateTime.of(currentDateTime.toLocalDate(), localTime);
         if (currentDateTime.isAfter(upcomingDateTime)) {
             upcomingDateTime = upcomingDateTime.plusDays(1);
@@ -40,13 +155,22 @@ public class AutomaticRestartTask {
         return upcomingDateTime.atZone(ZoneId.systemDefault()).toInstant();
     }
 
-    @Autowired
+    enum Decision {
+        WAIT,
+        RESTART,
+        // the server isn't running or was already restarted since the start of the window
+        SKIP
+    }
+
     void setClock(Clock clock) {
         this.clock = clock;
     }
 
-    @Autowired
     void setTaskScheduler(TaskScheduler taskScheduler) {
         this.taskScheduler = taskScheduler;
     }
+
+    void setStartScheduler(ServerStartScheduler startScheduler) {
+        this.startScheduler = startScheduler;
+    }
 }
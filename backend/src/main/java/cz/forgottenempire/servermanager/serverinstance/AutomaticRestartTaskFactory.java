@@ -0,0 +1,35 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.serverinstance.entities.RestartDeferralPolicy;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalTime;
+
+@Component
+public class AutomaticRestartTaskFactory {
+
+    private final Clock clock;
+    private final TaskScheduler taskScheduler;
+    private final ServerStartScheduler startScheduler;
+
+    @Autowired
+    public AutomaticRestartTaskFactory(Clock clock, TaskScheduler taskScheduler, ServerStartScheduler startScheduler) {
+        this.clock = clock;
+        this.taskScheduler = taskScheduler;
+        this.startScheduler = startScheduler;
+    }
+
+    public AutomaticRestartTask createTask(ServerProcess serverProcess, LocalTime restartTime,
+            RestartDeferralPolicy deferralPolicy) {
+        AutomaticRestartTask task = new AutomaticRestartTask(serverProcess, restartTime, deferralPolicy);
+        task.setClock(clock);
+        task.setTaskScheduler(taskScheduler);
+        task.setStartScheduler(startScheduler);
+        return task;
+    }
+}
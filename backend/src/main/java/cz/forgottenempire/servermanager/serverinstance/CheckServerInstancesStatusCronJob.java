@@ -3,8 +3,8 @@ package cz.forgottenempire.servermanager.serverinstance;
 import com.ibasco.agql.protocols.valve.source.query.SourceQueryClient;
 import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
 import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
 import cz.forgottenempire.servermanager.serverinstance.entities.Server;
-import cz.forgottenempire.servermanager.serverinstance.process.Arma3ServerProcess;
 import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
 import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
 import lombok.extern.slf4j.Slf4j;
@@ -15,62 +15,92 @@ import org.springframework.stereotype.Component;
 import java.net.InetSocketAddress;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Component
 @Slf4j
 class CheckServerInstancesStatusCronJob {
 
     private static final String LOCALHOST = "localhost";
+    // a healthy server answers within milliseconds, a longer timeout would only delay detecting hung servers
+    private static final long QUERY_TIMEOUT_SECONDS = 5;
 
     private final ServerProcessRepository processRepository;
     private final ServerInstanceService serverService;
+    private final ServerSupervisor serverSupervisor;
+    private final CgroupService cgroupService;
+    private final SourceQueryClient sourceQueryClient;
 
     @Autowired
-    public CheckServerInstancesStatusCronJob(ServerProcessRepository processRepository, ServerInstanceService serverService) {
+    public CheckServerInstancesStatusCronJob(ServerProcessRepository processRepository,
+            ServerInstanceService serverService, ServerSupervisor serverSupervisor, CgroupService cgroupService,
+            SourceQueryClient sourceQueryClient) {
         this.processRepository = processRepository;
         this.serverService = serverService;
+        this.serverSupervisor = serverSupervisor;
+        this.cgroupService = cgroupService;
+        this.sourceQueryClient = sourceQueryClient;
     }
 
+    // crashes are handled by the process itself as soon as it exits, only the game status is queried here
     @Scheduled(fixedDelay = 10000)
     public void checkServers() {
-        processRepository.getAll().stream()
+        serverSupervisor.pruneRestartHistory();
+        List<ServerProcess> runningProcesses = processRepository.getAll().stream()
                 .filter(CheckServerInstancesStatusCronJob::isServerStarted)
-                .forEach(this::checkServerProcess);
-    }
-
-    private void checkServerProcess(ServerProcess process) {
-        if (!process.isAlive()) {
-            handleCrashedServer(process);
+                .filter(ServerProcess::isAlive)
+                .toList();
+        if (runningProcesses.isEmpty()) {
             return;
         }
-        updateHeadlessClients(process);
-        updateServerInstanceInfo(process);
-    }
 
-    private void handleCrashedServer(ServerProcess serverProcess) {
-        serverProcess.stop();
-        log.warn("Server ID {} crashed or was exited outside the manager.", serverProcess.getServerId());
+        try {
+            // query all servers at once so a hung server doesn't delay checking the others
+            List<ServerStatusQuery> queries = runningProcesses.stream()
+                    .map(this::queryServer)
+                    .toList();
+            queries.forEach(this::processQueryResult);
+        } catch (Exception e) {
+            log.error("Failed to query status of running servers", e);
+        }
     }
 
-    private void updateServerInstanceInfo(ServerProcess process) {
+    private ServerStatusQuery queryServer(ServerProcess process) {
         Server server = getServer(process.getServerId());
-        ServerInstanceInfo instanceInfo = process.getInstanceInfo();
-        try (SourceQueryClient sourceQueryClient = new SourceQueryClient()) {
-            InetSocketAddress serverAddress = new InetSocketAddress(LOCALHOST, server.getQueryPort());
-            SourceQueryInfoResponse sourceQueryInfoResponse = sourceQueryClient.getInfo(serverAddress).get(30, TimeUnit.SECONDS);
+        InetSocketAddress serverAddress = new InetSocketAddress(LOCALHOST, server.getQueryPort());
+        return new ServerStatusQuery(server, process, sourceQueryClient.getInfo(serverAddress));
+    }
+
+    private void processQueryResult(ServerStatusQuery query) {
+        updateServerInstanceInfo(query);
+        query.process().getInstanceInfo()
+                .setResourceUsage(cgroupService.getServerStats(query.server().getId()).orElse(null));
+        serverSupervisor.check(query.server(), query.process());
+    }
+
+    private void updateServerInstanceInfo(ServerStatusQuery query) {
+        Server server = query.server();
+        ServerInstanceInfo instanceInfo = query.process().getInstanceInfo();
+        try {
+            SourceQueryInfoResponse sourceQueryInfoResponse = query.response().get(QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
             SourceServer sourceServer = sourceQueryInfoResponse.getResult();
             updateInstanceInfoFromQueryResult(instanceInfo, sourceServer);
-        } catch (ExecutionException e) {
+        } catch (ExecutionException | TimeoutException e) {
+            query.response().cancel(true);
             // ignore any timeouts that happen during the first minute of starting the server
             LocalDateTime startedAt = instanceInfo.getStartedAt();
-            if (startedAt.isBefore(LocalDateTime.now().minus(1, ChronoUnit.MINUTES))) {
+            if (startedAt != null && startedAt.isBefore(LocalDateTime.now().minus(1, ChronoUnit.MINUTES))) {
                 log.warn("Timeout happened during querying the status of server {} (ID {}) on port {}. " +
                                 "It may not have finished initialization yet. If this message keeps occurring, " +
                                 "there's likely a problem with the server.",
                         server.getName(), server.getId(), server.getQueryPort());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Couldn't query server {} (ID {}) on port {}",
                     server.getName(), server.getId(), server.getQueryPort(), e);
@@ -83,6 +113,7 @@ class CheckServerInstancesStatusCronJob {
         instanceInfo.setMaxPlayers(queryServerInfo.getMaxPlayers());
         instanceInfo.setVersion(queryServerInfo.getGameVersion());
         instanceInfo.setDescription(queryServerInfo.getGameDescription());
+        instanceInfo.setLastResponseAt(LocalDateTime.now());
     }
 
     private Server getServer(Long serverId) {
@@ -94,9 +125,10 @@ class CheckServerInstancesStatusCronJob {
         return process.getInstanceInfo() != null && process.getInstanceInfo().isAlive();
     }
 
-    private static void updateHeadlessClients(ServerProcess process) {
-        if (process instanceof Arma3ServerProcess arma3ServerProcess) {
-            arma3ServerProcess.checkHeadlessClients();
-        }
+    private record ServerStatusQuery(
+            Server server,
+            ServerProcess process,
+            CompletableFuture<SourceQueryInfoResponse> response
+    ) {
     }
 }
@@ -0,0 +1,178 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import freemarker.core.Environment;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.view.freemarker.FreeMarkerConfigurer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Renders config files of servers from FreeMarker templates. The config is rendered into memory first and written only
+ * if its content differs from the file on disk, through a temporary file moved over the old one, so the server never
+ * reads a half written config. Hashes of the files written are remembered, so unchanged files are not read again.
+ */
+@Service
+@Slf4j
+public class ConfigRenderer {
+
+    private static final int WRITER_THREADS = 4;
+
+    private final FreeMarkerConfigurer freeMarkerConfigurer;
+    private final Map<String, Template> templateNameToTemplateMap = new ConcurrentHashMap<>();
+    private final Map<Path, FileHash> pathToFileHashMap = new ConcurrentHashMap<>();
+    private final ExecutorService writerExecutor;
+
+    @Autowired
+    public ConfigRenderer(FreeMarkerConfigurer freeMarkerConfigurer, ExecutorFactory executorFactory) {
+        this.freeMarkerConfigurer = freeMarkerConfigurer;
+        writerExecutor = executorFactory.newFixedThreadPool("config-writer-", WRITER_THREADS);
+    }
+
+    /**
+     * @return true if the file was written, false if it already had the same content
+     */
+    public boolean renderToFile(String templateName, Object model, Path file) {
+        return writeIfChanged(file, render(templateName, model));
+    }
+
+    /**
+     * Renders the config and writes it if it differs from the file on disk.
+     *
+     * @return true if the file was written
+     */
+    public boolean renderToFile(ServerConfig config) {
+        return renderToFile(config.getTemplateName(), config.getTemplateModel(), config.getConfigFile().toPath());
+    }
+
+    /**
+     * Renders the configs and writes the changed ones in parallel.
+     *
+     * @return number of files written, failed writes are not counted
+     */
+    public int renderAll(Collection<ServerConfig> configs) {
+        // the models are entities which may not be safe to read from other threads, only the writes run in parallel
+        List<CompletableFuture<Boolean>> writes = new ArrayList<>();
+        // failures are already logged and don't stop the other configs
+        for (ServerConfig config : configs) {
+            String content;
+            try {
+                content = render(config.getTemplateName(), config.getTemplateModel());
+            } catch (RuntimeException e) {
+                continue;
+            }
+            Path file = config.getConfigFile().toPath();
+            writes.add(CompletableFuture.supplyAsync(() -> writeIfChanged(file, content), writerExecutor)
+                    .exceptionally(e -> false));
+        }
+        return (int) writes.stream().filter(CompletableFuture::join).count();
+    }
+
+    String render(String templateName, Object model) {
+        StringWriter writer = new StringWriter();
+        try {
+            Environment environment = getTemplate(templateName).createProcessingEnvironment(model, writer);
+            // set per rendering rather than on the cached template, which is shared between threads
+            environment.setNumberFormat("computer");
+            environment.process();
+        } catch (IOException | TemplateException e) {
+            log.error("Could not render template '{}'", templateName, e);
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
+
+    boolean writeIfChanged(Path file, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        byte[] hash = hash(bytes);
+        try {
+            if (Arrays.equals(hash, getHashOnDisk(file))) {
+                log.debug("Server config '{}' is up to date", file.getFileName());
+                return false;
+            }
+
+            log.info("Writing new server config '{}'", file.getFileName());
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            // in the same directory, so it can be moved atomically
+            Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tempFile, bytes);
+                moveAtomically(tempFile, file);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            pathToFileHashMap.put(file, new FileHash(Files.getLastModifiedTime(file), bytes.length, hash));
+            return true;
+        } catch (IOException e) {
+            pathToFileHashMap.remove(file);
+            log.error("Could not write config file '{}'", file, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private byte[] getHashOnDisk(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        long size = Files.size(file);
+        FileHash knownHash = pathToFileHashMap.get(file);
+        if (knownHash != null && knownHash.lastModified().equals(lastModified) && knownHash.size() == size) {
+            return knownHash.hash();
+        }
+        // changed outside the manager, or not written since the manager started
+        byte[] hash = hash(Files.readAllBytes(file));
+        pathToFileHashMap.put(file, new FileHash(lastModified, size, hash));
+        return hash;
+    }
+
+    private Template getTemplate(String templateName) throws IOException {
+        Template template = templateNameToTemplateMap.get(templateName);
+        if (template == null) {
+            template = freeMarkerConfigurer.getConfiguration().getTemplate(templateName);
+            templateNameToTemplateMap.put(templateName, template);
+        }
+        return template;
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record FileHash(FileTime lastModified, long size, byte[] hash) {
+    }
+}
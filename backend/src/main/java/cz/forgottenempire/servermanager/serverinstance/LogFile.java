@@ -1,19 +1,33 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
+import cz.forgottenempire.servermanager.logcapture.LogSegment;
+import cz.forgottenempire.servermanager.logcapture.LogSegments;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.FileUrlResource;
 import org.springframework.core.io.Resource;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.RandomAccessFile;
 import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 @Slf4j
 public class LogFile {
 
+    static final String SEGMENT_BOUNDARY_MARKER = "----- end of log segment %s -----";
+
     private final File logFile;
 
     public LogFile(File logFile) {
@@ -37,18 +51,35 @@ public class LogFile {
         }
     }
 
+    /**
+     * Returns the last lines of the log. If the active log file doesn't contain enough lines because it was rotated
+     * recently, the rest is taken from the end of the previous segment, separated by a boundary marker line.
+     */
     public String getLastLines(int count) {
-        if (!logFile.exists()) {
-            return "";
-        }
-
         try {
-            return getLastNLines(logFile, count);
+            String lastLines = logFile.length() > 0 ? getLastNLines(logFile, count) : "";
+            int linesFound = countLines(lastLines);
+            if (linesFound >= count) {
+                return lastLines;
+            }
+
+            Optional<Path> previousSegment = LogSegments.findLatestArchivedSegment(logFile.toPath());
+            if (previousSegment.isEmpty()) {
+                return lastLines;
+            }
+
+            String previousLines = getLastNLinesOfSegment(previousSegment.get(), count - linesFound);
+            String boundary = String.format(SEGMENT_BOUNDARY_MARKER, previousSegment.get().getFileName()) + '\n';
+            return previousLines + boundary + lastLines;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    public List<LogSegment> getSegments() {
+        return LogSegments.list(logFile.toPath());
+    }
+
     public Optional<Resource> asResource() {
         if (!logFile.exists()) {
             return Optional.empty();
@@ -61,6 +92,54 @@ public class LogFile {
         }
     }
 
+    public Optional<Resource> getSegmentAsResource(String segmentName) {
+        return LogSegments.findSegment(logFile.toPath(), segmentName)
+                .filter(Files::isRegularFile)
+                .map(segment -> {
+                    try {
+                        return new FileUrlResource(segment.toAbsolutePath().toString());
+                    } catch (MalformedURLException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    private int countLines(String text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Archived segments may be compressed, so unlike the active file they are read sequentially, keeping only the
+     * requested number of lines in memory.
+     */
+    private String getLastNLinesOfSegment(Path segment, int n) throws IOException {
+        if (!LogSegments.isCompressed(segment)) {
+            return getLastNLines(segment.toFile(), n);
+        }
+
+        Deque<String> lines = new ArrayDeque<>(n);
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(segment));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (lines.size() == n) {
+                    lines.removeFirst();
+                }
+                lines.addLast(line);
+            }
+        }
+
+        StringBuilder result = new StringBuilder();
+        lines.forEach(line -> result.append(line).append('\n'));
+        return result.toString();
+    }
+
     /**
      * Generated using ChatGTP
      * This method is efficient for large files such as server logs, as it doesn't load the whole content
@@ -0,0 +1,202 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.common.exceptions.CustomUserErrorException;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.util.SystemUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index of the ports reserved by servers, so port conflicts are found and free ports handed out without
+ * querying the database. Besides its game and query port, every server reserves the ports its game derives from the
+ * game port (Steam, VON, BattlEye). The index is loaded from the database on first use and kept up to date by
+ * {@link ServerInstanceService} when servers are saved or deleted.
+ */
+@Service
+@Slf4j
+public class PortAllocator {
+
+    private static final int MAX_PORT = 65535;
+    // free blocks are searched with this step, so servers created one after another get tidy port ranges
+    private static final int BLOCK_STEP = 10;
+    private static final int DRY_RUN_FIRST_PORT = 3000;
+
+    private final ServerRepository serverRepository;
+    private final IntPredicate portProbe;
+    // guarded by this
+    private final Map<Long, Reservation> serverIdToReservationMap = new HashMap<>();
+    private final Set<PortBlock> temporaryBlocks = new HashSet<>();
+    private final BitSet reservedPorts = new BitSet(MAX_PORT + 1);
+    private boolean loaded;
+
+    @Autowired
+    public PortAllocator(ServerRepository serverRepository) {
+        this(serverRepository, SystemUtils::isPortAvailable);
+    }
+
+    PortAllocator(ServerRepository serverRepository, IntPredicate portProbe) {
+        this.serverRepository = serverRepository;
+        this.portProbe = portProbe;
+    }
+
+    public synchronized void reserve(Server server) {
+        ensureLoaded();
+        serverIdToReservationMap.put(server.getId(), createReservation(server));
+        rebuildReservedPorts();
+    }
+
+    public synchronized void release(Long serverId) {
+        ensureLoaded();
+        if (serverIdToReservationMap.remove(serverId) != null) {
+            rebuildReservedPorts();
+        }
+    }
+
+    /**
+     * @return ports the given server has in common with other servers, regardless of whether they are running
+     */
+    public synchronized List<PortConflict> findConflicts(Server server) {
+        ensureLoaded();
+        int[] ports = getReservedPorts(server.getType(), server.getPort(), server.getQueryPort());
+        List<PortConflict> conflicts = new ArrayList<>();
+        for (Reservation reservation : serverIdToReservationMap.values()) {
+            if (Objects.equals(reservation.serverId(), server.getId())) {
+                continue;
+            }
+            Arrays.stream(ports)
+                    .filter(port -> Arrays.binarySearch(reservation.ports(), port) >= 0)
+                    .findFirst()
+                    .ifPresent(port -> conflicts.add(
+                            new PortConflict(reservation.serverId(), reservation.serverName(), port)));
+        }
+        return conflicts;
+    }
+
+    /**
+     * Checks the game and query port of the server are not bound by any other application.
+     *
+     * @return the first port in use
+     */
+    public OptionalInt findPortInUse(Server server) {
+        return IntStream.of(server.getPort(), server.getQueryPort())
+                .filter(portProbe.negate())
+                .findFirst();
+    }
+
+    /**
+     * Finds ports for a new server, not reserved by other servers nor used by other applications. The ports are
+     * reserved only once the server is saved.
+     */
+    public synchronized PortBlock findFreePorts(ServerType type) {
+        ensureLoaded();
+        return findFreeBlock(type, getDefaultPort(type));
+    }
+
+    /**
+     * Reserves ports for a temporary server, e.g. for a dry run of a new installation. They must be released with
+     * {@link #releaseTemporary(PortBlock)} once the server is stopped.
+     */
+    public synchronized PortBlock reserveTemporary(ServerType type) {
+        ensureLoaded();
+        PortBlock block = findFreeBlock(type, DRY_RUN_FIRST_PORT);
+        temporaryBlocks.add(block);
+        setReserved(getReservedPorts(block));
+        return block;
+    }
+
+    public synchronized void releaseTemporary(PortBlock block) {
+        if (temporaryBlocks.remove(block)) {
+            rebuildReservedPorts();
+        }
+    }
+
+    private PortBlock findFreeBlock(ServerType type, int firstPort) {
+        for (int port = firstPort; port + BLOCK_STEP <= MAX_PORT; port += BLOCK_STEP) {
+            PortBlock block = new PortBlock(port, getQueryPort(type, port));
+            int[] ports = getReservedPorts(type, block.port(), block.queryPort());
+            // the bitmap is checked first, the probing needs system calls
+            if (Arrays.stream(ports).noneMatch(reservedPorts::get) && Arrays.stream(ports).allMatch(portProbe)) {
+                return block;
+            }
+        }
+        throw new CustomUserErrorException("No free ports left for a " + type + " server");
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        serverRepository.findAll().forEach(server ->
+                serverIdToReservationMap.put(server.getId(), createReservation(server)));
+        rebuildReservedPorts();
+        loaded = true;
+        log.info("Loaded port reservations of {} servers", serverIdToReservationMap.size());
+    }
+
+    private void rebuildReservedPorts() {
+        reservedPorts.clear();
+        serverIdToReservationMap.values().forEach(reservation -> setReserved(reservation.ports()));
+        temporaryBlocks.forEach(block -> setReserved(getReservedPorts(block)));
+    }
+
+    private void setReserved(int[] ports) {
+        Arrays.stream(ports).forEach(reservedPorts::set);
+    }
+
+    private static int[] getReservedPorts(PortBlock block) {
+        // the type of a temporary server isn't remembered, the layout of Arma 3 covers the blocks of all types
+        return getReservedPorts(ServerType.ARMA3, block.port(), block.queryPort());
+    }
+
+    private static Reservation createReservation(Server server) {
+        return new Reservation(server.getId(), server.getName(),
+                getReservedPorts(server.getType(), server.getPort(), server.getQueryPort()));
+    }
+
+    /**
+     * @return sorted ports used by a server of the given type
+     */
+    static int[] getReservedPorts(ServerType type, int port, int queryPort) {
+        // Arma 3 uses the game port + 1 for Steam queries, + 2 for Steam, + 3 for VON and + 4 for BattlEye,
+        // DayZ the game port up to + 3, Reforger only the game port and the A2S query port
+        int derivedPortsCount = switch (type) {
+            case ARMA3 -> 5;
+            case DAYZ, DAYZ_EXP -> 4;
+            case REFORGER -> 1;
+        };
+        return IntStream.concat(IntStream.range(port, port + derivedPortsCount), IntStream.of(queryPort))
+                .filter(p -> p > 0 && p <= MAX_PORT)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private static int getQueryPort(ServerType type, int port) {
+        return switch (type) {
+            case ARMA3, REFORGER -> port + 1;
+            case DAYZ, DAYZ_EXP -> port + 4;
+        };
+    }
+
+    private static int getDefaultPort(ServerType type) {
+        return type == ServerType.REFORGER ? 2001 : 2302;
+    }
+
+    private record Reservation(long serverId, String serverName, int[] ports) {
+    }
+}
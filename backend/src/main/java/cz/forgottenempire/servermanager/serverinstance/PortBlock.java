@@ -0,0 +1,4 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+public record PortBlock(int port, int queryPort) {
+}
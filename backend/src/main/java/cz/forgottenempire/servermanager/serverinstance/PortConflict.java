@@ -0,0 +1,4 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+public record PortConflict(long serverId, String serverName, int port) {
+}
@@ -1,12 +1,20 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
+import cz.forgottenempire.servermanager.common.ServerType;
 import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.logcapture.LogSegment;
 import cz.forgottenempire.servermanager.serverinstance.dtos.AutomaticRestartDto;
+import cz.forgottenempire.servermanager.serverinstance.dtos.CpuPlacementSettingsDto;
+import cz.forgottenempire.servermanager.serverinstance.dtos.HeadlessClientAutoscalingPolicyDto;
+import cz.forgottenempire.servermanager.serverinstance.dtos.ResourceLimitsDto;
+import cz.forgottenempire.servermanager.serverinstance.dtos.RestartDeferralPolicyDto;
 import cz.forgottenempire.servermanager.serverinstance.dtos.ServerDto;
 import cz.forgottenempire.servermanager.serverinstance.dtos.ServerInstanceInfoDto;
 import cz.forgottenempire.servermanager.serverinstance.dtos.ServersDto;
+import cz.forgottenempire.servermanager.serverinstance.dtos.SupervisorPolicyDto;
 import cz.forgottenempire.servermanager.serverinstance.entities.Server;
 import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessService;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartStatus;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.mapstruct.factory.Mappers;
@@ -48,6 +56,16 @@ class ServerController {
         return ResponseEntity.ok(new ServersDto(serverDtos));
     }
 
+    @GetMapping("/starts")
+    public ResponseEntity<List<ServerStartStatus>> getStartQueue() {
+        return ResponseEntity.ok(serverProcessService.getStartQueue());
+    }
+
+    @GetMapping("/ports")
+    public ResponseEntity<PortBlock> getFreePorts(@RequestParam ServerType type) {
+        return ResponseEntity.ok(serverInstanceService.findFreePorts(type));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ServerDto> getServer(@PathVariable Long id) {
         Server server = getServerEntity(id);
@@ -122,6 +140,33 @@ class ServerController {
                 .body(resource);
     }
 
+    @GetMapping("/{id}/log/segments")
+    public ResponseEntity<List<LogSegment>> getLogSegments(@PathVariable long id) {
+        Server server = getServerEntity(id);
+        return ResponseEntity.ok(server.getLog().getSegments());
+    }
+
+    @GetMapping("/{id}/log/segments/{segmentName}/download")
+    public ResponseEntity<Resource> downloadLogSegment(@PathVariable long id, @PathVariable String segmentName)
+            throws IOException {
+        Server server = getServerEntity(id);
+
+        Resource resource = server.getLog().getSegmentAsResource(segmentName)
+                .orElseThrow(() -> new NotFoundException("Log segment '" + segmentName + "' for server '"
+                        + server.getName() + "' doesn't exist"));
+
+        MediaType contentType = segmentName.endsWith(".gz")
+                ? MediaType.APPLICATION_OCTET_STREAM
+                : MediaType.TEXT_PLAIN;
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + resource.getFile().getName());
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentLength(resource.contentLength())
+                .contentType(contentType)
+                .body(resource);
+    }
+
     @GetMapping("/{id}/log")
     public ResponseEntity<String> getLastFilesFromLog(@PathVariable long id, @RequestParam(required = false) Integer count) {
         if (count == null) {
@@ -140,7 +185,8 @@ class ServerController {
         serverInstanceService.setAutomaticRestart(server, automaticRestartDto.isEnabled(), automaticRestartDto.getTime());
 
         if (automaticRestartDto.isEnabled()) {
-            serverProcessService.enableAutoRestart(id, automaticRestartDto.getTime());
+            serverProcessService.enableAutoRestart(id, automaticRestartDto.getTime(),
+                    server.getRestartDeferralPolicy());
         } else {
             serverProcessService.disableAutoRestart(id);
         }
@@ -148,6 +194,56 @@ class ServerController {
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @PatchMapping("/{id}/autorestart/deferral")
+    public ResponseEntity<?> setRestartDeferralPolicy(@PathVariable long id,
+            @Valid @RequestBody RestartDeferralPolicyDto restartDeferralPolicyDto) {
+        Server server = getServerEntity(id);
+        serverInstanceService.setRestartDeferralPolicy(server,
+                serverMapper.mapRestartDeferralPolicyDtoToEntity(restartDeferralPolicyDto));
+
+        // reschedule the restart of a running server with the new policy
+        if (server.isRestartAutomatically()) {
+            serverProcessService.enableAutoRestart(id, server.getAutomaticRestartTime(),
+                    server.getRestartDeferralPolicy());
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @PatchMapping("/{id}/supervisor")
+    public ResponseEntity<?> setSupervisorPolicy(@PathVariable long id,
+            @Valid @RequestBody SupervisorPolicyDto supervisorPolicyDto) {
+        Server server = getServerEntity(id);
+        serverInstanceService.setSupervisorPolicy(server,
+                serverMapper.mapSupervisorPolicyDtoToEntity(supervisorPolicyDto));
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @PatchMapping("/{id}/placement")
+    public ResponseEntity<?> setCpuPlacementSettings(@PathVariable long id,
+            @Valid @RequestBody CpuPlacementSettingsDto cpuPlacementSettingsDto) {
+        Server server = getServerEntity(id);
+        serverInstanceService.setCpuPlacementSettings(server,
+                serverMapper.mapCpuPlacementSettingsDtoToEntity(cpuPlacementSettingsDto));
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @PatchMapping("/{id}/limits")
+    public ResponseEntity<?> setResourceLimits(@PathVariable long id,
+            @Valid @RequestBody ResourceLimitsDto resourceLimitsDto) {
+        Server server = getServerEntity(id);
+        serverInstanceService.setResourceLimits(server, serverMapper.mapResourceLimitsDtoToEntity(resourceLimitsDto));
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @PatchMapping("/{id}/hc/autoscaling")
+    public ResponseEntity<?> setHeadlessClientAutoscalingPolicy(@PathVariable long id,
+            @Valid @RequestBody HeadlessClientAutoscalingPolicyDto autoscalingPolicyDto) {
+        Server server = getServerEntity(id);
+        serverInstanceService.setHeadlessClientAutoscalingPolicy(server,
+                serverMapper.mapHeadlessClientAutoscalingPolicyDtoToEntity(autoscalingPolicyDto));
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
     private Server getServerEntity(long id) {
         return serverInstanceService.getServer(id)
                 .orElseThrow(
@@ -1,5 +1,6 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupStats;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,6 +22,12 @@ class ServerInstanceInfo {
     private String map;
     private String description;
     private int headlessClientsCount;
+    // last time the server answered a status query
+    private LocalDateTime lastResponseAt;
+    // usage of the cgroup of the server and its headless clients, null if cgroups are not used
+    private CgroupStats resourceUsage;
+    // planned automatic restart, or the latest time of a restart deferred because of players online
+    private LocalDateTime nextRestartAt;
 
     public boolean isAlive() {
         return startedAt != null;
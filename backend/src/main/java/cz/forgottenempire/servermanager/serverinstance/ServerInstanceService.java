@@ -1,16 +1,30 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
 import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.common.exceptions.CustomUserErrorException;
+import cz.forgottenempire.servermanager.cpuplacement.CpuPlacementMode;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.CpuPlacementSettings;
 import cz.forgottenempire.servermanager.serverinstance.entities.DayZServer;
+import cz.forgottenempire.servermanager.serverinstance.entities.HeadlessClientAutoscalingPolicy;
+import cz.forgottenempire.servermanager.serverinstance.entities.RestartDeferralPolicy;
 import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.SupervisorPolicy;
 import cz.forgottenempire.servermanager.serverinstance.exceptions.ModifyingRunningServerException;
 import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessService;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,14 +35,26 @@ class ServerInstanceService {
 
     private final ServerRepository serverRepository;
     private final ServerProcessService processService;
+    private final ProcessPlacementService processPlacementService;
+    private final CgroupService cgroupService;
+    private final ConfigRenderer configRenderer;
+    private final PortAllocator portAllocator;
 
     @Autowired
     public ServerInstanceService(
             ServerRepository serverRepository,
-            ServerProcessService processService
+            ServerProcessService processService,
+            ProcessPlacementService processPlacementService,
+            CgroupService cgroupService,
+            ConfigRenderer configRenderer,
+            PortAllocator portAllocator
     ) {
         this.serverRepository = serverRepository;
         this.processService = processService;
+        this.processPlacementService = processPlacementService;
+        this.cgroupService = cgroupService;
+        this.configRenderer = configRenderer;
+        this.portAllocator = portAllocator;
     }
 
     public List<Server> getAllServers() {
@@ -42,10 +68,41 @@ class ServerInstanceService {
     public Server createServer(Server server) {
         server.getCustomLaunchParameters().forEach(param -> param.setServer(server));
         Server persistedServer = serverRepository.save(server);
-        persistedServer.getConfigFiles().forEach(ServerConfig::generate);
+        portAllocator.reserve(persistedServer);
+        persistedServer.getConfigFiles().forEach(configRenderer::renderToFile);
         return persistedServer;
     }
 
+    /**
+     * @return ports for a new server of the given type which don't collide with other servers or applications
+     */
+    public PortBlock findFreePorts(ServerType type) {
+        return portAllocator.findFreePorts(type);
+    }
+
+    /**
+     * Brings configs of all servers up to date, e.g. after the templates changed with a new version of the manager.
+     * Only configs whose content changed are written.
+     */
+    // lazy collections of Reforger servers are read when rendering the configs
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void generateAllConfigs() {
+        try {
+            generateConfigs(serverRepository.findAll());
+        } catch (RuntimeException e) {
+            log.error("Failed to update server configs", e);
+        }
+    }
+
+    public void generateConfigs(Collection<Server> servers) {
+        List<ServerConfig> configs = servers.stream()
+                .flatMap(server -> server.getConfigFiles().stream())
+                .toList();
+        int writtenCount = configRenderer.renderAll(configs);
+        log.info("{} of {} server configs updated", writtenCount, configs.size());
+    }
+
     public Server updateServer(Server server) {
         if (processService.isServerInstanceRunning(server)) {
             throw new ModifyingRunningServerException("Cannot modify running server '" + server.getName() + "'");
@@ -58,6 +115,7 @@ class ServerInstanceService {
             throw new ModifyingRunningServerException("Cannot delete running server '" + server.getName() + "'");
         }
         serverRepository.delete(server);
+        portAllocator.release(server.getId());
     }
 
     public void setAutomaticRestart(Server server, boolean enabled, LocalTime time) {
@@ -65,4 +123,53 @@ class ServerInstanceService {
         server.setAutomaticRestartTime(time);
         serverRepository.save(server);
     }
+
+    public void setRestartDeferralPolicy(Server server, RestartDeferralPolicy restartDeferralPolicy) {
+        server.setRestartDeferralPolicy(restartDeferralPolicy);
+        serverRepository.save(server);
+    }
+
+    public void setSupervisorPolicy(Server server, SupervisorPolicy supervisorPolicy) {
+        server.setSupervisorPolicy(supervisorPolicy);
+        serverRepository.save(server);
+    }
+
+    /**
+     * The settings are applied when the server or its headless clients are started the next time.
+     */
+    public void setCpuPlacementSettings(Server server, CpuPlacementSettings cpuPlacementSettings) {
+        if (cpuPlacementSettings.getMode() == CpuPlacementMode.MANUAL) {
+            try {
+                processPlacementService.validateCpus(cpuPlacementSettings.getCpus());
+            } catch (IllegalArgumentException e) {
+                throw new CustomUserErrorException(e.getMessage());
+            }
+        }
+        server.setCpuPlacementSettings(cpuPlacementSettings);
+        serverRepository.save(server);
+    }
+
+    /**
+     * The limits are applied right away if the server is running.
+     */
+    public void setResourceLimits(Server server, ResourceLimits resourceLimits) {
+        server.setResourceLimits(resourceLimits);
+        serverRepository.save(server);
+        cgroupService.updateServerLimits(server.getId(), resourceLimits);
+    }
+
+    public void setHeadlessClientAutoscalingPolicy(Server server, HeadlessClientAutoscalingPolicy autoscalingPolicy) {
+        if (!(server instanceof Arma3Server arma3Server)) {
+            throw new CustomUserErrorException("Server '" + server.getName() + "' doesn't support headless clients");
+        }
+        if (autoscalingPolicy.getMinHeadlessClients() > autoscalingPolicy.getMaxHeadlessClients()) {
+            throw new CustomUserErrorException("Minimal count of headless clients can't be higher than maximal count");
+        }
+        if (autoscalingPolicy.getScaleDownCpuPercent() >= autoscalingPolicy.getScaleUpCpuPercent()) {
+            throw new CustomUserErrorException("CPU threshold for removing headless clients must be lower than "
+                    + "the threshold for adding them");
+        }
+        arma3Server.setHeadlessClientAutoscalingPolicy(autoscalingPolicy);
+        serverRepository.save(arma3Server);
+    }
 }
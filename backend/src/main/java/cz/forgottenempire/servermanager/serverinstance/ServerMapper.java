@@ -1,5 +1,6 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
 import cz.forgottenempire.servermanager.common.ServerType;
 import cz.forgottenempire.servermanager.serverinstance.dtos.*;
 import cz.forgottenempire.servermanager.serverinstance.entities.*;
@@ -15,20 +16,46 @@ interface ServerMapper {
 
     Arma3ServerDto mapArma3ServerToDto(Arma3Server server);
 
+    @Mapping(target = "restartDeferralPolicy", ignore = true)
+    @Mapping(target = "supervisorPolicy", ignore = true)
+    @Mapping(target = "cpuPlacementSettings", ignore = true)
+    @Mapping(target = "resourceLimits", ignore = true)
+    @Mapping(target = "headlessClientAutoscalingPolicy", ignore = true)
     Arma3Server mapArma3ServerDtoToEntity(Arma3ServerDto serverDto);
 
+    @Mapping(target = "restartDeferralPolicy", ignore = true)
+    @Mapping(target = "supervisorPolicy", ignore = true)
+    @Mapping(target = "cpuPlacementSettings", ignore = true)
+    @Mapping(target = "resourceLimits", ignore = true)
+    @Mapping(target = "headlessClientAutoscalingPolicy", ignore = true)
     void updateArma3ServerFromDto(Arma3ServerDto serverDto, @MappingTarget Arma3Server server);
 
     DayZServerDto mapDayZServerToDto(DayZServer dayZServer);
 
+    @Mapping(target = "restartDeferralPolicy", ignore = true)
+    @Mapping(target = "supervisorPolicy", ignore = true)
+    @Mapping(target = "cpuPlacementSettings", ignore = true)
+    @Mapping(target = "resourceLimits", ignore = true)
     DayZServer mapDayZServerDtoToEntity(DayZServerDto serverDto);
 
+    @Mapping(target = "restartDeferralPolicy", ignore = true)
+    @Mapping(target = "supervisorPolicy", ignore = true)
+    @Mapping(target = "cpuPlacementSettings", ignore = true)
+    @Mapping(target = "resourceLimits", ignore = true)
     void updateDayZServerFromDto(DayZServerDto serverDto, @MappingTarget DayZServer server);
 
     ReforgerServerDto mapReforgerServerToDto(ReforgerServer reforgerServer);
 
+    @Mapping(target = "restartDeferralPolicy", ignore = true)
+    @Mapping(target = "supervisorPolicy", ignore = true)
+    @Mapping(target = "cpuPlacementSettings", ignore = true)
+    @Mapping(target = "resourceLimits", ignore = true)
     ReforgerServer mapReforgerServerDtoToEntity(ReforgerServerDto serverDto);
 
+    @Mapping(target = "restartDeferralPolicy", ignore = true)
+    @Mapping(target = "supervisorPolicy", ignore = true)
+    @Mapping(target = "cpuPlacementSettings", ignore = true)
+    @Mapping(target = "resourceLimits", ignore = true)
     void updateReforgerServerFromDto(ReforgerServerDto serverDto, @MappingTarget ReforgerServer server);
 
     @Mapping(source = "startedAt", target = "startedAt")
@@ -58,6 +85,28 @@ interface ServerMapper {
 
     ReforgerMod mapReforgerModDtoToEntity(ReforgerModDto reforgerModDto);
 
+    RestartDeferralPolicyDto mapRestartDeferralPolicyToDto(RestartDeferralPolicy restartDeferralPolicy);
+
+    RestartDeferralPolicy mapRestartDeferralPolicyDtoToEntity(RestartDeferralPolicyDto restartDeferralPolicyDto);
+
+    SupervisorPolicyDto mapSupervisorPolicyToDto(SupervisorPolicy supervisorPolicy);
+
+    SupervisorPolicy mapSupervisorPolicyDtoToEntity(SupervisorPolicyDto supervisorPolicyDto);
+
+    CpuPlacementSettingsDto mapCpuPlacementSettingsToDto(CpuPlacementSettings cpuPlacementSettings);
+
+    CpuPlacementSettings mapCpuPlacementSettingsDtoToEntity(CpuPlacementSettingsDto cpuPlacementSettingsDto);
+
+    ResourceLimitsDto mapResourceLimitsToDto(ResourceLimits resourceLimits);
+
+    ResourceLimits mapResourceLimitsDtoToEntity(ResourceLimitsDto resourceLimitsDto);
+
+    HeadlessClientAutoscalingPolicyDto mapHeadlessClientAutoscalingPolicyToDto(
+            HeadlessClientAutoscalingPolicy autoscalingPolicy);
+
+    HeadlessClientAutoscalingPolicy mapHeadlessClientAutoscalingPolicyDtoToEntity(
+            HeadlessClientAutoscalingPolicyDto autoscalingPolicyDto);
+
     LaunchParameterDto mapCustomLaunchParameterToDto(LaunchParameter launchParameter);
 
     LaunchParameter mapCustomLaunchParameterDtoToEntity(LaunchParameterDto launchParameterDto);
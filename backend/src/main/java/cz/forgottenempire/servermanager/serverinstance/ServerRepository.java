@@ -1,11 +1,14 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
 import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nonnull;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ServerRepository extends CrudRepository<Server, Long> {
@@ -14,7 +17,7 @@ public interface ServerRepository extends CrudRepository<Server, Long> {
     List<Server> findAll();
 
     @Nonnull
-    List<Server> findAllByPortOrQueryPort(int port, int queryPort);
+    List<Server> findDistinctByTagsIn(Collection<String> tags);
 
     @Query(value = """
             SELECT arma3server_id FROM arma3server_active_mods
@@ -25,4 +28,14 @@ public interface ServerRepository extends CrudRepository<Server, Long> {
             """,
             nativeQuery = true)
     List<Long> findAllServerIdsByActiveMod(Long modId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM arma3server_active_mods WHERE active_mods_id IN (?1)", nativeQuery = true)
+    void removeModsFromAllArma3Servers(Collection<Long> modIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM dayzserver_active_mods WHERE active_mods_id IN (?1)", nativeQuery = true)
+    void removeModsFromAllDayZServers(Collection<Long> modIds);
 }
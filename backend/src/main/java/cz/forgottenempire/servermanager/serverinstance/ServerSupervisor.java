@@ -0,0 +1,236 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import cz.forgottenempire.servermanager.common.ProcessFactory;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.SupervisorPolicy;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler.StartType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restarts servers that are running but stopped responding to status queries, according to their
+ * {@link SupervisorPolicy}. Works with the results of {@link CheckServerInstancesStatusCronJob}, which calls it after
+ * every status check. The core dump and the restart run on a separate thread, so capturing the dump of a hung server
+ * doesn't hold up the status checks.
+ */
+@Component
+@Slf4j
+class ServerSupervisor {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+    private static final File GCORE_EXECUTABLE = new File("/usr/bin/gcore");
+    private static final long CORE_DUMP_TIMEOUT_SECONDS = 120;
+
+    private final ProcessFactory processFactory;
+    private final ServerStartScheduler startScheduler;
+    private final ServerProcessRepository processRepository;
+    private final Clock clock;
+    private final Executor executor;
+    private final Map<Long, RestartHistory> serverIdToRestartHistoryMap = new ConcurrentHashMap<>();
+    private final Set<Long> restartingServerIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    ServerSupervisor(ProcessFactory processFactory, ServerStartScheduler startScheduler,
+            ServerProcessRepository processRepository, Clock clock, ExecutorFactory executorFactory) {
+        this(processFactory, startScheduler, processRepository, clock,
+                executorFactory.newFixedThreadPool("supervisor-", 1));
+    }
+
+    ServerSupervisor(ProcessFactory processFactory, ServerStartScheduler startScheduler,
+            ServerProcessRepository processRepository, Clock clock, Executor executor) {
+        this.processFactory = processFactory;
+        this.startScheduler = startScheduler;
+        this.processRepository = processRepository;
+        this.clock = clock;
+        this.executor = executor;
+    }
+
+    /**
+     * Forgets the restarts of servers that are no longer running, including deleted servers, once their restarts no
+     * longer count towards the hourly limit.
+     */
+    void pruneRestartHistory() {
+        LocalDateTime hourAgo = LocalDateTime.now(clock).minusHours(1);
+        serverIdToRestartHistoryMap.entrySet().removeIf(entry -> !restartingServerIds.contains(entry.getKey())
+                && processRepository.get(entry.getKey()).map(process -> !process.isAlive()).orElse(true)
+                && entry.getValue().countRestartsSince(hourAgo) == 0);
+    }
+
+    boolean hasRestartHistory(long serverId) {
+        return serverIdToRestartHistoryMap.containsKey(serverId);
+    }
+
+    void check(Server server, ServerProcess process) {
+        SupervisorPolicy policy = server.getSupervisorPolicy();
+        ServerInstanceInfo instanceInfo = process.getInstanceInfo();
+        if (policy == null || !policy.isEnabled() || instanceInfo == null || !instanceInfo.isAlive()
+                || restartingServerIds.contains(server.getId())) {
+            return;
+        }
+
+        RestartHistory history = serverIdToRestartHistoryMap.computeIfAbsent(server.getId(), id -> new RestartHistory());
+        LocalDateTime now = LocalDateTime.now(clock);
+        Decision decision = evaluate(policy, instanceInfo, history, now);
+        switch (decision) {
+            case RESTART -> restartHungServer(server, process, history, now);
+            case RESTART_LIMIT_REACHED -> {
+                if (history.shouldReportLimitReached(now)) {
+                    log.error("Server '{}' (ID {}) is not responding, but it was already restarted {} times "
+                                    + "in the last hour. It won't be restarted automatically until the limit resets.",
+                            server.getName(), server.getId(), policy.getMaxRestartsPerHour());
+                }
+            }
+            default -> {
+                // nothing to do
+            }
+        }
+    }
+
+    Decision evaluate(SupervisorPolicy policy, ServerInstanceInfo instanceInfo, RestartHistory history,
+            LocalDateTime now) {
+        LocalDateTime gracePeriodEnd = instanceInfo.getStartedAt().plusSeconds(policy.getStartupGracePeriodSeconds());
+        if (now.isBefore(gracePeriodEnd)) {
+            return Decision.HEALTHY;
+        }
+
+        LocalDateTime lastResponseAt = instanceInfo.getLastResponseAt();
+        if (lastResponseAt != null && lastResponseAt.isAfter(instanceInfo.getStartedAt())) {
+            // server came up fine after the last restart
+            history.resetBackoff();
+        }
+
+        LocalDateTime unresponsiveSince = lastResponseAt == null || lastResponseAt.isBefore(gracePeriodEnd)
+                ? gracePeriodEnd
+                : lastResponseAt;
+        if (now.isBefore(unresponsiveSince.plusSeconds(policy.getUnresponsiveThresholdSeconds()))) {
+            return Decision.HEALTHY;
+        }
+
+        if (history.countRestartsSince(now.minusHours(1)) >= policy.getMaxRestartsPerHour()) {
+            return Decision.RESTART_LIMIT_REACHED;
+        }
+        if (now.isBefore(history.getNextRestartAllowedAt(Duration.ofSeconds(policy.getRestartBackoffSeconds())))) {
+            return Decision.BACKING_OFF;
+        }
+        return Decision.RESTART;
+    }
+
+    private void restartHungServer(Server server, ServerProcess process, RestartHistory history, LocalDateTime now) {
+        log.warn("Server '{}' (ID {}) hasn't responded to status queries since {}, restarting it",
+                server.getName(), server.getId(), process.getInstanceInfo().getLastResponseAt());
+        history.recordRestart(now);
+        restartingServerIds.add(server.getId());
+        boolean captureCoreDump = server.getSupervisorPolicy().isCaptureCoreDump();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (captureCoreDump) {
+                        captureCoreDump(server, process);
+                    }
+                    startScheduler.submit(process, StartType.FORCED_RESTART);
+                } catch (RuntimeException e) {
+                    log.error("Failed to restart server ID {}", server.getId(), e);
+                } finally {
+                    restartingServerIds.remove(server.getId());
+                }
+            });
+        } catch (RuntimeException e) {
+            restartingServerIds.remove(server.getId());
+            throw e;
+        }
+    }
+
+    private void captureCoreDump(Server server, ServerProcess process) {
+        if (!GCORE_EXECUTABLE.canExecute()) {
+            log.warn("'gcore' is not installed or not executable, skipping core dump of server ID {}", server.getId());
+            return;
+        }
+
+        File logDirectory = server.getLog().getFile().getParentFile();
+        String timestamp = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File corePrefix = new File(logDirectory, "core-" + server.getId() + "-" + timestamp);
+        try {
+            Process gcore = processFactory.startProcessWithDiscardedOutput(GCORE_EXECUTABLE,
+                    List.of("-o", corePrefix.getAbsolutePath(), String.valueOf(process.getPid())));
+            if (!gcore.waitFor(CORE_DUMP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                gcore.destroyForcibly();
+                log.warn("Core dump of server ID {} timed out", server.getId());
+                return;
+            }
+            log.info("Core dump of server ID {} written to {}.{}", server.getId(), corePrefix, process.getPid());
+        } catch (IOException e) {
+            log.error("Failed to capture core dump of server ID {}", server.getId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    enum Decision {
+        HEALTHY,
+        BACKING_OFF,
+        RESTART_LIMIT_REACHED,
+        RESTART
+    }
+
+    static class RestartHistory {
+
+        private final Deque<LocalDateTime> restarts = new ArrayDeque<>();
+        private int consecutiveRestarts;
+        private LocalDateTime limitReachedReportedAt;
+
+        synchronized void recordRestart(LocalDateTime at) {
+            restarts.addLast(at);
+            consecutiveRestarts++;
+        }
+
+        synchronized void resetBackoff() {
+            consecutiveRestarts = 0;
+        }
+
+        synchronized int countRestartsSince(LocalDateTime since) {
+            while (!restarts.isEmpty() && !restarts.peekFirst().isAfter(since)) {
+                restarts.removeFirst();
+            }
+            return restarts.size();
+        }
+
+        synchronized LocalDateTime getNextRestartAllowedAt(Duration initialBackoff) {
+            if (consecutiveRestarts == 0 || restarts.isEmpty()) {
+                return LocalDateTime.MIN;
+            }
+            Duration backoff = initialBackoff.multipliedBy(1L << Math.min(consecutiveRestarts - 1, 16));
+            if (backoff.compareTo(MAX_BACKOFF) > 0) {
+                backoff = MAX_BACKOFF;
+            }
+            return restarts.peekLast().plus(backoff);
+        }
+
+        synchronized boolean shouldReportLimitReached(LocalDateTime now) {
+            if (limitReachedReportedAt != null && limitReachedReportedAt.isAfter(now.minusHours(1))) {
+                return false;
+            }
+            limitReachedReportedAt = now;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+public enum BulkAction {
+    START,
+    STOP,
+    RESTART
+}
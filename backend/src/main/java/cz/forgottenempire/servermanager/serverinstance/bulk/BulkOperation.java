@@ -0,0 +1,116 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Handle of a running bulk operation. Results of the individual servers are collected as they finish and sent right
+ * away to all subscribed event streams.
+ */
+@Slf4j
+public class BulkOperation {
+
+    private final String id;
+    private final BulkAction action;
+    private final List<Long> serverIds;
+    private final Clock clock;
+    private final Instant createdAt;
+    // guarded by this
+    private final List<BulkServerResult> results = new ArrayList<>();
+    private final List<SseEmitter> emitters = new ArrayList<>();
+    private Instant finishedAt;
+
+    BulkOperation(String id, BulkAction action, List<Long> serverIds, Clock clock) {
+        this.id = id;
+        this.action = action;
+        this.serverIds = List.copyOf(serverIds);
+        this.clock = clock;
+        this.createdAt = clock.instant();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized BulkOperationStatus getStatus() {
+        return new BulkOperationStatus(id, action, serverIds, List.copyOf(results), isFinished(), createdAt,
+                finishedAt);
+    }
+
+    /**
+     * Results already collected are sent to the new emitter first.
+     */
+    public synchronized void subscribe(SseEmitter emitter) {
+        try {
+            for (BulkServerResult result : results) {
+                sendResult(emitter, result);
+            }
+            if (isFinished()) {
+                sendFinished(emitter);
+                return;
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return;
+        }
+        emitters.add(emitter);
+        emitter.onCompletion(() -> removeEmitter(emitter));
+        emitter.onTimeout(() -> removeEmitter(emitter));
+    }
+
+    synchronized void addResult(BulkServerResult result) {
+        results.add(result);
+        Iterator<SseEmitter> iterator = emitters.iterator();
+        while (iterator.hasNext()) {
+            SseEmitter emitter = iterator.next();
+            try {
+                sendResult(emitter, result);
+            } catch (IOException e) {
+                log.debug("Event stream of bulk operation {} was closed by the client", id);
+                iterator.remove();
+                emitter.completeWithError(e);
+            }
+        }
+
+        if (results.size() == serverIds.size()) {
+            finishedAt = clock.instant();
+            log.info("Bulk {} of {} servers finished", action, serverIds.size());
+            for (SseEmitter emitter : emitters) {
+                try {
+                    sendFinished(emitter);
+                } catch (IOException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+            emitters.clear();
+        }
+    }
+
+    private synchronized void removeEmitter(SseEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    private static void sendResult(SseEmitter emitter, BulkServerResult result) throws IOException {
+        emitter.send(SseEmitter.event().name("result").data(result));
+    }
+
+    private void sendFinished(SseEmitter emitter) throws IOException {
+        emitter.send(SseEmitter.event().name("finished").data(getStatus()));
+        emitter.complete();
+    }
+}
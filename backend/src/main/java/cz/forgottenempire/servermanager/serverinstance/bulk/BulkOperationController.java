@@ -0,0 +1,56 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/server/bulk")
+class BulkOperationController {
+
+    private static final Duration EVENT_STREAM_TIMEOUT = Duration.ofMinutes(15);
+
+    private final BulkOperationService bulkOperationService;
+
+    @Autowired
+    public BulkOperationController(BulkOperationService bulkOperationService) {
+        this.bulkOperationService = bulkOperationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<BulkOperationStatus> startOperation(@Valid @RequestBody BulkOperationRequestDto requestDto) {
+        BulkOperation operation = bulkOperationService.start(requestDto.action(), requestDto.serverIds(),
+                requestDto.tags());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(operation.getStatus());
+    }
+
+    @GetMapping("/{operationId}")
+    public ResponseEntity<BulkOperationStatus> getOperation(@PathVariable String operationId) {
+        return ResponseEntity.ok(getBulkOperation(operationId).getStatus());
+    }
+
+    @GetMapping(value = "/{operationId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamResults(@PathVariable String operationId) {
+        BulkOperation operation = getBulkOperation(operationId);
+        SseEmitter emitter = new SseEmitter(EVENT_STREAM_TIMEOUT.toMillis());
+        operation.subscribe(emitter);
+        return emitter;
+    }
+
+    private BulkOperation getBulkOperation(String operationId) {
+        return bulkOperationService.getOperation(operationId)
+                .orElseThrow(() -> new NotFoundException("Bulk operation " + operationId + " does not exist"));
+    }
+}
@@ -0,0 +1,11 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Servers are selected by their IDs, by tags, or both.
+ */
+public record BulkOperationRequestDto(@NotNull BulkAction action, List<Long> serverIds, List<String> tags) {
+}
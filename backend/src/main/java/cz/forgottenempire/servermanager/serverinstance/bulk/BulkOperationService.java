@@ -0,0 +1,120 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import cz.forgottenempire.servermanager.common.exceptions.CustomUserErrorException;
+import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Starts, stops or restarts many servers at once. The servers are processed in parallel on a bounded pool of workers;
+ * starts and restarts are only queued there, the number of servers booting at the same time is still limited by
+ * {@link cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler}.
+ */
+@Service
+@Slf4j
+public class BulkOperationService {
+
+    private static final Duration FINISHED_OPERATION_RETENTION = Duration.ofHours(1);
+
+    private final ServerRepository serverRepository;
+    private final ServerProcessService serverProcessService;
+    private final Executor executor;
+    private final Clock clock;
+    private final Map<String, BulkOperation> operations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BulkOperationService(
+            ServerRepository serverRepository,
+            ServerProcessService serverProcessService,
+            @Value("${servers.bulk.threads:4}") int threads,
+            Clock clock,
+            ExecutorFactory executorFactory
+    ) {
+        this(serverRepository, serverProcessService, executorFactory.newFixedThreadPool("bulk-worker-", threads),
+                clock);
+    }
+
+    BulkOperationService(ServerRepository serverRepository, ServerProcessService serverProcessService,
+            Executor executor, Clock clock) {
+        this.serverRepository = serverRepository;
+        this.serverProcessService = serverProcessService;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    public BulkOperation start(BulkAction action, Collection<Long> serverIds, Collection<String> tags) {
+        removeFinishedOperations();
+        List<Server> servers = findServers(serverIds, tags);
+        if (servers.isEmpty()) {
+            throw new CustomUserErrorException("No servers match the selection");
+        }
+
+        List<Long> ids = servers.stream().map(Server::getId).toList();
+        BulkOperation operation = new BulkOperation(UUID.randomUUID().toString(), action, ids, clock);
+        operations.put(operation.getId(), operation);
+        log.info("Starting bulk {} of servers {}", action, ids);
+        for (Server server : servers) {
+            executor.execute(() -> operation.addResult(execute(action, server)));
+        }
+        return operation;
+    }
+
+    public Optional<BulkOperation> getOperation(String id) {
+        return Optional.ofNullable(operations.get(id));
+    }
+
+    private List<Server> findServers(Collection<Long> serverIds, Collection<String> tags) {
+        Map<Long, Server> servers = new LinkedHashMap<>();
+        if (serverIds != null && !serverIds.isEmpty()) {
+            serverRepository.findAllById(serverIds).forEach(server -> servers.put(server.getId(), server));
+            List<Long> missingIds = new ArrayList<>(serverIds);
+            missingIds.removeAll(servers.keySet());
+            if (!missingIds.isEmpty()) {
+                throw new NotFoundException("Servers with IDs " + missingIds + " don't exist");
+            }
+        }
+        if (tags != null && !tags.isEmpty()) {
+            serverRepository.findDistinctByTagsIn(tags).forEach(server -> servers.putIfAbsent(server.getId(), server));
+        }
+        return new ArrayList<>(servers.values());
+    }
+
+    private BulkServerResult execute(BulkAction action, Server server) {
+        try {
+            switch (action) {
+                case START -> serverProcessService.startServer(server);
+                case STOP -> serverProcessService.shutDownServer(server);
+                case RESTART -> serverProcessService.restartServer(server);
+            }
+            return BulkServerResult.succeeded(server.getId());
+        } catch (RuntimeException e) {
+            log.warn("Bulk {} of server ID {} failed", action, server.getId(), e);
+            return BulkServerResult.failed(server.getId(), e.getMessage());
+        }
+    }
+
+    private void removeFinishedOperations() {
+        Instant threshold = clock.instant().minus(FINISHED_OPERATION_RETENTION);
+        operations.values().removeIf(operation -> operation.isFinished()
+                && operation.getFinishedAt().isBefore(threshold));
+    }
+}
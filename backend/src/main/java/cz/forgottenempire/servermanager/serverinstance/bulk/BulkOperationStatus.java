@@ -0,0 +1,15 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+import java.time.Instant;
+import java.util.List;
+
+public record BulkOperationStatus(
+        String id,
+        BulkAction action,
+        List<Long> serverIds,
+        List<BulkServerResult> results,
+        boolean finished,
+        Instant createdAt,
+        Instant finishedAt
+) {
+}
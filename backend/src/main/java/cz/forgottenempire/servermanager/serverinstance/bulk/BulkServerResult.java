@@ -0,0 +1,17 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+public record BulkServerResult(long serverId, Outcome outcome, String message) {
+
+    static BulkServerResult succeeded(long serverId) {
+        return new BulkServerResult(serverId, Outcome.SUCCEEDED, null);
+    }
+
+    static BulkServerResult failed(long serverId, String message) {
+        return new BulkServerResult(serverId, Outcome.FAILED, message);
+    }
+
+    public enum Outcome {
+        SUCCEEDED,
+        FAILED
+    }
+}
@@ -0,0 +1,24 @@
+package cz.forgottenempire.servermanager.serverinstance.dtos;
+
+import cz.forgottenempire.servermanager.cpuplacement.CpuPlacementMode;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CpuPlacementSettingsDto {
+    @NotNull
+    private CpuPlacementMode mode;
+    private String cpus;
+    @Min(-20)
+    @Max(19)
+    private int niceLevel;
+    @Min(0)
+    @Max(7)
+    private Integer ioPriority;
+}
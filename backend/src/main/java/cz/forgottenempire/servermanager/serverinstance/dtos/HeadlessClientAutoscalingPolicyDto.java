@@ -0,0 +1,30 @@
+package cz.forgottenempire.servermanager.serverinstance.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeadlessClientAutoscalingPolicyDto {
+    private boolean enabled;
+    @Min(0)
+    private int minHeadlessClients;
+    @Min(0)
+    private int maxHeadlessClients;
+    @Min(1)
+    private int playersPerHeadlessClient;
+    @Min(1)
+    @Max(100)
+    private int scaleUpCpuPercent;
+    @Min(0)
+    @Max(100)
+    private int scaleDownCpuPercent;
+    @Min(0)
+    private int cooldownSeconds;
+    @Min(0)
+    private int startStaggerSeconds;
+}
@@ -1,10 +1,14 @@
 package cz.forgottenempire.servermanager.serverinstance.dtos;
 
 import cz.forgottenempire.servermanager.common.ServerType;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
@@ -46,5 +50,15 @@ public class ReforgerServerDto implements ServerDto {
 
     private List<LaunchParameterDto> customLaunchParameters;
 
+    private Set<@NotBlank @Size(max = 64) String> tags = new HashSet<>();
+
     private AutomaticRestartDto automaticRestart;
+
+    private RestartDeferralPolicyDto restartDeferralPolicy;
+
+    private SupervisorPolicyDto supervisorPolicy;
+
+    private CpuPlacementSettingsDto cpuPlacementSettings;
+
+    private ResourceLimitsDto resourceLimits;
 }
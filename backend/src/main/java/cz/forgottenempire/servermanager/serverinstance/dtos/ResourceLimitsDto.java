@@ -0,0 +1,21 @@
+package cz.forgottenempire.servermanager.serverinstance.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResourceLimitsDto {
+    @Min(64)
+    private Integer memoryMaxMegabytes;
+    @Min(1)
+    @Max(10000)
+    private Integer cpuWeight;
+    @Min(1)
+    @Max(10000)
+    private Integer ioWeight;
+}
@@ -0,0 +1,19 @@
+package cz.forgottenempire.servermanager.serverinstance.dtos;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RestartDeferralPolicyDto {
+    private boolean enabled;
+    @Min(0)
+    private int maxPlayers;
+    @Min(0)
+    private int earlyRestartWindowMinutes;
+    @Min(0)
+    private int maxDeferralMinutes;
+}
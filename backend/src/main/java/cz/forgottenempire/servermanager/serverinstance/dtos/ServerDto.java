@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import cz.forgottenempire.servermanager.common.ServerType;
 
 import java.util.List;
+import java.util.Set;
 
 @JsonTypeInfo(
         use = JsonTypeInfo.Id.NAME,
@@ -25,6 +26,10 @@ public interface ServerDto {
 
     ServerType getType();
 
+    Set<String> getTags();
+
+    void setTags(Set<String> tags);
+
     List<LaunchParameterDto> getCustomLaunchParameters();
 
     void setCustomLaunchParameters(List<LaunchParameterDto> customLaunchParameters);
@@ -32,4 +37,20 @@ public interface ServerDto {
     AutomaticRestartDto getAutomaticRestart();
 
     void setAutomaticRestart(AutomaticRestartDto automaticRestartDto);
+
+    RestartDeferralPolicyDto getRestartDeferralPolicy();
+
+    void setRestartDeferralPolicy(RestartDeferralPolicyDto restartDeferralPolicyDto);
+
+    SupervisorPolicyDto getSupervisorPolicy();
+
+    void setSupervisorPolicy(SupervisorPolicyDto supervisorPolicyDto);
+
+    CpuPlacementSettingsDto getCpuPlacementSettings();
+
+    void setCpuPlacementSettings(CpuPlacementSettingsDto cpuPlacementSettingsDto);
+
+    ResourceLimitsDto getResourceLimits();
+
+    void setResourceLimits(ResourceLimitsDto resourceLimitsDto);
 }
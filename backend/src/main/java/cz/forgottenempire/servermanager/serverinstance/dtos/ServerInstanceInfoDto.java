@@ -1,5 +1,7 @@
 package cz.forgottenempire.servermanager.serverinstance.dtos;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupStats;
+
 public record ServerInstanceInfoDto(
         boolean alive,
         String startedAt,
@@ -8,6 +10,8 @@ public record ServerInstanceInfoDto(
         String version,
         String map,
         String description,
-        int headlessClientsCount
+        int headlessClientsCount,
+        CgroupStats resourceUsage,
+        String nextRestartAt
 ) {
 }
@@ -0,0 +1,22 @@
+package cz.forgottenempire.servermanager.serverinstance.dtos;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SupervisorPolicyDto {
+    private boolean enabled;
+    @Min(1)
+    private int unresponsiveThresholdSeconds;
+    @Min(0)
+    private int startupGracePeriodSeconds;
+    @Min(0)
+    private int restartBackoffSeconds;
+    @Min(1)
+    private int maxRestartsPerHour;
+    private boolean captureCoreDump;
+}
@@ -3,6 +3,7 @@ package cz.forgottenempire.servermanager.serverinstance.entities;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
@@ -11,6 +12,8 @@ import jakarta.validation.constraints.Min;
 @Getter
 @Setter
 @NoArgsConstructor
+// loaded together for all servers of a list
+@BatchSize(size = 50)
 @Entity
 public class Arma3DifficultySettings {
 
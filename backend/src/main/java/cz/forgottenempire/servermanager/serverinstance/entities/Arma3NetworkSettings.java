@@ -4,10 +4,13 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 @Getter
 @Setter
 @NoArgsConstructor
+// loaded together for all servers of a list
+@BatchSize(size = 50)
 @Entity(name = "arma3_network_settings")
 public class Arma3NetworkSettings {
 
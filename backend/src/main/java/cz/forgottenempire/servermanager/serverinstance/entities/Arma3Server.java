@@ -2,7 +2,6 @@ package cz.forgottenempire.servermanager.serverinstance.entities;
 
 import cz.forgottenempire.servermanager.common.Constants;
 import cz.forgottenempire.servermanager.common.ServerType;
-import cz.forgottenempire.servermanager.serverinstance.process.Arma3ServerProcess;
 import cz.forgottenempire.servermanager.serverinstance.ServerConfig;
 import cz.forgottenempire.servermanager.util.SystemUtils;
 import cz.forgottenempire.servermanager.workshop.Arma3CDLC;
@@ -11,8 +10,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.beans.factory.annotation.Configurable;
-import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -27,10 +26,9 @@ import java.util.stream.Stream;
 @Setter
 @NoArgsConstructor
 @Entity
-@Configurable
 public class Arma3Server extends Server {
 
-    @Value("${additionalMods:#{null}}")
+    // set by ServerEntityListener
     private transient String[] additionalMods;
 
     private boolean clientFilePatching;
@@ -46,9 +44,11 @@ public class Arma3Server extends Server {
     private String additionalOptions;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     private List<WorkshopMod> activeMods;
 
     @ElementCollection(targetClass = Arma3CDLC.class, fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     @Enumerated(EnumType.STRING)
     private List<Arma3CDLC> activeDLCs;
 
@@ -60,16 +60,14 @@ public class Arma3Server extends Server {
     @JoinColumn(name = "network_settings_id")
     private Arma3NetworkSettings networkSettings;
 
+    @Embedded
+    private HeadlessClientAutoscalingPolicy headlessClientAutoscalingPolicy = new HeadlessClientAutoscalingPolicy();
+
     @Override
     public void setQueryPort(int queryPort) {
         super.setQueryPort(getPort() + 1);
     }
 
-    @Override
-    public Arma3ServerProcess getProcess() {
-        return new Arma3ServerProcess(getId());
-    }
-
     @Override
     public List<String> getLaunchParameters() {
         List<String> parameters = new ArrayList<>();
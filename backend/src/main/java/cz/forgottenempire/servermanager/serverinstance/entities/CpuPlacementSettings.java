@@ -0,0 +1,43 @@
+package cz.forgottenempire.servermanager.serverinstance.entities;
+
+import cz.forgottenempire.servermanager.cpuplacement.CpuPlacementMode;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Defines on which CPUs and with which priority the server and its headless clients run.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Embeddable
+public class CpuPlacementSettings {
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "placement_mode")
+    private CpuPlacementMode mode = CpuPlacementMode.NONE;
+
+    // list of CPUs in the format used by taskset (e.g. 2-3,6), used in manual mode
+    @Column(name = "placement_cpus")
+    private String cpus;
+
+    @Min(-20)
+    @Max(19)
+    @Column(name = "placement_nice")
+    private int niceLevel;
+
+    // best-effort I/O priority from 0 (highest) to 7, null to keep the default
+    @Min(0)
+    @Max(7)
+    @Column(name = "placement_io_priority")
+    private Integer ioPriority;
+}
@@ -14,8 +14,11 @@ import jakarta.validation.constraints.Min;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -48,6 +51,7 @@ public class DayZServer extends Server {
     private String additionalOptions;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     private List<WorkshopMod> activeMods;
 
     @Override
@@ -58,6 +62,9 @@ public class DayZServer extends Server {
         parameters.add("-limitFPS=60");
         parameters.add("-dologs");
         parameters.add("-adminlog");
+        if (findCustomProfilesDirectory() == null) {
+            parameters.add("-profiles=" + getProfilesDirectory());
+        }
         parameters.add("-freezeCheck");
         addModsToParameters(parameters);
         addCustomLaunchParameters(parameters);
@@ -69,6 +76,27 @@ public class DayZServer extends Server {
         return List.of(new ServerConfig(getConfigFile(), Constants.SERVER_CONFIG_TEMPLATES.get(ServerType.DAYZ), this));
     }
 
+    /**
+     * @return directory with the logs of the server, including the admin log (ADM)
+     */
+    public Path getProfilesDirectory() {
+        String customProfilesDirectory = findCustomProfilesDirectory();
+        if (customProfilesDirectory != null) {
+            return Path.of(customProfilesDirectory.replace("\"", "")).toAbsolutePath();
+        }
+        return Path.of(pathsFactory.getServerPath(getType()).toString(), "profiles", "DAYZ_" + getId())
+                .toAbsolutePath();
+    }
+
+    private String findCustomProfilesDirectory() {
+        return getCustomLaunchParameters().stream()
+                .filter(parameter -> "profiles".equalsIgnoreCase(parameter.getName()))
+                .map(LaunchParameter::getValue)
+                .filter(value -> value != null && !value.isBlank())
+                .findFirst()
+                .orElse(null);
+    }
+
     private File getConfigFile() {
         String fileName = "DAYZ_" + getId() + ".cfg";
         return pathsFactory.getConfigFilePath(getType(), fileName).toFile();
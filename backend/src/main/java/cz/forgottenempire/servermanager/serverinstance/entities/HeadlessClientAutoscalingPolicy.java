@@ -0,0 +1,56 @@
+package cz.forgottenempire.servermanager.serverinstance.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Defines how many headless clients run alongside an Arma 3 server, based on the number of players online and
+ * the CPU load of the server and its headless clients.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Embeddable
+public class HeadlessClientAutoscalingPolicy {
+
+    @Column(name = "hc_autoscaling_enabled")
+    private boolean enabled;
+
+    @Min(0)
+    @Column(name = "hc_autoscaling_min")
+    private int minHeadlessClients = 0;
+
+    @Min(0)
+    @Column(name = "hc_autoscaling_max")
+    private int maxHeadlessClients = 3;
+
+    @Min(1)
+    @Column(name = "hc_autoscaling_players_per_client")
+    private int playersPerHeadlessClient = 20;
+
+    // CPU usage in % of a single core, the game simulation runs mostly on one thread
+    @Min(1)
+    @Max(100)
+    @Column(name = "hc_autoscaling_scale_up_cpu")
+    private int scaleUpCpuPercent = 90;
+
+    @Min(0)
+    @Max(100)
+    @Column(name = "hc_autoscaling_scale_down_cpu")
+    private int scaleDownCpuPercent = 50;
+
+    // minimal time after any change before a headless client is removed, or added back after being removed
+    @Min(0)
+    @Column(name = "hc_autoscaling_cooldown")
+    private int cooldownSeconds = 300;
+
+    // minimal time between starts of two headless clients, so they don't load the mods at the same time
+    @Min(0)
+    @Column(name = "hc_autoscaling_start_stagger")
+    private int startStaggerSeconds = 30;
+}
@@ -9,6 +9,8 @@ import jakarta.validation.constraints.NotEmpty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -34,12 +36,15 @@ public class ReforgerServer extends Server {
     private int networkViewDistance;
     
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     private List<String> admins;
     
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     private List<String> supportedPlatforms;
 
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     private List<ReforgerMod> activeMods;
 
     @Override
@@ -0,0 +1,35 @@
+package cz.forgottenempire.servermanager.serverinstance.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Defines how the automatic restart of a server adapts to the players online. Within the early restart window before
+ * the planned time, an empty server is restarted right away. After the planned time, the restart waits until at most
+ * {@code maxPlayers} players are online, but no longer than {@code maxDeferralMinutes}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Embeddable
+public class RestartDeferralPolicy {
+
+    @Column(name = "restart_deferral_enabled")
+    private boolean enabled;
+
+    @Min(0)
+    @Column(name = "restart_deferral_max_players")
+    private int maxPlayers = 0;
+
+    @Min(0)
+    @Column(name = "restart_deferral_early_window")
+    private int earlyRestartWindowMinutes = 30;
+
+    @Min(0)
+    @Column(name = "restart_deferral_max_deferral")
+    private int maxDeferralMinutes = 120;
+}
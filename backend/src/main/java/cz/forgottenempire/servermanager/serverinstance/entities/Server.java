@@ -1,10 +1,10 @@
 package cz.forgottenempire.servermanager.serverinstance.entities;
 
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
 import cz.forgottenempire.servermanager.common.PathsFactory;
 import cz.forgottenempire.servermanager.common.ServerType;
 import cz.forgottenempire.servermanager.serverinstance.ServerConfig;
 import cz.forgottenempire.servermanager.serverinstance.LogFile;
-import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
@@ -12,20 +12,22 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Configurable;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
-@Configurable
+@EntityListeners(ServerEntityListener.class)
 public abstract class Server {
 
     protected transient PathsFactory pathsFactory;
@@ -49,9 +51,19 @@ public abstract class Server {
     @Min(1)
     private int maxPlayers;
 
+    // eager collections are loaded by one query for all servers of a list rather than one query per server
     @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "server")
+    @Fetch(FetchMode.SUBSELECT)
     private List<LaunchParameter> customLaunchParameters = new ArrayList<>();
 
+    // for selecting servers in bulk operations, such as all servers of an event, loaded on first use for all servers
+    // of a list by one query
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @CollectionTable(name = "server_tag")
+    @Column(name = "tag")
+    private Set<String> tags = new HashSet<>();
+
     private String password;
     private String adminPassword;
 
@@ -60,6 +72,18 @@ public abstract class Server {
     @Column(name = "automatic_restart_time")
     private LocalTime automaticRestartTime;
 
+    @Embedded
+    private RestartDeferralPolicy restartDeferralPolicy = new RestartDeferralPolicy();
+
+    @Embedded
+    private SupervisorPolicy supervisorPolicy = new SupervisorPolicy();
+
+    @Embedded
+    private CpuPlacementSettings cpuPlacementSettings = new CpuPlacementSettings();
+
+    @Embedded
+    private ResourceLimits resourceLimits = new ResourceLimits();
+
     public abstract List<String> getLaunchParameters();
 
     public abstract Collection<ServerConfig> getConfigFiles();
@@ -68,11 +92,6 @@ public abstract class Server {
         return new LogFile(pathsFactory.getServerLogFile(type, id));
     }
 
-    public ServerProcess getProcess() {
-        return new ServerProcess(id);
-    }
-
-    @Autowired
     void setPathsFactory(PathsFactory pathsFactory) {
         this.pathsFactory = pathsFactory;
     }
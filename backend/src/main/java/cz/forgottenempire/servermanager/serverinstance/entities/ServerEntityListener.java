@@ -0,0 +1,35 @@
+package cz.forgottenempire.servermanager.serverinstance.entities;
+
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives servers loaded or persisted by Hibernate what they need to resolve their files and launch parameters. Hibernate
+ * obtains the listener once from the Spring context, so loading a server only sets two fields.
+ */
+@Component
+public class ServerEntityListener {
+
+    private final PathsFactory pathsFactory;
+    private final String[] additionalMods;
+
+    @Autowired
+    public ServerEntityListener(PathsFactory pathsFactory,
+            @Value("${additionalMods:#{null}}") String[] additionalMods) {
+        this.pathsFactory = pathsFactory;
+        this.additionalMods = additionalMods;
+    }
+
+    @PostLoad
+    @PrePersist
+    void setDependencies(Server server) {
+        server.setPathsFactory(pathsFactory);
+        if (server instanceof Arma3Server arma3Server) {
+            arma3Server.setAdditionalMods(additionalMods);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package cz.forgottenempire.servermanager.serverinstance.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Defines when a running server that stopped responding to status queries is considered hung and how it's restarted.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Embeddable
+public class SupervisorPolicy {
+
+    @Column(name = "supervisor_enabled")
+    private boolean enabled;
+
+    @Min(1)
+    @Column(name = "supervisor_unresponsive_threshold")
+    private int unresponsiveThresholdSeconds = 60;
+
+    @Min(0)
+    @Column(name = "supervisor_startup_grace_period")
+    private int startupGracePeriodSeconds = 300;
+
+    // delay before the first restart attempt, doubled with every following restart of a server that keeps hanging
+    @Min(0)
+    @Column(name = "supervisor_restart_backoff")
+    private int restartBackoffSeconds = 30;
+
+    @Min(1)
+    @Column(name = "supervisor_max_restarts_per_hour")
+    private int maxRestartsPerHour = 3;
+
+    @Column(name = "supervisor_capture_core_dump")
+    private boolean captureCoreDump;
+}
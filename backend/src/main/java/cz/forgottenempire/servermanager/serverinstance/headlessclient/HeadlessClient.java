@@ -1,30 +1,37 @@
 package cz.forgottenempire.servermanager.serverinstance.headlessclient;
 
 import com.google.common.base.Joiner;
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
 import cz.forgottenempire.servermanager.common.PathsFactory;
 import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacement;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
 import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessCreator;
 import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Configurable;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+/**
+ * Headless client process of an Arma 3 server, created by {@link HeadlessClientFactory}.
+ */
 @Slf4j
-@Configurable
 public class HeadlessClient {
 
     private final int id;
     private final Arma3Server server;
     private PathsFactory pathsFactory;
     private ServerProcessCreator serverProcessCreator;
+    private ProcessPlacementService processPlacementService;
+    private CgroupService cgroupService;
 
     private Process process;
 
@@ -40,7 +47,11 @@ public class HeadlessClient {
         try {
             List<String> parameters = prepareParameters();
             log.info("Starting headless client with options: {}", Joiner.on(" ").join(parameters));
-            process = serverProcessCreator.startProcessWithRedirectedOutput(executable, parameters, logFile);
+            ProcessPlacement placement = processPlacementService.placeHeadlessClient(server.getId(), id,
+                    server.getCpuPlacementSettings());
+            process = serverProcessCreator.startProcessWithRedirectedOutput(executable, parameters, logFile, placement);
+            // headless clients share the limits of their server
+            cgroupService.assignServerProcess(server.getId(), server.getResourceLimits(), process.pid());
         } catch (IOException e) {
             log.error("Failed to start headless client", e);
         }
@@ -59,6 +70,24 @@ public class HeadlessClient {
         return process != null && process.isAlive();
     }
 
+    /**
+     * @return future completed when the headless client process exits, already completed if it failed to start
+     */
+    public CompletableFuture<HeadlessClient> onExit() {
+        if (process == null) {
+            return CompletableFuture.completedFuture(this);
+        }
+        return process.onExit().thenApply(exitedProcess -> this);
+    }
+
+    public Optional<ProcessHandle> getProcessHandle() {
+        return isAlive() ? Optional.of(process.toHandle()) : Optional.empty();
+    }
+
+    public int getId() {
+        return id;
+    }
+
     private List<String> prepareParameters() {
         List<String> parameters = new ArrayList<>();
         parameters.add("-client");
@@ -79,12 +108,18 @@ public class HeadlessClient {
         return parameters;
     }
 
-    @Autowired
     void setPathsFactory(PathsFactory pathsFactory) {
         this.pathsFactory = pathsFactory;
     }
 
-    @Autowired
+    void setProcessPlacementService(ProcessPlacementService processPlacementService) {
+        this.processPlacementService = processPlacementService;
+    }
+
+    void setCgroupService(CgroupService cgroupService) {
+        this.cgroupService = cgroupService;
+    }
+
     void setServerProcessCreator(ServerProcessCreator serverProcessCreator) {
         this.serverProcessCreator = serverProcessCreator;
     }
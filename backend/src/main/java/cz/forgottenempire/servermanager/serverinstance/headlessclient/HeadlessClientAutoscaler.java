@@ -0,0 +1,224 @@
+package cz.forgottenempire.servermanager.serverinstance.headlessclient;
+
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceService;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.HeadlessClientAutoscalingPolicy;
+import cz.forgottenempire.servermanager.serverinstance.process.Arma3ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adds and removes headless clients of running Arma 3 servers according to their
+ * {@link HeadlessClientAutoscalingPolicy}. The count of headless clients follows the number of players online, and
+ * one more is added when the server or any of its headless clients is CPU bound. Headless clients started within the
+ * cooldown are left out of the CPU load, as loading the mission keeps them busy regardless of the players, and
+ * consecutive headless clients are added because of the CPU load at least the cooldown apart.
+ * <p>
+ * To avoid flapping, a headless client is removed only when the players fit into one client less with a margin,
+ * the CPU load is low and the cooldown since the last change has passed. Headless clients are started one at a time
+ * across all servers, at most one per run, so they don't load the mods all at once.
+ */
+@Component
+@Slf4j
+class HeadlessClientAutoscaler {
+
+    private final ServerProcessRepository processRepository;
+    private final ServerInstanceService serverInstanceService;
+    private final Clock clock;
+    private final Map<Long, ScalingState> serverIdToScalingStateMap = new ConcurrentHashMap<>();
+
+    @Autowired
+    HeadlessClientAutoscaler(ServerProcessRepository processRepository, ServerInstanceService serverInstanceService,
+            Clock clock) {
+        this.processRepository = processRepository;
+        this.serverInstanceService = serverInstanceService;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelay = 10000)
+    void scaleHeadlessClients() {
+        serverIdToScalingStateMap.keySet().removeIf(serverId -> processRepository.get(serverId)
+                .map(process -> !process.isAlive())
+                .orElse(true));
+
+        boolean headlessClientStarted = false;
+        for (ServerProcess process : processRepository.getAll()) {
+            if (!(process instanceof Arma3ServerProcess arma3Process) || !process.isAlive()) {
+                continue;
+            }
+            try {
+                headlessClientStarted |= scale(arma3Process, !headlessClientStarted);
+            } catch (RuntimeException e) {
+                log.error("Failed to scale headless clients of server ID {}", process.getServerId(), e);
+            }
+        }
+    }
+
+    /**
+     * @return true if a headless client was started
+     */
+    private boolean scale(Arma3ServerProcess process, boolean startAllowed) {
+        ServerInstanceInfo instanceInfo = process.getInstanceInfo();
+        // headless clients can connect only once the server is up
+        if (instanceInfo == null || !instanceInfo.isAlive() || instanceInfo.getLastResponseAt() == null) {
+            return false;
+        }
+
+        long serverId = process.getServerId();
+        HeadlessClientAutoscalingPolicy policy = serverInstanceService.getServer(serverId)
+                .filter(server -> server instanceof Arma3Server)
+                .map(server -> ((Arma3Server) server).getHeadlessClientAutoscalingPolicy())
+                .orElse(null);
+        if (policy == null || !policy.isEnabled()) {
+            serverIdToScalingStateMap.remove(serverId);
+            return false;
+        }
+
+        ScalingState state = serverIdToScalingStateMap.computeIfAbsent(serverId, id -> new ScalingState());
+        Instant now = clock.instant();
+        List<ProcessHandle> processes = new ArrayList<>(process.getHeadlessClientProcesses());
+        process.getProcessHandle().ifPresent(processes::add);
+        OptionalDouble cpuPercent = state.sampleCpuLoad(processes, Duration.ofSeconds(policy.getCooldownSeconds()), now);
+
+        int headlessClientsCount = process.getHeadlessClientsCount();
+        Decision decision = evaluate(policy, instanceInfo.getPlayersOnline(), headlessClientsCount, cpuPercent,
+                state, now);
+        if (decision == Decision.ADD && startAllowed) {
+            log.info("Adding headless client to server ID {} ({} players online, {} headless clients running)",
+                    serverId, instanceInfo.getPlayersOnline(), headlessClientsCount);
+            process.addHeadlessClient();
+            state.recordScaleUp(now);
+            return true;
+        }
+        if (decision == Decision.REMOVE) {
+            log.info("Removing headless client from server ID {} ({} players online, {} headless clients running)",
+                    serverId, instanceInfo.getPlayersOnline(), headlessClientsCount);
+            process.removeHeadlessClient();
+            state.recordScaleDown(now);
+        }
+        return false;
+    }
+
+    Decision evaluate(HeadlessClientAutoscalingPolicy policy, int playersOnline, int headlessClientsCount,
+            OptionalDouble cpuPercent, ScalingState state, Instant now) {
+        int desiredCount = getDesiredCount(policy, playersOnline, headlessClientsCount, cpuPercent);
+        Duration cooldown = Duration.ofSeconds(policy.getCooldownSeconds());
+
+        if (desiredCount > headlessClientsCount) {
+            if (isWithin(state.lastScaleUpAt, Duration.ofSeconds(policy.getStartStaggerSeconds()), now)) {
+                return Decision.KEEP;
+            }
+            boolean belowMinimum = headlessClientsCount < policy.getMinHeadlessClients();
+            if (!belowMinimum && isWithin(state.lastScaleDownAt, cooldown, now)) {
+                return Decision.KEEP;
+            }
+            boolean cpuDriven = getDesiredCount(policy, playersOnline, headlessClientsCount, OptionalDouble.empty())
+                    <= headlessClientsCount;
+            if (cpuDriven && isWithin(state.lastScaleUpAt, cooldown, now)) {
+                // give the previously added headless client time to take over the load
+                return Decision.KEEP;
+            }
+            return Decision.ADD;
+        }
+
+        if (desiredCount < headlessClientsCount) {
+            if (isWithin(state.lastScaleUpAt, cooldown, now)
+                    || isWithin(state.lastScaleDownAt, cooldown, now)) {
+                return Decision.KEEP;
+            }
+            return Decision.REMOVE;
+        }
+        return Decision.KEEP;
+    }
+
+    private static int getDesiredCount(HeadlessClientAutoscalingPolicy policy, int playersOnline,
+            int headlessClientsCount, OptionalDouble cpuPercent) {
+        int playersPerHeadlessClient = policy.getPlayersPerHeadlessClient();
+        int desiredCount = (playersOnline + playersPerHeadlessClient - 1) / playersPerHeadlessClient;
+
+        if (cpuPercent.isPresent() && cpuPercent.getAsDouble() >= policy.getScaleUpCpuPercent()) {
+            desiredCount = Math.max(desiredCount, headlessClientsCount + 1);
+        } else if (desiredCount < headlessClientsCount) {
+            // keep the current count unless the players fit into one client less with a quarter of its capacity spare
+            int capacityAfterRemoval = (headlessClientsCount - 1) * playersPerHeadlessClient;
+            boolean playersFit = playersOnline <= Math.max(0, capacityAfterRemoval - playersPerHeadlessClient / 4);
+            boolean cpuLow = cpuPercent.isPresent() && cpuPercent.getAsDouble() < policy.getScaleDownCpuPercent();
+            if (!playersFit || !cpuLow) {
+                desiredCount = headlessClientsCount;
+            }
+        }
+
+        return Math.max(policy.getMinHeadlessClients(), Math.min(policy.getMaxHeadlessClients(), desiredCount));
+    }
+
+    private static boolean isWithin(Instant lastChange, Duration period, Instant now) {
+        return lastChange != null && now.isBefore(lastChange.plus(period));
+    }
+
+    enum Decision {
+        KEEP,
+        ADD,
+        REMOVE
+    }
+
+    static class ScalingState {
+
+        private Instant lastScaleUpAt;
+        private Instant lastScaleDownAt;
+        private Instant lastSampleAt;
+        private Map<Long, Duration> pidToCpuTimeMap = new HashMap<>();
+
+        void recordScaleUp(Instant at) {
+            lastScaleUpAt = at;
+        }
+
+        void recordScaleDown(Instant at) {
+            lastScaleDownAt = at;
+        }
+
+        /**
+         * @param warmUp processes started less than this ago are left out
+         * @return the highest CPU usage of the given processes since the previous sample, in % of a single core,
+         * empty if there's no previous sample to compare with
+         */
+        OptionalDouble sampleCpuLoad(List<ProcessHandle> processes, Duration warmUp, Instant now) {
+            Map<Long, Duration> currentCpuTimes = new HashMap<>();
+            processes.forEach(process -> process.info().totalCpuDuration()
+                    .ifPresent(cpuTime -> currentCpuTimes.put(process.pid(), cpuTime)));
+
+            OptionalDouble cpuLoad = OptionalDouble.empty();
+            if (lastSampleAt != null && now.isAfter(lastSampleAt)) {
+                long elapsedNanos = Duration.between(lastSampleAt, now).toNanos();
+                List<Long> warmedUpPids = processes.stream()
+                        .filter(process -> !isWithin(process.info().startInstant().orElse(null), warmUp, now))
+                        .map(ProcessHandle::pid)
+                        .toList();
+                cpuLoad = currentCpuTimes.entrySet().stream()
+                        .filter(entry -> pidToCpuTimeMap.containsKey(entry.getKey()))
+                        .filter(entry -> warmedUpPids.contains(entry.getKey()))
+                        .mapToDouble(entry -> entry.getValue().minus(pidToCpuTimeMap.get(entry.getKey())).toNanos()
+                                * 100.0 / elapsedNanos)
+                        .max();
+            }
+
+            pidToCpuTimeMap = currentCpuTimes;
+            lastSampleAt = now;
+            return cpuLoad;
+        }
+    }
+}
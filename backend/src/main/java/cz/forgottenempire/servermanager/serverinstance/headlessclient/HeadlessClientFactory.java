@@ -0,0 +1,40 @@
+package cz.forgottenempire.servermanager.serverinstance.headlessclient;
+
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessCreator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class HeadlessClientFactory {
+
+    private final PathsFactory pathsFactory;
+    private final ServerProcessCreator serverProcessCreator;
+    private final ProcessPlacementService processPlacementService;
+    private final CgroupService cgroupService;
+
+    @Autowired
+    public HeadlessClientFactory(
+            PathsFactory pathsFactory,
+            ServerProcessCreator serverProcessCreator,
+            ProcessPlacementService processPlacementService,
+            CgroupService cgroupService
+    ) {
+        this.pathsFactory = pathsFactory;
+        this.serverProcessCreator = serverProcessCreator;
+        this.processPlacementService = processPlacementService;
+        this.cgroupService = cgroupService;
+    }
+
+    public HeadlessClient createHeadlessClient(int id, Arma3Server server) {
+        HeadlessClient headlessClient = new HeadlessClient(id, server);
+        headlessClient.setPathsFactory(pathsFactory);
+        headlessClient.setServerProcessCreator(serverProcessCreator);
+        headlessClient.setProcessPlacementService(processPlacementService);
+        headlessClient.setCgroupService(cgroupService);
+        return headlessClient;
+    }
+}
@@ -0,0 +1,70 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the admin log (ADM) of a DayZ server. The server creates a new admin log with the time of the start in its
+ * name in the profiles directory, so the newest one written since the start of the process is followed.
+ */
+class AdminLogTailer {
+
+    private static final String ADMIN_LOG_GLOB = "*.{ADM,adm}";
+
+    private final Path profilesDirectory;
+    private final FileTime processStartedAt;
+    private final boolean fromStart;
+    private LogTailer tailer;
+
+    /**
+     * @param fromStart whether to read the admin log from the start, otherwise only newly appended lines are read, for
+     *                  example when the process was started by the previous run of the manager
+     */
+    AdminLogTailer(Path profilesDirectory, Instant processStartedAt, boolean fromStart) {
+        this.profilesDirectory = profilesDirectory;
+        this.fromStart = fromStart;
+        // file systems may keep the modification time in whole seconds only
+        this.processStartedAt = FileTime.from(processStartedAt.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Reads all complete lines appended since the last call, nothing until the server creates its admin log.
+     *
+     * @return number of bytes read
+     */
+    long readNewLines(Consumer<StringBuilder> lineConsumer) throws IOException {
+        if (tailer == null) {
+            Path adminLog = findAdminLog();
+            if (adminLog == null) {
+                return 0;
+            }
+            tailer = new LogTailer(adminLog, fromStart);
+        }
+        return tailer.readNewLines(lineConsumer);
+    }
+
+    private Path findAdminLog() throws IOException {
+        Path newest = null;
+        FileTime newestModified = null;
+        try (DirectoryStream<Path> adminLogs = Files.newDirectoryStream(profilesDirectory, ADMIN_LOG_GLOB)) {
+            for (Path adminLog : adminLogs) {
+                FileTime modified = Files.getLastModifiedTime(adminLog);
+                if (modified.compareTo(processStartedAt) >= 0
+                        && (newestModified == null || modified.compareTo(newestModified) > 0)) {
+                    newest = adminLog;
+                    newestModified = modified;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return newest;
+    }
+}
@@ -0,0 +1,15 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param subject player name for player events, error or BattlEye message otherwise; may be null
+ * @param line    the whole log line the event was extracted from
+ */
+public record LogEvent(
+        LocalDateTime timestamp,
+        LogEventType type,
+        String subject,
+        String line
+) {
+}
@@ -0,0 +1,47 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/server/{id}/events")
+@Slf4j
+class LogEventController {
+
+    public static final int DEFAULT_EVENTS_COUNT = 100;
+    private final LogEventService logEventService;
+
+    @Autowired
+    public LogEventController(LogEventService logEventService) {
+        this.logEventService = logEventService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<LogEvent>> getEvents(
+            @PathVariable long id,
+            @RequestParam(required = false) LogEventType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Integer count
+    ) {
+        if (count == null) {
+            count = DEFAULT_EVENTS_COUNT;
+        }
+        return ResponseEntity.ok(logEventService.getEvents(id, type, since, count));
+    }
+
+    @GetMapping("/counters")
+    public ResponseEntity<Map<LogEventType, Long>> getCounters(@PathVariable long id) {
+        return ResponseEntity.ok(logEventService.getCounters(id));
+    }
+}
@@ -0,0 +1,100 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the most recent log events of every server in a fixed size ring buffer, together with the counts of all
+ * events extracted since the manager was started.
+ */
+@Repository
+class LogEventRepository {
+
+    private final int eventsKeptPerServer;
+    private final Map<Long, ServerLogEvents> serverIdToEventsMap = new ConcurrentHashMap<>();
+
+    @Autowired
+    LogEventRepository(@Value("${logs.events.eventsKeptPerServer:1000}") int eventsKeptPerServer) {
+        this.eventsKeptPerServer = eventsKeptPerServer;
+    }
+
+    void store(long serverId, LogEvent event) {
+        serverIdToEventsMap
+                .computeIfAbsent(serverId, id -> new ServerLogEvents(eventsKeptPerServer))
+                .add(event);
+    }
+
+    /**
+     * @param type  only events of this type are returned if set
+     * @param since only events newer than this are returned if set
+     * @return events ordered from the newest
+     */
+    List<LogEvent> find(long serverId, LogEventType type, LocalDateTime since, int limit) {
+        ServerLogEvents events = serverIdToEventsMap.get(serverId);
+        if (events == null) {
+            return Collections.emptyList();
+        }
+        return events.find(type, since, limit);
+    }
+
+    Map<LogEventType, Long> getCounters(long serverId) {
+        ServerLogEvents events = serverIdToEventsMap.get(serverId);
+        if (events == null) {
+            return new ServerLogEvents(0).getCounters();
+        }
+        return events.getCounters();
+    }
+
+    private static class ServerLogEvents {
+
+        private final LogEvent[] events;
+        private final long[] counters = new long[LogEventType.values().length];
+        private int next;
+        private int size;
+
+        ServerLogEvents(int capacity) {
+            events = new LogEvent[capacity];
+        }
+
+        synchronized void add(LogEvent event) {
+            counters[event.type().ordinal()]++;
+            if (events.length == 0) {
+                return;
+            }
+            events[next] = event;
+            next = (next + 1) % events.length;
+            size = Math.min(size + 1, events.length);
+        }
+
+        synchronized List<LogEvent> find(LogEventType type, LocalDateTime since, int limit) {
+            List<LogEvent> result = new ArrayList<>(Math.min(limit, size));
+            for (int i = 1; i <= size && result.size() < limit; i++) {
+                LogEvent event = events[(next - i + events.length) % events.length];
+                if (since != null && !event.timestamp().isAfter(since)) {
+                    break;
+                }
+                if (type == null || event.type() == type) {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+
+        synchronized Map<LogEventType, Long> getCounters() {
+            Map<LogEventType, Long> result = new EnumMap<>(LogEventType.class);
+            for (LogEventType type : LogEventType.values()) {
+                result.put(type, counters[type.ordinal()]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceService;
+import cz.forgottenempire.servermanager.serverinstance.entities.DayZServer;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Tails the logs of all running servers, and the admin logs of DayZ servers, and extracts events such as player
+ * connections, kicks, script errors and BattlEye messages from them. The logs are followed in parallel, so a slow disk
+ * or a huge burst of output in one log doesn't delay the events of the other servers.
+ */
+@Service
+@Slf4j
+public class LogEventService {
+
+    private final boolean enabled;
+    private final ServerProcessRepository processRepository;
+    private final ServerInstanceService serverInstanceService;
+    private final LogEventRepository eventRepository;
+    private final Clock clock;
+    private final ExecutorService followerExecutor;
+
+    private final Map<Long, LogEventPipeline> serverIdToPipelineMap = new ConcurrentHashMap<>();
+
+    @Autowired
+    LogEventService(
+            @Value("${logs.events.enabled:true}") boolean enabled,
+            ServerProcessRepository processRepository,
+            ServerInstanceService serverInstanceService,
+            LogEventRepository eventRepository,
+            Clock clock,
+            @Value("${logs.events.followerThreads:4}") int followerThreads,
+            ExecutorFactory executorFactory
+    ) {
+        this.enabled = enabled;
+        this.processRepository = processRepository;
+        this.serverInstanceService = serverInstanceService;
+        this.eventRepository = eventRepository;
+        this.clock = clock;
+        followerExecutor = executorFactory.newFixedThreadPool("log-follower-", followerThreads);
+    }
+
+    public List<LogEvent> getEvents(long serverId, LogEventType type, LocalDateTime since, int limit) {
+        return eventRepository.find(serverId, type, since, limit);
+    }
+
+    public Map<LogEventType, Long> getCounters(long serverId) {
+        return eventRepository.getCounters(serverId);
+    }
+
+    // synchronized, so a pass started outside the schedule doesn't overlap the scheduled one
+    @Scheduled(fixedDelay = 1000)
+    synchronized void processNewLogLines() {
+        if (!enabled) {
+            return;
+        }
+
+        serverIdToPipelineMap.keySet().removeIf(serverId -> processRepository.get(serverId)
+                .map(process -> !process.isAlive())
+                .orElse(true));
+
+        List<CompletableFuture<Void>> reads = new ArrayList<>();
+        for (ServerProcess process : processRepository.getAll()) {
+            if (!process.isAlive()) {
+                continue;
+            }
+            LogEventPipeline pipeline = serverIdToPipelineMap.get(process.getServerId());
+            if (pipeline == null) {
+                Optional<LogEventPipeline> newPipeline = createPipeline(process);
+                if (newPipeline.isEmpty()) {
+                    continue;
+                }
+                pipeline = newPipeline.get();
+                serverIdToPipelineMap.put(process.getServerId(), pipeline);
+            }
+            reads.add(CompletableFuture.runAsync(pipeline::processNewLines, followerExecutor));
+        }
+        // a pipeline is not read again before its previous read finishes
+        CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * @return empty if the server was deleted while its process is still running
+     */
+    private Optional<LogEventPipeline> createPipeline(ServerProcess process) {
+        Optional<Server> foundServer = serverInstanceService.getServer(process.getServerId());
+        if (foundServer.isEmpty()) {
+            log.debug("Server ID {} no longer exists, its log is not followed", process.getServerId());
+            return Optional.empty();
+        }
+        Server server = foundServer.get();
+        // the output written before the first read is not skipped, unless it's not known where the process started
+        long logStartOffset = process.getLogStartOffset();
+        LogTailer tailer = new LogTailer(server.getLog().getFile().toPath(), logStartOffset);
+        AdminLogTailer adminLogTailer = null;
+        if (server instanceof DayZServer dayZServer) {
+            LocalDateTime processStartedAt = process.getInstanceInfo().getStartedAt();
+            Instant startedAt = processStartedAt == null
+                    ? clock.instant()
+                    : processStartedAt.atZone(clock.getZone()).toInstant();
+            adminLogTailer = new AdminLogTailer(dayZServer.getProfilesDirectory(), startedAt, logStartOffset >= 0);
+        }
+        return Optional.of(new LogEventPipeline(server.getId(), server.getType(), tailer, adminLogTailer));
+    }
+
+    private class LogEventPipeline {
+
+        private final long serverId;
+        private final LogTailer tailer;
+        private final LogPatternSet patternSet;
+        private final AdminLogTailer adminLogTailer;
+        private final LogPatternSet adminLogPatternSet;
+
+        /**
+         * @param adminLogTailer tailer of the admin log, null if the server doesn't write one
+         */
+        LogEventPipeline(long serverId, ServerType serverType, LogTailer tailer, AdminLogTailer adminLogTailer) {
+            this.serverId = serverId;
+            this.tailer = tailer;
+            this.patternSet = LogPatternSet.forServerType(serverType);
+            this.adminLogTailer = adminLogTailer;
+            this.adminLogPatternSet = LogPatternSet.forServerType(serverType);
+        }
+
+        void processNewLines() {
+            if (patternSet.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now(clock);
+            try {
+                tailer.readNewLines(line -> store(patternSet.match(line, now)));
+                if (adminLogTailer != null) {
+                    adminLogTailer.readNewLines(line -> store(adminLogPatternSet.match(line, now)));
+                }
+            } catch (IOException e) {
+                log.warn("Failed to read log of server ID {}", serverId, e);
+            }
+        }
+
+        private void store(LogEvent event) {
+            if (event != null) {
+                eventRepository.store(serverId, event);
+            }
+        }
+    }
+}
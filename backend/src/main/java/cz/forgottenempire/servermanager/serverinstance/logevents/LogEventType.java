@@ -0,0 +1,9 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+public enum LogEventType {
+    PLAYER_CONNECTED,
+    PLAYER_DISCONNECTED,
+    PLAYER_KICKED,
+    SCRIPT_ERROR,
+    BATTLEYE
+}
@@ -0,0 +1,47 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single precompiled log line pattern. The literal is checked first, so the regex only runs on lines that can
+ * possibly match. The matcher is reused between lines, which makes instances not thread safe.
+ */
+class LogPattern {
+
+    private final LogEventType type;
+    private final String literal;
+    private final Matcher matcher;
+
+    /**
+     * @param literal text every matching line contains
+     * @param regex   pattern of the event, the first capturing group (if any) is used as the event subject
+     */
+    LogPattern(LogEventType type, String literal, String regex) {
+        this.type = type;
+        this.literal = literal;
+        this.matcher = Pattern.compile(regex).matcher("");
+    }
+
+    LogEventType getType() {
+        return type;
+    }
+
+    boolean matches(StringBuilder line) {
+        if (line.indexOf(literal) < 0) {
+            return false;
+        }
+        return matcher.reset(line).find();
+    }
+
+    /**
+     * Returns the subject of the line last successfully matched by {@link #matches(StringBuilder)}.
+     */
+    String getSubject() {
+        if (matcher.groupCount() == 0) {
+            return null;
+        }
+        String subject = matcher.group(1);
+        return subject == null ? null : subject.trim();
+    }
+}
@@ -0,0 +1,74 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import cz.forgottenempire.servermanager.common.ServerType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Patterns of the events extracted from the output of a particular game. Lines are matched against the patterns in
+ * order and only the first match produces an event, stamped with the time found on the line. A new set has to be
+ * created for every tailed log since the patterns hold reusable matchers.
+ */
+class LogPatternSet {
+
+    private static final String BATTLEYE_MESSAGE = "BattlEye Server: (.*)";
+    private static final String KICKED_BY_BATTLEYE = "Player (?:#\\d+ )?(.+?) (?:was )?kicked off by BattlEye";
+
+    private final List<LogPattern> patterns;
+    private final LogTimestampParser timestampParser = new LogTimestampParser();
+
+    private LogPatternSet(List<LogPattern> patterns) {
+        this.patterns = patterns;
+    }
+
+    static LogPatternSet forServerType(ServerType serverType) {
+        return switch (serverType) {
+            case ARMA3 -> arma3();
+            case DAYZ, DAYZ_EXP -> dayZ();
+            case REFORGER -> new LogPatternSet(List.of());
+        };
+    }
+
+    boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    /**
+     * @param now time of the read, used for lines without a timestamp
+     * @return the event found on the line or null if the line doesn't match any pattern. Nothing is allocated for
+     * lines that don't match.
+     */
+    LogEvent match(StringBuilder line, LocalDateTime now) {
+        for (LogPattern pattern : patterns) {
+            if (pattern.matches(line)) {
+                return new LogEvent(timestampParser.parse(line, now), pattern.getType(), pattern.getSubject(),
+                        line.toString());
+            }
+        }
+        return null;
+    }
+
+    // Arma 3 server console output (same format as the RPT file)
+    private static LogPatternSet arma3() {
+        return new LogPatternSet(List.of(
+                new LogPattern(LogEventType.PLAYER_KICKED, "kicked off", KICKED_BY_BATTLEYE),
+                new LogPattern(LogEventType.PLAYER_CONNECTED, " connected", "Player (.+?) connected \\(id="),
+                new LogPattern(LogEventType.PLAYER_DISCONNECTED, " disconnected", "Player (.+?) disconnected\\."),
+                new LogPattern(LogEventType.SCRIPT_ERROR, "Error in expression", "Error in expression <(.*)"),
+                new LogPattern(LogEventType.BATTLEYE, "BattlEye Server:", BATTLEYE_MESSAGE)
+        ));
+    }
+
+    // DayZ server console/RPT output and admin log (ADM) player lines
+    private static LogPatternSet dayZ() {
+        return new LogPatternSet(List.of(
+                new LogPattern(LogEventType.PLAYER_KICKED, "kicked off", KICKED_BY_BATTLEYE),
+                new LogPattern(LogEventType.PLAYER_KICKED, "kicked", "Player \"(.+?)\"\\s*\\(id=[^)]*\\)\\s*(?:has been )?kicked"),
+                new LogPattern(LogEventType.PLAYER_CONNECTED, "connected", "Player \"(.+?)\"\\s*\\(id=[^)]*\\)\\s*is connected"),
+                new LogPattern(LogEventType.PLAYER_DISCONNECTED, "disconnected", "Player \"(.+?)\"\\s*\\(id=[^)]*\\)\\s*has been disconnected"),
+                new LogPattern(LogEventType.SCRIPT_ERROR, "SCRIPT", "SCRIPT\\s*\\(E\\):\\s*(.*)"),
+                new LogPattern(LogEventType.BATTLEYE, "BattlEye Server:", BATTLEYE_MESSAGE)
+        ));
+    }
+}
@@ -0,0 +1,128 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Reads lines appended to a log file since the last call. All buffers are allocated once and reused, lines are
+ * passed to the consumer as a {@link StringBuilder} that is only valid during the call. When the file gets
+ * rotated or truncated, reading starts again from the beginning of the new file.
+ */
+class LogTailer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_LINE_LENGTH = 4096;
+
+    private final Path file;
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder line = new StringBuilder(256);
+
+    private Object fileKey;
+    private long position;
+
+    /**
+     * @param fromStart whether to read the existing content of the file, otherwise only newly appended lines are
+     *                  read
+     */
+    LogTailer(Path file, boolean fromStart) {
+        this(file, fromStart ? 0 : -1);
+    }
+
+    /**
+     * @param position offset in the file to start reading from, negative to read only newly appended lines. If the
+     *                 file is shorter, it was rotated in the meantime and it's read from the start.
+     */
+    LogTailer(Path file, long position) {
+        this.file = file;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            fileKey = attributes.fileKey();
+            if (position < 0) {
+                this.position = attributes.size();
+            } else if (position <= attributes.size()) {
+                this.position = position;
+            }
+        } catch (IOException ignored) {
+            // the file doesn't exist yet, read it from the start once it's created
+        }
+    }
+
+    /**
+     * Reads all complete lines appended since the last call.
+     *
+     * @return number of bytes read
+     */
+    long readNewLines(Consumer<StringBuilder> lineConsumer) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+
+        if (!Objects.equals(fileKey, attributes.fileKey()) || attributes.size() < position) {
+            fileKey = attributes.fileKey();
+            position = 0;
+            resetBuffers();
+        }
+        if (attributes.size() == position) {
+            return 0;
+        }
+
+        long bytesRead = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(position);
+            int read;
+            while ((read = channel.read(bytes)) > 0) {
+                bytesRead += read;
+                bytes.flip();
+                decoder.decode(bytes, chars, false);
+                bytes.compact();
+                chars.flip();
+                processChars(lineConsumer);
+                chars.clear();
+            }
+            position = channel.position();
+        }
+        return bytesRead;
+    }
+
+    private void processChars(Consumer<StringBuilder> lineConsumer) {
+        while (chars.hasRemaining()) {
+            char c = chars.get();
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                lineConsumer.accept(line);
+                line.setLength(0);
+            } else if (line.length() < MAX_LINE_LENGTH) {
+                line.append(c);
+            }
+        }
+    }
+
+    private void resetBuffers() {
+        bytes.clear();
+        chars.clear();
+        decoder.reset();
+        line.setLength(0);
+    }
+}
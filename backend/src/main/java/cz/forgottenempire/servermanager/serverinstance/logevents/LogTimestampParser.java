@@ -0,0 +1,59 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the time at the start of a log line, such as {@code 12:00:00} in the console output and the admin log or
+ * {@code 12:00:00.123} in the DayZ RPT, optionally preceded by a date ({@code 2024/05/01, 12:00:00}). Lines without a
+ * date are taken as written on the day of the read, or the day before if the time is still ahead. The matcher is
+ * reused between lines, which makes instances not thread safe.
+ */
+class LogTimestampParser {
+
+    // tolerance for clocks of the server and the manager not being exactly in sync
+    private static final Duration FUTURE_TOLERANCE = Duration.ofMinutes(5);
+
+    private final Matcher matcher = Pattern.compile(
+            "^\\s*(?:(\\d{4})/(\\d{1,2})/(\\d{1,2}),\\s+)?(\\d{1,2}):(\\d{2}):(\\d{2})(?:\\.(\\d{1,3}))?")
+            .matcher("");
+
+    /**
+     * @param now time of the read, returned if the line has no timestamp
+     */
+    LocalDateTime parse(CharSequence line, LocalDateTime now) {
+        if (!matcher.reset(line).lookingAt()) {
+            return now;
+        }
+        try {
+            LocalTime time = LocalTime.of(group(4), group(5), group(6), getNanos());
+            if (matcher.group(1) != null) {
+                return LocalDate.of(group(1), group(2), group(3)).atTime(time);
+            }
+            LocalDateTime timestamp = now.toLocalDate().atTime(time);
+            if (timestamp.isAfter(now.plus(FUTURE_TOLERANCE))) {
+                return timestamp.minusDays(1);
+            }
+            return timestamp;
+        } catch (DateTimeException e) {
+            return now;
+        }
+    }
+
+    private int group(int group) {
+        return Integer.parseInt(matcher.group(group));
+    }
+
+    private int getNanos() {
+        String millis = matcher.group(7);
+        if (millis == null) {
+            return 0;
+        }
+        return Integer.parseInt((millis + "00").substring(0, 3)) * 1_000_000;
+    }
+}
@@ -1,22 +1,25 @@
 package cz.forgottenempire.servermanager.serverinstance.process;
 
-import cz.forgottenempire.servermanager.serverinstance.ServerInstanceService;
+import cz.forgottenempire.servermanager.common.ShutdownParticipant.StoppingProcess;
+import cz.forgottenempire.servermanager.processtracking.ReattachableProcess;
 import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.HeadlessClientAutoscalingPolicy;
 import cz.forgottenempire.servermanager.serverinstance.entities.Server;
 import cz.forgottenempire.servermanager.serverinstance.headlessclient.HeadlessClient;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Configurable;
+import cz.forgottenempire.servermanager.serverinstance.headlessclient.HeadlessClientFactory;
+import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 
-@Configurable
+@Slf4j
 public class Arma3ServerProcess extends ServerProcess {
     private final long serverId;
     private final Deque<HeadlessClient> headlessClients;
 
-    private ServerInstanceService serverInstanceService;
+    private HeadlessClientFactory headlessClientFactory;
 
     public Arma3ServerProcess(long serverId) {
         super(serverId);
@@ -25,10 +28,11 @@ public class Arma3ServerProcess extends ServerProcess {
     }
 
     @Override
-    public void stop() {
+    public synchronized void stop() {
         super.stop();
+        // the server is no longer tracked, so the count is not updated
         while (!headlessClients.isEmpty()) {
-            removeHeadlessClient();
+            headlessClients.pop().stop();
         }
     }
 
@@ -36,36 +40,107 @@ public class Arma3ServerProcess extends ServerProcess {
     public void restart() {
         int countOfHeadlessClients = headlessClients.size();
         super.restart();
+        if (isAutoscalingEnabled()) {
+            // started one by one by the autoscaler once the server is up
+            return;
+        }
         for (int i = 0; i < countOfHeadlessClients; i++) {
             addHeadlessClient();
         }
     }
 
-    public void addHeadlessClient() {
-        Server server = serverInstanceService.getServer(serverId).orElseThrow();
+    @Override
+    public synchronized boolean reattach(ReattachableProcess reattachableProcess) {
+        if (!super.reattach(reattachableProcess)) {
+            return false;
+        }
+        if (isAutoscalingEnabled()) {
+            return true;
+        }
+        for (int i = 0; i < reattachableProcess.headlessClientsCount(); i++) {
+            addHeadlessClient();
+        }
+        return true;
+    }
+
+    /**
+     * Headless clients are not left running, they can't be reattached as they're started again quickly. Only their
+     * count is remembered, stored whenever it changes, so the same number is started when the server is reattached.
+     */
+    @Override
+    public synchronized List<StoppingProcess> detach() {
+        List<StoppingProcess> stoppingProcesses = new ArrayList<>(super.detach());
+        headlessClients.forEach(headlessClient -> headlessClient.getProcessHandle().ifPresent(handle ->
+                stoppingProcesses.add(new StoppingProcess(
+                        "Headless client " + headlessClient.getId() + " of server ID " + serverId, handle))));
+        while (!headlessClients.isEmpty()) {
+            headlessClients.pop().stop();
+        }
+        return stoppingProcesses;
+    }
+
+    @Override
+    public synchronized List<StoppingProcess> getRunningProcesses() {
+        List<StoppingProcess> runningProcesses = super.getRunningProcesses();
+        headlessClients.forEach(headlessClient -> headlessClient.getProcessHandle().ifPresent(handle ->
+                runningProcesses.add(new StoppingProcess(
+                        "Headless client " + headlessClient.getId() + " of server ID " + serverId, handle))));
+        return runningProcesses;
+    }
+
+    public synchronized void addHeadlessClient() {
+        Server server = serverRepository.findById(serverId).orElseThrow();
         if (!(server instanceof Arma3Server arma3Server)) {
             throw new IllegalStateException("Server ID " + server + " is not Arma 3 server");
         }
-        headlessClients.push(new HeadlessClient(headlessClients.size() + 1, arma3Server).start());
-        instanceInfo.setHeadlessClientsCount(headlessClients.size());
+        HeadlessClient headlessClient = headlessClientFactory.createHeadlessClient(headlessClients.size() + 1, arma3Server).start();
+        headlessClients.push(headlessClient);
+        updateHeadlessClientsCount();
+        headlessClient.onExit().thenAccept(this::handleHeadlessClientExit);
+    }
+
+    public synchronized int getHeadlessClientsCount() {
+        return headlessClients.size();
+    }
+
+    public synchronized List<ProcessHandle> getHeadlessClientProcesses() {
+        return headlessClients.stream()
+                .flatMap(headlessClient -> headlessClient.getProcessHandle().stream())
+                .toList();
     }
 
-    public void removeHeadlessClient() {
+    public synchronized void removeHeadlessClient() {
         if (headlessClients.isEmpty()) {
             return;
         }
         headlessClients.pop().stop();
-        instanceInfo.setHeadlessClientsCount(headlessClients.size());
+        updateHeadlessClientsCount();
     }
 
-    public void checkHeadlessClients() {
-        List<HeadlessClient> crashedHeadlessClients = headlessClients.stream().filter(hc -> !hc.isAlive()).toList();
-        crashedHeadlessClients.forEach(headlessClients::remove);
+    private synchronized void handleHeadlessClientExit(HeadlessClient headlessClient) {
+        // headless clients stopped by the manager are already removed
+        if (!headlessClients.remove(headlessClient)) {
+            return;
+        }
+        log.warn("Headless client {} of server ID {} crashed or was exited outside the manager.",
+                headlessClient.getId(), serverId);
+        updateHeadlessClientsCount();
+    }
+
+    private void updateHeadlessClientsCount() {
         instanceInfo.setHeadlessClientsCount(headlessClients.size());
+        processTracker.updateHeadlessClientsCount(serverId, headlessClients.size());
+    }
+
+    private boolean isAutoscalingEnabled() {
+        return serverRepository.findById(serverId)
+                .filter(server -> server instanceof Arma3Server)
+                .map(server -> ((Arma3Server) server).getHeadlessClientAutoscalingPolicy())
+                .map(HeadlessClientAutoscalingPolicy::isEnabled)
+                .orElse(false);
     }
 
-    @Autowired
-    void setServerInstanceService(ServerInstanceService serverInstanceService) {
-        this.serverInstanceService = serverInstanceService;
+    void setHeadlessClientFactory(HeadlessClientFactory headlessClientFactory) {
+        this.headlessClientFactory = headlessClientFactory;
     }
 }
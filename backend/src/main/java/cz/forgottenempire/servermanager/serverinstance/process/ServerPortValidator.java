@@ -0,0 +1,59 @@
+package cz.forgottenempire.servermanager.serverinstance.process;
+
+import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.serverinstance.PortAllocator;
+import cz.forgottenempire.servermanager.serverinstance.PortConflict;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.exceptions.PortAlreadyTakenException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks that the ports of a server are free right before it's started.
+ */
+@Component
+@Slf4j
+class ServerPortValidator {
+
+    private final ServerRepository serverRepository;
+    private final ServerProcessRepository processRepository;
+    private final PortAllocator portAllocator;
+
+    @Autowired
+    ServerPortValidator(ServerRepository serverRepository, ServerProcessRepository processRepository,
+            PortAllocator portAllocator) {
+        this.serverRepository = serverRepository;
+        this.processRepository = processRepository;
+        this.portAllocator = portAllocator;
+    }
+
+    /**
+     * @throws PortAlreadyTakenException if a port of the server is used by another running server or application
+     */
+    void validatePortsNotTaken(long serverId) {
+        Server server = serverRepository.findById(serverId)
+                .orElseThrow(() -> new NotFoundException("Server ID " + serverId + " not found"));
+        for (PortConflict conflict : portAllocator.findConflicts(server)) {
+            boolean conflictingServerRunning = processRepository.get(conflict.serverId())
+                    .map(ServerProcess::isAlive)
+                    .orElse(false);
+            if (conflictingServerRunning) {
+                String errorMessage = String.format("Port conflict: Server '%s' already uses port %d.",
+                        conflict.serverName(), conflict.port());
+                log.error("Server '{}' (ID {}) could not be started because of port conflict (port {})"
+                                + " with server '{}' (ID {})",
+                        server.getName(), server.getId(), conflict.port(), conflict.serverName(), conflict.serverId());
+                throw new PortAlreadyTakenException(errorMessage);
+            }
+        }
+
+        portAllocator.findPortInUse(server).ifPresent(port -> {
+            log.error("Server '{}' (ID {}) could not be started, port {} is used by another application",
+                    server.getName(), server.getId(), port);
+            throw new PortAlreadyTakenException(
+                    String.format("Port conflict: Port %d is already used by another application.", port));
+        });
+    }
+}
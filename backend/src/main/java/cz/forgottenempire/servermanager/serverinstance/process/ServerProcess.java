@@ -1,33 +1,60 @@
 package cz.forgottenempire.servermanager.serverinstance.process;
 
 import com.google.common.base.Joiner;
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
 import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.common.ShutdownParticipant.StoppingProcess;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacement;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
+import cz.forgottenempire.servermanager.processtracking.ProcessTracker;
+import cz.forgottenempire.servermanager.processtracking.ReattachableProcess;
+import cz.forgottenempire.servermanager.processtracking.TrackedProcessType;
 import cz.forgottenempire.servermanager.serverinstance.AutomaticRestartTask;
-import cz.forgottenempire.servermanager.serverinstance.ServerConfig;
+import cz.forgottenempire.servermanager.serverinstance.AutomaticRestartTaskFactory;
+import cz.forgottenempire.servermanager.serverinstance.ConfigRenderer;
 import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
 import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.entities.RestartDeferralPolicy;
 import cz.forgottenempire.servermanager.serverinstance.entities.Server;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Configurable;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Process of a server, created by {@link ServerProcessFactory}.
+ */
 @Slf4j
-@Configurable
 public class ServerProcess {
 
+    private static final long KILL_TIMEOUT_SECONDS = 10;
+
     private final long serverId;
     private ServerProcessCreator serverProcessCreator;
     private PathsFactory pathsFactory;
-    private ServerRepository serverRepository;
+    private ProcessPlacementService processPlacementService;
+    private CgroupService cgroupService;
+    private ConfigRenderer configRenderer;
+    private AutomaticRestartTaskFactory automaticRestartTaskFactory;
     private Process process;
+    // process left running by the previous run of the manager, used instead of the process started by this one
+    private ProcessHandle reattachedProcess;
     private AutomaticRestartTask automaticRestartTask;
+    private boolean stopRequested;
+    // size of the log when the process was started, -1 if not known
+    private volatile long logStartOffset = -1;
     protected ServerInstanceInfo instanceInfo;
+    protected ProcessTracker processTracker;
+    protected ServerRepository serverRepository;
 
     public ServerProcess(long serverId) {
         this.serverId = serverId;
@@ -41,7 +68,7 @@ public class ServerProcess {
         return serverId;
     }
 
-    public Process start() {
+    public synchronized Process start() {
         if (isAlive()) {
             return process;
         }
@@ -51,13 +78,21 @@ public class ServerProcess {
         File executable = pathsFactory.getServerExecutableWithFallback(server.getType());
         List<String> parameters = server.getLaunchParameters();
 
-        server.getConfigFiles().forEach(ServerConfig::generateIfNecessary);
+        server.getConfigFiles().forEach(configRenderer::renderToFile);
         server.getLog().prepare();
+        logStartOffset = server.getLog().getFile().length();
 
+        long pid;
+        ProcessPlacement placement;
         try {
             log.info("Starting server with options: {}", Joiner.on(" ").join(parameters));
-            process = serverProcessCreator.startProcessWithRedirectedOutput(executable, parameters, server.getLog().getFile());
-            log.info("Server '{}' (ID {}) started (PID {})", server.getName(), server.getId(), process.pid());
+            placement = processPlacementService.placeServer(serverId, server.getCpuPlacementSettings());
+            process = serverProcessCreator.startProcessWithRedirectedOutput(executable, parameters,
+                    server.getLog().getFile(), placement);
+            reattachedProcess = null;
+            pid = process.pid();
+            log.info("Server '{}' (ID {}) started (PID {})", server.getName(), server.getId(), pid);
+            cgroupService.assignServerProcess(serverId, server.getResourceLimits(), pid);
         } catch (IOException e) {
             log.error("Could not start server '{}' (ID {})", server.getName(), server.getId(), e);
             return null;
@@ -69,19 +104,75 @@ public class ServerProcess {
                 .build();
 
         if (server.isRestartAutomatically()) {
-            scheduleRestartJobAt(server.getAutomaticRestartTime());
+            scheduleRestartJobAt(server.getAutomaticRestartTime(), server.getRestartDeferralPolicy());
         }
 
+        stopRequested = false;
+        process.onExit().thenAccept(exitedProcess -> handleProcessExit(exitedProcess.pid(), exitedProcess.exitValue()));
+        // the process started through taskset or nice replaces itself with the server, changing its command line
+        processTracker.track(TrackedProcessType.SERVER, serverId, pid, instanceInfo.getStartedAt(), placement.isEmpty());
         return process;
     }
 
-    public void stop() {
+    /**
+     * Takes over a server process left running by the previous run of the manager.
+     *
+     * @return false if the server is already running under this manager
+     */
+    public synchronized boolean reattach(ReattachableProcess reattachableProcess) {
         if (isAlive()) {
-            process.destroy();
+            return false;
+        }
+
+        Server server = serverRepository.findById(serverId).orElseThrow();
+        process = null;
+        logStartOffset = -1;
+        reattachedProcess = reattachableProcess.process();
+        instanceInfo = ServerInstanceInfo.builder()
+                .startedAt(reattachableProcess.startedAt())
+                .maxPlayers(server.getMaxPlayers())
+                .build();
+
+        if (server.isRestartAutomatically()) {
+            scheduleRestartJobAt(server.getAutomaticRestartTime(), server.getRestartDeferralPolicy());
+        }
+
+        // the placement is applied already, it's recorded so its core isn't given to another process
+        ProcessPlacement placement = processPlacementService.placeReattachedServer(serverId,
+                server.getCpuPlacementSettings(), reattachedProcess.pid());
+        reattachedProcess.onExit().thenRun(() -> processPlacementService.release(placement));
+
+        stopRequested = false;
+        reattachedProcess.onExit().thenAccept(exitedProcess -> handleProcessExit(exitedProcess.pid(), null));
+        log.info("Reattached to server '{}' (ID {}) running since {} (PID {})",
+                server.getName(), serverId, reattachableProcess.startedAt(), reattachedProcess.pid());
+        return true;
+    }
+
+    /**
+     * Leaves the server running while the manager shuts down, so it can be reattached when the manager starts again.
+     * The process is tracked since its start, so nothing is written to the database here.
+     *
+     * @return processes belonging to the server which can't be reattached and were asked to stop instead
+     */
+    public List<StoppingProcess> detach() {
+        cancelRestartJob();
+        return new ArrayList<>();
+    }
+
+    public synchronized void stop() {
+        stopRequested = true;
+        if (isAlive()) {
+            if (reattachedProcess != null) {
+                reattachedProcess.destroy();
+            } else {
+                process.destroy();
+            }
         }
 
         cancelRestartJob();
         instanceInfo = ServerInstanceInfo.builder().build();
+        processTracker.untrack(TrackedProcessType.SERVER, serverId);
     }
 
     public void restart() {
@@ -89,15 +180,97 @@ public class ServerProcess {
         start();
     }
 
+    /**
+     * Kills the server without waiting for a graceful shutdown and starts it again. Meant for servers that are hung
+     * and wouldn't react to a regular stop.
+     */
+    public void restartForcibly() {
+        kill();
+        restart();
+    }
+
+    private synchronized void kill() {
+        stopRequested = true;
+        if (!isAlive()) {
+            return;
+        }
+        CompletableFuture<?> exit;
+        if (reattachedProcess != null) {
+            reattachedProcess.descendants().forEach(ProcessHandle::destroyForcibly);
+            reattachedProcess.destroyForcibly();
+            exit = reattachedProcess.onExit();
+        } else {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+            exit = process.onExit();
+        }
+        try {
+            exit.get(KILL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Server ID {} (PID {}) didn't exit after being killed", serverId, getPid());
+        }
+    }
+
     public boolean isAlive() {
+        if (reattachedProcess != null) {
+            return reattachedProcess.isAlive();
+        }
         return process != null && process.isAlive();
     }
 
-    public void scheduleRestartJobAt(LocalTime time) {
+    /**
+     * @return offset in the log file where the output of the current process starts, -1 if not known, such as for a
+     * reattached process
+     */
+    public long getLogStartOffset() {
+        return logStartOffset;
+    }
+
+    public long getPid() {
+        if (reattachedProcess != null) {
+            return reattachedProcess.pid();
+        }
+        return process == null ? -1 : process.pid();
+    }
+
+    public Optional<ProcessHandle> getProcessHandle() {
+        if (!isAlive()) {
+            return Optional.empty();
+        }
+        return Optional.of(reattachedProcess != null ? reattachedProcess : process.toHandle());
+    }
+
+    /**
+     * @return the server process and all other processes belonging to it which are currently running
+     */
+    public List<StoppingProcess> getRunningProcesses() {
+        List<StoppingProcess> runningProcesses = new ArrayList<>();
+        if (isAlive()) {
+            ProcessHandle handle = reattachedProcess != null ? reattachedProcess : process.toHandle();
+            runningProcesses.add(new StoppingProcess("Server ID " + serverId, handle));
+        }
+        return runningProcesses;
+    }
+
+    private synchronized void handleProcessExit(long exitedPid, Integer exitCode) {
+        // ignore processes that were stopped by the manager or already replaced by a new one
+        if (stopRequested || exitedPid != getPid()) {
+            return;
+        }
+
+        // the exit code of a reattached process is not known, it's not a child of this JVM
+        log.warn("Server ID {} crashed or was exited outside the manager (exit code {}).",
+                serverId, exitCode == null ? "unknown" : exitCode);
+        stop();
+    }
+
+    public void scheduleRestartJobAt(LocalTime time, RestartDeferralPolicy deferralPolicy) {
         if (automaticRestartTask != null) {
             automaticRestartTask.cancel();
         }
-        automaticRestartTask = new AutomaticRestartTask(this, time).schedule();
+        automaticRestartTask = automaticRestartTaskFactory.createTask(this, time, deferralPolicy).schedule();
     }
 
     public void cancelRestartJob() {
@@ -106,18 +279,35 @@ public class ServerProcess {
         }
     }
 
-    @Autowired
     void setPathsFactory(PathsFactory pathsFactory) {
         this.pathsFactory = pathsFactory;
     }
 
-    @Autowired
     void setServerRepository(ServerRepository serverRepository) {
         this.serverRepository = serverRepository;
     }
 
-    @Autowired
+    void setProcessTracker(ProcessTracker processTracker) {
+        this.processTracker = processTracker;
+    }
+
+    void setProcessPlacementService(ProcessPlacementService processPlacementService) {
+        this.processPlacementService = processPlacementService;
+    }
+
+    void setCgroupService(CgroupService cgroupService) {
+        this.cgroupService = cgroupService;
+    }
+
     void setServerProcessCreator(ServerProcessCreator serverProcessCreator) {
         this.serverProcessCreator = serverProcessCreator;
     }
+
+    void setConfigRenderer(ConfigRenderer configRenderer) {
+        this.configRenderer = configRenderer;
+    }
+
+    void setAutomaticRestartTaskFactory(AutomaticRestartTaskFactory automaticRestartTaskFactory) {
+        this.automaticRestartTaskFactory = automaticRestartTaskFactory;
+    }
 }
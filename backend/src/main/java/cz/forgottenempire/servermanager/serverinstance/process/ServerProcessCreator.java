@@ -1,5 +1,9 @@
 package cz.forgottenempire.servermanager.serverinstance.process;
 
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacement;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
+import cz.forgottenempire.servermanager.logcapture.LogCaptureService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -9,17 +13,33 @@ import java.util.List;
 
 @Service
 public class ServerProcessCreator {
-    public Process startProcessWithRedirectedOutput(File executable, List<String> parameters, File outputFile)
-            throws IOException {
+
+    private final LogCaptureService logCaptureService;
+    private final ProcessPlacementService processPlacementService;
+
+    @Autowired
+    public ServerProcessCreator(LogCaptureService logCaptureService, ProcessPlacementService processPlacementService) {
+        this.logCaptureService = logCaptureService;
+        this.processPlacementService = processPlacementService;
+    }
+
+    public Process startProcessWithRedirectedOutput(File executable, List<String> parameters, File outputFile,
+            ProcessPlacement placement) throws IOException {
         File directory = executable.getParentFile();
         List<String> commands = new ArrayList<String>();
         commands.add(executable.getAbsolutePath());
         commands.addAll(parameters);
 
-        return new ProcessBuilder(commands)
-                .directory(directory)
-                .redirectErrorStream(true)
-                .redirectOutput(ProcessBuilder.Redirect.appendTo(outputFile))
-                .start();
+        ProcessBuilder processBuilder = new ProcessBuilder(placement.wrapCommand(commands))
+                .directory(directory);
+        Process process;
+        try {
+            process = logCaptureService.startWithOutputTo(processBuilder, outputFile);
+        } catch (IOException e) {
+            processPlacementService.release(placement);
+            throw e;
+        }
+        process.onExit().thenRun(() -> processPlacementService.release(placement));
+        return process;
     }
-}
\ No newline at end of file
+}
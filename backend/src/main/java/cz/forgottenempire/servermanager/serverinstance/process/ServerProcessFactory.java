@@ -0,0 +1,74 @@
+package cz.forgottenempire.servermanager.serverinstance.process;
+
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
+import cz.forgottenempire.servermanager.processtracking.ProcessTracker;
+import cz.forgottenempire.servermanager.serverinstance.AutomaticRestartTaskFactory;
+import cz.forgottenempire.servermanager.serverinstance.ConfigRenderer;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.headlessclient.HeadlessClientFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates processes of servers with the services they need, Arma 3 servers get a process able to run headless clients.
+ */
+@Component
+class ServerProcessFactory {
+
+    private final ServerProcessCreator serverProcessCreator;
+    private final PathsFactory pathsFactory;
+    private final ServerRepository serverRepository;
+    private final ProcessTracker processTracker;
+    private final ProcessPlacementService processPlacementService;
+    private final CgroupService cgroupService;
+    private final ConfigRenderer configRenderer;
+    private final AutomaticRestartTaskFactory automaticRestartTaskFactory;
+    private final HeadlessClientFactory headlessClientFactory;
+
+    @Autowired
+    ServerProcessFactory(
+            ServerProcessCreator serverProcessCreator,
+            PathsFactory pathsFactory,
+            ServerRepository serverRepository,
+            ProcessTracker processTracker,
+            ProcessPlacementService processPlacementService,
+            CgroupService cgroupService,
+            ConfigRenderer configRenderer,
+            AutomaticRestartTaskFactory automaticRestartTaskFactory,
+            HeadlessClientFactory headlessClientFactory
+    ) {
+        this.serverProcessCreator = serverProcessCreator;
+        this.pathsFactory = pathsFactory;
+        this.serverRepository = serverRepository;
+        this.processTracker = processTracker;
+        this.processPlacementService = processPlacementService;
+        this.cgroupService = cgroupService;
+        this.configRenderer = configRenderer;
+        this.automaticRestartTaskFactory = automaticRestartTaskFactory;
+        this.headlessClientFactory = headlessClientFactory;
+    }
+
+    ServerProcess createProcess(Server server) {
+        ServerProcess process;
+        if (server instanceof Arma3Server) {
+            Arma3ServerProcess arma3Process = new Arma3ServerProcess(server.getId());
+            arma3Process.setHeadlessClientFactory(headlessClientFactory);
+            process = arma3Process;
+        } else {
+            process = new ServerProcess(server.getId());
+        }
+        process.setServerProcessCreator(serverProcessCreator);
+        process.setPathsFactory(pathsFactory);
+        process.setServerRepository(serverRepository);
+        process.setProcessTracker(processTracker);
+        process.setProcessPlacementService(processPlacementService);
+        process.setCgroupService(cgroupService);
+        process.setConfigRenderer(configRenderer);
+        process.setAutomaticRestartTaskFactory(automaticRestartTaskFactory);
+        return process;
+    }
+}
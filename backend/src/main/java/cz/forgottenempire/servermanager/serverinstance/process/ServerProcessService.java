@@ -1,56 +1,119 @@
 package cz.forgottenempire.servermanager.serverinstance.process;
 
+import cz.forgottenempire.servermanager.common.ShutdownParticipant;
 import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.processtracking.ProcessTracker;
+import cz.forgottenempire.servermanager.processtracking.ReattachableProcess;
+import cz.forgottenempire.servermanager.processtracking.TrackedProcessType;
 import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
 import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.entities.RestartDeferralPolicy;
 import cz.forgottenempire.servermanager.serverinstance.entities.Server;
-import cz.forgottenempire.servermanager.serverinstance.exceptions.PortAlreadyTakenException;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler.StartType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 @Slf4j
 public
-class ServerProcessService {
+class ServerProcessService implements ShutdownParticipant {
 
     private final ServerRepository serverRepository;
     private final ServerProcessRepository processRepository;
+    private final ServerProcessFactory processFactory;
+    private final ProcessTracker processTracker;
+    private final ServerStartScheduler startScheduler;
+    private final ServerPortValidator portValidator;
 
     @Autowired
     public ServerProcessService(
             ServerRepository serverRepository,
-            ServerProcessRepository processRepository
+            ServerProcessRepository processRepository,
+            ServerProcessFactory processFactory,
+            ProcessTracker processTracker,
+            ServerStartScheduler startScheduler,
+            ServerPortValidator portValidator
     ) {
         this.serverRepository = serverRepository;
         this.processRepository = processRepository;
-        addShutdownHook(processRepository);
+        this.processFactory = processFactory;
+        this.processTracker = processTracker;
+        this.startScheduler = startScheduler;
+        this.portValidator = portValidator;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reattachRunningServers() {
+        for (ReattachableProcess reattachableProcess : processTracker.findReattachableProcesses(TrackedProcessType.SERVER)) {
+            long serverId = reattachableProcess.ownerId();
+            Optional<Server> server = serverRepository.findById(serverId);
+            if (server.isEmpty()) {
+                log.warn("Server ID {} left running by the previous run no longer exists, it won't be reattached "
+                        + "(PID {})", serverId, reattachableProcess.process().pid());
+                processTracker.untrack(TrackedProcessType.SERVER, serverId);
+                continue;
+            }
+            try {
+                getServerProcess(server.get()).reattach(reattachableProcess);
+            } catch (RuntimeException e) {
+                log.error("Failed to reattach to server ID {}", serverId, e);
+            }
+        }
     }
 
     public void startServer(Long id) {
-        Server server = getServer(id);
+        startServer(getServer(id));
+    }
 
+    public void startServer(Server server) {
         ServerProcess serverProcess = getServerProcess(server);
         if (serverProcess.isAlive()) {
             return;
         }
 
-        validatePortsNotTaken(server);
-
-        serverProcess.start();
+        // checked here so the caller gets the error, and again once the start gets its turn, the conflicting server may
+        // stop or start in the meantime
+        portValidator.validatePortsNotTaken(server.getId());
+        startScheduler.submit(serverProcess, StartType.START);
     }
 
     public void shutDownServer(Long id) {
-        Server server = getServer(id);
+        shutDownServer(getServer(id));
+    }
+
+    public void shutDownServer(Server server) {
         ServerProcess serverProcess = getServerProcess(server);
+        startScheduler.cancel(server.getId());
         serverProcess.stop();
     }
 
+    /**
+     * The server keeps running until the restart gets its turn in the start queue.
+     */
     public void restartServer(Long id) {
-        shutDownServer(id);
-        startServer(id);
+        restartServer(getServer(id));
+    }
+
+    public void restartServer(Server server) {
+        ServerProcess serverProcess = getServerProcess(server);
+        if (!serverProcess.isAlive()) {
+            startServer(server);
+            return;
+        }
+        startScheduler.submit(serverProcess, StartType.RESTART);
+    }
+
+    public List<ServerStartStatus> getStartQueue() {
+        return startScheduler.getStatus();
     }
 
     public ServerInstanceInfo getServerInstanceInfo(Long id) {
@@ -63,10 +126,10 @@ class ServerProcessService {
         return getServerProcess(server).isAlive();
     }
 
-    public void enableAutoRestart(long id, LocalTime time) {
+    public void enableAutoRestart(long id, LocalTime time, RestartDeferralPolicy deferralPolicy) {
         processRepository.get(id).ifPresent(process -> {
             if (process.isAlive()) {
-                process.scheduleRestartJobAt(time);
+                process.scheduleRestartJobAt(time, deferralPolicy);
             }
         });
     }
@@ -79,6 +142,28 @@ class ServerProcessService {
         });
     }
 
+    @Override
+    public Collection<StoppingProcess> stopAllProcesses() {
+        startScheduler.shutDown();
+        List<StoppingProcess> stoppingProcesses = new ArrayList<>();
+        if (processTracker.isKeepRunningOnShutdown()) {
+            List<ServerProcess> runningProcesses = processRepository.getAll().stream()
+                    .filter(ServerProcess::isAlive)
+                    .toList();
+            runningProcesses.forEach(process -> stoppingProcesses.addAll(process.detach()));
+            log.info("Leaving {} servers running, they will be reattached on the next start", runningProcesses.size());
+            return stoppingProcesses;
+        }
+
+        processRepository.getAll().stream()
+                .filter(ServerProcess::isAlive)
+                .forEach(process -> {
+                    stoppingProcesses.addAll(process.getRunningProcesses());
+                    process.stop();
+                });
+        return stoppingProcesses;
+    }
+
     private Server getServer(Long id) {
         return serverRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Server ID " + id + " not found"));
@@ -87,33 +172,9 @@ class ServerProcessService {
     private ServerProcess getServerProcess(Server server) {
         return processRepository.get(server.getId())
                 .orElseGet(() -> {
-                    ServerProcess process = server.getProcess();
+                    ServerProcess process = processFactory.createProcess(server);
                     processRepository.store(server.getId(), process);
                     return process;
                 });
     }
-
-    private void validatePortsNotTaken(Server server) {
-        serverRepository.findAllByPortOrQueryPort(server.getPort(), server.getQueryPort()).stream()
-                .filter(s -> !s.equals(server))
-                .forEach(s -> {
-                    ServerProcess process = getServerProcess(server);
-                    if (process.isAlive()) {
-                        int conflictingPort = s.getPort() == server.getPort() ?
-                                server.getPort()
-                                : server.getQueryPort();
-                        String errorMessage = String.format("Port conflict: Server '%s' already uses port %d.",
-                                s.getName(), conflictingPort);
-                        log.error("Server '{}' (ID {}) could not be started because of port conflict (port {})"
-                                        + " with server '{}' (ID {})",
-                                server.getName(), server.getId(), conflictingPort, s.getName(), s.getId());
-                        throw new PortAlreadyTakenException(errorMessage);
-                    }
-                });
-    }
-
-    private static void addShutdownHook(ServerProcessRepository processRepository) {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> processRepository.getAll()
-                .forEach(ServerProcess::stop)));
-    }
 }
@@ -0,0 +1,233 @@
+package cz.forgottenempire.servermanager.serverinstance.process;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Queue all server starts and restarts go through, so that servers scheduled for the same time don't all load their
+ * mods at once. At most {@code servers.start.maxConcurrent} servers are booting at the same time and consecutive
+ * starts are at least {@code servers.start.stagger} apart. A server stops booting once it answers its first status
+ * query, exits, or doesn't answer within {@code servers.start.readinessTimeout}.
+ * <p>
+ * The dispatcher only hands out the slots, the starts themselves run on separate threads, so a slow start, such as
+ * a restart waiting for the server to stop, doesn't hold up the scheduled tasks. The ports of a server are checked
+ * right before it's started, as the servers using them may have stopped or started while it was queued.
+ */
+@Service
+@Slf4j
+public class ServerStartScheduler {
+
+    private final int maxConcurrentStarts;
+    private final Duration stagger;
+    private final Duration readinessTimeout;
+    private final Clock clock;
+    private final ServerPortValidator portValidator;
+    private final Executor executor;
+
+    // guarded by this
+    private final Map<Long, StartRequest> serverIdToQueuedRequestMap = new LinkedHashMap<>();
+    private final Map<Long, StartRequest> serverIdToBootingRequestMap = new LinkedHashMap<>();
+    // booting servers whose start is still running, their process may not be alive yet
+    private final Set<Long> startingServerIds = new HashSet<>();
+    private Instant lastStartAt;
+    private boolean shutDown;
+
+    @Autowired
+    public ServerStartScheduler(
+            @Value("${servers.start.maxConcurrent:2}") int maxConcurrentStarts,
+            @Value("${servers.start.stagger:30s}") Duration stagger,
+            @Value("${servers.start.readinessTimeout:5m}") Duration readinessTimeout,
+            Clock clock,
+            ServerPortValidator portValidator,
+            ExecutorFactory executorFactory
+    ) {
+        this(maxConcurrentStarts, stagger, readinessTimeout, clock, portValidator,
+                executorFactory.newFixedThreadPool("server-start-", Math.max(1, maxConcurrentStarts)));
+    }
+
+    ServerStartScheduler(int maxConcurrentStarts, Duration stagger, Duration readinessTimeout, Clock clock,
+            ServerPortValidator portValidator, Executor executor) {
+        this.maxConcurrentStarts = Math.max(1, maxConcurrentStarts);
+        this.stagger = stagger;
+        this.readinessTimeout = readinessTimeout;
+        this.clock = clock;
+        this.portValidator = portValidator;
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a start or restart of the server. Does nothing if the server is already waiting in the queue.
+     *
+     * @return false if the server was already queued
+     */
+    public synchronized boolean submit(ServerProcess process, StartType type) {
+        long serverId = process.getServerId();
+        if (shutDown) {
+            log.info("{} of server ID {} not queued, the manager is shutting down", type, serverId);
+            return false;
+        }
+        if (serverIdToQueuedRequestMap.containsKey(serverId)) {
+            log.info("{} of server ID {} not queued, it's already waiting for {}", type, serverId,
+                    serverIdToQueuedRequestMap.get(serverId).type());
+            return false;
+        }
+
+        serverIdToQueuedRequestMap.put(serverId, new StartRequest(process, type, clock.instant()));
+        log.info("{} of server ID {} queued ({} waiting, {} booting)", type, serverId,
+                serverIdToQueuedRequestMap.size(), serverIdToBootingRequestMap.size());
+        return true;
+    }
+
+    /**
+     * Removes a queued start of the server, e.g. because it was stopped in the meantime.
+     */
+    public synchronized void cancel(long serverId) {
+        if (serverIdToQueuedRequestMap.remove(serverId) != null) {
+            log.info("Queued start of server ID {} cancelled", serverId);
+        }
+    }
+
+    /**
+     * Drops all queued starts and refuses new ones, so that no server is started while the manager shuts down.
+     */
+    public synchronized void shutDown() {
+        shutDown = true;
+        if (!serverIdToQueuedRequestMap.isEmpty()) {
+            log.info("Dropping {} queued starts, the manager is shutting down", serverIdToQueuedRequestMap.size());
+            serverIdToQueuedRequestMap.clear();
+        }
+    }
+
+    public synchronized List<ServerStartStatus> getStatus() {
+        List<ServerStartStatus> status = new ArrayList<>();
+        serverIdToBootingRequestMap.values().forEach(request -> status.add(new ServerStartStatus(
+                request.process().getServerId(), request.type(), ServerStartStatus.State.BOOTING, request.since())));
+        serverIdToQueuedRequestMap.values().forEach(request -> status.add(new ServerStartStatus(
+                request.process().getServerId(), request.type(), ServerStartStatus.State.QUEUED, request.since())));
+        return status;
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    void dispatch() {
+        dispatch(clock.instant());
+    }
+
+    void dispatch(Instant now) {
+        StartRequest request = takeNextRequest(now);
+        if (request == null) {
+            return;
+        }
+
+        log.info("Running {} of server ID {}, queued for {} s", request.type(), request.process().getServerId(),
+                Duration.between(request.since(), now).toSeconds());
+        try {
+            executor.execute(() -> run(request));
+        } catch (RuntimeException e) {
+            log.error("{} of server ID {} could not be run", request.type(), request.process().getServerId(), e);
+            finishStart(request, false);
+        }
+    }
+
+    private void run(StartRequest request) {
+        long serverId = request.process().getServerId();
+        boolean succeeded = false;
+        try {
+            switch (request.type()) {
+                case START -> {
+                    portValidator.validatePortsNotTaken(serverId);
+                    request.process().start();
+                }
+                case RESTART -> request.process().restart();
+                case FORCED_RESTART -> request.process().restartForcibly();
+            }
+            succeeded = true;
+        } catch (RuntimeException e) {
+            log.error("{} of server ID {} failed", request.type(), serverId, e);
+        } finally {
+            finishStart(request, succeeded);
+        }
+    }
+
+    private synchronized void finishStart(StartRequest request, boolean succeeded) {
+        long serverId = request.process().getServerId();
+        startingServerIds.remove(serverId);
+        if (!succeeded) {
+            // frees the slot right away instead of waiting for the next readiness check
+            serverIdToBootingRequestMap.remove(serverId, request);
+        }
+    }
+
+    private synchronized StartRequest takeNextRequest(Instant now) {
+        releaseReadyServers(now);
+
+        if (serverIdToQueuedRequestMap.isEmpty()
+                || serverIdToBootingRequestMap.size() >= maxConcurrentStarts
+                || (lastStartAt != null && now.isBefore(lastStartAt.plus(stagger)))) {
+            return null;
+        }
+
+        Iterator<StartRequest> iterator = serverIdToQueuedRequestMap.values().iterator();
+        StartRequest queuedRequest = iterator.next();
+        iterator.remove();
+        StartRequest bootingRequest = new StartRequest(queuedRequest.process(), queuedRequest.type(), now);
+        serverIdToBootingRequestMap.put(queuedRequest.process().getServerId(), bootingRequest);
+        startingServerIds.add(queuedRequest.process().getServerId());
+        lastStartAt = now;
+        return bootingRequest;
+    }
+
+    private void releaseReadyServers(Instant now) {
+        Iterator<StartRequest> iterator = serverIdToBootingRequestMap.values().iterator();
+        while (iterator.hasNext()) {
+            StartRequest request = iterator.next();
+            ServerProcess process = request.process();
+            ServerInstanceInfo instanceInfo = process.getInstanceInfo();
+            long bootSeconds = Duration.between(request.since(), now).toSeconds();
+            if (startingServerIds.contains(process.getServerId())) {
+                continue;
+            }
+            if (!process.isAlive()) {
+                log.warn("Server ID {} exited before it was ready", process.getServerId());
+                iterator.remove();
+            } else if (instanceInfo != null && instanceInfo.getLastResponseAt() != null) {
+                // the instance info is replaced on every start, so any response comes from the new process
+                log.info("Server ID {} ready after {} s", process.getServerId(), bootSeconds);
+                iterator.remove();
+            } else if (!now.isBefore(request.since().plus(readinessTimeout))) {
+                log.warn("Server ID {} didn't answer status queries within {} s, starting the next server anyway",
+                        process.getServerId(), readinessTimeout.toSeconds());
+                iterator.remove();
+            }
+        }
+    }
+
+    public enum StartType {
+        START,
+        RESTART,
+        // kills the server instead of stopping it gracefully, for hung servers
+        FORCED_RESTART
+    }
+
+    /**
+     * @param since when the request was queued, or when the server started booting
+     */
+    private record StartRequest(ServerProcess process, StartType type, Instant since) {
+    }
+}
@@ -0,0 +1,16 @@
+package cz.forgottenempire.servermanager.serverinstance.process;
+
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler.StartType;
+
+import java.time.Instant;
+
+/**
+ * @param since when the start was queued, or when the server started booting
+ */
+public record ServerStartStatus(long serverId, StartType type, State state, Instant since) {
+
+    public enum State {
+        QUEUED,
+        BOOTING
+    }
+}
@@ -2,8 +2,10 @@ package cz.forgottenempire.servermanager.steamcmd;
 
 import com.google.common.base.Strings;
 import cz.forgottenempire.servermanager.common.Constants;
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
 import cz.forgottenempire.servermanager.common.ProcessFactory;
 import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
 import cz.forgottenempire.servermanager.steamauth.SteamAuth;
 import cz.forgottenempire.servermanager.steamauth.SteamAuthService;
 
@@ -13,9 +15,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
 
 import cz.forgottenempire.servermanager.steamcmd.outputprocessor.SteamCmdItemInfo;
 import cz.forgottenempire.servermanager.steamcmd.outputprocessor.SteamCmdItemInfoRepository;
@@ -24,6 +24,8 @@ import cz.forgottenempire.servermanager.workshop.WorkshopMod;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import static cz.forgottenempire.servermanager.steamcmd.outputprocessor.SteamCmdItemInfo.*;
@@ -41,30 +43,43 @@ class SteamCmdExecutor {
     private final File steamCmdFile;
     private final SteamAuthService steamAuthService;
     private final ProcessFactory processFactory;
+    private final ProcessPlacementService processPlacementService;
     private final SteamCmdOutputProcessor steamCmdOutputProcessor;
     private final SteamCmdItemInfoRepository itemInfoRepository;
+    // jobs run one at a time, SteamCMD can't run multiple downloads in parallel
+    private final ExecutorService executor;
 
     @Autowired
     public SteamCmdExecutor(
             @Value("${steamcmd.path}") String steamCmdFilePath,
             SteamAuthService steamAuthService,
             ProcessFactory processFactory,
+            ProcessPlacementService processPlacementService,
             SteamCmdOutputProcessor steamCmdOutputProcessor,
-            SteamCmdItemInfoRepository itemInfoRepository
+            SteamCmdItemInfoRepository itemInfoRepository,
+            ExecutorFactory executorFactory
     ) {
         this.steamAuthService = steamAuthService;
         this.processFactory = processFactory;
+        this.processPlacementService = processPlacementService;
         this.steamCmdOutputProcessor = steamCmdOutputProcessor;
         this.itemInfoRepository = itemInfoRepository;
+        executor = executorFactory.newFixedThreadPool("steamcmd-", 1);
         steamCmdFile = new File(steamCmdFilePath);
+    }
+
+    /**
+     * Fails the start of the application if SteamCMD is missing. It's checked once the application is ready instead of
+     * in the constructor, so the training run of the CDS archive, which exits after the context is refreshed, doesn't
+     * need SteamCMD.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void validateSteamCmdPath() {
         if (!steamCmdFile.exists()) {
             throw new IllegalStateException("Invalid path to SteamCMD executable given");
         }
     }
 
-    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
-            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
-
     public void processJob(SteamCmdJob job, CompletableFuture<SteamCmdJob> future) {
         setItemInfoAsQueued(job);
 
@@ -97,7 +112,8 @@ class SteamCmdExecutor {
 
             do {
                 attempts++;
-                Process process = processFactory.startProcessWithUnbufferedOutput(steamCmdFile, getCommands(job.getSteamCmdParameters()));
+                Process process = processFactory.startProcessWithUnbufferedOutput(steamCmdFile,
+                        getCommands(job.getSteamCmdParameters()), processPlacementService.placeHousekeeping("SteamCMD"));
                 output = steamCmdOutputProcessor.processSteamCmdOutput(process.getInputStream(), job);
                 exitCode = process.waitFor();
             } while (attempts < MAX_ATTEMPTS && exitedDueToTimeout(exitCode));
@@ -0,0 +1,19 @@
+package cz.forgottenempire.servermanager.steamcmd.manifest;
+
+import java.time.Instant;
+
+/**
+ * State of an installed app as recorded by SteamCMD in steamapps/appmanifest_&lt;appid&gt;.acf.
+ */
+public record AppManifest(long appId, Long buildId, Long sizeOnDisk, Instant lastUpdated, String betaKey) {
+
+    static AppManifest from(VdfObject appState) {
+        return new AppManifest(
+                appState.getLong("appid").orElse(0L),
+                appState.getLong("buildid").orElse(null),
+                appState.getLong("SizeOnDisk").orElse(null),
+                appState.getLong("LastUpdated").filter(time -> time > 0).map(Instant::ofEpochSecond).orElse(null),
+                appState.getObject("UserConfig").flatMap(config -> config.getString("BetaKey")).orElse(null)
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package cz.forgottenempire.servermanager.steamcmd.manifest;
+
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the manifests SteamCMD keeps for installed servers and workshop items, which hold their build IDs, sizes and
+ * update times. A manifest is parsed again only when its file changed since it was last read, so asking for them
+ * is cheap compared to starting a server or walking the mod directories.
+ */
+@Service
+@Slf4j
+public class SteamManifestService {
+
+    private final PathsFactory pathsFactory;
+    private final Map<Path, ParsedManifest> pathToManifestMap = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SteamManifestService(PathsFactory pathsFactory) {
+        this.pathsFactory = pathsFactory;
+    }
+
+    public Optional<AppManifest> getAppManifest(ServerType type) {
+        return readManifest(pathsFactory.getAppManifestPath(type))
+                .flatMap(manifest -> manifest.getObject("AppState"))
+                .map(AppManifest::from);
+    }
+
+    public Optional<WorkshopItemManifest> getWorkshopItem(ServerType type, long itemId) {
+        return getInstalledWorkshopItems(type)
+                .flatMap(items -> items.getObject(String.valueOf(itemId)))
+                .map(item -> WorkshopItemManifest.from(itemId, item));
+    }
+
+    public Map<Long, WorkshopItemManifest> getWorkshopItems(ServerType type) {
+        Map<Long, WorkshopItemManifest> items = new HashMap<>();
+        getInstalledWorkshopItems(type).ifPresent(installedItems -> {
+            for (String key : installedItems.getKeys()) {
+                try {
+                    long itemId = Long.parseLong(key);
+                    installedItems.getObject(key)
+                            .ifPresent(item -> items.put(itemId, WorkshopItemManifest.from(itemId, item)));
+                } catch (NumberFormatException e) {
+                    log.debug("Skipping invalid workshop item ID '{}' in manifest of {}", key, type);
+                }
+            }
+        });
+        return items;
+    }
+
+    private Optional<VdfObject> getInstalledWorkshopItems(ServerType type) {
+        return readManifest(pathsFactory.getWorkshopManifestPath(type))
+                .flatMap(manifest -> manifest.getObject("AppWorkshop"))
+                .flatMap(appWorkshop -> appWorkshop.getObject("WorkshopItemsInstalled"));
+    }
+
+    private Optional<VdfObject> readManifest(Path file) {
+        try {
+            if (!Files.isRegularFile(file)) {
+                pathToManifestMap.remove(file);
+                return Optional.empty();
+            }
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            long size = Files.size(file);
+            ParsedManifest parsedManifest = pathToManifestMap.get(file);
+            if (parsedManifest == null || !parsedManifest.lastModified().equals(lastModified)
+                    || parsedManifest.size() != size) {
+                parsedManifest = new ParsedManifest(lastModified, size, VdfParser.parse(Files.readString(file)));
+                pathToManifestMap.put(file, parsedManifest);
+            }
+            return Optional.of(parsedManifest.content());
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Could not read Steam manifest '{}'", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private record ParsedManifest(FileTime lastModified, long size, VdfObject content) {
+    }
+}
@@ -0,0 +1,42 @@
+package cz.forgottenempire.servermanager.steamcmd.manifest;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class VdfObject {
+
+    // Steam treats keys as case-insensitive, e.g. both "buildid" and "BuildID" occur
+    private final Map<String, Object> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    void put(String key, Object value) {
+        values.put(key, value);
+    }
+
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    public Optional<String> getString(String key) {
+        return values.get(key) instanceof String value ? Optional.of(value) : Optional.empty();
+    }
+
+    /**
+     * @return empty if the key is missing or its value is not a number
+     */
+    public Optional<Long> getLong(String key) {
+        return getString(key).flatMap(value -> {
+            try {
+                return Optional.of(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    public Optional<VdfObject> getObject(String key) {
+        return values.get(key) instanceof VdfObject value ? Optional.of(value) : Optional.empty();
+    }
+}
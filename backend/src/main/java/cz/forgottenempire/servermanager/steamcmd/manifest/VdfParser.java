@@ -0,0 +1,116 @@
+package cz.forgottenempire.servermanager.steamcmd.manifest;
+
+/**
+ * Parser of the text KeyValues format (VDF) used by Steam, e.g. for the ACF manifests written by SteamCMD. Values are
+ * either strings or nested objects. Comments and conditions like [$WIN32] are skipped.
+ */
+public final class VdfParser {
+
+    private final String input;
+    private int position;
+
+    private VdfParser(String input) {
+        this.input = input;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is not valid VDF
+     */
+    public static VdfObject parse(String input) {
+        return new VdfParser(input).parseObject(false);
+    }
+
+    private VdfObject parseObject(boolean nested) {
+        VdfObject object = new VdfObject();
+        while (true) {
+            skipIgnored();
+            if (position >= input.length()) {
+                if (nested) {
+                    throw error("Unexpected end of input, '}' expected");
+                }
+                return object;
+            }
+            if (input.charAt(position) == '}') {
+                if (!nested) {
+                    throw error("Unexpected '}'");
+                }
+                position++;
+                return object;
+            }
+
+            String key = readString();
+            skipIgnored();
+            if (position >= input.length()) {
+                throw error("Value of key '" + key + "' expected");
+            }
+            if (input.charAt(position) == '{') {
+                position++;
+                object.put(key, parseObject(true));
+            } else {
+                object.put(key, readString());
+            }
+        }
+    }
+
+    private String readString() {
+        char first = input.charAt(position);
+        if (first == '{' || first == '}') {
+            throw error("Unexpected '" + first + "'");
+        }
+        if (first != '"') {
+            int start = position;
+            while (position < input.length() && !isDelimiter(input.charAt(position))) {
+                position++;
+            }
+            return input.substring(start, position);
+        }
+
+        StringBuilder value = new StringBuilder();
+        position++;
+        while (position < input.length()) {
+            char c = input.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\' && position < input.length()) {
+                char escaped = input.charAt(position++);
+                switch (escaped) {
+                    case 'n' -> value.append('\n');
+                    case 't' -> value.append('\t');
+                    default -> value.append(escaped);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipIgnored() {
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (Character.isWhitespace(c)) {
+                position++;
+            } else if (input.startsWith("//", position)) {
+                skipUntil('\n');
+            } else if (c == '[') {
+                skipUntil(']');
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipUntil(char end) {
+        int index = input.indexOf(end, position);
+        position = index < 0 ? input.length() : index + 1;
+    }
+
+    private static boolean isDelimiter(char c) {
+        return Character.isWhitespace(c) || c == '{' || c == '}' || c == '"';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
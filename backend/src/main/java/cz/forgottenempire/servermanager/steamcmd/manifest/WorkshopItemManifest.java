@@ -0,0 +1,18 @@
+package cz.forgottenempire.servermanager.steamcmd.manifest;
+
+import java.time.Instant;
+
+/**
+ * Installed workshop item as recorded by SteamCMD in steamapps/workshop/appworkshop_&lt;appid&gt;.acf.
+ */
+public record WorkshopItemManifest(long itemId, Long size, Instant timeUpdated, String manifestId) {
+
+    static WorkshopItemManifest from(long itemId, VdfObject item) {
+        return new WorkshopItemManifest(
+                itemId,
+                item.getLong("size").orElse(null),
+                item.getLong("timeupdated").filter(time -> time > 0).map(Instant::ofEpochSecond).orElse(null),
+                item.getString("manifest").orElse(null)
+        );
+    }
+}
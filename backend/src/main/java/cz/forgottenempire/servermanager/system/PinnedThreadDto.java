@@ -0,0 +1,10 @@
+package cz.forgottenempire.servermanager.system;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param frames top frames of the stack of the pinned thread
+ */
+public record PinnedThreadDto(Instant pinnedAt, long durationMillis, String threadName, List<String> frames) {
+}
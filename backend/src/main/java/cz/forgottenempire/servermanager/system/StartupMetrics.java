@@ -0,0 +1,177 @@
+package cz.forgottenempire.servermanager.system;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the phases of the startup, from the start of the JVM through the refresh of the context, the Flyway
+ * migrations and the initialization of Hibernate until the application is ready and serves its first request.
+ * <p>
+ * The refresh, Flyway and Hibernate are measured by the steps Spring records with the {@link ApplicationStartup} set
+ * up in {@link #createApplicationStartup()}. Only the few steps needed are kept, and only until the application is
+ * ready.
+ */
+@Component
+@Slf4j
+public class StartupMetrics {
+
+    private static final int RECORDED_STEPS_CAPACITY = 64;
+    private static final String APPLICATION_STARTING_STEP = "spring.boot.application.starting";
+    private static final String CONTEXT_REFRESH_STEP = "spring.context.refresh";
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+    private static final String FLYWAY_BEAN = "flywayInitializer";
+    private static final String HIBERNATE_BEAN = "entityManagerFactory";
+
+    private final ApplicationStartup applicationStartup;
+    private final boolean lazyInitialization;
+    private final Instant jvmStartedAt = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+    private final AtomicReference<Instant> firstRequestAt = new AtomicReference<>();
+    private volatile Instant readyAt;
+    private volatile List<StartupPhaseDto> phases = List.of();
+
+    @Autowired
+    public StartupMetrics(
+            ConfigurableApplicationContext applicationContext,
+            @Value("${spring.main.lazy-initialization:false}") boolean lazyInitialization
+    ) {
+        this.applicationStartup = applicationContext.getApplicationStartup();
+        this.lazyInitialization = lazyInitialization;
+    }
+
+    /**
+     * @return startup which records the steps needed for the startup phases, to be set on the Spring application
+     */
+    public static ApplicationStartup createApplicationStartup() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(RECORDED_STEPS_CAPACITY);
+        startup.addFilter(StartupMetrics::isRecorded);
+        return startup;
+    }
+
+    // after the other listeners, so the time to ready includes their work, such as generating the server configs
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onApplicationReady() {
+        readyAt = Instant.now();
+        if (applicationStartup instanceof BufferingApplicationStartup bufferingStartup) {
+            phases = createPhases(bufferingStartup.drainBufferedTimeline().getEvents());
+        }
+        log.info("Ready {} ms after the start of the JVM ({})", toMillis(jvmStartedAt, readyAt), phases.stream()
+                .map(phase -> phase.name() + " " + phase.durationMillis() + " ms")
+                .collect(Collectors.joining(", ")));
+    }
+
+    @EventListener(ServletRequestHandledEvent.class)
+    public void onRequestHandled() {
+        if (firstRequestAt.get() == null && firstRequestAt.compareAndSet(null, Instant.now())) {
+            log.info("First request served {} ms after the start of the JVM",
+                    toMillis(jvmStartedAt, firstRequestAt.get()));
+        }
+    }
+
+    public StartupMetricsDto getMetrics() {
+        Instant firstRequest = firstRequestAt.get();
+        return StartupMetricsDto.builder()
+                .jvmStartedAt(jvmStartedAt)
+                .timeToReadyMillis(readyAt == null ? -1 : toMillis(jvmStartedAt, readyAt))
+                .timeToFirstRequestMillis(firstRequest == null ? null : toMillis(jvmStartedAt, firstRequest))
+                .phases(phases)
+                .aotEnabled(AotDetector.useGeneratedArtifacts())
+                .cdsArchiveUsed(ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                        .anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile")))
+                .lazyInitialization(lazyInitialization)
+                .build();
+    }
+
+    private List<StartupPhaseDto> createPhases(List<TimelineEvent> events) {
+        Map<String, TimelineEvent> steps = events.stream()
+                .collect(Collectors.toMap(
+                        event -> getBeanName(event.getStartupStep()).orElse(event.getStartupStep().getName()),
+                        event -> event,
+                        (first, second) -> first));
+        TimelineEvent starting = steps.get(APPLICATION_STARTING_STEP);
+        TimelineEvent refresh = steps.get(CONTEXT_REFRESH_STEP);
+        TimelineEvent flyway = steps.get(FLYWAY_BEAN);
+        TimelineEvent hibernate = steps.get(HIBERNATE_BEAN);
+
+        List<StartupPhaseDto> phases = new ArrayList<>();
+        if (starting != null) {
+            phases.add(createPhase("JVM", jvmStartedAt, starting.getStartTime()));
+        }
+        if (starting != null && refresh != null) {
+            phases.add(createPhase("Environment", starting.getStartTime(), refresh.getStartTime()));
+        }
+        if (refresh != null) {
+            phases.add(createPhase("Context refresh", refresh.getStartTime(), refresh.getEndTime()));
+        }
+        if (flyway != null) {
+            phases.add(createPhase("Flyway migrations", flyway.getStartTime(), flyway.getEndTime()));
+        }
+        if (hibernate != null) {
+            // the entity manager factory waits for the migrations, they are not counted twice
+            Duration migrations = flyway == null ? Duration.ZERO : getOverlap(hibernate, flyway);
+            phases.add(new StartupPhaseDto("Hibernate", toMillis(jvmStartedAt, hibernate.getStartTime()),
+                    hibernate.getDuration().minus(migrations).toMillis()));
+        }
+        if (refresh != null) {
+            phases.add(createPhase("Ready listeners", refresh.getEndTime(), readyAt));
+        }
+        return List.copyOf(phases);
+    }
+
+    private StartupPhaseDto createPhase(String name, Instant start, Instant end) {
+        return new StartupPhaseDto(name, toMillis(jvmStartedAt, start), toMillis(start, end));
+    }
+
+    private static Duration getOverlap(TimelineEvent first, TimelineEvent second) {
+        Instant start = first.getStartTime().isAfter(second.getStartTime())
+                ? first.getStartTime() : second.getStartTime();
+        Instant end = first.getEndTime().isBefore(second.getEndTime()) ? first.getEndTime() : second.getEndTime();
+        return end.isAfter(start) ? Duration.between(start, end) : Duration.ZERO;
+    }
+
+    private static boolean isRecorded(StartupStep step) {
+        return switch (step.getName()) {
+            case APPLICATION_STARTING_STEP, CONTEXT_REFRESH_STEP -> true;
+            case BEAN_INSTANTIATION_STEP -> getBeanName(step)
+                    .filter(beanName -> beanName.equals(FLYWAY_BEAN) || beanName.equals(HIBERNATE_BEAN))
+                    .isPresent();
+            default -> false;
+        };
+    }
+
+    private static Optional<String> getBeanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return Optional.of(tag.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static long toMillis(Instant start, Instant end) {
+        return Duration.between(start, end).toMillis();
+    }
+}
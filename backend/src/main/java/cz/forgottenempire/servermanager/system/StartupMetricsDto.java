@@ -0,0 +1,22 @@
+package cz.forgottenempire.servermanager.system;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class StartupMetricsDto {
+
+    private Instant jvmStartedAt;
+    private long timeToReadyMillis;
+    // null until the first request was served
+    private Long timeToFirstRequestMillis;
+    private List<StartupPhaseDto> phases;
+
+    private boolean aotEnabled;
+    private boolean cdsArchiveUsed;
+    private boolean lazyInitialization;
+}
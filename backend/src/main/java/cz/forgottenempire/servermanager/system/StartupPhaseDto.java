@@ -0,0 +1,7 @@
+package cz.forgottenempire.servermanager.system;
+
+/**
+ * @param startMillis time since the start of the JVM
+ */
+public record StartupPhaseDto(String name, long startMillis, long durationMillis) {
+}
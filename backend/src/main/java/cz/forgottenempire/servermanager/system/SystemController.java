@@ -14,10 +14,15 @@ import org.springframework.web.bind.annotation.RestController;
 class SystemController {
 
     private final SystemService systemService;
+    private final StartupMetrics startupMetrics;
+    private final VirtualThreadPinningMonitor pinningMonitor;
 
     @Autowired
-    public SystemController(SystemService systemService) {
+    public SystemController(SystemService systemService, StartupMetrics startupMetrics,
+            VirtualThreadPinningMonitor pinningMonitor) {
         this.systemService = systemService;
+        this.startupMetrics = startupMetrics;
+        this.pinningMonitor = pinningMonitor;
     }
 
     @GetMapping
@@ -41,4 +46,14 @@ class SystemController {
     public ResponseEntity<ServerOSDto> getOSType() {
         return ResponseEntity.ok(new ServerOSDto(SystemUtils.getOsType()));
     }
+
+    @GetMapping("/startup")
+    public ResponseEntity<StartupMetricsDto> getStartupMetrics() {
+        return ResponseEntity.ok(startupMetrics.getMetrics());
+    }
+
+    @GetMapping("/threads")
+    public ResponseEntity<ThreadsDto> getThreads() {
+        return ResponseEntity.ok(pinningMonitor.getThreads());
+    }
 }
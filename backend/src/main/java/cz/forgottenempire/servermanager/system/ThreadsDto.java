@@ -0,0 +1,16 @@
+package cz.forgottenempire.servermanager.system;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ThreadsDto {
+
+    private boolean virtualThreads;
+    private long pinningThresholdMillis;
+    private long pinnedCount;
+    private long pinnedMillis;
+    // null until a virtual thread was pinned for longer than the threshold
+    private PinnedThreadDto lastPinned;
+}
@@ -0,0 +1,109 @@
+package cz.forgottenempire.servermanager.system;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches for virtual threads pinned to their carrier thread, for example by blocking inside a synchronized block or
+ * a native call. A pinned virtual thread occupies one of the few carrier threads, too many of them at once stall all
+ * virtual threads, including the ones handling requests. The pinning is recorded by the JDK Flight Recorder and only
+ * pinning longer than the threshold is counted, the stack of the last one is kept to find the code to blame.
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration WARNING_INTERVAL = Duration.ofMinutes(1);
+    private static final int FRAMES_KEPT = 8;
+
+    private final boolean virtualThreads;
+    private final Duration threshold;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private volatile PinnedThreadDto lastPinned;
+    private volatile Instant lastWarning = Instant.EPOCH;
+    private RecordingStream recordingStream;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(
+            ExecutorFactory executorFactory,
+            @Value("${threads.pinning.threshold:20ms}") Duration threshold
+    ) {
+        this.virtualThreads = executorFactory.isVirtualThreads();
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!virtualThreads || recordingStream != null) {
+            return;
+        }
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Monitoring virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    public ThreadsDto getThreads() {
+        return ThreadsDto.builder()
+                .virtualThreads(virtualThreads)
+                .pinningThresholdMillis(threshold.toMillis())
+                .pinnedCount(pinnedCount.get())
+                .pinnedMillis(Duration.ofNanos(pinnedNanos.get()).toMillis())
+                .lastPinned(lastPinned)
+                .build();
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+        String threadName = event.getThread() == null ? null : event.getThread().getJavaName();
+        List<String> frames = getFrames(event.getStackTrace());
+        lastPinned = new PinnedThreadDto(event.getStartTime(), event.getDuration().toMillis(), threadName, frames);
+
+        Instant now = Instant.now();
+        if (now.isAfter(lastWarning.plus(WARNING_INTERVAL))) {
+            lastWarning = now;
+            log.warn("Virtual thread '{}' was pinned to its carrier for {} ms at {} ({} times since start)",
+                    threadName, event.getDuration().toMillis(), frames.isEmpty() ? "unknown location" : frames.get(0),
+                    pinnedCount.get());
+        }
+    }
+
+    private static List<String> getFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .limit(FRAMES_KEPT)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .toList();
+    }
+}
@@ -1,18 +1,23 @@
 package cz.forgottenempire.servermanager.util;
 
 import java.io.IOException;
-import java.net.ConnectException;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
 
 public class SystemUtils {
 
+    /**
+     * Checks the port can be bound for both UDP and TCP. Binding returns immediately, unlike connecting to the port.
+     */
     public static boolean isPortAvailable(int port) {
-        try (Socket ignored = new Socket("localhost", port)) {
-            return false;
-        } catch (ConnectException e) {
+        try (DatagramChannel udpChannel = DatagramChannel.open();
+             ServerSocketChannel tcpChannel = ServerSocketChannel.open()) {
+            udpChannel.bind(new InetSocketAddress(port));
+            tcpChannel.bind(new InetSocketAddress(port));
             return true;
         } catch (IOException e) {
-            throw new IllegalStateException("Error while trying to check open port", e);
+            return false;
         }
     }
 
@@ -0,0 +1,129 @@
+package cz.forgottenempire.servermanager.workshop;
+
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches DTOs of mods for the list of mods, which is polled by the UI while mods are being installed. Each mod is
+ * cached on its own and evicted when it's saved, so the list is rebuilt from the cached DTOs and only the changed mods
+ * are loaded again. The IDs of all mods are cached separately and evicted only when a mod is added or deleted.
+ * <p>
+ * Every eviction increments a version. DTOs loaded while the version changed are not cached, as they might have been
+ * read before the change was committed.
+ */
+@Component
+class ModDtoCache {
+
+    static final String MOD_DTOS_CACHE = "workshopModDtos";
+    static final String MOD_IDS_CACHE = "workshopModIds";
+    private static final String ALL_MOD_IDS_KEY = "all";
+
+    private final Cache modDtosCache;
+    private final Cache modIdsCache;
+    private final AtomicLong version = new AtomicLong();
+    private final ModMapper modMapper = Mappers.getMapper(ModMapper.class);
+
+    @Autowired
+    ModDtoCache(CacheManager cacheManager) {
+        modDtosCache = cacheManager.getCache(MOD_DTOS_CACHE);
+        modIdsCache = cacheManager.getCache(MOD_IDS_CACHE);
+    }
+
+    /**
+     * @param allModsLoader loads all mods, used when the IDs of all mods are not cached
+     * @param modsLoader loads the mods of the given IDs, used for the mods whose DTOs are not cached
+     * @return DTOs of all mods ordered by their IDs
+     */
+    List<ModDto> getAll(Supplier<Collection<WorkshopMod>> allModsLoader,
+            Function<Collection<Long>, Collection<WorkshopMod>> modsLoader) {
+        long loadedVersion = version.get();
+        List<Long> allModIds = getCachedModIds();
+        if (allModIds == null) {
+            List<ModDto> modDtos = mapAndCache(allModsLoader.get(), loadedVersion);
+            if (version.get() == loadedVersion) {
+                modIdsCache.put(ALL_MOD_IDS_KEY, modDtos.stream().map(ModDto::getId).toList());
+            }
+            return modDtos;
+        }
+
+        List<ModDto> modDtos = new ArrayList<>(allModIds.size());
+        List<Long> missingModIds = new ArrayList<>();
+        for (Long id : allModIds) {
+            ModDto modDto = modDtosCache.get(id, ModDto.class);
+            if (modDto == null) {
+                missingModIds.add(id);
+            } else {
+                modDtos.add(modDto);
+            }
+        }
+        if (!missingModIds.isEmpty()) {
+            modDtos.addAll(mapAndCache(modsLoader.apply(missingModIds), loadedVersion));
+            modDtos.sort(Comparator.comparing(ModDto::getId));
+        }
+        return modDtos;
+    }
+
+    void evictSavedMods(Collection<Long> ids) {
+        List<Long> idsCopy = List.copyOf(ids);
+        evictAfterCompletion(() -> evict(idsCopy, false));
+    }
+
+    void evictDeletedMods(Collection<Long> ids) {
+        List<Long> idsCopy = List.copyOf(ids);
+        evictAfterCompletion(() -> evict(idsCopy, true));
+    }
+
+    private List<ModDto> mapAndCache(Collection<WorkshopMod> mods, long loadedVersion) {
+        List<ModDto> modDtos = mods.stream()
+                .map(modMapper::modToModDto)
+                .sorted(Comparator.comparing(ModDto::getId))
+                .toList();
+        if (version.get() == loadedVersion) {
+            modDtos.forEach(modDto -> modDtosCache.put(modDto.getId(), modDto));
+        }
+        return new ArrayList<>(modDtos);
+    }
+
+    private void evict(List<Long> ids, boolean modsDeleted) {
+        version.incrementAndGet();
+        ids.forEach(modDtosCache::evict);
+        List<Long> allModIds = getCachedModIds();
+        if (modsDeleted || allModIds == null || !allModIds.containsAll(ids)) {
+            modIdsCache.evict(ALL_MOD_IDS_KEY);
+        }
+    }
+
+    /**
+     * Evicts right away and once more when the current transaction completes, in case the mods were loaded again
+     * before the change was committed.
+     */
+    private static void evictAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> getCachedModIds() {
+        return modIdsCache.get(ALL_MOD_IDS_KEY, List.class);
+    }
+}
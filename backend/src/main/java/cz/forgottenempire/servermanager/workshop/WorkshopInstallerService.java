@@ -8,6 +8,8 @@ import cz.forgottenempire.servermanager.installation.ServerInstallationService;
 import cz.forgottenempire.servermanager.steamcmd.ErrorStatus;
 import cz.forgottenempire.servermanager.steamcmd.SteamCmdJob;
 import cz.forgottenempire.servermanager.steamcmd.SteamCmdService;
+import cz.forgottenempire.servermanager.steamcmd.manifest.SteamManifestService;
+import cz.forgottenempire.servermanager.steamcmd.manifest.WorkshopItemManifest;
 import cz.forgottenempire.servermanager.util.FileSystemUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
@@ -37,17 +39,20 @@ class WorkshopInstallerService {
     private final WorkshopModsService modsService;
     private final SteamCmdService steamCmdService;
     private final ServerInstallationService installationService;
+    private final SteamManifestService manifestService;
 
     @Autowired
     public WorkshopInstallerService(
             PathsFactory pathsFactory,
             WorkshopModsService modsService,
             SteamCmdService steamCmdService,
-            ServerInstallationService installationService) {
+            ServerInstallationService installationService,
+            SteamManifestService manifestService) {
         this.pathsFactory = pathsFactory;
         this.modsService = modsService;
         this.steamCmdService = steamCmdService;
         this.installationService = installationService;
+        this.manifestService = manifestService;
     }
 
     /**
@@ -59,23 +64,33 @@ class WorkshopInstallerService {
      * The transaction boundary is in handleInstallation instead, which runs asynchronously
      * after SteamCmd completes. This ensures the database session is available when
      * saving mod installation status.
+     *
+     * @return completed once all the mods are installed, failed or cancelled
      */
-    public void installOrUpdateMods(Collection<WorkshopMod> mods) {
+    public CompletableFuture<Void> installOrUpdateMods(Collection<WorkshopMod> mods) {
         List<WorkshopMod> modList = List.copyOf(mods);
         log.info("Starting sequential download of {} mods", modList.size());
-        installModsSequentiallyWithDelay(modList, 0, false);
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        installModsSequentiallyWithDelay(modList, 0, false, completion);
+        return completion;
     }
 
-    private void installModsSequentiallyWithDelay(List<WorkshopMod> mods, int currentIndex, boolean rateLimitEncountered) {
+    private void installModsSequentiallyWithDelay(List<WorkshopMod> mods, int currentIndex, boolean rateLimitEncountered,
+            CompletableFuture<Void> completion) {
         if (currentIndex >= mods.size()) {
             log.info("All {} mod downloads completed", mods.size());
+            completion.complete(null);
             return;
         }
 
         // If rate limit was encountered in a previous download, cancel all remaining mods
         if (rateLimitEncountered) {
             log.warn("Rate limit encountered - cancelling {} remaining mod downloads", mods.size() - currentIndex);
-            cancelRemainingMods(mods, currentIndex);
+            try {
+                cancelRemainingMods(mods, currentIndex);
+            } finally {
+                completion.complete(null);
+            }
             return;
         }
 
@@ -108,17 +123,25 @@ class WorkshopInstallerService {
                     if (currentIndex + 1 < mods.size()) {
                         if (shouldCancelRemaining) {
                             // Cancel immediately without delay
-                            installModsSequentiallyWithDelay(mods, currentIndex + 1, true);
+                            installModsSequentiallyWithDelay(mods, currentIndex + 1, true, completion);
                         } else {
                             int delaySeconds = 3; // Configurable delay to avoid rate limiting
                             log.info("Waiting {} seconds before next download ({} remaining)", 
                                     delaySeconds, mods.size() - currentIndex - 1);
                             CompletableFuture.delayedExecutor(delaySeconds, TimeUnit.SECONDS)
-                                    .execute(() -> installModsSequentiallyWithDelay(mods, currentIndex + 1, false));
+                                    .execute(() -> installModsSequentiallyWithDelay(mods, currentIndex + 1, false,
+                                            completion));
                         }
                     } else {
                         log.info("All mod downloads completed");
+                        completion.complete(null);
                     }
+                })
+                .exceptionally(e -> {
+                    // the remaining mods are left in progress, same as when the manager is stopped during downloads
+                    log.error("Installation of mods stopped at mod {} (ID {})", mod.getName(), mod.getId(), e);
+                    completion.completeExceptionally(e);
+                    return null;
                 });
     }
 
@@ -126,18 +149,12 @@ class WorkshopInstallerService {
      * Cancels all remaining mods in the download queue by marking them with RATE_LIMIT error.
      * This is called when a rate limit error is detected during batch downloads.
      */
-    @Transactional
     private void cancelRemainingMods(List<WorkshopMod> mods, int startIndex) {
-        for (int i = startIndex; i < mods.size(); i++) {
-            WorkshopMod mod = mods.get(i);
-            WorkshopMod managedMod = modsService.getMod(mod.getId())
-                    .orElseThrow(() -> new IllegalStateException("Mod " + mod.getId() + " not found in database"));
-            
-            log.info("Cancelling mod '{}' (ID {}) due to rate limit", managedMod.getName(), managedMod.getId());
-            managedMod.setInstallationStatus(InstallationStatus.ERROR);
-            managedMod.setErrorStatus(ErrorStatus.RATE_LIMIT);
-            modsService.saveMod(managedMod);
-        }
+        List<Long> ids = mods.subList(startIndex, mods.size()).stream()
+                .map(WorkshopMod::getId)
+                .toList();
+        log.info("Cancelling mods {} due to rate limit", ids);
+        modsService.setInstallationStatus(ids, InstallationStatus.ERROR, ErrorStatus.RATE_LIMIT);
     }
 
     @Transactional
@@ -170,7 +187,7 @@ class WorkshopInstallerService {
     @Transactional
     private void handleInstallation(WorkshopMod mod, SteamCmdJob steamCmdJob) {
         // Reload the mod entity from database to ensure it's attached to the current transaction
-        WorkshopMod managedMod = modsService.getMod(mod.getId())
+        WorkshopMod managedMod = modsService.getModWithBiKeys(mod.getId())
                 .orElseThrow(() -> new IllegalStateException("Mod " + mod.getId() + " not found in database"));
         
         if (steamCmdJob.getErrorStatus() != null) {
@@ -279,7 +296,11 @@ class WorkshopInstallerService {
 
     private void updateModInfo(WorkshopMod mod) {
         mod.setLastUpdated(LocalDateTime.now());
-        mod.setFileSize(getActualSizeOfMod(mod.getId(), mod.getServerType()));
+        mod.setFileSize(getSizeOfMod(mod.getId(), mod.getServerType()));
+        // the version actually downloaded, a newer one may have been published since the mod was queued
+        manifestService.getWorkshopItem(mod.getServerType(), mod.getId())
+                .map(WorkshopItemManifest::timeUpdated)
+                .ifPresent(mod::setWorkshopTimeUpdated);
     }
 
     private void deleteSymlink(WorkshopMod mod) throws IOException {
@@ -333,10 +354,12 @@ class WorkshopInstallerService {
                 .isDirectory();
     }
 
-    // as data about mod size from workshop API are not reliable, find the size of disk instead
-    private Long getActualSizeOfMod(Long modId, ServerType type) {
-        return FileUtils.sizeOfDirectory(
-                pathsFactory.getModInstallationPath(modId, type).toFile()
-        );
+    // as data about mod size from workshop API are not reliable, take the size recorded by SteamCMD on download,
+    // or find the size on disk for mods not in its manifest
+    Long getSizeOfMod(Long modId, ServerType type) {
+        return manifestService.getWorkshopItem(type, modId)
+                .map(WorkshopItemManifest::size)
+                .filter(size -> size > 0)
+                .orElseGet(() -> FileUtils.sizeOfDirectory(pathsFactory.getModInstallationPath(modId, type).toFile()));
     }
 }
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -25,6 +26,8 @@ public class WorkshopMod {
     private Long id;
     private String name;
     private LocalDateTime lastUpdated;
+    // version of the mod in the workshop when it was last installed, to tell whether there's a newer one
+    private Instant workshopTimeUpdated;
     private Long fileSize;
 
     @Column(name = "server_only")
@@ -39,8 +42,10 @@ public class WorkshopMod {
     @Enumerated(EnumType.STRING)
     private ServerType serverType;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // needed only when installing or uninstalling the mod, see WorkshopModsService#getModWithBiKeys
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "workshop_mod_bikey")
+    @ToString.Exclude
     @Column(name = "bikey")
     private Set<String> biKeys = new HashSet<>();
 
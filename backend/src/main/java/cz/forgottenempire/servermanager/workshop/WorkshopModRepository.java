@@ -1,30 +1,34 @@
 package cz.forgottenempire.servermanager.workshop;
 
-import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.common.InstallationStatus;
+import cz.forgottenempire.servermanager.steamcmd.ErrorStatus;
 import java.util.Collection;
 import java.util.List;
-import org.springframework.cache.annotation.CacheEvict;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.lang.NonNull;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 interface WorkshopModRepository extends JpaRepository<WorkshopMod, Long> {
 
-    @Override
-    @CacheEvict(value = "workshopModsResponse", allEntries = true)
-    @NonNull
-    <S extends WorkshopMod> List<S> saveAll(@NonNull Iterable<S> entities);
+    @EntityGraph(attributePaths = "biKeys")
+    Optional<WorkshopMod> findWithBiKeysById(Long id);
 
-    @Override
-    @CacheEvict(value = "workshopModsResponse", allEntries = true)
-    @NonNull
-    <S extends WorkshopMod> S save(@NonNull S entity);
+    @EntityGraph(attributePaths = "biKeys")
+    List<WorkshopMod> findWithBiKeysByIdIn(Collection<Long> ids);
 
-    @Override
-    @CacheEvict(value = "workshopModsResponse", allEntries = true)
-    @NonNull
-    void delete(@NonNull WorkshopMod entity);
+    @Transactional
+    @Modifying
+    @Query("UPDATE WorkshopMod m SET m.installationStatus = ?2, m.errorStatus = ?3 WHERE m.id IN ?1")
+    int updateInstallationStatus(Collection<Long> ids, InstallationStatus installationStatus,
+            ErrorStatus errorStatus);
 
-    Collection<WorkshopMod> findAllByServerType(ServerType serverType);
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM workshop_mod_bikey WHERE workshop_mod_id IN (?1)", nativeQuery = true)
+    void deleteBiKeysOfMods(Collection<Long> ids);
 }
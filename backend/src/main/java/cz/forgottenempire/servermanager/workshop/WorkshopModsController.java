@@ -7,7 +7,6 @@ import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,15 +24,13 @@ class WorkshopModsController {
     }
 
     @GetMapping
-    @Cacheable("workshopModsResponse")
     public ResponseEntity<ModsDto> getAllMods(@RequestParam(required = false) ServerType filter) {
         log.debug("Getting all mods");
         List<CreatorDlcDto> creatorDlcDtos = Collections.emptyList();
         if (filter == null || filter == ServerType.ARMA3) {
             creatorDlcDtos = modMapper.creatorDlcsToCreatorDlcDtos(Arma3CDLC.getAll());
         }
-        List<ModDto> workshopModDtos = modMapper.modsToModDtos(modsFacade.getAllMods(filter));
-        ModsDto modsDto = new ModsDto(workshopModDtos, creatorDlcDtos);
+        ModsDto modsDto = new ModsDto(modsFacade.getAllModDtos(filter), creatorDlcDtos);
         return ResponseEntity.ok(modsDto);
     }
 
@@ -60,14 +57,14 @@ class WorkshopModsController {
     @DeleteMapping
     public ResponseEntity<?> uninstallMods(@RequestParam List<Long> modIds) {
         log.info("Uninstalling mods: {}", modIds);
-        modIds.forEach(modsFacade::uninstallMod);
+        modsFacade.uninstallMods(modIds);
         return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> uninstallMod(@PathVariable Long id) {
         log.info("Uninstalling mod {}", id);
-        modsFacade.uninstallMod(id);
+        modsFacade.uninstallMods(List.of(id));
         return ResponseEntity.noContent().build();
     }
 
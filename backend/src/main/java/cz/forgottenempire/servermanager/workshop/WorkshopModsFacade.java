@@ -2,24 +2,26 @@ package cz.forgottenempire.servermanager.workshop;
 
 import cz.forgottenempire.servermanager.common.Constants;
 import cz.forgottenempire.servermanager.common.InstallationStatus;
-import cz.forgottenempire.servermanager.common.PathsFactory;
 import cz.forgottenempire.servermanager.common.ServerType;
 import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
 import cz.forgottenempire.servermanager.common.exceptions.ServerNotInitializedException;
 import cz.forgottenempire.servermanager.installation.ServerInstallationService;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 
 import cz.forgottenempire.servermanager.workshop.metadata.ModMetadata;
 import cz.forgottenempire.servermanager.workshop.metadata.ModMetadataService;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @Slf4j
@@ -29,7 +31,7 @@ public class WorkshopModsFacade {
     private final WorkshopInstallerService installerService;
     private final ModMetadataService fileDetailsService;
     private final ServerInstallationService serverInstallationService;
-    private final PathsFactory pathsFactory;
+    private final ModDtoCache modDtoCache;
 
     @Autowired
     public WorkshopModsFacade(
@@ -37,12 +39,12 @@ public class WorkshopModsFacade {
             WorkshopInstallerService installerService,
             ModMetadataService fileDetailsService,
             ServerInstallationService serverInstallationService,
-            PathsFactory pathsFactory) {
+            ModDtoCache modDtoCache) {
         this.modsService = modsService;
         this.installerService = installerService;
         this.fileDetailsService = fileDetailsService;
         this.serverInstallationService = serverInstallationService;
-        this.pathsFactory = pathsFactory;
+        this.modDtoCache = modDtoCache;
     }
 
     public Optional<WorkshopMod> getMod(long id) {
@@ -55,14 +57,18 @@ public class WorkshopModsFacade {
         return mods;
     }
 
-    public Collection<WorkshopMod> getAllMods(@Nullable ServerType filter) {
-        if (filter == null) {
-            return getAllMods();
-        }
-        if (filter == ServerType.DAYZ_EXP) {
-            filter = ServerType.DAYZ;
-        }
-        Collection<WorkshopMod> mods = modsService.getAllMods(filter);
+    /**
+     * Returns the mods from the cache of their DTOs, only the mods changed since the last call are loaded.
+     */
+    public List<ModDto> getAllModDtos(@Nullable ServerType filter) {
+        ServerType serverType = filter == ServerType.DAYZ_EXP ? ServerType.DAYZ : filter;
+        return modDtoCache.getAll(this::getAllMods, this::getMods).stream()
+                .filter(modDto -> serverType == null || modDto.getServerType() == serverType)
+                .toList();
+    }
+
+    private Collection<WorkshopMod> getMods(Collection<Long> ids) {
+        List<WorkshopMod> mods = modsService.getMods(ids);
         ensureFileSizesCalculated(mods);
         return mods;
     }
@@ -107,9 +113,7 @@ public class WorkshopModsFacade {
      */
     private Long calculateModFileSize(Long modId, ServerType type) {
         try {
-            return FileUtils.sizeOfDirectory(
-                    pathsFactory.getModInstallationPath(modId, type).toFile()
-            );
+            return installerService.getSizeOfMod(modId, type);
         } catch (Exception e) {
             log.warn("Failed to calculate file size for mod {} ({}): {}", modId, type, e.getMessage());
             return null;
@@ -118,6 +122,55 @@ public class WorkshopModsFacade {
 
     @Transactional
     public List<WorkshopMod> saveAndInstallMods(List<Long> ids) {
+        List<WorkshopMod> workshopMods = saveModsForInstallation(ids);
+        installerService.installOrUpdateMods(workshopMods);
+        return workshopMods;
+    }
+
+    /**
+     * Installs or updates the given mods.
+     *
+     * @return completed once all the mods are installed or failed, their installation status tells which
+     */
+    @Transactional
+    public CompletableFuture<Void> updateMods(List<Long> ids) {
+        return installerService.installOrUpdateMods(saveModsForInstallation(ids));
+    }
+
+    /**
+     * Asks the workshop for the latest version of every installed mod. Mods being installed at the moment are skipped.
+     *
+     * @return IDs of mods with a newer version in the workshop
+     */
+    public List<Long> findModsWithUpdates() {
+        List<Long> modIds = new ArrayList<>();
+        for (WorkshopMod mod : modsService.getAllMods()) {
+            try {
+                ModMetadata modMetadata = fileDetailsService.fetchModMetadata(mod.getId());
+                if (isUpdateAvailable(mod, modMetadata)) {
+                    modIds.add(mod.getId());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to check mod '{}' (ID {}) for updates", mod.getName(), mod.getId(), e);
+            }
+        }
+        return modIds;
+    }
+
+    static boolean isUpdateAvailable(WorkshopMod mod, ModMetadata modMetadata) {
+        // failed installations are not retried, unless there's a new version to install
+        if (mod.getInstallationStatus() == InstallationStatus.INSTALLATION_IN_PROGRESS
+                || modMetadata.timeUpdated() == null) {
+            return false;
+        }
+        // mods installed before the version was stored are updated once to learn their version
+        if (mod.getWorkshopTimeUpdated() == null) {
+            return true;
+        }
+        return modMetadata.timeUpdated().isAfter(mod.getWorkshopTimeUpdated());
+    }
+
+    private List<WorkshopMod> saveModsForInstallation(List<Long> ids) {
         List<WorkshopMod> workshopMods = ids.stream()
                 .map(id -> getMod(id).orElse(new WorkshopMod(id)))
                 .toList();
@@ -128,28 +181,38 @@ public class WorkshopModsFacade {
 
             ModMetadata modMetadata = fileDetailsService.fetchModMetadata(mod.getId());
             mod.setName(modMetadata.name());
+            // SteamCMD always downloads the latest version, a failed installation is told by the status
+            mod.setWorkshopTimeUpdated(modMetadata.timeUpdated());
             setModServerType(mod, modMetadata.consumerAppId());
             validateServerInitialized(mod);
         });
         modsService.saveAllModsForInstallation(workshopMods);
-
-        installerService.installOrUpdateMods(workshopMods);
         return workshopMods;
     }
 
+    /**
+     * Deletes the mods in one transaction and removes their files once it's committed, so the files of a mod are never
+     * gone while the mod is still in the database. Nothing is deleted if any of the mods doesn't exist.
+     */
     @Transactional
-    public void updateAllMods() {
-        List<Long> allModIds = modsService.getAllMods().stream()
-                .map(WorkshopMod::getId)
-                .toList();
-        saveAndInstallMods(allModIds);
-    }
-
-    public void uninstallMod(long id) {
-        WorkshopMod workshopMod = getMod(id)
-                .orElseThrow(() -> new NotFoundException("Mod ID " + id + " not found."));
-        installerService.uninstallMod(workshopMod);
-        modsService.deleteMod(workshopMod);
+    public void uninstallMods(Collection<Long> ids) {
+        List<WorkshopMod> workshopMods = modsService.getModsWithBiKeys(ids);
+        if (workshopMods.size() < ids.stream().distinct().count()) {
+            List<Long> foundIds = workshopMods.stream().map(WorkshopMod::getId).toList();
+            List<Long> missingIds = ids.stream().filter(id -> !foundIds.contains(id)).toList();
+            throw new NotFoundException("Mod IDs " + missingIds + " not found.");
+        }
+        modsService.deleteMods(workshopMods);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteModFiles(workshopMods);
+                }
+            });
+        } else {
+            deleteModFiles(workshopMods);
+        }
     }
 
     public void setModServerOnly(WorkshopMod mod, boolean serverOnly) {
@@ -157,6 +220,16 @@ public class WorkshopModsFacade {
         modsService.saveMod(mod);
     }
 
+    private void deleteModFiles(List<WorkshopMod> workshopMods) {
+        for (WorkshopMod mod : workshopMods) {
+            try {
+                installerService.uninstallMod(mod);
+            } catch (RuntimeException e) {
+                log.error("Files of deleted mod {} ({}) could not be removed", mod.getName(), mod.getId(), e);
+            }
+        }
+    }
+
     private void setModServerType(WorkshopMod mod, String consumerAppId) {
         if (Constants.GAME_IDS.get(ServerType.ARMA3).toString().equals(consumerAppId)) {
             mod.setServerType(ServerType.ARMA3);
@@ -1,20 +1,19 @@
 package cz.forgottenempire.servermanager.workshop;
 
-import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.common.InstallationStatus;
 import cz.forgottenempire.servermanager.modpreset.ModPresetsService;
 import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
-import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
-import cz.forgottenempire.servermanager.serverinstance.entities.DayZServer;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.steamcmd.ErrorStatus;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Slf4j
@@ -23,32 +22,48 @@ public class WorkshopModsService {
     private final WorkshopModRepository modRepository;
     private final ServerRepository serverRepository;
     private final ModPresetsService modPresetsService;
+    private final ModDtoCache modDtoCache;
 
     @Autowired
     public WorkshopModsService(
             WorkshopModRepository modRepository,
             ServerRepository serverRepository,
-            ModPresetsService modPresetsService
+            ModPresetsService modPresetsService,
+            ModDtoCache modDtoCache
     ) {
         this.modRepository = modRepository;
         this.serverRepository = serverRepository;
         this.modPresetsService = modPresetsService;
+        this.modDtoCache = modDtoCache;
     }
 
     public Collection<WorkshopMod> getAllMods() {
         return modRepository.findAll();
     }
 
-    public Collection<WorkshopMod> getAllMods(ServerType filter) {
-        return modRepository.findAllByServerType(filter);
+    public List<WorkshopMod> getMods(Collection<Long> ids) {
+        return modRepository.findAllById(ids);
     }
 
     public Optional<WorkshopMod> getMod(Long id) {
         return modRepository.findById(id);
     }
 
+    /**
+     * Loads the mod together with its BiKeys, which are otherwise loaded lazily.
+     */
+    public Optional<WorkshopMod> getModWithBiKeys(Long id) {
+        return modRepository.findWithBiKeysById(id);
+    }
+
+    public List<WorkshopMod> getModsWithBiKeys(Collection<Long> ids) {
+        return modRepository.findWithBiKeysByIdIn(ids);
+    }
+
     public WorkshopMod saveMod(WorkshopMod mod) {
-        return modRepository.save(mod);
+        WorkshopMod savedMod = modRepository.save(mod);
+        modDtoCache.evictSavedMods(List.of(savedMod.getId()));
+        return savedMod;
     }
 
     public void saveAllModsForInstallation(List<WorkshopMod> mods) {
@@ -57,37 +72,31 @@ public class WorkshopModsService {
     }
 
     public List<WorkshopMod> saveAllMods(List<WorkshopMod> mods) {
-        return modRepository.saveAll(mods);
-    }
-
-    public void deleteMod(WorkshopMod mod) {
-        removeModFromPresets(mod);
-        removeModFromServers(mod);
-        modRepository.delete(mod);
+        List<WorkshopMod> savedMods = modRepository.saveAll(mods);
+        modDtoCache.evictSavedMods(savedMods.stream().map(WorkshopMod::getId).toList());
+        return savedMods;
     }
 
-    private void removeModFromPresets(WorkshopMod mod) {
-        modPresetsService.getAllPresetsContainingMod(mod).forEach(preset -> {
-            List<WorkshopMod> modsInPreset = preset.getMods();
-            if (modsInPreset.size() == 1) {
-                modPresetsService.deletePreset(preset.getId());
-            } else {
-                modsInPreset.remove(mod);
-                modPresetsService.savePreset(preset);
-            }
-        });
+    /**
+     * Sets the status of all the mods by a single update, the mods already loaded are not updated.
+     */
+    public void setInstallationStatus(Collection<Long> ids, InstallationStatus installationStatus,
+            ErrorStatus errorStatus) {
+        modRepository.updateInstallationStatus(ids, installationStatus, errorStatus);
+        modDtoCache.evictSavedMods(ids);
     }
 
-    private void removeModFromServers(WorkshopMod mod) {
-        serverRepository.findAllServerIdsByActiveMod(mod.getId())
-                .forEach(serverId -> {
-                    Server server = serverRepository.findById(serverId).orElseThrow();
-                    if (server instanceof Arma3Server arma3Server) {
-                        arma3Server.getActiveMods().remove(mod);
-                    } else if (server instanceof DayZServer dayZServer) {
-                        dayZServer.getActiveMods().remove(mod);
-                    }
-                    serverRepository.save(server);
-                });
+    /**
+     * Deletes the mods and removes them from presets and servers. Presets left without any mod are deleted too.
+     */
+    @Transactional
+    public void deleteMods(Collection<WorkshopMod> mods) {
+        List<Long> ids = mods.stream().map(WorkshopMod::getId).toList();
+        modPresetsService.removeModsFromPresets(ids);
+        serverRepository.removeModsFromAllArma3Servers(ids);
+        serverRepository.removeModsFromAllDayZServers(ids);
+        modRepository.deleteBiKeysOfMods(ids);
+        modRepository.deleteAllByIdInBatch(ids);
+        modDtoCache.evictDeletedMods(ids);
     }
 }
@@ -2,6 +2,8 @@ package cz.forgottenempire.servermanager.workshop.metadata;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.time.Instant;
+
 class JsonPropertyProvider {
 
     private final JsonNode modInfoJson;
@@ -18,6 +20,15 @@ class JsonPropertyProvider {
         return getValueFromJson("consumer_appid", modInfoJson);
     }
 
+    public Instant findTimeUpdated() {
+        // seconds since the epoch
+        String timeUpdated = getValueFromJson("time_updated", modInfoJson);
+        if (timeUpdated == null || !timeUpdated.matches("\\d+")) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Long.parseLong(timeUpdated));
+    }
+
     private String getValueFromJson(String key, JsonNode modInfoJson) {
         JsonNode value = modInfoJson.findValue(key);
         return value != null ? value.asText() : null;
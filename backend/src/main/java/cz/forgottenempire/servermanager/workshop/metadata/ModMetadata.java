@@ -1,6 +1,12 @@
 package cz.forgottenempire.servermanager.workshop.metadata;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
-public record ModMetadata(@Nonnull String name, @Nonnull String consumerAppId) {
+import java.time.Instant;
+
+/**
+ * @param timeUpdated when the latest version of the mod was published to the workshop
+ */
+public record ModMetadata(@Nonnull String name, @Nonnull String consumerAppId, @Nullable Instant timeUpdated) {
 }
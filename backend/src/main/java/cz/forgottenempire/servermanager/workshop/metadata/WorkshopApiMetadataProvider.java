@@ -41,7 +41,7 @@ class WorkshopApiMetadataProvider {
             return Optional.empty();
         }
 
-        return Optional.of(new ModMetadata(modName, consumerAppId));
+        return Optional.of(new ModMetadata(modName, consumerAppId, propertyProvider.findTimeUpdated()));
     }
 
     private JsonPropertyProvider createPropertyProvider(long modId) {
@@ -0,0 +1,318 @@
+-- Schema of the embedded database, equal to the MySQL schema after its migration 1.4.10.
+-- Later migrations are added to both vendors with the same version.
+
+CREATE TABLE additional_server
+(
+    id                  BIGINT       NOT NULL,
+    name                VARCHAR(255) NULL,
+    server_dir          VARCHAR(255) NULL,
+    command             VARCHAR(255) NULL,
+    image_url           VARCHAR(255) NULL,
+    limit_memory_max_mb INT          NULL,
+    limit_cpu_weight    INT          NULL,
+    limit_io_weight     INT          NULL,
+    CONSTRAINT pk_additionalserver PRIMARY KEY (id)
+);
+
+CREATE TABLE server
+(
+    id                                BIGINT AUTO_INCREMENT NOT NULL,
+    type                              INT                   NOT NULL,
+    description                       VARCHAR(255)          NULL,
+    name                              VARCHAR(255)          NULL,
+    port                              INT                   NOT NULL,
+    query_port                        INT                   NOT NULL,
+    max_players                       INT                   NOT NULL,
+    password                          VARCHAR(255)          NULL,
+    admin_password                    VARCHAR(255)          NULL,
+    automatic_restart                 BOOLEAN               NOT NULL DEFAULT FALSE,
+    automatic_restart_time            TIME                  NULL,
+    supervisor_enabled                BOOLEAN               NOT NULL DEFAULT FALSE,
+    supervisor_unresponsive_threshold INT                   NOT NULL DEFAULT 60,
+    supervisor_startup_grace_period   INT                   NOT NULL DEFAULT 300,
+    supervisor_restart_backoff        INT                   NOT NULL DEFAULT 30,
+    supervisor_max_restarts_per_hour  INT                   NOT NULL DEFAULT 3,
+    supervisor_capture_core_dump      BOOLEAN               NOT NULL DEFAULT FALSE,
+    placement_mode                    VARCHAR(32)           NOT NULL DEFAULT 'NONE',
+    placement_cpus                    VARCHAR(255)          NULL,
+    placement_nice                    INT                   NOT NULL DEFAULT 0,
+    placement_io_priority             INT                   NULL,
+    limit_memory_max_mb               INT                   NULL,
+    limit_cpu_weight                  INT                   NULL,
+    limit_io_weight                   INT                   NULL,
+    restart_deferral_enabled          BOOLEAN               NOT NULL DEFAULT FALSE,
+    restart_deferral_max_players      INT                   NOT NULL DEFAULT 0,
+    restart_deferral_early_window     INT                   NOT NULL DEFAULT 30,
+    restart_deferral_max_deferral     INT                   NOT NULL DEFAULT 120,
+    CONSTRAINT pk_server PRIMARY KEY (id)
+);
+
+CREATE TABLE server_tag
+(
+    server_id BIGINT      NOT NULL,
+    tag       VARCHAR(64) NOT NULL,
+    PRIMARY KEY (server_id, tag),
+    FOREIGN KEY (server_id) REFERENCES server (id) ON DELETE CASCADE
+);
+
+CREATE TABLE launch_parameter
+(
+    id        BIGINT AUTO_INCREMENT NOT NULL,
+    server_id BIGINT                NOT NULL,
+    name      VARCHAR(64)           NOT NULL,
+    value     VARCHAR(255),
+    CONSTRAINT pk_launch_parameter PRIMARY KEY (id),
+    CONSTRAINT fk_launch_parameter_server FOREIGN KEY (server_id) REFERENCES server (id)
+);
+
+CREATE INDEX idx_launch_parameter_server ON launch_parameter (server_id);
+
+CREATE TABLE arma3difficulty_settings
+(
+    id                BIGINT AUTO_INCREMENT NOT NULL,
+    group_indicators  TINYINT               NOT NULL,
+    friendly_tags     TINYINT               NOT NULL,
+    enemy_tags        TINYINT               NOT NULL,
+    detected_mines    TINYINT               NOT NULL,
+    commands          TINYINT               NOT NULL,
+    waypoints         TINYINT               NOT NULL,
+    weapon_info       TINYINT               NOT NULL,
+    stance_indicator  TINYINT               NOT NULL,
+    third_person_view TINYINT               NOT NULL,
+    reduced_damage    BOOLEAN               NOT NULL,
+    stamina_bar       BOOLEAN               NOT NULL,
+    weapon_crosshair  BOOLEAN               NOT NULL,
+    vision_aid        BOOLEAN               NOT NULL,
+    score_table       BOOLEAN               NOT NULL,
+    death_messages    BOOLEAN               NOT NULL,
+    vonid             BOOLEAN               NOT NULL,
+    map_content       BOOLEAN               NOT NULL,
+    auto_report       BOOLEAN               NOT NULL,
+    camera_shake      BOOLEAN               NOT NULL,
+    ai_level_preset   TINYINT               NOT NULL,
+    skillai           DOUBLE PRECISION      NOT NULL,
+    precisionai       DOUBLE PRECISION      NOT NULL,
+    tactical_ping     TINYINT               NULL,
+    CONSTRAINT pk_arma3difficultysettings PRIMARY KEY (id)
+);
+
+CREATE TABLE arma3_network_settings
+(
+    id                     BIGINT AUTO_INCREMENT NOT NULL,
+    max_msg_send           INT,
+    max_size_guaranteed    INT,
+    max_size_nonguaranteed INT,
+    min_bandwidth          INT,
+    max_bandwidth          INT,
+    min_error_to_send      DOUBLE PRECISION,
+    min_error_to_send_near DOUBLE PRECISION,
+    max_packet_size        INT,
+    max_custom_file_size   INT,
+    CONSTRAINT pk_arma3_network_settings PRIMARY KEY (id)
+);
+
+CREATE TABLE arma3server
+(
+    id                                BIGINT  NOT NULL,
+    client_file_patching              BOOLEAN NOT NULL,
+    server_file_patching              BOOLEAN NOT NULL,
+    persistent                        BOOLEAN NOT NULL,
+    battl_eye                         BOOLEAN NOT NULL,
+    von_enabled                       BOOLEAN NOT NULL,
+    verify_signatures                 BOOLEAN NOT NULL,
+    additional_options                CLOB    NULL,
+    network_settings_id               BIGINT  NULL,
+    difficulty_settings_id            BIGINT  NULL,
+    hc_autoscaling_enabled            BOOLEAN NOT NULL DEFAULT FALSE,
+    hc_autoscaling_min                INT     NOT NULL DEFAULT 0,
+    hc_autoscaling_max                INT     NOT NULL DEFAULT 3,
+    hc_autoscaling_players_per_client INT     NOT NULL DEFAULT 20,
+    hc_autoscaling_scale_up_cpu       INT     NOT NULL DEFAULT 90,
+    hc_autoscaling_scale_down_cpu     INT     NOT NULL DEFAULT 50,
+    hc_autoscaling_cooldown           INT     NOT NULL DEFAULT 300,
+    hc_autoscaling_start_stagger      INT     NOT NULL DEFAULT 30,
+    CONSTRAINT pk_arma3server PRIMARY KEY (id),
+    CONSTRAINT fk_arma3server_on_id FOREIGN KEY (id) REFERENCES server (id),
+    CONSTRAINT fk_arma3_network_settings FOREIGN KEY (network_settings_id)
+        REFERENCES arma3_network_settings (id) ON DELETE SET NULL,
+    CONSTRAINT fk_arma3_difficulty_settings FOREIGN KEY (difficulty_settings_id)
+        REFERENCES arma3difficulty_settings (id) ON DELETE SET NULL
+);
+
+CREATE TABLE dayzserver
+(
+    id                        BIGINT           NOT NULL,
+    respawn_time              INT              NOT NULL,
+    persistent                BOOLEAN          NOT NULL,
+    von_enabled               BOOLEAN          NOT NULL,
+    force_same_build          BOOLEAN          NOT NULL,
+    third_person_view_enabled BOOLEAN          NOT NULL,
+    crosshair_enabled         BOOLEAN          NOT NULL,
+    client_file_patching      BOOLEAN          NOT NULL,
+    time_acceleration         DOUBLE PRECISION NOT NULL,
+    night_time_acceleration   DOUBLE PRECISION NOT NULL,
+    additional_options        CLOB             NULL,
+    CONSTRAINT pk_dayzserver PRIMARY KEY (id),
+    CONSTRAINT fk_dayzserver_on_id FOREIGN KEY (id) REFERENCES server (id)
+);
+
+CREATE TABLE reforger_server
+(
+    id                        BIGINT       NOT NULL,
+    scenario_id               VARCHAR(255) NULL,
+    third_person_view_enabled BOOLEAN      NOT NULL,
+    battl_eye                 BOOLEAN      NOT NULL,
+    cross_platform            BOOLEAN      NOT NULL DEFAULT TRUE,
+    fast_validation           BOOLEAN      NOT NULL DEFAULT TRUE,
+    server_max_view_distance  INT          NOT NULL DEFAULT 2500,
+    server_min_grass_distance INT          NOT NULL DEFAULT 50,
+    network_view_distance     INT          NOT NULL DEFAULT 1500,
+    CONSTRAINT pk_reforgerserver PRIMARY KEY (id),
+    CONSTRAINT fk_reforgerserver_on_id FOREIGN KEY (id) REFERENCES server (id)
+);
+
+CREATE TABLE reforger_server_active_mods
+(
+    reforger_server_id BIGINT       NOT NULL,
+    name               VARCHAR(255) NULL,
+    id                 VARCHAR(255) NULL,
+    CONSTRAINT fk_reforgerserver_activemods_on_reforger_server FOREIGN KEY (reforger_server_id)
+        REFERENCES reforger_server (id)
+);
+
+CREATE TABLE reforger_server_admins
+(
+    reforger_server_id BIGINT       NOT NULL,
+    admins             VARCHAR(255) NULL,
+    CONSTRAINT fk_reforger_server_admins FOREIGN KEY (reforger_server_id)
+        REFERENCES reforger_server (id) ON DELETE CASCADE
+);
+
+CREATE TABLE reforger_server_supported_platforms
+(
+    reforger_server_id  BIGINT       NOT NULL,
+    supported_platforms VARCHAR(255) NULL,
+    CONSTRAINT fk_reforger_server_platforms FOREIGN KEY (reforger_server_id)
+        REFERENCES reforger_server (id) ON DELETE CASCADE
+);
+
+CREATE TABLE workshop_mod
+(
+    id                    BIGINT       NOT NULL,
+    name                  VARCHAR(255) NULL,
+    last_updated          TIMESTAMP    NULL,
+    file_size             BIGINT       NULL,
+    installation_status   VARCHAR(255) NULL,
+    error_status          VARCHAR(255) NULL,
+    server_type           VARCHAR(255) NULL,
+    server_only           BOOLEAN      NOT NULL DEFAULT FALSE,
+    workshop_time_updated TIMESTAMP(6) NULL,
+    CONSTRAINT pk_workshopmod PRIMARY KEY (id)
+);
+
+CREATE TABLE workshop_mod_bikey
+(
+    workshop_mod_id BIGINT       NOT NULL,
+    bikey           VARCHAR(255) NOT NULL,
+    PRIMARY KEY (workshop_mod_id, bikey),
+    FOREIGN KEY (workshop_mod_id) REFERENCES workshop_mod (id) ON DELETE CASCADE
+);
+
+CREATE TABLE arma3server_active_mods
+(
+    arma3server_id BIGINT NOT NULL,
+    active_mods_id BIGINT NOT NULL,
+    CONSTRAINT fk_armactmod_on_arma3_server FOREIGN KEY (arma3server_id) REFERENCES arma3server (id),
+    CONSTRAINT fk_armactmod_on_workshop_mod FOREIGN KEY (active_mods_id) REFERENCES workshop_mod (id)
+);
+
+CREATE TABLE arma3server_activedlcs
+(
+    arma3server_id BIGINT       NOT NULL,
+    activedlcs     VARCHAR(255) NULL,
+    CONSTRAINT fk_arma3server_activedlcs_on_arma3_server FOREIGN KEY (arma3server_id) REFERENCES arma3server (id)
+);
+
+CREATE TABLE dayzserver_active_mods
+(
+    dayzserver_id  BIGINT NOT NULL,
+    active_mods_id BIGINT NOT NULL,
+    CONSTRAINT fk_dayactmod_on_day_z_server FOREIGN KEY (dayzserver_id) REFERENCES dayzserver (id),
+    CONSTRAINT fk_dayactmod_on_workshop_mod FOREIGN KEY (active_mods_id) REFERENCES workshop_mod (id)
+);
+
+CREATE TABLE mod_preset
+(
+    id   BIGINT AUTO_INCREMENT NOT NULL,
+    name VARCHAR(255)          NULL,
+    type VARCHAR(255)          NOT NULL,
+    CONSTRAINT pk_modpreset PRIMARY KEY (id),
+    CONSTRAINT uc_modpreset_name UNIQUE (name)
+);
+
+CREATE TABLE preset_mod
+(
+    mod_id    BIGINT NOT NULL,
+    preset_id BIGINT NOT NULL,
+    CONSTRAINT fk_premod_on_mod_preset FOREIGN KEY (preset_id) REFERENCES mod_preset (id),
+    CONSTRAINT fk_premod_on_workshop_mod FOREIGN KEY (mod_id) REFERENCES workshop_mod (id)
+);
+
+CREATE TABLE server_installation
+(
+    type                VARCHAR(255) NOT NULL,
+    version             VARCHAR(255) NULL,
+    last_updated_at     TIMESTAMP    NULL,
+    installation_status VARCHAR(255) NULL,
+    error_status        VARCHAR(255) NULL,
+    branch              VARCHAR(255) NOT NULL DEFAULT 'PUBLIC',
+    installation_step   VARCHAR(32)  NULL,
+    build_id            BIGINT       NULL,
+    CONSTRAINT pk_serverinstallation PRIMARY KEY (type)
+);
+
+CREATE TABLE available_branches
+(
+    type   VARCHAR(255) NOT NULL,
+    branch VARCHAR(255) NOT NULL,
+    PRIMARY KEY (type, branch),
+    CONSTRAINT fk_available_branches_server_installation FOREIGN KEY (type) REFERENCES server_installation (type)
+);
+
+CREATE TABLE steam_auth
+(
+    id                BIGINT AUTO_INCREMENT NOT NULL,
+    username          VARCHAR(255)          NULL,
+    password          VARCHAR(255)          NULL,
+    steam_guard_token VARCHAR(255)          NULL,
+    CONSTRAINT pk_steamauth PRIMARY KEY (id)
+);
+
+CREATE TABLE tracked_process
+(
+    id                     BIGINT AUTO_INCREMENT NOT NULL,
+    type                   VARCHAR(32)           NOT NULL,
+    owner_id               BIGINT                NOT NULL,
+    pid                    BIGINT                NOT NULL,
+    process_started_at     TIMESTAMP(6)          NULL,
+    started_at             TIMESTAMP(6)          NOT NULL,
+    command_line           CLOB                  NULL,
+    headless_clients_count INT                   NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    UNIQUE (type, owner_id)
+);
+
+INSERT INTO server_installation (type, branch)
+VALUES ('ARMA3', 'CREATORDLC'),
+       ('DAYZ', 'PUBLIC'),
+       ('DAYZ_EXP', 'PUBLIC'),
+       ('REFORGER', 'PUBLIC');
+
+INSERT INTO available_branches (type, branch)
+VALUES ('ARMA3', 'CREATORDLC'),
+       ('ARMA3', 'PUBLIC'),
+       ('ARMA3', 'PROFILING'),
+       ('ARMA3', 'CONTACT'),
+       ('DAYZ', 'PUBLIC'),
+       ('DAYZ_EXP', 'PUBLIC'),
+       ('REFORGER', 'PUBLIC');
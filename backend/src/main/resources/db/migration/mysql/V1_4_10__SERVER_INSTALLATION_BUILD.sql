@@ -0,0 +1,2 @@
+ALTER TABLE server_installation
+    ADD build_id BIGINT;
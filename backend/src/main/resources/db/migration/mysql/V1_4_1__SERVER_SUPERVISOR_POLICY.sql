@@ -0,0 +1,7 @@
+ALTER TABLE server
+    ADD supervisor_enabled                BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD supervisor_unresponsive_threshold INT     NOT NULL DEFAULT 60,
+    ADD supervisor_startup_grace_period   INT     NOT NULL DEFAULT 300,
+    ADD supervisor_restart_backoff        INT     NOT NULL DEFAULT 30,
+    ADD supervisor_max_restarts_per_hour  INT     NOT NULL DEFAULT 3,
+    ADD supervisor_capture_core_dump      BOOLEAN NOT NULL DEFAULT FALSE
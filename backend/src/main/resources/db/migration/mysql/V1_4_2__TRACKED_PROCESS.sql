@@ -0,0 +1,13 @@
+CREATE TABLE tracked_process
+(
+    id                     BIGINT      NOT NULL AUTO_INCREMENT,
+    type                   VARCHAR(32) NOT NULL,
+    owner_id               BIGINT      NOT NULL,
+    pid                    BIGINT      NOT NULL,
+    process_started_at     DATETIME(6),
+    started_at             DATETIME(6) NOT NULL,
+    command_line           TEXT,
+    headless_clients_count INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    UNIQUE (type, owner_id)
+);
@@ -0,0 +1,9 @@
+ALTER TABLE arma3server
+    ADD hc_autoscaling_enabled             BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD hc_autoscaling_min                 INT     NOT NULL DEFAULT 0,
+    ADD hc_autoscaling_max                 INT     NOT NULL DEFAULT 3,
+    ADD hc_autoscaling_players_per_client  INT     NOT NULL DEFAULT 20,
+    ADD hc_autoscaling_scale_up_cpu        INT     NOT NULL DEFAULT 90,
+    ADD hc_autoscaling_scale_down_cpu      INT     NOT NULL DEFAULT 50,
+    ADD hc_autoscaling_cooldown            INT     NOT NULL DEFAULT 300,
+    ADD hc_autoscaling_start_stagger       INT     NOT NULL DEFAULT 30
@@ -0,0 +1,5 @@
+ALTER TABLE server
+    ADD placement_mode        VARCHAR(32)  NOT NULL DEFAULT 'NONE',
+    ADD placement_cpus        VARCHAR(255),
+    ADD placement_nice        INT          NOT NULL DEFAULT 0,
+    ADD placement_io_priority INT
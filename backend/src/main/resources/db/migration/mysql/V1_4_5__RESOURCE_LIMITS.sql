@@ -0,0 +1,9 @@
+ALTER TABLE server
+    ADD limit_memory_max_mb INT,
+    ADD limit_cpu_weight    INT,
+    ADD limit_io_weight     INT;
+
+ALTER TABLE additional_server
+    ADD limit_memory_max_mb INT,
+    ADD limit_cpu_weight    INT,
+    ADD limit_io_weight     INT;
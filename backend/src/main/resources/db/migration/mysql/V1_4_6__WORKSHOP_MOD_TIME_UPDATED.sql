@@ -0,0 +1,2 @@
+ALTER TABLE workshop_mod
+    ADD workshop_time_updated DATETIME(6);
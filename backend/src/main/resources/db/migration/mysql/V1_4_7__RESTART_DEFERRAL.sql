@@ -0,0 +1,5 @@
+ALTER TABLE server
+    ADD restart_deferral_enabled      BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD restart_deferral_max_players  INT     NOT NULL DEFAULT 0,
+    ADD restart_deferral_early_window INT     NOT NULL DEFAULT 30,
+    ADD restart_deferral_max_deferral INT     NOT NULL DEFAULT 120;
@@ -0,0 +1,7 @@
+CREATE TABLE server_tag
+(
+    server_id BIGINT       NOT NULL,
+    tag       VARCHAR(64)  NOT NULL,
+    PRIMARY KEY (server_id, tag),
+    FOREIGN KEY (server_id) REFERENCES server (id) ON DELETE CASCADE
+);
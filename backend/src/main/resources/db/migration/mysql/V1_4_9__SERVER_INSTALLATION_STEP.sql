@@ -0,0 +1,2 @@
+ALTER TABLE server_installation
+    ADD installation_step VARCHAR(32);
@@ -0,0 +1,91 @@
+package cz.forgottenempire.servermanager;
+
+import cz.forgottenempire.servermanager.system.StartupMetrics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the whole application for the benchmarks, configured like the training run of the CDS archive by
+ * {@code training.properties} with an in-memory embedded database and the directories of the manager in the given
+ * directory. The arguments override the configuration, for example the database.
+ */
+public final class BenchmarkApplication {
+
+    // set by the benchmark task, relative to the project directory otherwise
+    private static final String TRAINING_PROPERTIES =
+            System.getProperty("benchmark.trainingProperties", "training.properties");
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(Path directory, String... args) throws IOException {
+        Path steamCmd = directory.resolve("steamcmd.sh");
+        if (Files.notExists(steamCmd)) {
+            Files.createFile(steamCmd);
+        }
+        SpringApplication application = new SpringApplication(ServerManagerApplication.class);
+        application.setApplicationStartup(StartupMetrics.createApplicationStartup());
+
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.config.additional-location=file:" + TRAINING_PROPERTIES,
+                "--training.directory=" + directory));
+        arguments.addAll(Arrays.asList(args));
+        return application.run(arguments.toArray(String[]::new));
+    }
+
+    /**
+     * Sends the warm-up requests and then the measured ones to the given path of the started application, from the
+     * given number of clients at once.
+     *
+     * @return latencies of the measured requests in microseconds, sorted
+     */
+    public static long[] measureRequestLatency(ConfigurableApplicationContext context, String path, int clients,
+            int warmupRequests, int measuredRequests) throws Exception {
+        URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path);
+        HttpClient client = HttpClient.newHttpClient();
+        sendRequests(client, uri, clients, warmupRequests);
+        long[] latencies = sendRequests(client, uri, clients, measuredRequests);
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    public static long percentile(long[] sortedValues, double percentile) {
+        return sortedValues[(int) Math.ceil(percentile * sortedValues.length) - 1];
+    }
+
+    private static long[] sendRequests(HttpClient client, URI uri, int clients, int requests) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Long>> latencies = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                latencies.add(clientExecutor.submit(() -> {
+                    long start = System.nanoTime();
+                    client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+                    return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                }));
+            }
+            long[] result = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                result[i] = latencies.get(i).get();
+            }
+            return result;
+        } finally {
+            clientExecutor.shutdown();
+        }
+    }
+}
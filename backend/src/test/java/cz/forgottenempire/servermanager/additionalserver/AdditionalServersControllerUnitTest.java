@@ -2,15 +2,19 @@ package cz.forgottenempire.servermanager.additionalserver;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
 import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.serverinstance.dtos.ResourceLimitsDto;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -95,6 +99,18 @@ class AdditionalServersControllerUnitTest {
         assertThat(response.getBody()).isNull();
     }
 
+    @Test
+    void whenSetResourceLimits_thenServiceIsCalledWithLimitsAndOkResponseIsReturned() {
+        ResponseEntity<?> response = controller.setResourceLimits(1L, new ResourceLimitsDto(1024, 200, null));
+
+        ArgumentCaptor<ResourceLimits> limits = ArgumentCaptor.forClass(ResourceLimits.class);
+        verify(serversService).setResourceLimits(eq(1L), limits.capture());
+        assertThat(limits.getValue().getMemoryMaxMegabytes()).isEqualTo(1024);
+        assertThat(limits.getValue().getCpuWeight()).isEqualTo(200);
+        assertThat(limits.getValue().getIoWeight()).isNull();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
     private AdditionalServer createServer(Long id, String name) {
         AdditionalServer server = new AdditionalServer();
         server.setId(id);
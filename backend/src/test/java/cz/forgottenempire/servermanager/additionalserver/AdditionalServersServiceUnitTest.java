@@ -3,6 +3,7 @@ package cz.forgottenempire.servermanager.additionalserver;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -10,14 +11,23 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
+import cz.forgottenempire.servermanager.cgroup.ResourceLimits;
 import cz.forgottenempire.servermanager.common.ProcessFactory;
+import cz.forgottenempire.servermanager.common.ShutdownParticipant.StoppingProcess;
 import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.processtracking.ProcessTracker;
+import cz.forgottenempire.servermanager.processtracking.ReattachableProcess;
+import cz.forgottenempire.servermanager.processtracking.TrackedProcessType;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.web.server.ResponseStatusException;
 
 class AdditionalServersServiceUnitTest {
@@ -25,14 +35,19 @@ class AdditionalServersServiceUnitTest {
     private final AdditionalServerRepository serverRepository;
     private final AdditionalServerInstanceInfoRepository instanceInfoRepository;
     private final ProcessFactory processFactory;
+    private final ProcessTracker processTracker;
+    private final CgroupService cgroupService;
     private final AdditionalServersService serversService;
 
     public AdditionalServersServiceUnitTest() {
         serverRepository = mock(AdditionalServerRepository.class);
         instanceInfoRepository = mock(AdditionalServerInstanceInfoRepository.class);
         processFactory = mock(ProcessFactory.class);
+        processTracker = mock(ProcessTracker.class);
+        cgroupService = mock(CgroupService.class);
 
-        serversService = new AdditionalServersService(serverRepository, instanceInfoRepository, processFactory, "");
+        serversService = new AdditionalServersService(serverRepository, instanceInfoRepository, processFactory,
+                processTracker, cgroupService, "");
     }
 
     private static AdditionalServer createServer(Long id, String name) {
@@ -75,6 +90,20 @@ class AdditionalServersServiceUnitTest {
         assertThat(allServers).containsAll(List.of(server1, server2));
     }
 
+    @Test
+    void whenSetResourceLimits_thenLimitsAreStoredAndApplied() {
+        AdditionalServer server = createServer(1L, "Test server");
+        when(serverRepository.findById(1L)).thenReturn(Optional.of(server));
+        ResourceLimits limits = new ResourceLimits();
+        limits.setCpuWeight(200);
+
+        serversService.setResourceLimits(1L, limits);
+
+        assertThat(server.getResourceLimits()).isEqualTo(limits);
+        verify(serverRepository).save(server);
+        verify(cgroupService).updateAdditionalServerLimits(1L, limits);
+    }
+
     @Test
     void whenServerGetInstanceInfo_theServerInstanceInfoReturned() {
         AdditionalServerInstanceInfo instanceInfo =
@@ -90,13 +119,14 @@ class AdditionalServersServiceUnitTest {
     void whenStartServerAndServerNotRunning_thenProcessFactoryCalledAndInstanceInfoStored() throws IOException {
         AdditionalServer server = createServer(1L, "Test server");
         when(serverRepository.findById(1L)).thenReturn(Optional.of(server));
-        Process originalProcess = mock(Process.class);
+        ProcessHandle originalProcess = mock(ProcessHandle.class);
         when(originalProcess.isAlive()).thenReturn(false);
         AdditionalServerInstanceInfo instanceInfo =
                 new AdditionalServerInstanceInfo(1L, false, LocalDateTime.now(), originalProcess);
         when(instanceInfoRepository.getServerInstanceInfo(1L)).thenReturn(instanceInfo);
         Process newProcess = mock(Process.class);
         when(newProcess.pid()).thenReturn(1234L);
+        when(newProcess.onExit()).thenReturn(new CompletableFuture<>());
         when(processFactory.startProcessWithRedirectedOutput(any(), any(), any())).thenReturn(newProcess);
 
         serversService.startServer(1L);
@@ -123,7 +153,7 @@ class AdditionalServersServiceUnitTest {
     void whenStartServerAndServerFailedToStart_thenResponseStatusExceptionIsThrown() throws IOException {
         AdditionalServer server = createServer(1L, "Test server");
         when(serverRepository.findById(1L)).thenReturn(Optional.of(server));
-        Process originalProcess = mock(Process.class);
+        ProcessHandle originalProcess = mock(ProcessHandle.class);
         when(originalProcess.isAlive()).thenReturn(false);
         AdditionalServerInstanceInfo instanceInfo =
                 new AdditionalServerInstanceInfo(1L, false, LocalDateTime.now(), originalProcess);
@@ -149,9 +179,10 @@ class AdditionalServersServiceUnitTest {
 
     @Test
     void whenStopServerAndServerIsRunning_thenProcessIsDestroyed() {
-        Process process = mock(Process.class);
+        ProcessHandle process = mock(ProcessHandle.class);
         when(process.isAlive()).thenReturn(true);
         when(process.descendants()).thenReturn(Stream.empty());
+        when(process.onExit()).thenReturn(CompletableFuture.completedFuture(process));
         doAnswer(invocation -> {
             when(process.isAlive()).thenReturn(false);
             return null;
@@ -165,6 +196,7 @@ class AdditionalServersServiceUnitTest {
         verify(instanceInfoRepository).storeServerInstanceInfo(1L,
                 new AdditionalServerInstanceInfo(1L, false, null, null));
         verify(process).destroy();
+        verify(processTracker).untrack(TrackedProcessType.ADDITIONAL_SERVER, 1L);
     }
 
     @Test
@@ -177,4 +209,118 @@ class AdditionalServersServiceUnitTest {
 
         verify(instanceInfoRepository, times(0)).storeServerInstanceInfo(any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenStartedServerProcessExits_thenServerIsMarkedAsNotRunning() throws IOException {
+        AdditionalServer server = createServer(1L, "Test server");
+        when(serverRepository.findById(1L)).thenReturn(Optional.of(server));
+        when(instanceInfoRepository.getServerInstanceInfo(1L))
+                .thenReturn(new AdditionalServerInstanceInfo(1L, false, null, null));
+        Process process = mock(Process.class);
+        CompletableFuture<Process> onExit = new CompletableFuture<>();
+        when(process.onExit()).thenReturn(onExit);
+        when(process.toHandle()).thenReturn(mock(ProcessHandle.class));
+        when(processFactory.startProcessWithRedirectedOutput(any(), any(), any())).thenReturn(process);
+        serversService.startServer(1L);
+        ArgumentCaptor<AdditionalServerInstanceInfo> runningInstanceInfo =
+                ArgumentCaptor.forClass(AdditionalServerInstanceInfo.class);
+        verify(instanceInfoRepository).storeServerInstanceInfo(eq(1L), runningInstanceInfo.capture());
+        when(instanceInfoRepository.getServerInstanceInfo(1L)).thenReturn(runningInstanceInfo.getValue());
+
+        onExit.complete(process);
+
+        verify(instanceInfoRepository).storeServerInstanceInfo(1L,
+                new AdditionalServerInstanceInfo(1L, false, null, null));
+    }
+
+    @Test
+    void whenProcessOfStoppedServerExits_thenServerInfoIsNotUpdated() {
+        ProcessHandle process = mock(ProcessHandle.class);
+        AdditionalServerInstanceInfo exitedInstanceInfo =
+                new AdditionalServerInstanceInfo(1L, true, LocalDateTime.now(), process);
+        when(instanceInfoRepository.getServerInstanceInfo(1L))
+                .thenReturn(new AdditionalServerInstanceInfo(1L, false, null, null));
+
+        serversService.handleProcessExit(exitedInstanceInfo);
+
+        verify(instanceInfoRepository, times(0)).storeServerInstanceInfo(any(), any());
+    }
+
+    @Test
+    void whenProcessOfDeletedServerExits_thenServerIsMarkedAsNotRunning() {
+        ProcessHandle process = mock(ProcessHandle.class);
+        AdditionalServerInstanceInfo exitedInstanceInfo =
+                new AdditionalServerInstanceInfo(1L, true, LocalDateTime.now(), process);
+        when(instanceInfoRepository.getServerInstanceInfo(1L)).thenReturn(exitedInstanceInfo);
+        when(serverRepository.findById(1L)).thenReturn(Optional.empty());
+
+        serversService.handleProcessExit(exitedInstanceInfo);
+
+        verify(instanceInfoRepository).storeServerInstanceInfo(1L,
+                new AdditionalServerInstanceInfo(1L, false, null, null));
+    }
+
+    @Test
+    void whenStopAllProcesses_thenRunningProcessesAreSignalledAndReturned() {
+        ProcessHandle runningProcess = mock(ProcessHandle.class);
+        when(runningProcess.isAlive()).thenReturn(true);
+        when(runningProcess.descendants()).thenReturn(Stream.empty());
+        ProcessHandle exitedProcess = mock(ProcessHandle.class);
+        when(exitedProcess.isAlive()).thenReturn(false);
+        when(instanceInfoRepository.getAll()).thenReturn(List.of(
+                new AdditionalServerInstanceInfo(1L, true, LocalDateTime.now(), runningProcess),
+                new AdditionalServerInstanceInfo(2L, true, LocalDateTime.now(), exitedProcess),
+                new AdditionalServerInstanceInfo(3L, false, null, null)));
+
+        Collection<StoppingProcess> stoppingProcesses = serversService.stopAllProcesses();
+
+        assertThat(stoppingProcesses).containsExactly(
+                new StoppingProcess("Additional server ID 1", runningProcess));
+        verify(runningProcess).destroy();
+        verify(exitedProcess, times(0)).destroy();
+        verify(instanceInfoRepository).storeServerInstanceInfo(1L,
+                new AdditionalServerInstanceInfo(1L, false, null, null));
+    }
+
+    @Test
+    void whenStopAllProcessesAndServersAreKeptRunning_thenNoProcessIsStopped() {
+        when(processTracker.isKeepRunningOnShutdown()).thenReturn(true);
+        ProcessHandle runningProcess = mock(ProcessHandle.class);
+        when(runningProcess.isAlive()).thenReturn(true);
+        when(instanceInfoRepository.getAll()).thenReturn(List.of(
+                new AdditionalServerInstanceInfo(1L, true, LocalDateTime.now(), runningProcess)));
+
+        Collection<StoppingProcess> stoppingProcesses = serversService.stopAllProcesses();
+
+        assertThat(stoppingProcesses).isEmpty();
+        verify(runningProcess, times(0)).destroy();
+    }
+
+    @Test
+    void whenReattachRunningServers_thenRunningProcessesAreStored() {
+        AdditionalServer server = createServer(1L, "Test server");
+        when(serverRepository.findById(1L)).thenReturn(Optional.of(server));
+        ProcessHandle process = mock(ProcessHandle.class);
+        when(process.onExit()).thenReturn(new CompletableFuture<>());
+        LocalDateTime startedAt = LocalDateTime.now().minusHours(1);
+        when(processTracker.findReattachableProcesses(TrackedProcessType.ADDITIONAL_SERVER))
+                .thenReturn(List.of(new ReattachableProcess(1L, process, startedAt, 0)));
+
+        serversService.reattachRunningServers();
+
+        verify(instanceInfoRepository).storeServerInstanceInfo(1L,
+                new AdditionalServerInstanceInfo(1L, true, startedAt, process));
+    }
+
+    @Test
+    void whenReattachRunningServersAndServerWasDeleted_thenProcessIsUntracked() {
+        when(serverRepository.findById(1L)).thenReturn(Optional.empty());
+        when(processTracker.findReattachableProcesses(TrackedProcessType.ADDITIONAL_SERVER))
+                .thenReturn(List.of(new ReattachableProcess(1L, mock(ProcessHandle.class), LocalDateTime.now(), 0)));
+
+        serversService.reattachRunningServers();
+
+        verify(processTracker).untrack(TrackedProcessType.ADDITIONAL_SERVER, 1L);
+        verify(instanceInfoRepository, times(0)).storeServerInstanceInfo(any(), any());
+    }
+}
@@ -0,0 +1,149 @@
+package cz.forgottenempire.servermanager.cgroup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CgroupServiceTest {
+
+    private static final long SERVER_ID = 1L;
+
+    @TempDir
+    private Path root;
+
+    private CgroupFileSystem fileSystem;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = new CgroupFileSystem(root);
+        Files.writeString(root.resolve("cgroup.controllers"), "cpuset cpu io memory pids\n");
+        Files.writeString(root.resolve("cgroup.procs"), "4321\n");
+    }
+
+    @Test
+    void initialize_whenManagerRunsInRootGroup_thenItIsMovedAndControllersAreEnabled() throws IOException {
+        CgroupService service = new CgroupService(fileSystem, true);
+
+        service.initialize();
+
+        assertThat(service.isAvailable()).isTrue();
+        assertThat(read("manager/cgroup.procs")).isEqualTo("4321");
+        assertThat(read("cgroup.subtree_control")).isEqualTo("+memory +cpu +io");
+    }
+
+    @Test
+    void initialize_whenDisabled_thenNothingIsChanged() {
+        CgroupService service = new CgroupService(fileSystem, false);
+
+        service.initialize();
+
+        assertThat(service.isAvailable()).isFalse();
+        assertThat(root.resolve("cgroup.subtree_control")).doesNotExist();
+    }
+
+    @Test
+    void initialize_whenHierarchyIsMissing_thenCgroupsAreNotAvailable() {
+        CgroupService service = new CgroupService(new CgroupFileSystem(root.resolve("missing")), true);
+
+        service.initialize();
+
+        assertThat(service.isAvailable()).isFalse();
+    }
+
+    @Test
+    void assignServerProcess_whenLimitsAreSet_thenTheyAreWrittenAndProcessIsMoved() throws IOException {
+        CgroupService service = initializedService();
+        ResourceLimits limits = new ResourceLimits();
+        limits.setMemoryMaxMegabytes(4096);
+        limits.setCpuWeight(200);
+        limits.setIoWeight(50);
+
+        service.assignServerProcess(SERVER_ID, limits, 1234);
+
+        assertThat(read("server-1/memory.max")).isEqualTo(String.valueOf(4096L * 1024 * 1024));
+        assertThat(read("server-1/cpu.weight")).isEqualTo("200");
+        assertThat(read("server-1/io.weight")).isEqualTo("default 50");
+        assertThat(read("server-1/cgroup.procs")).isEqualTo("1234");
+    }
+
+    @Test
+    void assignServerProcess_whenLimitsAreNotSet_thenDefaultsAreUsed() throws IOException {
+        CgroupService service = initializedService();
+
+        service.assignServerProcess(SERVER_ID, new ResourceLimits(), 1234);
+
+        assertThat(read("server-1/memory.max")).isEqualTo("max");
+        assertThat(read("server-1/cpu.weight")).isEqualTo("100");
+        assertThat(read("server-1/io.weight")).isEqualTo("default 100");
+    }
+
+    @Test
+    void assignAdditionalServerProcess_whenNotAvailable_thenNoGroupIsCreated() {
+        CgroupService service = new CgroupService(fileSystem, false);
+
+        service.assignAdditionalServerProcess(SERVER_ID, new ResourceLimits(), 1234);
+
+        assertThat(root.resolve("additional-server-1")).doesNotExist();
+    }
+
+    @Test
+    void getServerStats_whenGroupExists_thenUsageAndPressureAreRead() throws IOException {
+        CgroupService service = initializedService();
+        Path group = Files.createDirectories(root.resolve("server-1"));
+        Files.writeString(group.resolve("memory.current"), "2147483648\n");
+        Files.writeString(group.resolve("memory.max"), "max\n");
+        Files.writeString(group.resolve("cpu.stat"), "usage_usec 5000000\nuser_usec 4000000\nsystem_usec 1000000\n");
+        Files.writeString(group.resolve("memory.events"), "low 0\nhigh 0\nmax 3\noom 1\noom_kill 1\n");
+        Files.writeString(group.resolve("memory.pressure"),
+                "some avg10=12.50 avg60=3.10 avg300=0.80 total=123456\n"
+                        + "full avg10=4.00 avg60=1.00 avg300=0.20 total=23456\n");
+        Files.writeString(group.resolve("cpu.pressure"), "some avg10=1.00 avg60=0.50 avg300=0.10 total=100\n");
+
+        CgroupStats stats = service.getServerStats(SERVER_ID).orElseThrow();
+
+        assertThat(stats.memoryCurrentBytes()).isEqualTo(2147483648L);
+        assertThat(stats.memoryMaxBytes()).isNull();
+        assertThat(stats.cpuUsageMicros()).isEqualTo(5000000);
+        assertThat(stats.oomKills()).isEqualTo(1);
+        assertThat(stats.memoryPressure()).isEqualTo(new PressureStall(12.5, 3.1, 4.0, 1.0));
+        assertThat(stats.cpuPressure()).isEqualTo(new PressureStall(1.0, 0.5, null, null));
+        assertThat(stats.ioPressure()).isNull();
+    }
+
+    @Test
+    void getServerStats_whenServerHasNoGroup_thenEmpty() {
+        CgroupService service = initializedService();
+
+        assertThat(service.getServerStats(SERVER_ID)).isEmpty();
+    }
+
+    @Test
+    void removeEmptyGroups_whenGroupHasNoProcesses_thenItIsRemoved() throws IOException {
+        CgroupService service = initializedService();
+        // unlike in cgroupfs, a regular directory can't be removed while it contains files
+        Files.createDirectories(root.resolve("server-1"));
+        Files.writeString(Files.createDirectories(root.resolve("server-2")).resolve("cgroup.procs"), "1234\n");
+
+        service.removeEmptyGroups();
+
+        assertThat(root.resolve("server-1")).doesNotExist();
+        assertThat(root.resolve("server-2")).exists();
+        assertThat(root.resolve("manager")).exists();
+    }
+
+    private CgroupService initializedService() {
+        CgroupService service = new CgroupService(fileSystem, true);
+        service.initialize();
+        return service;
+    }
+
+    private String read(String file) throws IOException {
+        return Files.readString(root.resolve(file));
+    }
+}
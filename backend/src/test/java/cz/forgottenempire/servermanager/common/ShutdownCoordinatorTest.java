@@ -0,0 +1,111 @@
+package cz.forgottenempire.servermanager.common;
+
+import cz.forgottenempire.servermanager.common.ShutdownParticipant.StoppingProcess;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ShutdownCoordinatorTest {
+
+    @Test
+    void stopAllProcesses_whenProcessesExitInTime_thenNoProcessIsKilled() {
+        ProcessHandle first = mockProcess(CompletableFuture.completedFuture(null));
+        ProcessHandle second = mockProcess(CompletableFuture.completedFuture(null));
+        ShutdownCoordinator coordinator = createCoordinator(Duration.ofSeconds(1),
+                participant(first), participant(second));
+
+        coordinator.stopAllProcesses();
+
+        verify(first, never()).destroyForcibly();
+        verify(second, never()).destroyForcibly();
+    }
+
+    @Test
+    void stopAllProcesses_whenProcessDoesNotExitBeforeDeadline_thenItIsKilled() {
+        ProcessHandle stopped = mockProcess(CompletableFuture.completedFuture(null));
+        CompletableFuture<ProcessHandle> stragglerExit = new CompletableFuture<>();
+        ProcessHandle straggler = mockProcess(stragglerExit);
+        when(straggler.destroyForcibly()).thenAnswer(invocation -> stragglerExit.complete(straggler));
+        ShutdownCoordinator coordinator = createCoordinator(Duration.ofMillis(100),
+                participant(stopped, straggler));
+
+        coordinator.stopAllProcesses();
+
+        verify(straggler).destroyForcibly();
+        verify(stopped, never()).destroyForcibly();
+    }
+
+    @Test
+    void stopAllProcesses_whenProcessesAreSlow_thenAllAreAwaitedInParallel() {
+        CompletableFuture<ProcessHandle> firstExit = new CompletableFuture<>();
+        CompletableFuture<ProcessHandle> secondExit = new CompletableFuture<>();
+        ProcessHandle first = mockProcess(firstExit);
+        ProcessHandle second = mockProcess(secondExit);
+        ShutdownParticipant participant = () -> {
+            CompletableFuture.runAsync(() -> firstExit.complete(first),
+                    CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+            CompletableFuture.runAsync(() -> secondExit.complete(second),
+                    CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+            return List.of(new StoppingProcess("first", first), new StoppingProcess("second", second));
+        };
+        ShutdownCoordinator coordinator = createCoordinator(Duration.ofMillis(500), participant);
+
+        coordinator.stopAllProcesses();
+
+        verify(first, never()).destroyForcibly();
+        verify(second, never()).destroyForcibly();
+    }
+
+    @Test
+    void stopAllProcesses_whenParticipantFails_thenOtherParticipantsAreStillStopped() {
+        ShutdownParticipant failingParticipant = mock(ShutdownParticipant.class);
+        when(failingParticipant.stopAllProcesses()).thenThrow(new IllegalStateException());
+        ShutdownParticipant participant = mock(ShutdownParticipant.class);
+        when(participant.stopAllProcesses()).thenReturn(List.of());
+        ShutdownCoordinator coordinator = createCoordinator(Duration.ofSeconds(1), failingParticipant, participant);
+
+        coordinator.stopAllProcesses();
+
+        verify(participant).stopAllProcesses();
+    }
+
+    @Test
+    void stop_whenStoppedRepeatedly_thenProcessesAreStoppedOnce() {
+        ShutdownParticipant participant = mock(ShutdownParticipant.class);
+        when(participant.stopAllProcesses()).thenReturn(List.of());
+        ShutdownCoordinator coordinator = createCoordinator(Duration.ofSeconds(1), participant);
+        coordinator.start();
+
+        coordinator.stop();
+        coordinator.stop();
+
+        verify(participant).stopAllProcesses();
+        assertThat(coordinator.isRunning()).isFalse();
+    }
+
+    private ShutdownCoordinator createCoordinator(Duration timeout, ShutdownParticipant... participants) {
+        return new ShutdownCoordinator(List.of(participants), timeout, Clock.systemDefaultZone());
+    }
+
+    private ShutdownParticipant participant(ProcessHandle... processes) {
+        List<StoppingProcess> stoppingProcesses = Stream.of(processes)
+                .map(process -> new StoppingProcess("process", process))
+                .toList();
+        return () -> stoppingProcesses;
+    }
+
+    private ProcessHandle mockProcess(CompletableFuture<ProcessHandle> exit) {
+        ProcessHandle process = mock(ProcessHandle.class);
+        when(process.onExit()).thenReturn(exit);
+        when(process.descendants()).thenReturn(Stream.empty());
+        return process;
+    }
+}
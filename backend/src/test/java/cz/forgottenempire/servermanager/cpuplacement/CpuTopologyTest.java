@@ -0,0 +1,72 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CpuTopologyTest {
+
+    @TempDir
+    private Path cpuDirectory;
+
+    @Test
+    void read_whenCpusHaveSmtSiblings_thenTheyAreGroupedByPhysicalCore() throws IOException {
+        Files.writeString(cpuDirectory.resolve("online"), "0-3\n");
+        writeTopology(0, 0, 0);
+        writeTopology(1, 0, 1);
+        writeTopology(2, 0, 0);
+        writeTopology(3, 0, 1);
+
+        CpuTopology topology = CpuTopology.read(cpuDirectory);
+
+        assertThat(topology.getCores()).extracting(CpuTopology.PhysicalCore::cpus)
+                .containsExactly(List.of(0, 2), List.of(1, 3));
+        assertThat(topology.getOnlineCpus()).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void read_whenTopologyIsMissing_thenEveryCpuIsSeparateCore() throws IOException {
+        Files.writeString(cpuDirectory.resolve("online"), "0-1\n");
+
+        CpuTopology topology = CpuTopology.read(cpuDirectory);
+
+        assertThat(topology.getCores()).extracting(CpuTopology.PhysicalCore::cpus)
+                .containsExactly(List.of(0), List.of(1));
+    }
+
+    @Test
+    void read_whenOnlineCpusAreMissing_thenTopologyIsEmpty() {
+        CpuTopology topology = CpuTopology.read(cpuDirectory);
+
+        assertThat(topology.isEmpty()).isTrue();
+    }
+
+    @Test
+    void parse_whenListHasRangesAndSingleCpus_thenAllCpusAreReturnedSorted() {
+        assertThat(CpuList.parse("8, 0-2,5")).containsExactly(0, 1, 2, 5, 8);
+    }
+
+    @Test
+    void parse_whenRangeIsInvalid_thenExceptionIsThrown() {
+        assertThatThrownBy(() -> CpuList.parse("3-1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CpuList.parse("a")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void format_whenCpusAreConsecutive_thenTheyAreJoinedIntoRanges() {
+        assertThat(CpuList.format(List.of(5, 0, 1, 2, 8, 9))).isEqualTo("0-2,5,8-9");
+    }
+
+    private void writeTopology(int cpu, int packageId, int coreId) throws IOException {
+        Path topologyDirectory = Files.createDirectories(cpuDirectory.resolve("cpu" + cpu).resolve("topology"));
+        Files.writeString(topologyDirectory.resolve("physical_package_id"), packageId + "\n");
+        Files.writeString(topologyDirectory.resolve("core_id"), coreId + "\n");
+    }
+}
@@ -0,0 +1,157 @@
+package cz.forgottenempire.servermanager.cpuplacement;
+
+import cz.forgottenempire.servermanager.cpuplacement.CpuTopology.PhysicalCore;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacement.IoClass;
+import cz.forgottenempire.servermanager.serverinstance.entities.CpuPlacementSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProcessPlacementServiceTest {
+
+    // 4 physical cores with 2 SMT siblings each
+    private static final CpuTopology TOPOLOGY = new CpuTopology(List.of(
+            new PhysicalCore(0, 0, 0, List.of(0, 4)),
+            new PhysicalCore(1, 0, 1, List.of(1, 5)),
+            new PhysicalCore(2, 0, 2, List.of(2, 6)),
+            new PhysicalCore(3, 0, 3, List.of(3, 7))
+    ));
+
+    @Test
+    void placeServer_whenAutomatic_thenServersAreSpreadAcrossCoresOutsideHousekeeping() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "0,4", false, true);
+
+        ProcessPlacement first = service.placeServer(1, automatic());
+        ProcessPlacement second = service.placeServer(2, automatic());
+        ProcessPlacement third = service.placeServer(3, automatic());
+        ProcessPlacement fourth = service.placeServer(4, automatic());
+
+        assertThat(first.cpus()).containsExactly(1, 5);
+        assertThat(second.cpus()).containsExactly(2, 6);
+        assertThat(third.cpus()).containsExactly(3, 7);
+        assertThat(fourth.cpus()).containsExactly(1, 5);
+    }
+
+    @Test
+    void placeHeadlessClient_whenServerIsPlaced_thenHeadlessClientGetsAnotherCore() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "", false, true);
+
+        ProcessPlacement server = service.placeServer(1, automatic());
+        ProcessPlacement headlessClient = service.placeHeadlessClient(1, 1, automatic());
+
+        assertThat(server.cpus()).containsExactly(0, 4);
+        assertThat(headlessClient.cpus()).containsExactly(1, 5);
+    }
+
+    @Test
+    void release_whenProcessExits_thenItsCoreIsReused() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "", false, true);
+        ProcessPlacement first = service.placeServer(1, automatic());
+        service.placeServer(2, automatic());
+
+        service.release(first);
+
+        assertThat(service.placeServer(3, automatic()).cpus()).containsExactly(0, 4);
+        assertThat(service.getPlacements()).extracting(ProcessPlacement::owner)
+                .containsExactly("Server ID 2", "Server ID 3");
+    }
+
+    @Test
+    void release_whenOwnerWasPlacedAgain_thenNewPlacementIsKept() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "", false, true);
+        ProcessPlacement oldPlacement = service.placeServer(1, automatic());
+        ProcessPlacement newPlacement = service.placeServer(1, automatic());
+
+        service.release(oldPlacement);
+
+        assertThat(service.getPlacements()).containsExactly(newPlacement);
+    }
+
+    @Test
+    void placeReattached_whenServerRunsOnCore_thenCoreIsNotGivenToAnotherServer() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "", false, true);
+
+        ProcessPlacement reattached = service.placeReattached("Server ID 1", automatic(), List.of(0, 4));
+        ProcessPlacement started = service.placeServer(2, automatic());
+
+        assertThat(reattached.cpus()).containsExactly(0, 4);
+        assertThat(started.cpus()).containsExactly(1, 5);
+
+        service.release(reattached);
+
+        assertThat(service.placeServer(3, automatic()).cpus()).containsExactly(0, 4);
+    }
+
+    @Test
+    void placeServer_whenManualWithOfflineCpus_thenOnlyOnlineCpusAreUsed() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "", false, true);
+        CpuPlacementSettings settings = new CpuPlacementSettings();
+        settings.setMode(CpuPlacementMode.MANUAL);
+        settings.setCpus("6-9");
+        settings.setNiceLevel(-5);
+        settings.setIoPriority(2);
+
+        ProcessPlacement placement = service.placeServer(1, settings);
+
+        assertThat(placement.cpus()).containsExactly(6, 7);
+        assertThat(placement.niceLevel()).isEqualTo(-5);
+        assertThat(placement.ioClass()).isEqualTo(IoClass.BEST_EFFORT);
+    }
+
+    @Test
+    void placeServer_whenPlacementIsNotAvailable_thenNothingIsApplied() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "", false, false);
+
+        ProcessPlacement placement = service.placeServer(1, automatic());
+
+        assertThat(placement.isEmpty()).isTrue();
+        assertThat(service.getPlacements()).isEmpty();
+    }
+
+    @Test
+    void placeHousekeeping_whenHousekeepingCpusAreAuto_thenFirstCoreIsUsedWithLowPriority() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "auto", false, true);
+
+        ProcessPlacement placement = service.placeHousekeeping("SteamCMD");
+
+        assertThat(placement.cpus()).containsExactly(0, 4);
+        assertThat(placement.ioClass()).isEqualTo(IoClass.IDLE);
+        assertThat(placement.niceLevel()).isPositive();
+    }
+
+    @Test
+    void validateCpus_whenCpuIsNotOnline_thenExceptionIsThrown() {
+        ProcessPlacementService service = new ProcessPlacementService(TOPOLOGY, "", false, true);
+
+        assertThatThrownBy(() -> service.validateCpus("7-8")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void wrapCommand_whenAllSettingsAreSet_thenCommandIsStartedThroughTasksetNiceAndIonice() {
+        ProcessPlacement placement = new ProcessPlacement("Server ID 1", List.of(2, 3), 5, IoClass.BEST_EFFORT, 4);
+
+        List<String> command = placement.wrapCommand(List.of("/opt/arma3/arma3server_x64", "-port=2302"));
+
+        assertThat(command).containsExactly(
+                "/usr/bin/taskset", "-c", "2-3",
+                "/usr/bin/nice", "-n", "5",
+                "/usr/bin/ionice", "-t", "-c", "2", "-n", "4",
+                "/opt/arma3/arma3server_x64", "-port=2302");
+    }
+
+    @Test
+    void wrapCommand_whenPlacementIsEmpty_thenCommandIsUnchanged() {
+        List<String> command = List.of("/opt/arma3/arma3server_x64");
+
+        assertThat(ProcessPlacement.none("Server ID 1").wrapCommand(command)).isEqualTo(command);
+    }
+
+    private static CpuPlacementSettings automatic() {
+        CpuPlacementSettings settings = new CpuPlacementSettings();
+        settings.setMode(CpuPlacementMode.AUTOMATIC);
+        return settings;
+    }
+}
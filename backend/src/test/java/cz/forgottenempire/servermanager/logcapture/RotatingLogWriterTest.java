@@ -0,0 +1,134 @@
+package cz.forgottenempire.servermanager.logcapture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RotatingLogWriterTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private Path activeFile;
+    private Clock clock;
+    private List<Path> closedSegments;
+
+    @BeforeEach
+    void setUp() {
+        activeFile = tempDir.resolve("server.log");
+        clock = mock(Clock.class);
+        when(clock.getZone()).thenReturn(ZoneId.of("UTC"));
+        when(clock.instant()).thenReturn(NOW);
+        closedSegments = new ArrayList<>();
+    }
+
+    @Test
+    void write_whenUnderMaxSize_thenWritesIntoActiveFile() throws IOException {
+        try (RotatingLogWriter writer = createWriter(100, Duration.ofDays(1))) {
+            write(writer, "line 1\nline 2\n");
+        }
+
+        assertThat(Files.readString(activeFile)).isEqualTo("line 1\nline 2\n");
+        assertThat(closedSegments).isEmpty();
+    }
+
+    @Test
+    void write_whenOverMaxSize_thenRotatesAtLastLineBreak() throws IOException {
+        try (RotatingLogWriter writer = createWriter(10, Duration.ofDays(1))) {
+            write(writer, "line 1\nline 2\n");
+        }
+
+        assertThat(closedSegments).hasSize(1);
+        assertThat(closedSegments.get(0).getFileName().toString()).isEqualTo("server.20240501-120000.log");
+        assertThat(Files.readString(closedSegments.get(0))).isEqualTo("line 1\n");
+        assertThat(Files.readString(activeFile)).isEqualTo("line 2\n");
+    }
+
+    @Test
+    void write_whenSingleLineLongerThanMaxSize_thenSplitsLine() throws IOException {
+        try (RotatingLogWriter writer = createWriter(4, Duration.ofDays(1))) {
+            write(writer, "abcdefgh");
+        }
+
+        assertThat(closedSegments).hasSize(1);
+        assertThat(Files.readString(closedSegments.get(0))).isEqualTo("abcd");
+        assertThat(Files.readString(activeFile)).isEqualTo("efgh");
+    }
+
+    @Test
+    void write_whenSegmentWithSameTimestampExists_thenAddsSuffix() throws IOException {
+        try (RotatingLogWriter writer = createWriter(7, Duration.ofDays(1))) {
+            write(writer, "line 1\nline 2\nline 3\n");
+        }
+
+        assertThat(closedSegments).extracting(segment -> segment.getFileName().toString())
+                .containsExactly("server.20240501-120000.log", "server.20240501-120000-1.log");
+        assertThat(Files.readString(activeFile)).isEqualTo("line 3\n");
+    }
+
+    @Test
+    void rotateIfExpired_whenSegmentOlderThanMaxAge_thenRotates() throws IOException {
+        try (RotatingLogWriter writer = createWriter(100, Duration.ofHours(1))) {
+            write(writer, "line 1\n");
+            when(clock.instant()).thenReturn(NOW.plus(Duration.ofHours(1)));
+
+            writer.rotateIfExpired();
+        }
+
+        assertThat(closedSegments).hasSize(1);
+        assertThat(Files.readString(closedSegments.get(0))).isEqualTo("line 1\n");
+        assertThat(Files.readString(activeFile)).isEmpty();
+    }
+
+    @Test
+    void rotateIfExpired_whenSegmentEmpty_thenDoesNotRotate() throws IOException {
+        try (RotatingLogWriter writer = createWriter(100, Duration.ofHours(1))) {
+            when(clock.instant()).thenReturn(NOW.plus(Duration.ofHours(2)));
+
+            writer.rotateIfExpired();
+        }
+
+        assertThat(closedSegments).isEmpty();
+    }
+
+    @Test
+    void list_whenSegmentsExist_thenReturnsThemOrderedWithActiveLast() throws IOException {
+        Files.writeString(tempDir.resolve("server.20240502-120000.log.gz"), "b");
+        Files.writeString(tempDir.resolve("server.20240501-120000.log"), "a");
+        Files.writeString(tempDir.resolve("other.20240501-120000.log"), "x");
+        Files.writeString(activeFile, "c");
+
+        List<LogSegment> segments = LogSegments.list(activeFile);
+
+        assertThat(segments).extracting(LogSegment::name)
+                .containsExactly("server.20240501-120000.log", "server.20240502-120000.log.gz", "server.log");
+        assertThat(segments).extracting(LogSegment::compressed).containsExactly(false, true, false);
+        assertThat(segments).extracting(LogSegment::active).containsExactly(false, false, true);
+    }
+
+    private RotatingLogWriter createWriter(long maxSize, Duration maxAge) throws IOException {
+        return new RotatingLogWriter(activeFile, maxSize, maxAge, clock, closedSegments::add);
+    }
+
+    private void write(RotatingLogWriter writer, String text) throws IOException {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        writer.write(data, 0, data.length);
+    }
+}
@@ -0,0 +1,160 @@
+package cz.forgottenempire.servermanager.maintenance;
+
+import cz.forgottenempire.servermanager.common.InstallationStatus;
+import cz.forgottenempire.servermanager.maintenance.MaintenanceService.RestartDecision;
+import cz.forgottenempire.servermanager.maintenance.MaintenanceStatus.Phase;
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessService;
+import cz.forgottenempire.servermanager.workshop.WorkshopMod;
+import cz.forgottenempire.servermanager.workshop.WorkshopModsFacade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MaintenanceServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T03:00:00Z");
+    private static final LocalDateTime MODS_UPDATED_AT = LocalDateTime.ofInstant(NOW, ZoneId.systemDefault());
+
+    private WorkshopModsFacade modsFacade;
+    private ServerRepository serverRepository;
+    private ServerProcessService serverProcessService;
+    private MaintenanceService maintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        modsFacade = mock(WorkshopModsFacade.class);
+        serverRepository = mock(ServerRepository.class);
+        serverProcessService = mock(ServerProcessService.class);
+        maintenanceService = new MaintenanceService(modsFacade, serverRepository, serverProcessService,
+                Duration.ofHours(2), Clock.fixed(NOW, ZoneId.systemDefault()), Runnable::run);
+    }
+
+    @Test
+    void evaluate_whenServerIsEmpty_thenItIsRestarted() {
+        assertThat(MaintenanceService.evaluate(runningServer(0), MODS_UPDATED_AT, false))
+                .isEqualTo(RestartDecision.RESTART);
+    }
+
+    @Test
+    void evaluate_whenPlayersAreOnline_thenRestartWaitsForDeadline() {
+        assertThat(MaintenanceService.evaluate(runningServer(5), MODS_UPDATED_AT, false))
+                .isEqualTo(RestartDecision.WAIT);
+        assertThat(MaintenanceService.evaluate(runningServer(5), MODS_UPDATED_AT, true))
+                .isEqualTo(RestartDecision.RESTART);
+    }
+
+    @Test
+    void evaluate_whenServerWasRestartedOrStoppedSinceUpdate_thenItIsSkipped() {
+        ServerInstanceInfo restarted = ServerInstanceInfo.builder()
+                .startedAt(MODS_UPDATED_AT.plusMinutes(10))
+                .build();
+
+        assertThat(MaintenanceService.evaluate(restarted, MODS_UPDATED_AT, true)).isEqualTo(RestartDecision.SKIP);
+        assertThat(MaintenanceService.evaluate(ServerInstanceInfo.builder().build(), MODS_UPDATED_AT, true))
+                .isEqualTo(RestartDecision.SKIP);
+        assertThat(MaintenanceService.evaluate(null, MODS_UPDATED_AT, true)).isEqualTo(RestartDecision.SKIP);
+    }
+
+    @Test
+    void startMaintenance_whenNoModIsUpdated_thenNoServerIsRestarted() {
+        when(modsFacade.findModsWithUpdates()).thenReturn(List.of());
+
+        assertThat(maintenanceService.startMaintenance()).isTrue();
+
+        verify(modsFacade, never()).updateMods(List.of());
+        verify(serverProcessService, never()).restartServer(anyLong());
+        assertThat(maintenanceService.getStatus()).get()
+                .extracting(MaintenanceStatus::phase)
+                .isEqualTo(Phase.FINISHED);
+    }
+
+    @Test
+    void startMaintenance_whenModsAreUpdated_thenOnlyAffectedServersAreRestartedEmptyFirst() {
+        when(modsFacade.findModsWithUpdates()).thenReturn(List.of(1L, 2L));
+        when(modsFacade.updateMods(List.of(1L, 2L))).thenReturn(CompletableFuture.completedFuture(null));
+        when(modsFacade.getMod(1L)).thenReturn(Optional.of(mod(1L, InstallationStatus.FINISHED)));
+        when(modsFacade.getMod(2L)).thenReturn(Optional.of(mod(2L, InstallationStatus.ERROR)));
+        when(serverRepository.findAllServerIdsByActiveMod(1L)).thenReturn(List.of(10L, 11L, 12L));
+        when(serverProcessService.getServerInstanceInfo(10L)).thenReturn(runningServer(0));
+        when(serverProcessService.getServerInstanceInfo(11L)).thenReturn(runningServer(8));
+        when(serverProcessService.getServerInstanceInfo(12L)).thenReturn(ServerInstanceInfo.builder().build());
+
+        maintenanceService.startMaintenance();
+
+        verify(serverRepository, never()).findAllServerIdsByActiveMod(2L);
+        verify(serverProcessService).restartServer(10L);
+        verify(serverProcessService, never()).restartServer(11L);
+        verify(serverProcessService, never()).restartServer(12L);
+        MaintenanceStatus status = maintenanceService.getStatus().orElseThrow();
+        assertThat(status.phase()).isEqualTo(Phase.RESTARTING_SERVERS);
+        assertThat(status.updatedModIds()).containsExactly(1L);
+        assertThat(status.failedModIds()).containsExactly(2L);
+        assertThat(status.pendingServerIds()).containsExactly(11L);
+
+        maintenanceService.restartPendingServers(NOW.plus(Duration.ofHours(1)));
+        verify(serverProcessService, never()).restartServer(11L);
+
+        maintenanceService.restartPendingServers(NOW.plus(Duration.ofHours(2)));
+        verify(serverProcessService).restartServer(11L);
+        assertThat(maintenanceService.getStatus()).get()
+                .extracting(MaintenanceStatus::phase)
+                .isEqualTo(Phase.FINISHED);
+    }
+
+    @Test
+    void startMaintenance_whenPreviousMaintenanceIsRunning_thenNewOneIsNotStarted() {
+        when(modsFacade.findModsWithUpdates()).thenReturn(List.of(1L));
+        when(modsFacade.updateMods(List.of(1L))).thenReturn(new CompletableFuture<>());
+
+        assertThat(maintenanceService.startMaintenance()).isTrue();
+        assertThat(maintenanceService.startMaintenance()).isFalse();
+    }
+
+    @Test
+    void startMaintenance_whenStarted_thenModsAreCheckedInBackground() {
+        List<Runnable> tasks = new ArrayList<>();
+        maintenanceService = new MaintenanceService(modsFacade, serverRepository, serverProcessService,
+                Duration.ofHours(2), Clock.fixed(NOW, ZoneId.systemDefault()), tasks::add);
+        when(modsFacade.findModsWithUpdates()).thenReturn(List.of());
+
+        assertThat(maintenanceService.startMaintenance()).isTrue();
+
+        verify(modsFacade, never()).findModsWithUpdates();
+        assertThat(maintenanceService.getStatus()).get()
+                .satisfies(status -> assertThat(status.phase()).isEqualTo(Phase.CHECKING_MODS));
+        tasks.get(0).run();
+        assertThat(maintenanceService.getStatus()).get()
+                .satisfies(status -> assertThat(status.phase()).isEqualTo(Phase.FINISHED));
+    }
+
+    private static ServerInstanceInfo runningServer(int playersOnline) {
+        return ServerInstanceInfo.builder()
+                .startedAt(MODS_UPDATED_AT.minusDays(1))
+                .playersOnline(playersOnline)
+                .build();
+    }
+
+    private static WorkshopMod mod(long id, InstallationStatus installationStatus) {
+        WorkshopMod mod = new WorkshopMod(id);
+        mod.setInstallationStatus(installationStatus);
+        return mod;
+    }
+}
@@ -0,0 +1,143 @@
+package cz.forgottenempire.servermanager.processtracking;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProcessTrackerTest {
+
+    private static final Instant PROCESS_STARTED_AT = Instant.parse("2024-05-01T12:00:00.12Z");
+    private static final String COMMAND_LINE = "/opt/arma3/arma3server_x64 -port=2302";
+
+    private final TrackedProcessRepository repository = mock(TrackedProcessRepository.class);
+
+    @Test
+    void isSameProcess_whenStartTimeAndCommandLineMatch_thenTrue() {
+        TrackedProcess trackedProcess = trackedProcess(PROCESS_STARTED_AT, COMMAND_LINE);
+
+        assertThat(ProcessTracker.isSameProcess(trackedProcess, info(PROCESS_STARTED_AT, COMMAND_LINE))).isTrue();
+    }
+
+    @Test
+    void isSameProcess_whenPidWasReusedByProcessStartedLater_thenFalse() {
+        TrackedProcess trackedProcess = trackedProcess(PROCESS_STARTED_AT, COMMAND_LINE);
+
+        ProcessHandle.Info info = info(PROCESS_STARTED_AT.plusSeconds(3600), COMMAND_LINE);
+
+        assertThat(ProcessTracker.isSameProcess(trackedProcess, info)).isFalse();
+    }
+
+    @Test
+    void isSameProcess_whenCommandLineDiffers_thenFalse() {
+        TrackedProcess trackedProcess = trackedProcess(PROCESS_STARTED_AT, COMMAND_LINE);
+
+        ProcessHandle.Info info = info(PROCESS_STARTED_AT, "/usr/bin/bash");
+
+        assertThat(ProcessTracker.isSameProcess(trackedProcess, info)).isFalse();
+    }
+
+    @Test
+    void isSameProcess_whenCommandLineOfProcessIsNotAvailable_thenFalse() {
+        TrackedProcess trackedProcess = trackedProcess(PROCESS_STARTED_AT, COMMAND_LINE);
+
+        assertThat(ProcessTracker.isSameProcess(trackedProcess, info(PROCESS_STARTED_AT, null))).isFalse();
+    }
+
+    @Test
+    void isSameProcess_whenNothingWasRecorded_thenFalse() {
+        TrackedProcess trackedProcess = trackedProcess(null, null);
+
+        assertThat(ProcessTracker.isSameProcess(trackedProcess, info(PROCESS_STARTED_AT, COMMAND_LINE))).isFalse();
+    }
+
+    @Test
+    void track_whenServersAreNotKeptRunning_thenNothingIsStored() {
+        ProcessTracker processTracker = new ProcessTracker(repository, false);
+
+        processTracker.track(TrackedProcessType.SERVER, 1L, ProcessHandle.current().pid(), LocalDateTime.now());
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void track_whenServersAreKeptRunning_thenProcessIsStored() {
+        ProcessTracker processTracker = new ProcessTracker(repository, true);
+        when(repository.findByTypeAndOwnerId(TrackedProcessType.SERVER, 1L)).thenReturn(Optional.empty());
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        processTracker.track(TrackedProcessType.SERVER, 1L, ProcessHandle.current().pid(), startedAt);
+
+        verify(repository).save(any(TrackedProcess.class));
+    }
+
+    @Test
+    void track_whenCommandLineIsNotFinal_thenProcessIsStoredWithStartTimeOnly() {
+        ProcessTracker processTracker = new ProcessTracker(repository, true);
+        when(repository.findByTypeAndOwnerId(TrackedProcessType.SERVER, 1L)).thenReturn(Optional.empty());
+
+        processTracker.track(TrackedProcessType.SERVER, 1L, ProcessHandle.current().pid(), LocalDateTime.now(), false);
+
+        ArgumentCaptor<TrackedProcess> trackedProcess = ArgumentCaptor.forClass(TrackedProcess.class);
+        verify(repository).save(trackedProcess.capture());
+        assertThat(trackedProcess.getValue().getCommandLine()).isNull();
+        assertThat(trackedProcess.getValue().getProcessStartedAt()).isNotNull();
+    }
+
+    @Test
+    void findReattachableProcesses_whenServersAreNotKeptRunning_thenLeftoverRecordsAreDeleted() {
+        ProcessTracker processTracker = new ProcessTracker(repository, false);
+        List<TrackedProcess> leftovers = List.of(trackedProcess(PROCESS_STARTED_AT, COMMAND_LINE));
+        when(repository.findAllByType(TrackedProcessType.SERVER)).thenReturn(leftovers);
+
+        List<ReattachableProcess> processes = processTracker.findReattachableProcesses(TrackedProcessType.SERVER);
+
+        assertThat(processes).isEmpty();
+        verify(repository).deleteAll(leftovers);
+    }
+
+    @Test
+    void findReattachableProcesses_whenProcessIsStillRunning_thenItIsReturned() {
+        ProcessTracker processTracker = new ProcessTracker(repository, true);
+        ProcessHandle current = ProcessHandle.current();
+        TrackedProcess trackedProcess = trackedProcess(current.info().startInstant().orElse(null),
+                current.info().commandLine().orElse(null));
+        trackedProcess.setPid(current.pid());
+        trackedProcess.setOwnerId(1L);
+        trackedProcess.setHeadlessClientsCount(2);
+        when(repository.findAllByType(TrackedProcessType.SERVER)).thenReturn(List.of(trackedProcess));
+
+        List<ReattachableProcess> processes = processTracker.findReattachableProcesses(TrackedProcessType.SERVER);
+
+        assertThat(processes).hasSize(1);
+        assertThat(processes.get(0).ownerId()).isEqualTo(1L);
+        assertThat(processes.get(0).process().pid()).isEqualTo(current.pid());
+        assertThat(processes.get(0).headlessClientsCount()).isEqualTo(2);
+    }
+
+    private static TrackedProcess trackedProcess(Instant processStartedAt, String commandLine) {
+        TrackedProcess trackedProcess = new TrackedProcess();
+        trackedProcess.setType(TrackedProcessType.SERVER);
+        trackedProcess.setStartedAt(LocalDateTime.now());
+        trackedProcess.setProcessStartedAt(processStartedAt);
+        trackedProcess.setCommandLine(commandLine);
+        return trackedProcess;
+    }
+
+    private static ProcessHandle.Info info(Instant startInstant, String commandLine) {
+        ProcessHandle.Info info = mock(ProcessHandle.Info.class);
+        when(info.startInstant()).thenReturn(Optional.ofNullable(startInstant));
+        when(info.commandLine()).thenReturn(Optional.ofNullable(commandLine));
+        return info;
+    }
+}
@@ -0,0 +1,83 @@
+package cz.forgottenempire.servermanager.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Clock;
+
+import static cz.forgottenempire.servermanager.security.SecurityConstants.HEADER_STRING;
+import static cz.forgottenempire.servermanager.security.SecurityConstants.TOKEN_PREFIX;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cost of authorizing a request with a token by building a new verifier for every request, as it used to
+ * be done, with the authorization filter, which verifies each token only once. Run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class JwtAuthorizationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthorizationBenchmarkTest.class);
+    private static final String SECRET = "benchmark-secret-benchmark-secret";
+    private static final int WARMUP_REQUESTS = 20_000;
+    private static final int MEASURED_REQUESTS = 200_000;
+
+    private final JwtTokenService jwtTokenService = new JwtTokenService(SECRET, 1000, Clock.systemUTC());
+    private final JWTAuthorizationFilter filter =
+            new JWTAuthorizationFilter(authentication -> authentication, jwtTokenService);
+    private final String token = jwtTokenService.createToken("admin");
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authorizeRequests() throws ServletException, IOException {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            verifyWithNewVerifier();
+            authorizeWithFilter();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            verifyWithNewVerifier();
+        }
+        long newVerifierNanos = (System.nanoTime() - start) / MEASURED_REQUESTS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            authorizeWithFilter();
+        }
+        long filterNanos = (System.nanoTime() - start) / MEASURED_REQUESTS;
+
+        log.info("Authorizing a request took {} µs with a new verifier, {} µs with the filter",
+                newVerifierNanos / 1000.0, filterNanos / 1000.0);
+    }
+
+    private void verifyWithNewVerifier() {
+        String subject = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
+                .build()
+                .verify(token)
+                .getSubject();
+        assertThat(subject).isEqualTo("admin");
+    }
+
+    private void authorizeWithFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/system");
+        request.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("admin");
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,75 @@
+package cz.forgottenempire.servermanager.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtTokenServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret";
+    private static final Instant START = Instant.parse("2024-05-01T06:00:00Z");
+
+    private Instant now = START;
+    private JwtTokenService jwtTokenService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(clock.millis()).thenAnswer(invocation -> now.toEpochMilli());
+        jwtTokenService = new JwtTokenService(SECRET, 10, clock);
+    }
+
+    @Test
+    void getSubject_whenTokenWasCreated_thenSubjectIsReturned() {
+        String token = jwtTokenService.createToken("admin");
+
+        assertThat(jwtTokenService.getSubject(token)).isEqualTo("admin");
+        assertThat(jwtTokenService.getSubject(token)).isEqualTo("admin");
+    }
+
+    @Test
+    void getSubject_whenTokenIsSignedWithAnotherSecret_thenNullIsReturned() {
+        String token = JWT.create()
+                .withSubject("admin")
+                .withExpiresAt(Date.from(START.plus(Duration.ofDays(1))))
+                .sign(Algorithm.HMAC512("another-secret-another-secret".getBytes()));
+
+        assertThat(jwtTokenService.getSubject(token)).isNull();
+    }
+
+    @Test
+    void getSubject_whenTokenIsMalformed_thenNullIsReturned() {
+        assertThat(jwtTokenService.getSubject("not-a-token")).isNull();
+    }
+
+    @Test
+    void getSubject_whenVerifiedTokenExpires_thenNullIsReturned() {
+        String token = jwtTokenService.createToken("admin");
+        assertThat(jwtTokenService.getSubject(token)).isEqualTo("admin");
+
+        now = START.plusMillis(SecurityConstants.EXPIRATION_TIME).plusSeconds(1);
+
+        assertThat(jwtTokenService.getSubject(token)).isNull();
+    }
+
+    @Test
+    void getSubject_whenSeveralTokensAreVerified_thenEachReturnsItsSubject() {
+        String adminToken = jwtTokenService.createToken("admin");
+        String userToken = jwtTokenService.createToken("user");
+
+        assertThat(jwtTokenService.getSubject(adminToken)).isEqualTo("admin");
+        assertThat(jwtTokenService.getSubject(userToken)).isEqualTo("user");
+        assertThat(jwtTokenService.getSubject(adminToken)).isEqualTo("admin");
+    }
+}
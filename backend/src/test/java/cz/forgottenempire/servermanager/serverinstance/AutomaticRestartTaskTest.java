@@ -1,5 +1,6 @@
 package cz.forgottenempire.servermanager.serverinstance;
 
+import cz.forgottenempire.servermanager.serverinstance.entities.RestartDeferralPolicy;
 import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.scheduling.TaskScheduler;
 import java.time.*;
 import java.util.concurrent.ScheduledFuture;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -70,6 +72,75 @@ public class AutomaticRestartTaskTest {
         verify(scheduledFuture).cancel(false);
     }
 
+    @Test
+    void schedule_whenDeferralIsEnabled_thenServerIsWatchedFromStartOfEarlyRestartWindow() {
+        LocalTime restartTime = currentTime.plusHours(1);
+        AutomaticRestartTask automaticRestartTask = new AutomaticRestartTask(serverProcess, restartTime,
+                deferralPolicy());
+        automaticRestartTask.setTaskScheduler(taskScheduler);
+        automaticRestartTask.setClock(fixedClock);
+
+        automaticRestartTask.schedule();
+
+        Instant expectedTime = ZonedDateTime.of(currentDate, restartTime.minusMinutes(30), zone).toInstant();
+        verify(taskScheduler).schedule(any(Runnable.class), eq(expectedTime));
+        verify(taskScheduler, never()).scheduleAtFixedRate(any(), any(Instant.class), any());
+    }
+
+    @Test
+    void evaluate_whenServerIsEmptyWithinEarlyRestartWindow_thenItIsRestartedEarly() {
+        Instant plannedRestartAt = now().plus(Duration.ofMinutes(20));
+
+        assertThat(AutomaticRestartTask.evaluate(deferralPolicy(), runningServer(0), plannedRestartAt, now()))
+                .isEqualTo(AutomaticRestartTask.Decision.RESTART);
+        assertThat(AutomaticRestartTask.evaluate(deferralPolicy(), runningServer(3), plannedRestartAt, now()))
+                .isEqualTo(AutomaticRestartTask.Decision.WAIT);
+    }
+
+    @Test
+    void evaluate_whenTooManyPlayersAfterPlannedTime_thenRestartIsDeferredUntilDeadline() {
+        Instant plannedRestartAt = now().minus(Duration.ofMinutes(10));
+
+        assertThat(AutomaticRestartTask.evaluate(deferralPolicy(), runningServer(10), plannedRestartAt, now()))
+                .isEqualTo(AutomaticRestartTask.Decision.WAIT);
+        assertThat(AutomaticRestartTask.evaluate(deferralPolicy(), runningServer(5), plannedRestartAt, now()))
+                .isEqualTo(AutomaticRestartTask.Decision.RESTART);
+        assertThat(AutomaticRestartTask.evaluate(deferralPolicy(), runningServer(10), plannedRestartAt,
+                plannedRestartAt.plus(Duration.ofMinutes(120))))
+                .isEqualTo(AutomaticRestartTask.Decision.RESTART);
+    }
+
+    @Test
+    void evaluate_whenServerWasStartedWithinEarlyRestartWindow_thenRestartIsSkipped() {
+        Instant plannedRestartAt = now().plus(Duration.ofMinutes(5));
+        ServerInstanceInfo instanceInfo = ServerInstanceInfo.builder()
+                .startedAt(LocalDateTime.now(fixedClock).minusMinutes(10))
+                .build();
+
+        assertThat(AutomaticRestartTask.evaluate(deferralPolicy(), instanceInfo, plannedRestartAt, now()))
+                .isEqualTo(AutomaticRestartTask.Decision.SKIP);
+    }
+
+    private Instant now() {
+        return fixedClock.instant();
+    }
+
+    private ServerInstanceInfo runningServer(int playersOnline) {
+        return ServerInstanceInfo.builder()
+                .startedAt(LocalDateTime.now(fixedClock).minusDays(1))
+                .playersOnline(playersOnline)
+                .build();
+    }
+
+    private static RestartDeferralPolicy deferralPolicy() {
+        RestartDeferralPolicy policy = new RestartDeferralPolicy();
+        policy.setEnabled(true);
+        policy.setMaxPlayers(5);
+        policy.setEarlyRestartWindowMinutes(30);
+        policy.setMaxDeferralMinutes(120);
+        return policy;
+    }
+
     private AutomaticRestartTask createAutomaticRestartTask(LocalTime restartTime) {
         AutomaticRestartTask automaticRestartTask = new AutomaticRestartTask(serverProcess, restartTime);
         automaticRestartTask.setTaskScheduler(taskScheduler);
@@ -0,0 +1,99 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import freemarker.cache.StringTemplateLoader;
+import freemarker.template.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.servlet.view.freemarker.FreeMarkerConfigurer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConfigRendererTest {
+
+    private static final String TEMPLATE_NAME = "server.ftl";
+
+    @TempDir
+    private Path directory;
+
+    private ConfigRenderer configRenderer;
+
+    @BeforeEach
+    void setUp() {
+        StringTemplateLoader templateLoader = new StringTemplateLoader();
+        templateLoader.putTemplate(TEMPLATE_NAME, "hostname = \"${name}\";\nmaxPlayers = ${maxPlayers};\n");
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_32);
+        configuration.setTemplateLoader(templateLoader);
+        FreeMarkerConfigurer freeMarkerConfigurer = mock(FreeMarkerConfigurer.class);
+        when(freeMarkerConfigurer.getConfiguration()).thenReturn(configuration);
+        configRenderer = new ConfigRenderer(freeMarkerConfigurer, new ExecutorFactory(false));
+    }
+
+    @Test
+    void renderToFile_whenFileDoesNotExist_thenItIsWritten() throws IOException {
+        Path file = directory.resolve("configs/server.cfg");
+
+        boolean written = configRenderer.renderToFile(TEMPLATE_NAME, model("Server", 1000), file);
+
+        assertThat(written).isTrue();
+        assertThat(Files.readString(file)).isEqualTo("hostname = \"Server\";\nmaxPlayers = 1000;\n");
+        assertThat(listFiles(file.getParent())).containsExactly(file);
+    }
+
+    @Test
+    void renderToFile_whenContentIsUnchanged_thenFileIsNotWritten() {
+        Path file = directory.resolve("server.cfg");
+        configRenderer.renderToFile(TEMPLATE_NAME, model("Server", 64), file);
+
+        boolean written = configRenderer.renderToFile(TEMPLATE_NAME, model("Server", 64), file);
+
+        assertThat(written).isFalse();
+    }
+
+    @Test
+    void renderToFile_whenFileWasChangedOutsideManager_thenItIsRewritten() throws IOException {
+        Path file = directory.resolve("server.cfg");
+        configRenderer.renderToFile(TEMPLATE_NAME, model("Server", 64), file);
+        Files.writeString(file, "hostname = \"Edited by hand, and longer\";\n");
+
+        boolean written = configRenderer.renderToFile(TEMPLATE_NAME, model("Server", 64), file);
+
+        assertThat(written).isTrue();
+        assertThat(Files.readString(file)).isEqualTo("hostname = \"Server\";\nmaxPlayers = 64;\n");
+    }
+
+    @Test
+    void renderAll_whenSomeConfigsChanged_thenOnlyThoseAreWritten() throws IOException {
+        Path first = directory.resolve("first.cfg");
+        Path second = directory.resolve("second.cfg");
+        configRenderer.renderToFile(TEMPLATE_NAME, model("First", 10), first);
+        configRenderer.renderToFile(TEMPLATE_NAME, model("Second", 10), second);
+
+        int writtenCount = configRenderer.renderAll(List.of(
+                new ServerConfig(first.toFile(), TEMPLATE_NAME, model("First", 10)),
+                new ServerConfig(second.toFile(), TEMPLATE_NAME, model("Second", 20))));
+
+        assertThat(writtenCount).isEqualTo(1);
+        assertThat(Files.readString(second)).contains("maxPlayers = 20;");
+    }
+
+    private static Map<String, Object> model(String name, int maxPlayers) {
+        return Map.of("name", name, "maxPlayers", maxPlayers);
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortAllocatorTest {
+
+    private ServerRepository serverRepository;
+    private Set<Integer> portsInUse;
+    private PortAllocator portAllocator;
+
+    @BeforeEach
+    void setUp() {
+        serverRepository = mock(ServerRepository.class);
+        portsInUse = new HashSet<>();
+        portAllocator = new PortAllocator(serverRepository, port -> !portsInUse.contains(port));
+    }
+
+    @Test
+    void findFreePorts_whenDefaultPortsAreReservedByServer_thenNextBlockIsReturned() {
+        when(serverRepository.findAll()).thenReturn(List.of(server(1L, ServerType.ARMA3, 2302, 2303)));
+
+        assertThat(portAllocator.findFreePorts(ServerType.ARMA3)).isEqualTo(new PortBlock(2312, 2313));
+        assertThat(portAllocator.findFreePorts(ServerType.REFORGER)).isEqualTo(new PortBlock(2001, 2002));
+    }
+
+    @Test
+    void findFreePorts_whenPortIsUsedByAnotherApplication_thenItsBlockIsSkipped() {
+        when(serverRepository.findAll()).thenReturn(List.of());
+        portsInUse.add(2305);
+
+        assertThat(portAllocator.findFreePorts(ServerType.DAYZ)).isEqualTo(new PortBlock(2312, 2316));
+    }
+
+    @Test
+    void findConflicts_whenDerivedPortsOverlap_thenConflictIsFound() {
+        Server arma = server(1L, ServerType.ARMA3, 2302, 2303);
+        Server dayZ = server(2L, ServerType.DAYZ, 2306, 27016);
+        Server reforger = server(3L, ServerType.REFORGER, 2001, 17777);
+        when(serverRepository.findAll()).thenReturn(List.of(arma, dayZ, reforger));
+
+        assertThat(portAllocator.findConflicts(dayZ)).containsExactly(new PortConflict(1L, "Server 1", 2306));
+        assertThat(portAllocator.findConflicts(reforger)).isEmpty();
+    }
+
+    @Test
+    void findConflicts_whenServerIsSavedWithNewPortsOrDeleted_thenIndexIsUpdated() {
+        Server first = server(1L, ServerType.ARMA3, 2302, 2303);
+        Server second = server(2L, ServerType.ARMA3, 2402, 2403);
+        when(serverRepository.findAll()).thenReturn(List.of(first, second));
+        assertThat(portAllocator.findConflicts(second)).isEmpty();
+
+        Server movedFirst = server(1L, ServerType.ARMA3, 2400, 2401);
+        portAllocator.reserve(movedFirst);
+        assertThat(portAllocator.findConflicts(second)).containsExactly(new PortConflict(1L, "Server 1", 2402));
+
+        portAllocator.release(1L);
+        assertThat(portAllocator.findConflicts(second)).isEmpty();
+    }
+
+    @Test
+    void reserveTemporary_whenBlockIsReserved_thenItIsNotHandedOutAgainUntilReleased() {
+        when(serverRepository.findAll()).thenReturn(List.of());
+
+        PortBlock first = portAllocator.reserveTemporary(ServerType.ARMA3);
+        PortBlock second = portAllocator.reserveTemporary(ServerType.REFORGER);
+        assertThat(first).isEqualTo(new PortBlock(3000, 3001));
+        assertThat(second).isEqualTo(new PortBlock(3010, 3011));
+
+        portAllocator.releaseTemporary(first);
+        assertThat(portAllocator.reserveTemporary(ServerType.DAYZ)).isEqualTo(new PortBlock(3000, 3004));
+    }
+
+    @Test
+    void findPortInUse_whenQueryPortIsBound_thenItIsReturned() {
+        portsInUse.add(2303);
+
+        assertThat(portAllocator.findPortInUse(server(1L, ServerType.ARMA3, 2302, 2303))).hasValue(2303);
+        assertThat(portAllocator.findPortInUse(server(1L, ServerType.ARMA3, 2312, 2313))).isEmpty();
+    }
+
+    private static Server server(long id, ServerType type, int port, int queryPort) {
+        Server server = mock(Server.class);
+        when(server.getId()).thenReturn(id);
+        when(server.getName()).thenReturn("Server " + id);
+        when(server.getType()).thenReturn(type);
+        when(server.getPort()).thenReturn(port);
+        when(server.getQueryPort()).thenReturn(queryPort);
+        return server;
+    }
+}
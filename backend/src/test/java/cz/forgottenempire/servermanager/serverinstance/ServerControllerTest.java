@@ -40,7 +40,7 @@ class ServerControllerTest {
 
         ResponseEntity<ServerInstanceInfoDto> response = controller.getInstanceInfo(SERVER_ID);
 
-        ServerInstanceInfoDto expectedDto = new ServerInstanceInfoDto(false, null, 0, 0, null, null, null, 0);
+        ServerInstanceInfoDto expectedDto = new ServerInstanceInfoDto(false, null, 0, 0, null, null, null, 0, null, null);
         assertThat(response).isNotNull();
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(expectedDto);
@@ -49,13 +49,13 @@ class ServerControllerTest {
     @Test
     void getInstanceInfo_whenServiceReturnsInstanceInfo_thenServerInstanceDtoIsReturned() {
         ServerInstanceInfo instanceInfo = new ServerInstanceInfo(STARTED_AT, PLAYERS_ONLINE, MAX_PLAYERS, VERSION, MAP,
-                DESCRIPTION, HEADLESS_CLIENTS_COUNT);
+                DESCRIPTION, HEADLESS_CLIENTS_COUNT, STARTED_AT, null, null);
         when(serverProcessService.getServerInstanceInfo(SERVER_ID)).thenReturn(instanceInfo);
 
         ResponseEntity<ServerInstanceInfoDto> response = controller.getInstanceInfo(SERVER_ID);
 
         ServerInstanceInfoDto expectedDto = new ServerInstanceInfoDto(true, STARTED_AT.format(DateTimeFormatter.ISO_DATE_TIME),
-                PLAYERS_ONLINE, MAX_PLAYERS, VERSION, MAP, DESCRIPTION, HEADLESS_CLIENTS_COUNT);
+                PLAYERS_ONLINE, MAX_PLAYERS, VERSION, MAP, DESCRIPTION, HEADLESS_CLIENTS_COUNT, null, null);
         assertThat(response).isNotNull();
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(expectedDto);
@@ -0,0 +1,144 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.serverinstance.dtos.ServerDto;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3DifficultySettings;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3NetworkSettings;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.DayZServer;
+import cz.forgottenempire.servermanager.serverinstance.entities.LaunchParameter;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.workshop.Arma3CDLC;
+import cz.forgottenempire.servermanager.workshop.WorkshopMod;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the number of queries needed to list servers and mods, which must not grow with the number of servers.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(PathsFactory.class)
+class ServerFetchPlanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ServerRepository serverRepository;
+
+    private final ServerMapper serverMapper = Mappers.getMapper(ServerMapper.class);
+    private Statistics statistics;
+    private int nextPort = 2302;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listServers_whenMoreServersExist_thenNumberOfQueriesIsTheSame() {
+        List<WorkshopMod> mods = persistMods(3);
+        persistServers(1, mods);
+        long queriesForTwoServers = countQueriesOfListingServers(2);
+
+        persistServers(2, mods);
+        long queriesForSixServers = countQueriesOfListingServers(6);
+
+        assertThat(queriesForSixServers).isEqualTo(queriesForTwoServers);
+    }
+
+    @Test
+    void listMods_whenModsHaveBiKeys_thenTheyAreNotLoaded() {
+        persistMods(5);
+        entityManager.clear();
+        statistics.clear();
+
+        List<WorkshopMod> mods = entityManager.getEntityManager()
+                .createQuery("select m from WorkshopMod m", WorkshopMod.class)
+                .getResultList();
+        mods.forEach(WorkshopMod::getNormalizedName);
+
+        assertThat(mods).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private long countQueriesOfListingServers(int expectedServers) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<ServerDto> servers = serverRepository.findAll().stream()
+                .map(serverMapper::mapServerToDto)
+                .toList();
+
+        assertThat(servers).hasSize(expectedServers);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<WorkshopMod> persistMods(int count) {
+        List<WorkshopMod> mods = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            WorkshopMod mod = new WorkshopMod(id);
+            mod.setName("Mod " + id);
+            mod.setServerType(ServerType.ARMA3);
+            mod.addBiKey("mod" + id + ".bikey");
+            mods.add(entityManager.persist(mod));
+        }
+        entityManager.flush();
+        return mods;
+    }
+
+    /**
+     * Persists the given number of Arma 3 and DayZ servers, each with all of its collections filled.
+     */
+    private void persistServers(int countOfEachType, List<WorkshopMod> mods) {
+        for (int i = 0; i < countOfEachType; i++) {
+            Arma3Server arma3Server = new Arma3Server();
+            fillCommonFields(arma3Server, ServerType.ARMA3);
+            arma3Server.setActiveMods(new ArrayList<>(mods));
+            arma3Server.setActiveDLCs(new ArrayList<>(List.of(Arma3CDLC.values()[0])));
+            arma3Server.setDifficultySettings(new Arma3DifficultySettings());
+            arma3Server.setNetworkSettings(new Arma3NetworkSettings());
+            entityManager.persist(arma3Server);
+
+            DayZServer dayZServer = new DayZServer();
+            fillCommonFields(dayZServer, ServerType.DAYZ);
+            dayZServer.setTimeAcceleration(1);
+            dayZServer.setNightTimeAcceleration(1);
+            dayZServer.setActiveMods(new ArrayList<>());
+            entityManager.persist(dayZServer);
+        }
+    }
+
+    private void fillCommonFields(Server server, ServerType type) {
+        server.setType(type);
+        server.setName(type + " server " + nextPort);
+        server.setPort(nextPort);
+        server.setQueryPort(nextPort + 1);
+        server.setMaxPlayers(64);
+        server.setTags(new HashSet<>(Set.of("event")));
+
+        LaunchParameter launchParameter = new LaunchParameter();
+        launchParameter.setServer(server);
+        launchParameter.setName("noSound");
+        server.getCustomLaunchParameters().add(launchParameter);
+        nextPort += 10;
+    }
+}
@@ -0,0 +1,81 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3DifficultySettings;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3NetworkSettings;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the cost of loading a server entity, including the dependencies it gets when loaded, such as the paths of
+ * its log and config files. Run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Import(PathsFactory.class)
+class ServerLoadBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerLoadBenchmarkTest.class);
+    private static final int SERVERS = 200;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ServerRepository serverRepository;
+
+    @Test
+    void loadServers() {
+        for (int i = 0; i < SERVERS; i++) {
+            entityManager.persist(createServer(i));
+        }
+        entityManager.flush();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            loadAllServers();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            loadAllServers();
+        }
+        long nanosPerServer = (System.nanoTime() - start) / ((long) MEASURED_ROUNDS * SERVERS);
+
+        log.info("Loading a server took {} µs on average", nanosPerServer / 1000.0);
+    }
+
+    private void loadAllServers() {
+        entityManager.clear();
+        List<Server> servers = serverRepository.findAll();
+        assertThat(servers).hasSize(SERVERS);
+        servers.forEach(server -> assertThat(server.getLog().getFile()).isNotNull());
+    }
+
+    private static Arma3Server createServer(int index) {
+        Arma3Server server = new Arma3Server();
+        server.setType(ServerType.ARMA3);
+        server.setName("Server " + index);
+        server.setPort(2302 + index * 10);
+        server.setQueryPort(server.getPort() + 1);
+        server.setMaxPlayers(64);
+        server.setActiveMods(new ArrayList<>());
+        server.setActiveDLCs(new ArrayList<>());
+        server.setDifficultySettings(new Arma3DifficultySettings());
+        server.setNetworkSettings(new Arma3NetworkSettings());
+        return server;
+    }
+}
@@ -0,0 +1,208 @@
+package cz.forgottenempire.servermanager.serverinstance;
+
+import cz.forgottenempire.servermanager.common.ProcessFactory;
+import cz.forgottenempire.servermanager.serverinstance.ServerSupervisor.Decision;
+import cz.forgottenempire.servermanager.serverinstance.ServerSupervisor.RestartHistory;
+import cz.forgottenempire.servermanager.serverinstance.entities.SupervisorPolicy;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler.StartType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerSupervisorTest {
+
+    private static final LocalDateTime STARTED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final List<Runnable> submittedTasks = new ArrayList<>();
+    private Instant now = Instant.now();
+    private ServerStartScheduler startScheduler;
+    private ServerProcessRepository processRepository;
+    private ServerSupervisor supervisor;
+    private SupervisorPolicy policy;
+    private RestartHistory history;
+
+    @BeforeEach
+    void setUp() {
+        startScheduler = mock(ServerStartScheduler.class);
+        processRepository = mock(ServerProcessRepository.class);
+        supervisor = new ServerSupervisor(mock(ProcessFactory.class), startScheduler, processRepository,
+                Clock.systemDefaultZone(), submittedTasks::add);
+        policy = new SupervisorPolicy();
+        policy.setEnabled(true);
+        policy.setStartupGracePeriodSeconds(300);
+        policy.setUnresponsiveThresholdSeconds(60);
+        policy.setRestartBackoffSeconds(30);
+        policy.setMaxRestartsPerHour(3);
+        history = new RestartHistory();
+    }
+
+    @Test
+    void evaluate_whenInGracePeriod_thenHealthy() {
+        ServerInstanceInfo instanceInfo = instanceInfo(STARTED_AT, null);
+
+        Decision decision = supervisor.evaluate(policy, instanceInfo, history, STARTED_AT.plusSeconds(299));
+
+        assertThat(decision).isEqualTo(Decision.HEALTHY);
+    }
+
+    @Test
+    void evaluate_whenNeverRespondedAfterGracePeriodAndThreshold_thenRestart() {
+        ServerInstanceInfo instanceInfo = instanceInfo(STARTED_AT, null);
+
+        Decision decision = supervisor.evaluate(policy, instanceInfo, history, STARTED_AT.plusSeconds(360));
+
+        assertThat(decision).isEqualTo(Decision.RESTART);
+    }
+
+    @Test
+    void evaluate_whenRespondedRecently_thenHealthy() {
+        LocalDateTime now = STARTED_AT.plusHours(2);
+        ServerInstanceInfo instanceInfo = instanceInfo(STARTED_AT, now.minusSeconds(59));
+
+        Decision decision = supervisor.evaluate(policy, instanceInfo, history, now);
+
+        assertThat(decision).isEqualTo(Decision.HEALTHY);
+    }
+
+    @Test
+    void evaluate_whenLastResponseOlderThanThreshold_thenRestart() {
+        LocalDateTime now = STARTED_AT.plusHours(2);
+        ServerInstanceInfo instanceInfo = instanceInfo(STARTED_AT, now.minusSeconds(60));
+
+        Decision decision = supervisor.evaluate(policy, instanceInfo, history, now);
+
+        assertThat(decision).isEqualTo(Decision.RESTART);
+    }
+
+    @Test
+    void evaluate_whenMaxRestartsPerHourReached_thenRestartLimitReached() {
+        LocalDateTime now = STARTED_AT.plusHours(2);
+        history.recordRestart(now.minusMinutes(50));
+        history.recordRestart(now.minusMinutes(40));
+        history.recordRestart(now.minusMinutes(20));
+        ServerInstanceInfo instanceInfo = instanceInfo(now.minusMinutes(20), null);
+
+        Decision decision = supervisor.evaluate(policy, instanceInfo, history, now);
+
+        assertThat(decision).isEqualTo(Decision.RESTART_LIMIT_REACHED);
+    }
+
+    @Test
+    void evaluate_whenRestartsOlderThanHour_thenTheyAreNotCounted() {
+        LocalDateTime now = STARTED_AT.plusHours(2);
+        history.recordRestart(now.minusMinutes(90));
+        history.recordRestart(now.minusMinutes(80));
+        history.recordRestart(now.minusMinutes(70));
+        ServerInstanceInfo instanceInfo = instanceInfo(STARTED_AT, null);
+
+        Decision decision = supervisor.evaluate(policy, instanceInfo, history, now);
+
+        assertThat(decision).isNotEqualTo(Decision.RESTART_LIMIT_REACHED);
+    }
+
+    @Test
+    void evaluate_whenConsecutiveRestarts_thenBackoffGrowsExponentially() {
+        policy.setStartupGracePeriodSeconds(0);
+        policy.setUnresponsiveThresholdSeconds(1);
+        policy.setMaxRestartsPerHour(10);
+        LocalDateTime lastRestart = STARTED_AT;
+        history.recordRestart(lastRestart.minusSeconds(10));
+        history.recordRestart(lastRestart);
+        ServerInstanceInfo instanceInfo = instanceInfo(lastRestart, null);
+
+        // second consecutive restart -> 2 * 30 s backoff
+        assertThat(supervisor.evaluate(policy, instanceInfo, history, lastRestart.plusSeconds(59)))
+                .isEqualTo(Decision.BACKING_OFF);
+        assertThat(supervisor.evaluate(policy, instanceInfo, history, lastRestart.plusSeconds(60)))
+                .isEqualTo(Decision.RESTART);
+    }
+
+    @Test
+    void evaluate_whenServerRespondedAfterRestart_thenBackoffIsReset() {
+        policy.setStartupGracePeriodSeconds(0);
+        policy.setMaxRestartsPerHour(10);
+        history.recordRestart(STARTED_AT.minusSeconds(20));
+        history.recordRestart(STARTED_AT.minusSeconds(10));
+        history.recordRestart(STARTED_AT);
+        ServerInstanceInfo instanceInfo = instanceInfo(STARTED_AT, STARTED_AT.plusSeconds(1));
+
+        Decision decision = supervisor.evaluate(policy, instanceInfo, history, STARTED_AT.plusSeconds(61));
+
+        assertThat(decision).isEqualTo(Decision.RESTART);
+    }
+
+    @Test
+    void check_whenRestartIsInProgress_thenServerIsNotRestartedAgain() {
+        Server server = createServer();
+        ServerProcess process = createHungProcess();
+
+        supervisor.check(server, process);
+        supervisor.check(server, process);
+
+        assertThat(submittedTasks).hasSize(1);
+        verify(startScheduler, never()).submit(any(), any());
+        submittedTasks.get(0).run();
+        verify(startScheduler).submit(process, StartType.FORCED_RESTART);
+    }
+
+    @Test
+    void pruneRestartHistory_whenServerIsNoLongerRunning_thenHistoryIsRemovedAfterHour() {
+        Clock clock = mock(Clock.class);
+        when(clock.getZone()).thenReturn(ZoneId.systemDefault());
+        when(clock.instant()).thenAnswer(invocation -> now);
+        supervisor = new ServerSupervisor(mock(ProcessFactory.class), startScheduler, processRepository, clock,
+                submittedTasks::add);
+        supervisor.check(createServer(), createHungProcess());
+        submittedTasks.remove(0).run();
+        when(processRepository.get(1L)).thenReturn(Optional.empty());
+
+        now = now.plus(Duration.ofMinutes(30));
+        supervisor.pruneRestartHistory();
+        assertThat(supervisor.hasRestartHistory(1L)).isTrue();
+
+        now = now.plus(Duration.ofMinutes(31));
+        supervisor.pruneRestartHistory();
+        assertThat(supervisor.hasRestartHistory(1L)).isFalse();
+    }
+
+    private Server createServer() {
+        Server server = mock(Server.class);
+        when(server.getId()).thenReturn(1L);
+        when(server.getName()).thenReturn("Hung server");
+        when(server.getSupervisorPolicy()).thenReturn(policy);
+        return server;
+    }
+
+    private ServerProcess createHungProcess() {
+        ServerProcess process = mock(ServerProcess.class);
+        LocalDateTime startedAt = LocalDateTime.now().minusHours(2);
+        when(process.getInstanceInfo()).thenReturn(instanceInfo(startedAt, startedAt.plusMinutes(10)));
+        return process;
+    }
+
+    private ServerInstanceInfo instanceInfo(LocalDateTime startedAt, LocalDateTime lastResponseAt) {
+        return ServerInstanceInfo.builder()
+                .startedAt(startedAt)
+                .lastResponseAt(lastResponseAt)
+                .build();
+    }
+}
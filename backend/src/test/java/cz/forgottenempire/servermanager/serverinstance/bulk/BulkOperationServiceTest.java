@@ -0,0 +1,103 @@
+package cz.forgottenempire.servermanager.serverinstance.bulk;
+
+import cz.forgottenempire.servermanager.common.exceptions.CustomUserErrorException;
+import cz.forgottenempire.servermanager.common.exceptions.NotFoundException;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.bulk.BulkServerResult.Outcome;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkOperationServiceTest {
+
+    private ServerRepository serverRepository;
+    private ServerProcessService serverProcessService;
+    private List<Runnable> queuedTasks;
+    private BulkOperationService bulkOperationService;
+
+    @BeforeEach
+    void setUp() {
+        serverRepository = mock(ServerRepository.class);
+        serverProcessService = mock(ServerProcessService.class);
+        queuedTasks = new ArrayList<>();
+        bulkOperationService = new BulkOperationService(serverRepository, serverProcessService, queuedTasks::add,
+                Clock.fixed(Instant.parse("2024-05-01T12:00:00Z"), ZoneId.systemDefault()));
+    }
+
+    @Test
+    void start_whenServersAreSelectedByIdsAndTags_thenEachServerIsProcessedOnce() {
+        Server first = server(1L);
+        Server second = server(2L);
+        when(serverRepository.findAllById(List.of(1L))).thenReturn(List.of(first));
+        when(serverRepository.findDistinctByTagsIn(List.of("event"))).thenReturn(List.of(first, second));
+
+        BulkOperation operation = bulkOperationService.start(BulkAction.START, List.of(1L), List.of("event"));
+
+        assertThat(operation.getStatus().serverIds()).containsExactly(1L, 2L);
+        assertThat(operation.isFinished()).isFalse();
+
+        queuedTasks.forEach(Runnable::run);
+
+        verify(serverProcessService).startServer(first);
+        verify(serverProcessService).startServer(second);
+        assertThat(operation.isFinished()).isTrue();
+        assertThat(operation.getStatus().results())
+                .extracting(BulkServerResult::outcome)
+                .containsOnly(Outcome.SUCCEEDED);
+        assertThat(bulkOperationService.getOperation(operation.getId())).contains(operation);
+    }
+
+    @Test
+    void start_whenOneServerFails_thenOthersAreStillProcessed() {
+        Server first = server(1L);
+        Server second = server(2L);
+        when(serverRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        doThrow(new CustomUserErrorException("Port is already taken")).when(serverProcessService).restartServer(first);
+
+        BulkOperation operation = bulkOperationService.start(BulkAction.RESTART, List.of(1L, 2L), null);
+        queuedTasks.forEach(Runnable::run);
+
+        verify(serverProcessService).restartServer(second);
+        assertThat(operation.getStatus().results()).containsExactly(
+                BulkServerResult.failed(1L, "Port is already taken"),
+                BulkServerResult.succeeded(2L));
+    }
+
+    @Test
+    void start_whenServerDoesNotExist_thenNothingIsExecuted() {
+        when(serverRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(server(1L)));
+
+        assertThatThrownBy(() -> bulkOperationService.start(BulkAction.STOP, List.of(1L, 3L), null))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("[3]");
+        assertThat(queuedTasks).isEmpty();
+    }
+
+    @Test
+    void start_whenNoServerMatches_thenErrorIsThrown() {
+        when(serverRepository.findDistinctByTagsIn(List.of("unused"))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> bulkOperationService.start(BulkAction.STOP, List.of(), List.of("unused")))
+                .isInstanceOf(CustomUserErrorException.class);
+    }
+
+    private static Server server(long id) {
+        Server server = mock(Server.class);
+        when(server.getId()).thenReturn(id);
+        return server;
+    }
+}
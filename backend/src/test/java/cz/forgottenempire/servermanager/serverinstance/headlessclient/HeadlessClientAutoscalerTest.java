@@ -0,0 +1,175 @@
+package cz.forgottenempire.servermanager.serverinstance.headlessclient;
+
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceService;
+import cz.forgottenempire.servermanager.serverinstance.entities.HeadlessClientAutoscalingPolicy;
+import cz.forgottenempire.servermanager.serverinstance.headlessclient.HeadlessClientAutoscaler.Decision;
+import cz.forgottenempire.servermanager.serverinstance.headlessclient.HeadlessClientAutoscaler.ScalingState;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HeadlessClientAutoscalerTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+    private static final OptionalDouble LOW_CPU = OptionalDouble.of(20);
+    private static final OptionalDouble MEDIUM_CPU = OptionalDouble.of(70);
+    private static final OptionalDouble HIGH_CPU = OptionalDouble.of(95);
+
+    private HeadlessClientAutoscaler autoscaler;
+    private HeadlessClientAutoscalingPolicy policy;
+    private ScalingState state;
+
+    @BeforeEach
+    void setUp() {
+        autoscaler = new HeadlessClientAutoscaler(mock(ServerProcessRepository.class),
+                mock(ServerInstanceService.class), Clock.systemUTC());
+        policy = new HeadlessClientAutoscalingPolicy();
+        policy.setEnabled(true);
+        policy.setMinHeadlessClients(0);
+        policy.setMaxHeadlessClients(3);
+        policy.setPlayersPerHeadlessClient(20);
+        policy.setScaleUpCpuPercent(90);
+        policy.setScaleDownCpuPercent(50);
+        policy.setCooldownSeconds(300);
+        policy.setStartStaggerSeconds(30);
+        state = new ScalingState();
+    }
+
+    @Test
+    void evaluate_whenPlayersExceedCapacity_thenAdd() {
+        assertThat(autoscaler.evaluate(policy, 21, 1, LOW_CPU, state, NOW)).isEqualTo(Decision.ADD);
+    }
+
+    @Test
+    void evaluate_whenPlayersFitCapacity_thenKeep() {
+        assertThat(autoscaler.evaluate(policy, 20, 1, LOW_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+    }
+
+    @Test
+    void evaluate_whenMaximumReached_thenKeep() {
+        assertThat(autoscaler.evaluate(policy, 100, 3, HIGH_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+    }
+
+    @Test
+    void evaluate_whenBelowMinimum_thenAddEvenWithoutPlayers() {
+        policy.setMinHeadlessClients(1);
+
+        assertThat(autoscaler.evaluate(policy, 0, 0, OptionalDouble.empty(), state, NOW)).isEqualTo(Decision.ADD);
+    }
+
+    @Test
+    void evaluate_whenCpuBound_thenAddEvenIfPlayersFit() {
+        assertThat(autoscaler.evaluate(policy, 5, 1, HIGH_CPU, state, NOW)).isEqualTo(Decision.ADD);
+    }
+
+    @Test
+    void evaluate_whenHeadlessClientStartedRecently_thenNextStartIsStaggered() {
+        state.recordScaleUp(NOW.minusSeconds(29));
+
+        assertThat(autoscaler.evaluate(policy, 50, 1, LOW_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+        assertThat(autoscaler.evaluate(policy, 50, 1, LOW_CPU, state, NOW.plusSeconds(1))).isEqualTo(Decision.ADD);
+    }
+
+    @Test
+    void evaluate_whenPlayersJustBelowCapacityOfOneClientLess_thenKeepBecauseOfHysteresis() {
+        // 2 clients -> 1 client for 20 players, but removal needs a margin of 5 players
+        assertThat(autoscaler.evaluate(policy, 18, 2, LOW_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+        assertThat(autoscaler.evaluate(policy, 15, 2, LOW_CPU, state, NOW)).isEqualTo(Decision.REMOVE);
+    }
+
+    @Test
+    void evaluate_whenNoPlayersAndSingleClient_thenRemove() {
+        assertThat(autoscaler.evaluate(policy, 0, 1, LOW_CPU, state, NOW)).isEqualTo(Decision.REMOVE);
+    }
+
+    @Test
+    void evaluate_whenCpuNotLowEnough_thenKeep() {
+        assertThat(autoscaler.evaluate(policy, 0, 2, MEDIUM_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+    }
+
+    @Test
+    void evaluate_whenCpuUnknown_thenNothingIsRemoved() {
+        assertThat(autoscaler.evaluate(policy, 0, 2, OptionalDouble.empty(), state, NOW)).isEqualTo(Decision.KEEP);
+    }
+
+    @Test
+    void evaluate_whenScaledRecently_thenRemovalWaitsForCooldown() {
+        state.recordScaleUp(NOW.minusSeconds(299));
+
+        assertThat(autoscaler.evaluate(policy, 0, 2, LOW_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+        assertThat(autoscaler.evaluate(policy, 0, 2, LOW_CPU, state, NOW.plusSeconds(1))).isEqualTo(Decision.REMOVE);
+    }
+
+    @Test
+    void evaluate_whenRemovedRecently_thenAddingWaitsForCooldown() {
+        state.recordScaleDown(NOW.minusSeconds(100));
+
+        assertThat(autoscaler.evaluate(policy, 30, 1, LOW_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+        assertThat(autoscaler.evaluate(policy, 30, 1, LOW_CPU, state, NOW.plusSeconds(200))).isEqualTo(Decision.ADD);
+    }
+
+    @Test
+    void sampleCpuLoad_whenSampledTwice_thenHighestUsageOfProcessesIsReturned() {
+        ProcessHandle server = processWithCpuTime(1, Duration.ofSeconds(10));
+        ProcessHandle headlessClient = processWithCpuTime(2, Duration.ofSeconds(20));
+        assertThat(state.sampleCpuLoad(List.of(server, headlessClient), Duration.ZERO, NOW)).isEmpty();
+
+        ProcessHandle serverLater = processWithCpuTime(1, Duration.ofSeconds(15));
+        ProcessHandle headlessClientLater = processWithCpuTime(2, Duration.ofSeconds(21));
+        OptionalDouble cpuLoad = state.sampleCpuLoad(List.of(serverLater, headlessClientLater), Duration.ZERO,
+                NOW.plusSeconds(10));
+
+        assertThat(cpuLoad).hasValue(50.0);
+    }
+
+    @Test
+    void sampleCpuLoad_whenHeadlessClientStartedWithinWarmUp_thenItIsLeftOut() {
+        ProcessHandle server = processWithCpuTime(1, Duration.ofSeconds(10));
+        ProcessHandle headlessClient = processWithCpuTime(2, Duration.ofSeconds(20));
+        when(headlessClient.info().startInstant()).thenReturn(Optional.of(NOW.minusSeconds(60)));
+        state.sampleCpuLoad(List.of(server, headlessClient), Duration.ofSeconds(300), NOW);
+
+        ProcessHandle serverLater = processWithCpuTime(1, Duration.ofSeconds(12));
+        ProcessHandle headlessClientLater = processWithCpuTime(2, Duration.ofSeconds(30));
+        when(headlessClientLater.info().startInstant()).thenReturn(Optional.of(NOW.minusSeconds(60)));
+        OptionalDouble cpuLoad = state.sampleCpuLoad(List.of(serverLater, headlessClientLater),
+                Duration.ofSeconds(300), NOW.plusSeconds(10));
+
+        assertThat(cpuLoad).hasValue(20.0);
+    }
+
+    @Test
+    void evaluate_whenCpuBoundAfterRecentScaleUp_thenNextAddWaitsForCooldown() {
+        state.recordScaleUp(NOW.minusSeconds(299));
+
+        assertThat(autoscaler.evaluate(policy, 5, 2, HIGH_CPU, state, NOW)).isEqualTo(Decision.KEEP);
+        assertThat(autoscaler.evaluate(policy, 5, 2, HIGH_CPU, state, NOW.plusSeconds(1))).isEqualTo(Decision.ADD);
+    }
+
+    @Test
+    void evaluate_whenPlayersExceedCapacityAfterRecentScaleUp_thenOnlyStaggerApplies() {
+        state.recordScaleUp(NOW.minusSeconds(30));
+
+        assertThat(autoscaler.evaluate(policy, 50, 1, HIGH_CPU, state, NOW)).isEqualTo(Decision.ADD);
+    }
+
+    private static ProcessHandle processWithCpuTime(long pid, Duration cpuTime) {
+        ProcessHandle process = mock(ProcessHandle.class);
+        ProcessHandle.Info info = mock(ProcessHandle.Info.class);
+        when(process.pid()).thenReturn(pid);
+        when(process.info()).thenReturn(info);
+        when(info.totalCpuDuration()).thenReturn(Optional.of(cpuTime));
+        return process;
+    }
+}
@@ -0,0 +1,52 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminLogTailerTest {
+
+    private static final Instant STARTED_AT = Instant.parse("2024-05-01T12:00:00Z");
+
+    @TempDir
+    Path profilesDirectory;
+
+    @Test
+    void readNewLines_whenAdminLogIsCreated_thenReadsNewestLogOfCurrentProcess() throws IOException {
+        AdminLogTailer tailer = new AdminLogTailer(profilesDirectory, STARTED_AT, true);
+        assertThat(readLines(tailer)).isEmpty();
+
+        writeAdminLog("DayZServer_x64_2024-04-30_20-00-00.ADM", "previous run", STARTED_AT.minusSeconds(3600));
+        writeAdminLog("DayZServer_x64_2024-05-01_12-00-00.ADM", "current run", STARTED_AT.plusSeconds(5));
+
+        assertThat(readLines(tailer)).containsExactly("current run");
+    }
+
+    @Test
+    void readNewLines_whenOnlyOlderAdminLogExists_thenReadsNothing() throws IOException {
+        writeAdminLog("DayZServer_x64_2024-04-30_20-00-00.ADM", "previous run", STARTED_AT.minusSeconds(3600));
+        AdminLogTailer tailer = new AdminLogTailer(profilesDirectory, STARTED_AT, true);
+
+        assertThat(readLines(tailer)).isEmpty();
+    }
+
+    private void writeAdminLog(String name, String line, Instant modifiedAt) throws IOException {
+        Path adminLog = Files.writeString(profilesDirectory.resolve(name), line + "\n");
+        Files.setLastModifiedTime(adminLog, FileTime.from(modifiedAt));
+    }
+
+    private List<String> readLines(AdminLogTailer tailer) throws IOException {
+        List<String> lines = new ArrayList<>();
+        tailer.readNewLines(line -> lines.add(line.toString()));
+        return lines;
+    }
+}
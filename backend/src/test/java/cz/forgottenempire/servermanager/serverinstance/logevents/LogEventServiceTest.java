@@ -0,0 +1,56 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.serverinstance.LogFile;
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceService;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogEventServiceTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void processNewLogLines_whenServerOfProcessWasDeleted_thenLogsOfOtherServersAreProcessed() throws IOException {
+        ServerProcessRepository processRepository = new ServerProcessRepository();
+        ServerInstanceService serverInstanceService = mock(ServerInstanceService.class);
+        LogEventService logEventService = new LogEventService(true, processRepository, serverInstanceService,
+                new LogEventRepository(100), Clock.systemUTC(), 1, new ExecutorFactory(false));
+        processRepository.store(1L, runningProcess(1L));
+        processRepository.store(2L, runningProcess(2L));
+        when(serverInstanceService.getServer(1L)).thenReturn(Optional.empty());
+        Path logFile = Files.writeString(tempDir.resolve("server.log"),
+                "12:00:00 Player Benchmark connected (id=76561197960287930).\n");
+        Server server = mock(Server.class);
+        when(server.getId()).thenReturn(2L);
+        when(server.getType()).thenReturn(ServerType.ARMA3);
+        when(server.getLog()).thenReturn(new LogFile(logFile.toFile()));
+        when(serverInstanceService.getServer(2L)).thenReturn(Optional.of(server));
+
+        logEventService.processNewLogLines();
+
+        assertThat(logEventService.getCounters(2L)).containsEntry(LogEventType.PLAYER_CONNECTED, 1L);
+    }
+
+    private static ServerProcess runningProcess(long serverId) {
+        ServerProcess process = mock(ServerProcess.class);
+        when(process.getServerId()).thenReturn(serverId);
+        when(process.isAlive()).thenReturn(true);
+        return process;
+    }
+}
@@ -0,0 +1,159 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import cz.forgottenempire.servermanager.BenchmarkApplication;
+import cz.forgottenempire.servermanager.common.ExecutorFactory;
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3DifficultySettings;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3NetworkSettings;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcess;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerProcessRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static cz.forgottenempire.servermanager.BenchmarkApplication.percentile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures the latency of requests while the log event service follows the logs of many running servers. The servers
+ * are fake processes whose logs are appended by the benchmark, the service reads them on its follower threads as often
+ * as it manages rather than once a second. Run by the {@code benchmark} task, once with platform and once with virtual
+ * threads (Java 21 only):
+ * <pre>
+ * ./gradlew benchmark -Dbenchmark.threads.virtual=true -Dbenchmark.followers=1000
+ * </pre>
+ */
+@Tag("benchmark")
+class LogFollowLoadBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LogFollowLoadBenchmarkTest.class);
+    private static final int CLIENTS = 32;
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int MEASURED_REQUESTS = 5000;
+    private static final long APPEND_INTERVAL_MILLIS = 10;
+    private static final byte[] LOG_LINE = "12:00:00 Player Benchmark connected (id=76561197960287930).\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void requestLatencyUnderLogFollowLoad(@TempDir Path directory) throws Exception {
+        boolean virtualThreads = Boolean.getBoolean("benchmark.threads.virtual");
+        int followers = Integer.getInteger("benchmark.followers", 200);
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(directory,
+                "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            LogEventService logEventService = context.getBean(LogEventService.class);
+            List<Long> serverIds = startFakeServers(context, followers);
+            List<Path> logFiles = serverIds.stream()
+                    .map(serverId -> logFile(context, serverId))
+                    .toList();
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread appender = startAppender(logFiles, running);
+            Thread follower = startFollowing(logEventService, running);
+            long[] latencies;
+            try {
+                latencies = BenchmarkApplication.measureRequestLatency(context, "/", CLIENTS, WARMUP_REQUESTS,
+                        MEASURED_REQUESTS);
+            } finally {
+                running.set(false);
+                appender.join();
+                follower.join();
+            }
+
+            long events = serverIds.stream()
+                    .mapToLong(serverId -> logEventService.getCounters(serverId)
+                            .getOrDefault(LogEventType.PLAYER_CONNECTED, 0L))
+                    .sum();
+            log.info("{} followed logs on {} threads, {} events: p50 {} µs, p99 {} µs, max {} µs", followers,
+                    context.getBean(ExecutorFactory.class).isVirtualThreads() ? "virtual" : "platform", events,
+                    percentile(latencies, 0.5), percentile(latencies, 0.99), latencies[latencies.length - 1]);
+            assertThat(events).isPositive();
+        }
+    }
+
+    /**
+     * Stores the servers and registers running processes for them with empty logs.
+     */
+    private static List<Long> startFakeServers(ConfigurableApplicationContext context, int count) throws IOException {
+        ServerRepository serverRepository = context.getBean(ServerRepository.class);
+        ServerProcessRepository processRepository = context.getBean(ServerProcessRepository.class);
+        List<Long> serverIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long serverId = serverRepository.save(createServer(i)).getId();
+            Path logFile = logFile(context, serverId);
+            Files.createDirectories(logFile.getParent());
+            Files.createFile(logFile);
+
+            // stub only, the invocations from the follower threads are not recorded
+            ServerProcess process = mock(ServerProcess.class, withSettings().stubOnly());
+            when(process.getServerId()).thenReturn(serverId);
+            when(process.isAlive()).thenReturn(true);
+            processRepository.store(serverId, process);
+            serverIds.add(serverId);
+        }
+        return serverIds;
+    }
+
+    private static Path logFile(ConfigurableApplicationContext context, long serverId) {
+        return context.getBean(PathsFactory.class).getServerLogFile(ServerType.ARMA3, serverId).toPath();
+    }
+
+    private static Thread startFollowing(LogEventService logEventService, AtomicBoolean running) {
+        Thread follower = new Thread(() -> {
+            while (running.get()) {
+                logEventService.processNewLogLines();
+            }
+        }, "benchmark-follower");
+        follower.start();
+        return follower;
+    }
+
+    private static Thread startAppender(List<Path> logFiles, AtomicBoolean running) {
+        Thread appender = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    for (Path logFile : logFiles) {
+                        Files.write(logFile, LOG_LINE, StandardOpenOption.APPEND);
+                    }
+                    Thread.sleep(APPEND_INTERVAL_MILLIS);
+                }
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "benchmark-appender");
+        appender.start();
+        return appender;
+    }
+
+    private static Arma3Server createServer(int index) {
+        Arma3Server server = new Arma3Server();
+        server.setType(ServerType.ARMA3);
+        server.setName("Server " + index);
+        server.setPort(2302 + index * 10);
+        server.setQueryPort(server.getPort() + 1);
+        server.setMaxPlayers(64);
+        server.setActiveMods(new ArrayList<>());
+        server.setActiveDLCs(new ArrayList<>());
+        server.setDifficultySettings(new Arma3DifficultySettings());
+        server.setNetworkSettings(new Arma3NetworkSettings());
+        return server;
+    }
+}
@@ -0,0 +1,114 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import cz.forgottenempire.servermanager.common.ServerType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogPatternSetTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void match_whenArma3PlayerConnects_thenReturnsConnectedEvent() {
+        LogEvent event = match(ServerType.ARMA3, "12:00:00 Player John Doe connected (id=76561198000000000).");
+
+        assertThat(event.type()).isEqualTo(LogEventType.PLAYER_CONNECTED);
+        assertThat(event.subject()).isEqualTo("John Doe");
+        assertThat(event.timestamp()).isEqualTo(NOW);
+    }
+
+    @Test
+    void match_whenLineHasTimestamp_thenEventHasTimeFromLine() {
+        LogEvent event = match(ServerType.DAYZ, "11:42:07 | Player \"Survivor\" (id=AbCdEf=) is connected");
+
+        assertThat(event.timestamp()).isEqualTo(LocalDateTime.of(2024, 5, 1, 11, 42, 7));
+    }
+
+    @Test
+    void match_whenArma3PlayerDisconnects_thenReturnsDisconnectedEvent() {
+        LogEvent event = match(ServerType.ARMA3, "12:00:00 Player John Doe disconnected.");
+
+        assertThat(event.type()).isEqualTo(LogEventType.PLAYER_DISCONNECTED);
+        assertThat(event.subject()).isEqualTo("John Doe");
+    }
+
+    @Test
+    void match_whenArma3PlayerKickedByBattlEye_thenReturnsKickedEvent() {
+        LogEvent event = match(ServerType.ARMA3, "12:00:00 Player John kicked off by BattlEye: Admin Kick (spam)");
+
+        assertThat(event.type()).isEqualTo(LogEventType.PLAYER_KICKED);
+        assertThat(event.subject()).isEqualTo("John");
+    }
+
+    @Test
+    void match_whenArma3ScriptError_thenReturnsScriptErrorEvent() {
+        LogEvent event = match(ServerType.ARMA3, "12:00:00 Error in expression <_unit setDamage 1;>");
+
+        assertThat(event.type()).isEqualTo(LogEventType.SCRIPT_ERROR);
+        assertThat(event.line()).isEqualTo("12:00:00 Error in expression <_unit setDamage 1;>");
+    }
+
+    @Test
+    void match_whenBattlEyeMessage_thenReturnsBattlEyeEvent() {
+        LogEvent event = match(ServerType.ARMA3, "12:00:00 BattlEye Server: Initialized (v1.217)");
+
+        assertThat(event.type()).isEqualTo(LogEventType.BATTLEYE);
+        assertThat(event.subject()).isEqualTo("Initialized (v1.217)");
+    }
+
+    @Test
+    void match_whenDayZAdminLogPlayerConnects_thenReturnsConnectedEvent() {
+        LogEvent event = match(ServerType.DAYZ, "12:00:00 | Player \"Survivor\" (id=AbCdEf=) is connected");
+
+        assertThat(event.type()).isEqualTo(LogEventType.PLAYER_CONNECTED);
+        assertThat(event.subject()).isEqualTo("Survivor");
+    }
+
+    @Test
+    void match_whenDayZAdminLogPlayerDisconnects_thenReturnsDisconnectedEvent() {
+        LogEvent event = match(ServerType.DAYZ_EXP, "12:00:00 | Player \"Survivor\"(id=AbCdEf=) has been disconnected");
+
+        assertThat(event.type()).isEqualTo(LogEventType.PLAYER_DISCONNECTED);
+        assertThat(event.subject()).isEqualTo("Survivor");
+    }
+
+    @Test
+    void match_whenDayZScriptError_thenReturnsScriptErrorEvent() {
+        LogEvent event = match(ServerType.DAYZ, "SCRIPT    (E): NULL pointer to instance");
+
+        assertThat(event.type()).isEqualTo(LogEventType.SCRIPT_ERROR);
+        assertThat(event.subject()).isEqualTo("NULL pointer to instance");
+    }
+
+    @Test
+    void match_whenLineDoesNotMatch_thenReturnsNull() {
+        assertThat(match(ServerType.ARMA3, "12:00:00 Mission read.")).isNull();
+        assertThat(match(ServerType.ARMA3, "12:00:00 Player John connected")).isNull();
+        assertThat(match(ServerType.DAYZ, "12:00:00 Player John Doe connected (id=76561198000000000).")).isNull();
+    }
+
+    @Test
+    void match_whenReforger_thenHasNoPatterns() {
+        assertThat(LogPatternSet.forServerType(ServerType.REFORGER).isEmpty()).isTrue();
+    }
+
+    @Test
+    void match_whenCalledRepeatedly_thenReusesPatternsCorrectly() {
+        LogPatternSet patternSet = LogPatternSet.forServerType(ServerType.ARMA3);
+
+        LogEvent first = patternSet.match(new StringBuilder("Player A connected (id=1)."), NOW);
+        LogEvent unmatched = patternSet.match(new StringBuilder("Unrelated line"), NOW);
+        LogEvent second = patternSet.match(new StringBuilder("Player B disconnected."), NOW);
+
+        assertThat(first.subject()).isEqualTo("A");
+        assertThat(unmatched).isNull();
+        assertThat(second.subject()).isEqualTo("B");
+    }
+
+    private LogEvent match(ServerType serverType, String line) {
+        return LogPatternSet.forServerType(serverType).match(new StringBuilder(line), NOW);
+    }
+}
@@ -0,0 +1,80 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogTailerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readNewLines_whenNotFromStart_thenSkipsExistingContent() throws IOException {
+        Path file = tempDir.resolve("server.log");
+        Files.writeString(file, "old line\n");
+        LogTailer tailer = new LogTailer(file, false);
+        Files.writeString(file, "new line\n", StandardOpenOption.APPEND);
+
+        assertThat(readLines(tailer)).containsExactly("new line");
+    }
+
+    @Test
+    void readNewLines_whenStartedAtOffset_thenReadsFromOffset() throws IOException {
+        Path file = tempDir.resolve("server.log");
+        Files.writeString(file, "previous run\n");
+        long offset = Files.size(file);
+        Files.writeString(file, "written before first read\n", StandardOpenOption.APPEND);
+        LogTailer tailer = new LogTailer(file, offset);
+
+        assertThat(readLines(tailer)).containsExactly("written before first read");
+    }
+
+    @Test
+    void readNewLines_whenLineIncomplete_thenWaitsForLineEnd() throws IOException {
+        Path file = tempDir.resolve("server.log");
+        LogTailer tailer = new LogTailer(file, true);
+        Files.writeString(file, "first\r\nsecond part");
+
+        assertThat(readLines(tailer)).containsExactly("first");
+
+        Files.writeString(file, " continued\n", StandardOpenOption.APPEND);
+        assertThat(readLines(tailer)).containsExactly("second part continued");
+    }
+
+    @Test
+    void readNewLines_whenFileReplaced_thenReadsNewFileFromStart() throws IOException {
+        Path file = tempDir.resolve("server.log");
+        Files.writeString(file, "some longer old line\n");
+        LogTailer tailer = new LogTailer(file, false);
+
+        Files.move(file, tempDir.resolve("server.20240501-120000.log"));
+        Files.writeString(file, "rotated\n");
+
+        assertThat(readLines(tailer)).containsExactly("rotated");
+    }
+
+    @Test
+    void readNewLines_whenLineTooLong_thenTruncatesIt() throws IOException {
+        Path file = tempDir.resolve("server.log");
+        LogTailer tailer = new LogTailer(file, true);
+        Files.writeString(file, "x".repeat(LogTailer.MAX_LINE_LENGTH + 10) + "\n");
+
+        assertThat(readLines(tailer)).singleElement()
+                .satisfies(line -> assertThat(line).hasSize(LogTailer.MAX_LINE_LENGTH));
+    }
+
+    private List<String> readLines(LogTailer tailer) throws IOException {
+        List<String> lines = new ArrayList<>();
+        tailer.readNewLines(line -> lines.add(line.toString()));
+        return lines;
+    }
+}
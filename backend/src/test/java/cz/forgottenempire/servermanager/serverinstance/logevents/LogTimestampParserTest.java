@@ -0,0 +1,45 @@
+package cz.forgottenempire.servermanager.serverinstance.logevents;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogTimestampParserTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final LogTimestampParser parser = new LogTimestampParser();
+
+    @Test
+    void parse_whenLineStartsWithTime_thenReturnsTimeOfToday() {
+        assertThat(parser.parse(" 11:58:30 Player John connected (id=1).", NOW))
+                .isEqualTo(LocalDateTime.of(2024, 5, 1, 11, 58, 30));
+    }
+
+    @Test
+    void parse_whenLineHasMilliseconds_thenKeepsThem() {
+        assertThat(parser.parse("11:58:30.250 SCRIPT    (E): NULL pointer", NOW))
+                .isEqualTo(LocalDateTime.of(2024, 5, 1, 11, 58, 30, 250_000_000));
+    }
+
+    @Test
+    void parse_whenLineHasDate_thenReturnsDateFromLine() {
+        assertThat(parser.parse("2024/04/30, 23:59:59 Player John disconnected.", NOW))
+                .isEqualTo(LocalDateTime.of(2024, 4, 30, 23, 59, 59));
+    }
+
+    @Test
+    void parse_whenTimeIsAheadOfNow_thenReturnsTimeOfPreviousDay() {
+        LocalDateTime afterMidnight = LocalDateTime.of(2024, 5, 1, 0, 0, 1);
+
+        assertThat(parser.parse("23:59:58 | Player \"Survivor\" (id=A=) is connected", afterMidnight))
+                .isEqualTo(LocalDateTime.of(2024, 4, 30, 23, 59, 58));
+    }
+
+    @Test
+    void parse_whenLineHasNoTimestamp_thenReturnsNow() {
+        assertThat(parser.parse("SCRIPT    (E): NULL pointer to instance", NOW)).isEqualTo(NOW);
+    }
+}
@@ -0,0 +1,58 @@
+package cz.forgottenempire.servermanager.serverinstance.process;
+
+import cz.forgottenempire.servermanager.processtracking.ProcessTracker;
+import cz.forgottenempire.servermanager.serverinstance.ServerRepository;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.serverinstance.exceptions.PortAlreadyTakenException;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler.StartType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerProcessServiceTest {
+
+    private static final long SERVER_ID = 1L;
+
+    private ServerStartScheduler startScheduler;
+    private ServerPortValidator portValidator;
+    private ServerProcessService serverProcessService;
+    private ServerProcess process;
+    private Server server;
+
+    @BeforeEach
+    void setUp() {
+        startScheduler = mock(ServerStartScheduler.class);
+        portValidator = mock(ServerPortValidator.class);
+        ServerProcessRepository processRepository = new ServerProcessRepository();
+        serverProcessService = new ServerProcessService(mock(ServerRepository.class), processRepository,
+                mock(ServerProcessFactory.class), mock(ProcessTracker.class), startScheduler, portValidator);
+        process = mock(ServerProcess.class);
+        processRepository.store(SERVER_ID, process);
+        server = mock(Server.class);
+        when(server.getId()).thenReturn(SERVER_ID);
+    }
+
+    @Test
+    void startServer_whenPortsAreFree_thenStartIsQueued() {
+        serverProcessService.startServer(server);
+
+        verify(portValidator).validatePortsNotTaken(SERVER_ID);
+        verify(startScheduler).submit(process, StartType.START);
+    }
+
+    @Test
+    void startServer_whenPortsAreTaken_thenCallerGetsErrorAndStartIsNotQueued() {
+        doThrow(new PortAlreadyTakenException("Port conflict")).when(portValidator).validatePortsNotTaken(SERVER_ID);
+
+        assertThatThrownBy(() -> serverProcessService.startServer(server))
+                .isInstanceOf(PortAlreadyTakenException.class);
+        verify(startScheduler, never()).submit(any(), any());
+    }
+}
@@ -1,7 +1,14 @@
 package cz.forgottenempire.servermanager.serverinstance.process;
 
+import cz.forgottenempire.servermanager.cgroup.CgroupService;
 import cz.forgottenempire.servermanager.common.PathsFactory;
 import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacement;
+import cz.forgottenempire.servermanager.cpuplacement.ProcessPlacementService;
+import cz.forgottenempire.servermanager.processtracking.ProcessTracker;
+import cz.forgottenempire.servermanager.processtracking.ReattachableProcess;
+import cz.forgottenempire.servermanager.processtracking.TrackedProcessType;
+import cz.forgottenempire.servermanager.serverinstance.ConfigRenderer;
 import cz.forgottenempire.servermanager.serverinstance.ServerConfig;
 import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
 import cz.forgottenempire.servermanager.serverinstance.LogFile;
@@ -15,9 +22,11 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 class ServerProcessTest {
@@ -32,6 +41,11 @@ class ServerProcessTest {
     private File executable;
     private ServerProcessCreator processCreator;
     private Process process;
+    private CompletableFuture<Process> processExit;
+    private ProcessTracker processTracker;
+    private ProcessPlacementService placementService;
+    private ProcessPlacement placement;
+    private ConfigRenderer configRenderer;
 
     @BeforeEach
     void setUp() throws IOException {
@@ -48,12 +62,24 @@ class ServerProcessTest {
         when(pathsFactory.getServerExecutableWithFallback(ServerType.ARMA3)).thenReturn(executable);
         processCreator = mock(ServerProcessCreator.class);
         process = mock(Process.class);
-        when(processCreator.startProcessWithRedirectedOutput(any(), any(), any())).thenReturn(process);
+        processExit = new CompletableFuture<>();
+        when(process.onExit()).thenReturn(processExit);
+        when(processCreator.startProcessWithRedirectedOutput(any(), any(), any(), any())).thenReturn(process);
+        placementService = mock(ProcessPlacementService.class);
+        placement = ProcessPlacement.none("Server ID " + SERVER_ID);
+        when(placementService.placeServer(anyLong(), any())).thenReturn(placement);
+        when(placementService.placeReattachedServer(anyLong(), any(), anyLong())).thenReturn(placement);
 
         serverProcess = new ServerProcess(SERVER_ID);
         serverProcess.setServerProcessCreator(processCreator);
         serverProcess.setServerRepository(serverRepository);
         serverProcess.setPathsFactory(pathsFactory);
+        processTracker = mock(ProcessTracker.class);
+        serverProcess.setProcessTracker(processTracker);
+        serverProcess.setProcessPlacementService(placementService);
+        serverProcess.setCgroupService(mock(CgroupService.class));
+        configRenderer = mock(ConfigRenderer.class);
+        serverProcess.setConfigRenderer(configRenderer);
     }
 
     @Test
@@ -69,7 +95,7 @@ class ServerProcessTest {
         Process actualProcess = serverProcess.start();
 
         assertThat(actualProcess).isEqualTo(process);
-        verify(processCreator).startProcessWithRedirectedOutput(executable, parameters, file);
+        verify(processCreator).startProcessWithRedirectedOutput(executable, parameters, file, placement);
     }
 
     @Test
@@ -80,8 +106,8 @@ class ServerProcessTest {
 
         serverProcess.start();
 
-        verify(config1).generateIfNecessary();
-        verify(config2).generateIfNecessary();
+        verify(configRenderer).renderToFile(config1);
+        verify(configRenderer).renderToFile(config2);
     }
 
     @Test
@@ -93,7 +119,7 @@ class ServerProcessTest {
 
     @Test
     void start_whenServerFailsToStart_thenNullIsReturned() throws IOException {
-        when(processCreator.startProcessWithRedirectedOutput(any(), any(), any())).thenThrow(IOException.class);
+        when(processCreator.startProcessWithRedirectedOutput(any(), any(), any(), any())).thenThrow(IOException.class);
 
         Process actualProcess = serverProcess.start();
 
@@ -104,7 +130,7 @@ class ServerProcessTest {
     @Test
     void start_whenServerIsAlreadyRunning_thenExistingProcessIsReturned() throws IOException {
         serverProcess.start();
-        verify(processCreator).startProcessWithRedirectedOutput(any(), any(), any());
+        verify(processCreator).startProcessWithRedirectedOutput(any(), any(), any(), any());
         when(process.isAlive()).thenReturn(true);
 
         Process actualProcess = serverProcess.start();
@@ -134,6 +160,7 @@ class ServerProcessTest {
     void stop_whenProcessIsNotAlive_thenNoActionIsTaken() {
         serverProcess.start();
         verify(process).pid();
+        verify(process).onExit();
         when(process.isAlive()).thenReturn(false);
 
         verifyNoMoreInteractions(process);
@@ -184,4 +211,98 @@ class ServerProcessTest {
         assertThat(instanceInfo.getStartedAt()).isNull();
         assertThat(instanceInfo.getMaxPlayers()).isZero();
     }
-}
\ No newline at end of file
+
+    @Test
+    void onExit_whenProcessExitsUnexpectedly_thenInstanceInfoIsReset() {
+        serverProcess.start();
+
+        processExit.complete(process);
+
+        assertThat(serverProcess.getInstanceInfo().isAlive()).isFalse();
+    }
+
+    @Test
+    void onExit_whenProcessWasReplacedByNewOne_thenNewInstanceInfoIsKept() throws IOException {
+        when(process.pid()).thenReturn(1234L);
+        serverProcess.start();
+        serverProcess.stop();
+        Process newProcess = mock(Process.class);
+        when(newProcess.pid()).thenReturn(5678L);
+        when(newProcess.onExit()).thenReturn(new CompletableFuture<>());
+        when(processCreator.startProcessWithRedirectedOutput(any(), any(), any(), any())).thenReturn(newProcess);
+        serverProcess.start();
+
+        processExit.complete(process);
+
+        assertThat(serverProcess.getInstanceInfo().isAlive()).isTrue();
+    }
+
+    @Test
+    void start_whenServerIsStarted_thenProcessIsTracked() {
+        when(process.pid()).thenReturn(1234L);
+
+        serverProcess.start();
+
+        verify(processTracker).track(TrackedProcessType.SERVER, SERVER_ID, 1234L,
+                serverProcess.getInstanceInfo().getStartedAt(), true);
+    }
+
+    @Test
+    void reattach_whenServerIsNotRunning_thenReattachedProcessIsUsed() {
+        when(server.getMaxPlayers()).thenReturn(MAX_PLAYERS);
+        ProcessHandle handle = mock(ProcessHandle.class);
+        when(handle.isAlive()).thenReturn(true);
+        when(handle.pid()).thenReturn(1234L);
+        when(handle.onExit()).thenReturn(new CompletableFuture<>());
+        LocalDateTime startedAt = LocalDateTime.now().minusHours(1);
+
+        boolean reattached = serverProcess.reattach(new ReattachableProcess(SERVER_ID, handle, startedAt, 0));
+
+        assertThat(reattached).isTrue();
+        assertThat(serverProcess.isAlive()).isTrue();
+        assertThat(serverProcess.getPid()).isEqualTo(1234L);
+        assertThat(serverProcess.getInstanceInfo().getStartedAt()).isEqualTo(startedAt);
+        assertThat(serverProcess.getInstanceInfo().getMaxPlayers()).isEqualTo(MAX_PLAYERS);
+    }
+
+    @Test
+    void stop_whenServerIsReattached_thenReattachedProcessIsDestroyedAndUntracked() {
+        ProcessHandle handle = mock(ProcessHandle.class);
+        when(handle.isAlive()).thenReturn(true);
+        when(handle.onExit()).thenReturn(new CompletableFuture<>());
+        serverProcess.reattach(new ReattachableProcess(SERVER_ID, handle, LocalDateTime.now(), 0));
+
+        serverProcess.stop();
+
+        verify(handle).destroy();
+        verify(processTracker).untrack(TrackedProcessType.SERVER, SERVER_ID);
+    }
+
+    @Test
+    void onExit_whenReattachedProcessExits_thenInstanceInfoIsReset() {
+        ProcessHandle handle = mock(ProcessHandle.class);
+        CompletableFuture<ProcessHandle> handleExit = new CompletableFuture<>();
+        when(handle.onExit()).thenReturn(handleExit);
+        serverProcess.reattach(new ReattachableProcess(SERVER_ID, handle, LocalDateTime.now(), 0));
+
+        handleExit.complete(handle);
+
+        assertThat(serverProcess.getInstanceInfo().isAlive()).isFalse();
+    }
+
+    @Test
+    void reattach_whenServerIsPlaced_thenPlacementIsRecordedAndReleasedOnExit() {
+        ProcessHandle handle = mock(ProcessHandle.class);
+        when(handle.pid()).thenReturn(1234L);
+        CompletableFuture<ProcessHandle> handleExit = new CompletableFuture<>();
+        when(handle.onExit()).thenReturn(handleExit);
+        serverProcess.reattach(new ReattachableProcess(SERVER_ID, handle, LocalDateTime.now(), 0));
+
+        verify(placementService).placeReattachedServer(SERVER_ID, server.getCpuPlacementSettings(), 1234L);
+        verify(placementService, never()).release(placement);
+
+        handleExit.complete(handle);
+
+        verify(placementService).release(placement);
+    }
+}
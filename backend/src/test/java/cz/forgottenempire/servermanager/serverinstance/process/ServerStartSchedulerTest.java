@@ -0,0 +1,205 @@
+package cz.forgottenempire.servermanager.serverinstance.process;
+
+import cz.forgottenempire.servermanager.serverinstance.ServerInstanceInfo;
+import cz.forgottenempire.servermanager.serverinstance.exceptions.PortAlreadyTakenException;
+import cz.forgottenempire.servermanager.serverinstance.process.ServerStartScheduler.StartType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerStartSchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T06:00:00Z");
+
+    private final ServerPortValidator portValidator = mock(ServerPortValidator.class);
+    private ServerStartScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ServerStartScheduler(2, Duration.ofSeconds(30), Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneId.systemDefault()), portValidator, Runnable::run);
+    }
+
+    @Test
+    void dispatch_whenSeveralServersAreQueued_thenStartsAreStaggered() {
+        ServerProcess first = process(1);
+        ServerProcess second = process(2);
+        scheduler.submit(first, StartType.RESTART);
+        scheduler.submit(second, StartType.RESTART);
+
+        scheduler.dispatch(NOW);
+        scheduler.dispatch(NOW.plusSeconds(29));
+
+        verify(first).restart();
+        verify(second, never()).restart();
+
+        scheduler.dispatch(NOW.plusSeconds(30));
+
+        verify(second).restart();
+    }
+
+    @Test
+    void dispatch_whenMaxConcurrentStartsAreBooting_thenNextStartWaitsForReadiness() {
+        ServerProcess first = process(1);
+        ServerProcess second = process(2);
+        ServerProcess third = process(3);
+        scheduler.submit(first, StartType.START);
+        scheduler.submit(second, StartType.START);
+        scheduler.submit(third, StartType.START);
+        scheduler.dispatch(NOW);
+        scheduler.dispatch(NOW.plusSeconds(30));
+
+        scheduler.dispatch(NOW.plusSeconds(60));
+        verify(third, never()).start();
+
+        first.getInstanceInfo().setLastResponseAt(LocalDateTime.now());
+        scheduler.dispatch(NOW.plusSeconds(70));
+
+        verify(third).start();
+    }
+
+    @Test
+    void dispatch_whenBootingServerExits_thenItsSlotIsReleased() {
+        scheduler = new ServerStartScheduler(1, Duration.ZERO, Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneId.systemDefault()), portValidator, Runnable::run);
+        ServerProcess first = process(1);
+        ServerProcess second = process(2);
+        scheduler.submit(first, StartType.START);
+        scheduler.submit(second, StartType.START);
+        scheduler.dispatch(NOW);
+
+        when(first.isAlive()).thenReturn(false);
+        scheduler.dispatch(NOW.plusSeconds(1));
+
+        verify(second).start();
+    }
+
+    @Test
+    void dispatch_whenServerDoesNotRespondWithinTimeout_thenNextServerIsStarted() {
+        scheduler = new ServerStartScheduler(1, Duration.ZERO, Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneId.systemDefault()), portValidator, Runnable::run);
+        ServerProcess first = process(1);
+        ServerProcess second = process(2);
+        scheduler.submit(first, StartType.START);
+        scheduler.submit(second, StartType.START);
+        scheduler.dispatch(NOW);
+
+        scheduler.dispatch(NOW.plusSeconds(299));
+        verify(second, never()).start();
+
+        scheduler.dispatch(NOW.plusSeconds(300));
+        verify(second).start();
+    }
+
+    @Test
+    void dispatch_whenPortsAreTaken_thenServerIsNotStartedAndSlotIsReleased() {
+        scheduler = new ServerStartScheduler(1, Duration.ZERO, Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneId.systemDefault()), portValidator, Runnable::run);
+        ServerProcess first = process(1);
+        ServerProcess second = process(2);
+        doThrow(new PortAlreadyTakenException("Port conflict")).when(portValidator).validatePortsNotTaken(1);
+        scheduler.submit(first, StartType.START);
+        scheduler.submit(second, StartType.START);
+
+        scheduler.dispatch(NOW);
+        scheduler.dispatch(NOW.plusSeconds(1));
+
+        verify(first, never()).start();
+        verify(second).start();
+    }
+
+    @Test
+    void dispatch_whenStartIsStillRunning_thenSlotIsKept() {
+        List<Runnable> startTasks = new ArrayList<>();
+        scheduler = new ServerStartScheduler(1, Duration.ZERO, Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneId.systemDefault()), portValidator, startTasks::add);
+        ServerProcess first = process(1);
+        when(first.isAlive()).thenReturn(false);
+        ServerProcess second = process(2);
+        scheduler.submit(first, StartType.RESTART);
+        scheduler.submit(second, StartType.START);
+
+        scheduler.dispatch(NOW);
+        scheduler.dispatch(NOW.plusSeconds(1));
+
+        assertThat(startTasks).hasSize(1);
+        verify(first, never()).restart();
+        startTasks.get(0).run();
+        verify(first).restart();
+    }
+
+    @Test
+    void submit_whenServerIsAlreadyQueued_thenRequestIsIgnored() {
+        ServerProcess process = process(1);
+
+        assertThat(scheduler.submit(process, StartType.START)).isTrue();
+        assertThat(scheduler.submit(process, StartType.RESTART)).isFalse();
+
+        assertThat(scheduler.getStatus()).singleElement()
+                .satisfies(status -> assertThat(status.type()).isEqualTo(StartType.START));
+    }
+
+    @Test
+    void cancel_whenServerIsQueued_thenItIsNotStarted() {
+        ServerProcess process = process(1);
+        scheduler.submit(process, StartType.START);
+
+        scheduler.cancel(1);
+        scheduler.dispatch(NOW);
+
+        verify(process, never()).start();
+        assertThat(scheduler.getStatus()).isEmpty();
+    }
+
+    @Test
+    void shutDown_whenServersAreQueued_thenNoServerIsStarted() {
+        ServerProcess queued = process(1);
+        scheduler.submit(queued, StartType.START);
+
+        scheduler.shutDown();
+        ServerProcess submittedLater = process(2);
+        assertThat(scheduler.submit(submittedLater, StartType.START)).isFalse();
+        scheduler.dispatch(NOW);
+
+        verify(queued, never()).start();
+        verify(submittedLater, never()).start();
+    }
+
+    @Test
+    void getStatus_whenServersAreBootingAndQueued_thenBothAreReported() {
+        scheduler.submit(process(1), StartType.START);
+        scheduler.submit(process(2), StartType.FORCED_RESTART);
+        scheduler.dispatch(NOW);
+
+        assertThat(scheduler.getStatus())
+                .extracting(ServerStartStatus::serverId, ServerStartStatus::state)
+                .containsExactly(
+                        tuple(1L, ServerStartStatus.State.BOOTING),
+                        tuple(2L, ServerStartStatus.State.QUEUED));
+    }
+
+    private static ServerProcess process(long serverId) {
+        ServerProcess process = mock(ServerProcess.class);
+        when(process.getServerId()).thenReturn(serverId);
+        when(process.isAlive()).thenReturn(true);
+        when(process.getInstanceInfo()).thenReturn(ServerInstanceInfo.builder()
+                .startedAt(LocalDateTime.now())
+                .build());
+        return process;
+    }
+}
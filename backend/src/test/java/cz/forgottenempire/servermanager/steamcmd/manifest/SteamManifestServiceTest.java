@@ -0,0 +1,120 @@
+package cz.forgottenempire.servermanager.steamcmd.manifest;
+
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SteamManifestServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private Path appManifest;
+    private Path workshopManifest;
+    private SteamManifestService manifestService;
+
+    @BeforeEach
+    void setUp() {
+        appManifest = directory.resolve("appmanifest_233780.acf");
+        workshopManifest = directory.resolve("appworkshop_107410.acf");
+        PathsFactory pathsFactory = mock(PathsFactory.class);
+        when(pathsFactory.getAppManifestPath(ServerType.ARMA3)).thenReturn(appManifest);
+        when(pathsFactory.getWorkshopManifestPath(ServerType.ARMA3)).thenReturn(workshopManifest);
+        manifestService = new SteamManifestService(pathsFactory);
+    }
+
+    @Test
+    void getAppManifest_whenManifestExists_thenBuildIsRead() throws IOException {
+        Files.writeString(appManifest, appManifest(14387420));
+
+        AppManifest manifest = manifestService.getAppManifest(ServerType.ARMA3).orElseThrow();
+
+        assertThat(manifest.appId()).isEqualTo(233780L);
+        assertThat(manifest.buildId()).isEqualTo(14387420L);
+        assertThat(manifest.sizeOnDisk()).isEqualTo(8123456789L);
+        assertThat(manifest.lastUpdated()).isEqualTo(Instant.ofEpochSecond(1714550400));
+        assertThat(manifest.betaKey()).isEqualTo("creatordlc");
+    }
+
+    @Test
+    void getAppManifest_whenManifestChanges_thenItIsReadAgain() throws IOException {
+        Files.writeString(appManifest, appManifest(1));
+        assertThat(manifestService.getAppManifest(ServerType.ARMA3)).get()
+                .extracting(AppManifest::buildId)
+                .isEqualTo(1L);
+
+        Files.writeString(appManifest, appManifest(22));
+        Files.setLastModifiedTime(appManifest, FileTime.from(Instant.now().plusSeconds(10)));
+
+        assertThat(manifestService.getAppManifest(ServerType.ARMA3)).get()
+                .extracting(AppManifest::buildId)
+                .isEqualTo(22L);
+    }
+
+    @Test
+    void getAppManifest_whenManifestIsMissingOrInvalid_thenEmptyIsReturned() throws IOException {
+        assertThat(manifestService.getAppManifest(ServerType.ARMA3)).isEmpty();
+
+        Files.writeString(appManifest, "\"AppState\" {");
+
+        assertThat(manifestService.getAppManifest(ServerType.ARMA3)).isEmpty();
+    }
+
+    @Test
+    void getWorkshopItems_whenManifestExists_thenInstalledItemsAreRead() throws IOException {
+        Files.writeString(workshopManifest, """
+                "AppWorkshop"
+                {
+                	"appid"		"107410"
+                	"WorkshopItemsInstalled"
+                	{
+                		"450814997"
+                		{
+                			"size"		"8420544"
+                			"timeupdated"		"1714550400"
+                			"manifest"		"5105931040785010203"
+                		}
+                		"463939057"
+                		{
+                			"size"		"361297126"
+                			"timeupdated"		"1700000000"
+                			"manifest"		"1234"
+                		}
+                	}
+                }
+                """);
+
+        assertThat(manifestService.getWorkshopItems(ServerType.ARMA3)).containsOnlyKeys(450814997L, 463939057L);
+        assertThat(manifestService.getWorkshopItem(ServerType.ARMA3, 450814997L)).contains(new WorkshopItemManifest(
+                450814997L, 8420544L, Instant.ofEpochSecond(1714550400), "5105931040785010203"));
+        assertThat(manifestService.getWorkshopItem(ServerType.ARMA3, 1L)).isEmpty();
+    }
+
+    private static String appManifest(long buildId) {
+        return """
+                "AppState"
+                {
+                	"appid"		"233780"
+                	"LastUpdated"		"1714550400"
+                	"SizeOnDisk"		"8123456789"
+                	"buildid"		"%d"
+                	"UserConfig"
+                	{
+                		"BetaKey"		"creatordlc"
+                	}
+                }
+                """.formatted(buildId);
+    }
+}
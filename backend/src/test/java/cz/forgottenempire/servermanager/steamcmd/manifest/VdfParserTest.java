@@ -0,0 +1,66 @@
+package cz.forgottenempire.servermanager.steamcmd.manifest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VdfParserTest {
+
+    @Test
+    void parse_whenInputIsAppManifest_thenNestedValuesAreRead() {
+        String manifest = """
+                "AppState"
+                {
+                	"appid"		"233780"
+                	"name"		"Arma 3 Server"
+                	"buildid"		"14387420"
+                	"installdir"		"C:\\\\Servers\\\\Arma 3"
+                	"UserConfig"
+                	{
+                		"BetaKey"		"creatordlc"
+                	}
+                }
+                """;
+
+        VdfObject appState = VdfParser.parse(manifest).getObject("AppState").orElseThrow();
+
+        assertThat(appState.getLong("appid")).hasValue(233780L);
+        assertThat(appState.getString("installdir")).hasValue("C:\\Servers\\Arma 3");
+        assertThat(appState.getObject("UserConfig").flatMap(config -> config.getString("betakey")))
+                .hasValue("creatordlc");
+    }
+
+    @Test
+    void parse_whenKeysDifferInCase_thenTheyAreFound() {
+        VdfObject object = VdfParser.parse("\"BuildID\" \"42\"");
+
+        assertThat(object.getLong("buildid")).hasValue(42L);
+    }
+
+    @Test
+    void parse_whenInputHasCommentsConditionsAndUnquotedTokens_thenTheyAreHandled() {
+        String input = """
+                // written by hand
+                root
+                {
+                	key value [$WIN32]
+                	"empty"	""
+                }
+                """;
+
+        VdfObject root = VdfParser.parse(input).getObject("root").orElseThrow();
+
+        assertThat(root.getString("key")).hasValue("value");
+        assertThat(root.getString("empty")).hasValue("");
+        assertThat(root.getLong("key")).isEmpty();
+    }
+
+    @Test
+    void parse_whenBraceIsNotClosed_thenExceptionIsThrown() {
+        assertThatThrownBy(() -> VdfParser.parse("\"AppState\" { \"appid\" \"1\""))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VdfParser.parse("\"key\" }"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
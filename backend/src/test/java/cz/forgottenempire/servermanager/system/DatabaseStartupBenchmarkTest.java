@@ -0,0 +1,69 @@
+package cz.forgottenempire.servermanager.system;
+
+import cz.forgottenempire.servermanager.BenchmarkApplication;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the time to ready of the whole application started with a fresh embedded and MySQL database, including
+ * the migrations. Run by the {@code benchmark} task, MySQL is measured only when its connection is given:
+ * <pre>
+ * ./gradlew benchmark -Dbenchmark.mysql.url=jdbc:mysql://localhost:3306/benchmark \
+ *     -Dbenchmark.mysql.username=root -Dbenchmark.mysql.password=secret
+ * </pre>
+ * The MySQL database is cleaned before the start, so it must not be the database of an installation.
+ */
+@Tag("benchmark")
+class DatabaseStartupBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseStartupBenchmarkTest.class);
+
+    @Test
+    void startApplication_withEmbeddedAndMysqlDatabase(@TempDir Path directory) throws IOException {
+        // the first start in the JVM loads the classes, it would favour the database measured second
+        startApplication(directory, "warm-up");
+        StartupMetricsDto embedded = startApplication(directory, "h2");
+        assertThat(embedded.getTimeToReadyMillis()).isPositive();
+
+        String url = System.getProperty("benchmark.mysql.url");
+        if (url == null) {
+            log.info("mysql: not measured, benchmark.mysql.url is not set");
+            return;
+        }
+        String username = System.getProperty("benchmark.mysql.username");
+        String password = System.getProperty("benchmark.mysql.password");
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .locations("classpath:db/migration/mysql")
+                .cleanDisabled(false)
+                .load()
+                .clean();
+        StartupMetricsDto mysql = startApplication(directory, "mysql",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver");
+        assertThat(mysql.getTimeToReadyMillis()).isPositive();
+    }
+
+    private static StartupMetricsDto startApplication(Path directory, String database, String... args)
+            throws IOException {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(directory, args)) {
+            StartupMetricsDto metrics = context.getBean(StartupMetrics.class).getMetrics();
+            log.info("{}: ready after {} ms", database, metrics.getTimeToReadyMillis());
+            metrics.getPhases().forEach(phase ->
+                    log.info("{}: {}: {} ms", database, phase.name(), phase.durationMillis()));
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cz.forgottenempire.servermanager.system;
+
+import cz.forgottenempire.servermanager.BenchmarkApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the whole application with the embedded database (see {@link BenchmarkApplication}) and reports the time to
+ * ready and to the first request served, phase by phase. Run by the {@code benchmark} task, which starts a new JVM, so the class loading is measured
+ * as well. The fast start mode is measured with {@code -Dbenchmark.startup.lazy=true}, AOT and the CDS archive only
+ * apply to the packaged application, whose phases are available at {@code /api/system/startup}.
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmarkTest.class);
+
+    @Test
+    void startApplication(@TempDir Path directory) throws IOException, InterruptedException {
+        boolean lazyInitialization = Boolean.getBoolean("benchmark.startup.lazy");
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(directory,
+                "--spring.main.lazy-initialization=" + lazyInitialization)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+
+            StartupMetricsDto metrics = context.getBean(StartupMetrics.class).getMetrics();
+            log.info("Lazy initialization {}: ready after {} ms, first request served after {} ms",
+                    lazyInitialization, metrics.getTimeToReadyMillis(), metrics.getTimeToFirstRequestMillis());
+            metrics.getPhases().forEach(phase ->
+                    log.info("{}: {} ms (started at {} ms)", phase.name(), phase.durationMillis(), phase.startMillis()));
+
+            assertThat(metrics.getTimeToReadyMillis()).isPositive();
+            assertThat(metrics.getPhases()).extracting(StartupPhaseDto::name)
+                    .contains("Context refresh", "Flyway migrations", "Hibernate");
+        }
+    }
+}
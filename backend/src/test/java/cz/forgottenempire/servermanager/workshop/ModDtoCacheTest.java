@@ -0,0 +1,107 @@
+package cz.forgottenempire.servermanager.workshop;
+
+import cz.forgottenempire.servermanager.common.InstallationStatus;
+import cz.forgottenempire.servermanager.common.ServerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModDtoCacheTest {
+
+    private final Map<Long, WorkshopMod> database = new TreeMap<>();
+    private final List<Collection<Long>> loadedIds = new ArrayList<>();
+    private int allModsLoadCount;
+    private ModDtoCache modDtoCache;
+
+    @BeforeEach
+    void setUp() {
+        modDtoCache = new ModDtoCache(new CaffeineCacheManager());
+        for (long id = 1; id <= 3; id++) {
+            database.put(id, mod(id, InstallationStatus.FINISHED));
+        }
+    }
+
+    @Test
+    void getAll_whenNothingChanged_thenModsAreNotLoadedAgain() {
+        getAll();
+        List<ModDto> modDtos = getAll();
+
+        assertThat(modDtos).extracting(ModDto::getId).containsExactly(1L, 2L, 3L);
+        assertThat(allModsLoadCount).isEqualTo(1);
+        assertThat(loadedIds).isEmpty();
+    }
+
+    @Test
+    void getAll_whenModIsSaved_thenOnlyThatModIsLoadedAgain() {
+        getAll();
+        WorkshopMod savedMod = mod(2L, InstallationStatus.INSTALLATION_IN_PROGRESS);
+        database.put(2L, savedMod);
+
+        modDtoCache.evictSavedMods(List.of(2L));
+        List<ModDto> modDtos = getAll();
+
+        assertThat(modDtos).extracting(ModDto::getId).containsExactly(1L, 2L, 3L);
+        assertThat(modDtos.get(1).getInstallationStatus())
+                .isEqualTo(InstallationStatus.INSTALLATION_IN_PROGRESS.toString());
+        assertThat(allModsLoadCount).isEqualTo(1);
+        assertThat(loadedIds).containsExactly(List.of(2L));
+    }
+
+    @Test
+    void getAll_whenModIsAddedOrDeleted_thenAllModsAreLoadedAgain() {
+        getAll();
+        WorkshopMod newMod = mod(4L, InstallationStatus.INSTALLATION_IN_PROGRESS);
+        database.put(4L, newMod);
+        modDtoCache.evictSavedMods(List.of(4L));
+
+        assertThat(getAll()).extracting(ModDto::getId).containsExactly(1L, 2L, 3L, 4L);
+
+        database.remove(1L);
+        modDtoCache.evictDeletedMods(List.of(1L));
+
+        assertThat(getAll()).extracting(ModDto::getId).containsExactly(2L, 3L, 4L);
+        assertThat(allModsLoadCount).isEqualTo(3);
+    }
+
+    @Test
+    void getAll_whenModIsSavedWhileLoading_thenLoadedModsAreNotCached() {
+        modDtoCache.getAll(() -> {
+            modDtoCache.evictSavedMods(List.of(1L));
+            return loadAll();
+        }, this::load);
+
+        getAll();
+
+        assertThat(allModsLoadCount).isEqualTo(2);
+    }
+
+    private List<ModDto> getAll() {
+        return modDtoCache.getAll(this::loadAll, this::load);
+    }
+
+    private Collection<WorkshopMod> loadAll() {
+        allModsLoadCount++;
+        return new ArrayList<>(database.values());
+    }
+
+    private Collection<WorkshopMod> load(Collection<Long> ids) {
+        loadedIds.add(List.copyOf(ids));
+        return ids.stream().map(database::get).toList();
+    }
+
+    private static WorkshopMod mod(long id, InstallationStatus installationStatus) {
+        WorkshopMod mod = new WorkshopMod(id);
+        mod.setName("Mod " + id);
+        mod.setServerType(ServerType.ARMA3);
+        mod.setInstallationStatus(installationStatus);
+        return mod;
+    }
+}
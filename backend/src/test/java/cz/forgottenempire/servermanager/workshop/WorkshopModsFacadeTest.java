@@ -0,0 +1,98 @@
+package cz.forgottenempire.servermanager.workshop;
+
+import cz.forgottenempire.servermanager.common.InstallationStatus;
+import cz.forgottenempire.servermanager.installation.ServerInstallationService;
+import cz.forgottenempire.servermanager.workshop.metadata.ModMetadata;
+import cz.forgottenempire.servermanager.workshop.metadata.ModMetadataService;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkshopModsFacadeTest {
+
+    private static final Instant INSTALLED_VERSION = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Test
+    void isUpdateAvailable_whenWorkshopHasNewerVersion_thenTrue() {
+        WorkshopMod mod = mod(InstallationStatus.FINISHED, INSTALLED_VERSION);
+
+        assertThat(WorkshopModsFacade.isUpdateAvailable(mod, metadata(INSTALLED_VERSION.plusSeconds(60)))).isTrue();
+    }
+
+    @Test
+    void isUpdateAvailable_whenVersionIsUnchanged_thenFalse() {
+        WorkshopMod mod = mod(InstallationStatus.FINISHED, INSTALLED_VERSION);
+
+        assertThat(WorkshopModsFacade.isUpdateAvailable(mod, metadata(INSTALLED_VERSION))).isFalse();
+    }
+
+    @Test
+    void isUpdateAvailable_whenInstallationFailedAndVersionIsUnchanged_thenFalse() {
+        WorkshopMod mod = mod(InstallationStatus.ERROR, INSTALLED_VERSION);
+
+        assertThat(WorkshopModsFacade.isUpdateAvailable(mod, metadata(INSTALLED_VERSION))).isFalse();
+        assertThat(WorkshopModsFacade.isUpdateAvailable(mod, metadata(INSTALLED_VERSION.plusSeconds(60)))).isTrue();
+    }
+
+    @Test
+    void isUpdateAvailable_whenInstallationIsInProgress_thenFalse() {
+        WorkshopMod mod = mod(InstallationStatus.INSTALLATION_IN_PROGRESS, INSTALLED_VERSION);
+
+        assertThat(WorkshopModsFacade.isUpdateAvailable(mod, metadata(INSTALLED_VERSION.plusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void isUpdateAvailable_whenWorkshopDoesNotTellVersion_thenFalse() {
+        WorkshopMod mod = mod(InstallationStatus.FINISHED, INSTALLED_VERSION);
+
+        assertThat(WorkshopModsFacade.isUpdateAvailable(mod, metadata(null))).isFalse();
+    }
+
+    @Test
+    void uninstallMods_whenInTransaction_thenFilesAreRemovedAfterCommit() {
+        WorkshopModsService modsService = mock(WorkshopModsService.class);
+        WorkshopInstallerService installerService = mock(WorkshopInstallerService.class);
+        WorkshopModsFacade facade = new WorkshopModsFacade(modsService, installerService,
+                mock(ModMetadataService.class), mock(ServerInstallationService.class), mock(ModDtoCache.class));
+        WorkshopMod mod = new WorkshopMod(1L);
+        when(modsService.getModsWithBiKeys(List.of(1L))).thenReturn(List.of(mod));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            facade.uninstallMods(List.of(1L));
+
+            verify(modsService).deleteMods(List.of(mod));
+            verify(installerService, never()).uninstallMod(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        InOrder inOrder = inOrder(modsService, installerService);
+        inOrder.verify(modsService).deleteMods(List.of(mod));
+        inOrder.verify(installerService).uninstallMod(mod);
+    }
+
+    private static WorkshopMod mod(InstallationStatus installationStatus, Instant workshopTimeUpdated) {
+        WorkshopMod mod = new WorkshopMod(1L);
+        mod.setInstallationStatus(installationStatus);
+        mod.setWorkshopTimeUpdated(workshopTimeUpdated);
+        return mod;
+    }
+
+    private static ModMetadata metadata(Instant timeUpdated) {
+        return new ModMetadata("Mod", "107410", timeUpdated);
+    }
+}
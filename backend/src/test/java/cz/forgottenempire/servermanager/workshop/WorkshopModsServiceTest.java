@@ -0,0 +1,119 @@
+package cz.forgottenempire.servermanager.workshop;
+
+import cz.forgottenempire.servermanager.common.InstallationStatus;
+import cz.forgottenempire.servermanager.common.PathsFactory;
+import cz.forgottenempire.servermanager.common.ServerType;
+import cz.forgottenempire.servermanager.modpreset.ModPreset;
+import cz.forgottenempire.servermanager.modpreset.ModPresetsService;
+import cz.forgottenempire.servermanager.serverinstance.entities.Arma3Server;
+import cz.forgottenempire.servermanager.serverinstance.entities.DayZServer;
+import cz.forgottenempire.servermanager.serverinstance.entities.Server;
+import cz.forgottenempire.servermanager.steamcmd.ErrorStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@Import({WorkshopModsService.class, ModPresetsService.class, PathsFactory.class})
+class WorkshopModsServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private WorkshopModsService modsService;
+    @MockBean
+    private ModDtoCache modDtoCache;
+
+    private WorkshopMod firstMod;
+    private WorkshopMod secondMod;
+    private WorkshopMod keptMod;
+
+    @BeforeEach
+    void setUp() {
+        firstMod = persistMod(1L);
+        secondMod = persistMod(2L);
+        keptMod = persistMod(3L);
+    }
+
+    @Test
+    void deleteMods_whenModsAreUsed_thenTheyAreRemovedFromPresetsAndServers() {
+        ModPreset deletedPreset = entityManager.persist(
+                new ModPreset("Deleted", new ArrayList<>(List.of(firstMod, secondMod)), ServerType.ARMA3));
+        ModPreset keptPreset = entityManager.persist(
+                new ModPreset("Kept", new ArrayList<>(List.of(firstMod, keptMod)), ServerType.ARMA3));
+        Arma3Server arma3Server = persistServer(new Arma3Server(), ServerType.ARMA3);
+        arma3Server.setActiveMods(new ArrayList<>(List.of(firstMod, keptMod)));
+        DayZServer dayZServer = persistServer(new DayZServer(), ServerType.DAYZ);
+        dayZServer.setActiveMods(new ArrayList<>(List.of(secondMod)));
+        flushAndClear();
+
+        modsService.deleteMods(modsService.getModsWithBiKeys(List.of(1L, 2L)));
+        flushAndClear();
+
+        assertThat(entityManager.find(WorkshopMod.class, 1L)).isNull();
+        assertThat(entityManager.find(WorkshopMod.class, 2L)).isNull();
+        assertThat(entityManager.find(ModPreset.class, deletedPreset.getId())).isNull();
+        assertThat(entityManager.find(ModPreset.class, keptPreset.getId()).getMods())
+                .extracting(WorkshopMod::getId)
+                .containsExactly(3L);
+        assertThat(entityManager.find(Arma3Server.class, arma3Server.getId()).getActiveMods())
+                .extracting(WorkshopMod::getId)
+                .containsExactly(3L);
+        assertThat(entityManager.find(DayZServer.class, dayZServer.getId()).getActiveMods()).isEmpty();
+        verify(modDtoCache).evictDeletedMods(List.of(1L, 2L));
+    }
+
+    @Test
+    void setInstallationStatus_whenModsAreGiven_thenAllAreUpdatedAtOnce() {
+        flushAndClear();
+
+        modsService.setInstallationStatus(List.of(1L, 2L), InstallationStatus.ERROR, ErrorStatus.RATE_LIMIT);
+        flushAndClear();
+
+        assertThat(modsService.getMods(List.of(1L, 2L, 3L)))
+                .extracting(WorkshopMod::getId, WorkshopMod::getInstallationStatus, WorkshopMod::getErrorStatus)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, InstallationStatus.ERROR, ErrorStatus.RATE_LIMIT),
+                        tuple(2L, InstallationStatus.ERROR, ErrorStatus.RATE_LIMIT),
+                        tuple(3L, InstallationStatus.FINISHED, null));
+        verify(modDtoCache).evictSavedMods(List.of(1L, 2L));
+    }
+
+    private WorkshopMod persistMod(long id) {
+        WorkshopMod mod = new WorkshopMod(id);
+        mod.setName("Mod " + id);
+        mod.setServerType(ServerType.ARMA3);
+        mod.setInstallationStatus(InstallationStatus.FINISHED);
+        mod.addBiKey("mod" + id + ".bikey");
+        return entityManager.persist(mod);
+    }
+
+    private <T extends Server> T persistServer(T server, ServerType type) {
+        server.setType(type);
+        server.setName(type + " server");
+        server.setPort(type == ServerType.ARMA3 ? 2302 : 2402);
+        server.setQueryPort(server.getPort() + 1);
+        server.setMaxPlayers(64);
+        if (server instanceof DayZServer dayZServer) {
+            dayZServer.setTimeAcceleration(1);
+            dayZServer.setNightTimeAcceleration(1);
+        }
+        return entityManager.persist(server);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -10,6 +10,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
@@ -45,7 +47,8 @@ class ModMetadataServiceTest {
                             "publishedfiledetails": [
                               {
                                 "title": "Mod Name",
-                                "consumer_appid": "107410"
+                                "consumer_appid": "107410",
+                                "time_updated": 1700000000
                               }
                             ]
                           }
@@ -56,6 +59,7 @@ class ModMetadataServiceTest {
 
         assertThat(metadata.name()).isEqualTo("Mod Name");
         assertThat(metadata.consumerAppId()).isEqualTo("107410");
+        assertThat(metadata.timeUpdated()).isEqualTo(Instant.ofEpochSecond(1700000000));
     }
 
     @Test